@@ -16,13 +16,14 @@ package org.eclipse.osgi.technology.featurelauncher.common.decorator.impl;
 import static org.eclipse.osgi.technology.featurelauncher.common.decorator.impl.FeatureDecorationConstants.DEFAULT_DECORATED_TYPE;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
 import org.osgi.service.feature.Feature;
-import org.osgi.service.feature.FeatureBuilder;
 import org.osgi.service.feature.FeatureBundle;
 import org.osgi.service.feature.FeatureConfiguration;
 import org.osgi.service.feature.FeatureExtension;
@@ -80,7 +81,7 @@ public abstract class AbstractBaseFeatureDecorationBuilder<T extends BaseFeature
 	 */
 	@Override
 	public T setConfigurations(List<FeatureConfiguration> configs) {
-		Objects.requireNonNull(bundles, "Configurations cannot be null!");
+		Objects.requireNonNull(configs, "Configurations cannot be null!");
 
 		ensureNotBuiltYet();
 
@@ -134,78 +135,63 @@ public abstract class AbstractBaseFeatureDecorationBuilder<T extends BaseFeature
 		return castThis();
 	}
 
-	protected FeatureBuilder prebuild() {
+	/**
+	 * Build the decorated feature. Sections which were not replaced by the
+	 * decoration are shared with the original feature rather than copied.
+	 * 
+	 * @param addedExtensions extensions to add to, or replace in, those of the
+	 *                        original feature
+	 * @return the decorated feature
+	 */
+	protected Feature buildDecorated(List<FeatureExtension> addedExtensions) {
+		List<FeatureBundle> decoratedBundles = !bundles.isEmpty() ? bundles
+				: Objects.requireNonNullElse(originalFeature.getBundles(), List.of());
+
+		Map<String, FeatureConfiguration> decoratedConfigs;
+		if (!configs.isEmpty()) {
+			Map<String, FeatureConfiguration> byPid = new LinkedHashMap<>();
+			for (FeatureConfiguration config : configs) {
+				byPid.put(config.getPid(), config);
+			}
+			decoratedConfigs = Collections.unmodifiableMap(byPid);
+		} else {
+			decoratedConfigs = Objects.requireNonNullElse(originalFeature.getConfigurations(), Map.of());
+		}
+
+		Map<String, Object> decoratedVariables = !variables.isEmpty() ? Collections.unmodifiableMap(variables)
+				: Objects.requireNonNullElse(originalFeature.getVariables(), Map.of());
+
+		Map<String, FeatureExtension> decoratedExtensions = Objects
+				.requireNonNullElse(originalFeature.getExtensions(), Map.of());
+		if (!addedExtensions.isEmpty()) {
+			Map<String, FeatureExtension> merged = new LinkedHashMap<>(decoratedExtensions);
+			for (FeatureExtension extension : addedExtensions) {
+				merged.put(extension.getName(), extension);
+			}
+			decoratedExtensions = Collections.unmodifiableMap(merged);
+		}
+
+		return new DecoratedFeature(decoratedFeatureID(), originalFeature.getName(),
+				originalFeature.getDescription(), originalFeature.getDocURL(), originalFeature.getLicense(),
+				originalFeature.getSCM(), originalFeature.getVendor(), originalFeature.isComplete(), decoratedBundles,
+				Objects.requireNonNullElse(originalFeature.getCategories(), List.of()), decoratedConfigs,
+				decoratedExtensions, decoratedVariables);
+	}
+
+	private ID decoratedFeatureID() {
 		ID originalFeatureID = originalFeature.getID();
 
-		ID decoratedFeatureID;
 		if(classifier == null) {
-			decoratedFeatureID = originalFeatureID.getType()
+			return originalFeatureID.getType()
 					.map(t -> featureService.getID(originalFeatureID.getGroupId(), 
 							originalFeatureID.getArtifactId(), originalFeatureID.getVersion(), t))
 					.orElseGet(() -> featureService.getID(originalFeatureID.getGroupId(), 
 							originalFeatureID.getArtifactId(), originalFeatureID.getVersion()));
 		} else {
-			decoratedFeatureID = featureService.getID(originalFeatureID.getGroupId(), 
+			return featureService.getID(originalFeatureID.getGroupId(), 
 					originalFeatureID.getArtifactId(), originalFeatureID.getVersion(),
 					originalFeatureID.getType().orElse(DEFAULT_DECORATED_TYPE), classifier);
 		}
-
-		FeatureBuilder featureBuilder = featureService.getBuilderFactory().newFeatureBuilder(decoratedFeatureID);
-
-		if (!bundles.isEmpty()) {
-			featureBuilder.addBundles(bundles.toArray(FeatureBundle[]::new));
-		} else if (originalFeature.getBundles() != null) {
-			featureBuilder.addBundles(originalFeature.getBundles().toArray(FeatureBundle[]::new));
-		}
-
-		if (!configs.isEmpty()) {
-			featureBuilder.addConfigurations(configs.toArray(FeatureConfiguration[]::new));
-		} else if (originalFeature.getConfigurations() != null) {
-			featureBuilder.addConfigurations(
-					originalFeature.getConfigurations().values().toArray(FeatureConfiguration[]::new));
-		}
-
-		if (!variables.isEmpty()) {
-			featureBuilder.addVariables(variables);
-		} else if (originalFeature.getVariables() != null) {
-			featureBuilder.addVariables(originalFeature.getVariables());
-		}
-
-		featureBuilder.setComplete(originalFeature.isComplete());
-
-		if (originalFeature.getDescription().isPresent()) {
-			featureBuilder.setDescription(originalFeature.getDescription().get());
-		}
-
-		if (originalFeature.getDocURL().isPresent()) {
-			featureBuilder.setDocURL(originalFeature.getDocURL().get());
-		}
-
-		if (originalFeature.getName().isPresent()) {
-			featureBuilder.setName(originalFeature.getName().get());
-		}
-
-		if (originalFeature.getLicense().isPresent()) {
-			featureBuilder.setLicense(originalFeature.getLicense().get());
-		}
-
-		if (originalFeature.getSCM().isPresent()) {
-			featureBuilder.setSCM(originalFeature.getSCM().get());
-		}
-
-		if (originalFeature.getVendor().isPresent()) {
-			featureBuilder.setVendor(originalFeature.getVendor().get());
-		}
-
-		if (originalFeature.getCategories() != null && !originalFeature.getCategories().isEmpty()) {
-			featureBuilder.addCategories(originalFeature.getCategories().toArray(String[]::new));
-		}
-
-		if (originalFeature.getExtensions() != null & !originalFeature.getExtensions().isEmpty()) {
-			featureBuilder.addExtensions(originalFeature.getExtensions().values().toArray(FeatureExtension[]::new));
-		}
-
-		return featureBuilder;
 	}
 
 	@SuppressWarnings("unchecked")
@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2025 Kentyou and others.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.common.decorator.impl;
+
+import static org.eclipse.osgi.technology.featurelauncher.common.decorator.impl.FeatureDecorationConstants.BUNDLE_ACTIVATIONS_DEFAULT;
+import static org.eclipse.osgi.technology.featurelauncher.common.decorator.impl.FeatureDecorationConstants.BUNDLE_ACTIVATION_DEFERRED;
+import static org.eclipse.osgi.technology.featurelauncher.common.decorator.impl.FeatureDecorationConstants.BUNDLE_ACTIVATION_EAGER;
+import static org.eclipse.osgi.technology.featurelauncher.common.decorator.impl.FeatureDecorationConstants.BUNDLE_ACTIVATION_LAZY;
+import static org.eclipse.osgi.technology.featurelauncher.common.decorator.impl.FeatureDecorationConstants.BUNDLE_ACTIVATION_METADATA;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.osgi.service.feature.Feature;
+import org.osgi.service.feature.FeatureExtension;
+import org.osgi.service.featurelauncher.decorator.AbandonOperationException;
+import org.osgi.service.featurelauncher.decorator.DecoratorBuilderFactory;
+import org.osgi.service.featurelauncher.decorator.FeatureExtensionHandler;
+import org.osgi.service.featurelauncher.repository.ArtifactRepository;
+
+/**
+ * Handles the
+ * {@link FeatureDecorationConstants#BUNDLE_ACTIVATIONS} extension, which sets
+ * how the bundles of a feature are activated unless their metadata says
+ * otherwise
+ */
+public class BundleActivationsFeatureExtensionHandlerImpl implements FeatureExtensionHandler {
+
+	private static final Set<String> ACTIVATIONS = Set.of(BUNDLE_ACTIVATION_EAGER, BUNDLE_ACTIVATION_LAZY,
+			BUNDLE_ACTIVATION_DEFERRED);
+
+	private String defaultActivation = BUNDLE_ACTIVATION_EAGER;
+
+	/* 
+	 * (non-Javadoc)
+	 * @see org.osgi.service.featurelauncher.decorator.FeatureExtensionHandler#handle(org.osgi.service.feature.Feature, org.osgi.service.feature.FeatureExtension, java.util.List, org.osgi.service.featurelauncher.decorator.FeatureExtensionHandler.FeatureExtensionHandlerBuilder, org.osgi.service.featurelauncher.decorator.DecoratorBuilderFactory)
+	 */
+	@Override
+	public Feature handle(Feature feature, FeatureExtension extension, List<ArtifactRepository> repositories,
+			FeatureExtensionHandlerBuilder decoratedFeatureBuilder, DecoratorBuilderFactory factory)
+			throws AbandonOperationException {
+
+		Map<String, Object> properties = DecorationContext.readFeatureExtensionJSON(extension.getJSON());
+
+		if (properties.containsKey(BUNDLE_ACTIVATIONS_DEFAULT)) {
+			String activation = String.valueOf(properties.get(BUNDLE_ACTIVATIONS_DEFAULT));
+
+			if (!ACTIVATIONS.contains(activation)) {
+				throw new AbandonOperationException(String.format(
+						"Default bundle activation must be one of %s, not %s", ACTIVATIONS, activation));
+			}
+			defaultActivation = activation;
+		}
+
+		return feature;
+	}
+
+	public String getDefaultActivation() {
+		return defaultActivation;
+	}
+
+	/**
+	 * @param metadata the metadata of a feature bundle
+	 * @return how the bundle is to be activated
+	 * @throws IllegalArgumentException if the metadata selects an unknown
+	 *                                  activation
+	 */
+	public String getActivation(Map<String, Object> metadata) {
+		Object activation = (metadata != null) ? metadata.get(BUNDLE_ACTIVATION_METADATA) : null;
+		if (activation == null) {
+			return defaultActivation;
+		}
+
+		if (!ACTIVATIONS.contains(activation.toString())) {
+			throw new IllegalArgumentException(String.format("Bundle activation must be one of %s, not %s",
+					ACTIVATIONS, activation));
+		}
+		return activation.toString();
+	}
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2025 Kentyou and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.common.decorator.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.osgi.service.feature.Feature;
+import org.osgi.service.feature.FeatureBundle;
+import org.osgi.service.feature.FeatureConfiguration;
+import org.osgi.service.feature.FeatureExtension;
+import org.osgi.service.feature.ID;
+
+/**
+ * A feature produced by a decorator or extension handler.
+ *
+ * Features are immutable, so the sections which the decoration did not replace
+ * are shared with the feature being decorated rather than copied, and a chain
+ * of decorations only pays for the sections it changes. All the collections
+ * passed in must therefore be unmodifiable.
+ */
+record DecoratedFeature(ID id, Optional<String> name, Optional<String> description, Optional<String> docURL,
+		Optional<String> license, Optional<String> scm, Optional<String> vendor, boolean complete,
+		List<FeatureBundle> bundles, List<String> categories, Map<String, FeatureConfiguration> configurations,
+		Map<String, FeatureExtension> extensions, Map<String, Object> variables) implements Feature {
+
+	@Override
+	public ID getID() {
+		return id;
+	}
+
+	@Override
+	public Optional<String> getName() {
+		return name;
+	}
+
+	@Override
+	public Optional<String> getDescription() {
+		return description;
+	}
+
+	@Override
+	public Optional<String> getVendor() {
+		return vendor;
+	}
+
+	@Override
+	public Optional<String> getLicense() {
+		return license;
+	}
+
+	@Override
+	public Optional<String> getDocURL() {
+		return docURL;
+	}
+
+	@Override
+	public Optional<String> getSCM() {
+		return scm;
+	}
+
+	@Override
+	public boolean isComplete() {
+		return complete;
+	}
+
+	@Override
+	public List<FeatureBundle> getBundles() {
+		return bundles;
+	}
+
+	@Override
+	public List<String> getCategories() {
+		return categories;
+	}
+
+	@Override
+	public Map<String, FeatureConfiguration> getConfigurations() {
+		return configurations;
+	}
+
+	@Override
+	public Map<String, FeatureExtension> getExtensions() {
+		return extensions;
+	}
+
+	@Override
+	public Map<String, Object> getVariables() {
+		return variables;
+	}
+}
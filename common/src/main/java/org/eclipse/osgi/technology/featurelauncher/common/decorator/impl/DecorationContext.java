@@ -13,15 +13,20 @@
  */
 package org.eclipse.osgi.technology.featurelauncher.common.decorator.impl;
 
+import static org.eclipse.osgi.technology.featurelauncher.common.decorator.impl.FeatureDecorationConstants.BUNDLE_ACTIVATIONS;
 import static org.osgi.service.featurelauncher.FeatureLauncherConstants.BUNDLE_START_LEVELS;
 import static org.osgi.service.featurelauncher.FeatureLauncherConstants.FRAMEWORK_LAUNCHING_PROPERTIES;
 import static org.osgi.service.featurelauncher.FeatureLauncherConstants.LAUNCH_FRAMEWORK;
 
 import java.io.StringReader;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.eclipse.osgi.technology.featurelauncher.common.jfr.impl.ExtensionHandleEvent;
+import org.eclipse.osgi.technology.featurelauncher.common.jfr.impl.FeatureDecorateEvent;
+import org.eclipse.osgi.technology.featurelauncher.common.jfr.impl.FlightRecorderSupport;
 import org.osgi.service.feature.Feature;
 import org.osgi.service.feature.FeatureExtension;
 import org.osgi.service.feature.FeatureService;
@@ -52,7 +57,11 @@ public class DecorationContext<T extends FeatureExtensionHandler> {
 	private final T launchHandler;
 	private final FrameworkLaunchingPropertiesFeatureExtensionHandlerImpl frameworkHandler = new FrameworkLaunchingPropertiesFeatureExtensionHandlerImpl();
 	private final BundleStartLevelsFeatureExtensionHandlerImpl startLevelHandler = new BundleStartLevelsFeatureExtensionHandlerImpl();
+	private final BundleActivationsFeatureExtensionHandlerImpl activationHandler = new BundleActivationsFeatureExtensionHandlerImpl();
 	private final Map<String, FeatureExtensionHandler> handlers;
+
+	// Time spent running decorators and extension handlers
+	private long decorationNanos;
 	
 	public DecorationContext(T launchHandler) {
 		this.launchHandler = launchHandler;
@@ -60,7 +69,8 @@ public class DecorationContext<T extends FeatureExtensionHandler> {
 		handlers = Map.ofEntries(
 				Map.entry(LAUNCH_FRAMEWORK, launchHandler),
 				Map.entry(FRAMEWORK_LAUNCHING_PROPERTIES, frameworkHandler),
-				Map.entry(BUNDLE_START_LEVELS, startLevelHandler));
+				Map.entry(BUNDLE_START_LEVELS, startLevelHandler),
+				Map.entry(BUNDLE_ACTIVATIONS, activationHandler));
 		// @formatter:on
 	}
 	
@@ -76,18 +86,47 @@ public class DecorationContext<T extends FeatureExtensionHandler> {
 		return startLevelHandler;
 	}
 
+	public BundleActivationsFeatureExtensionHandlerImpl getActivationHandler() {
+		return activationHandler;
+	}
+
+	/**
+	 * @return the total time spent decorating features with this context
+	 */
+	public Duration getDecorationTime() {
+		return Duration.ofNanos(decorationNanos);
+	}
+
 	public Feature executeFeatureDecorators(FeatureService featureService, Feature feature,
 			MutableRepositoryList repositories,
 			List<FeatureDecorator> decorators) throws AbandonOperationException {
 
+		long start = System.nanoTime();
+
 		Feature updatedFeature = feature;
 
-		for (FeatureDecorator decorator : decorators) {
-			Feature loopFeature = updatedFeature;
-			FeatureDecoratorBuilderImpl decoratedFeatureBuilder = new FeatureDecoratorBuilderImpl(featureService, feature);
-			updatedFeature = decorator.decorate(feature, repositories, decoratedFeatureBuilder,
-					new DecoratorBuilderFactoryImpl(featureService));
-			enforceValidFeature(loopFeature, updatedFeature, decoratedFeatureBuilder.getBuilt());
+		try {
+			for (FeatureDecorator decorator : decorators) {
+				Feature loopFeature = updatedFeature;
+				FeatureDecoratorBuilderImpl decoratedFeatureBuilder = new FeatureDecoratorBuilderImpl(featureService, feature);
+
+				FeatureDecorateEvent event = FlightRecorderSupport.isAvailable() ? new FeatureDecorateEvent() : null;
+				if (event != null) {
+					event.begin();
+				}
+				updatedFeature = decorator.decorate(feature, repositories, decoratedFeatureBuilder,
+						new DecoratorBuilderFactoryImpl(featureService));
+				if (event != null && event.shouldCommit()) {
+					event.feature = String.valueOf(feature.getID());
+					event.decorator = decorator.getClass().getName();
+					event.modified = updatedFeature != loopFeature;
+					event.commit();
+				}
+
+				enforceValidFeature(loopFeature, updatedFeature, decoratedFeatureBuilder.getBuilt());
+			}
+		} finally {
+			decorationNanos += System.nanoTime() - start;
 		}
 
 		return updatedFeature;
@@ -96,6 +135,17 @@ public class DecorationContext<T extends FeatureExtensionHandler> {
 	public Feature executeFeatureExtensionHandlers(FeatureService featureService, final Feature feature,
 			MutableRepositoryList repositories,
 			Map<String, FeatureExtensionHandler> extensionHandlers) throws AbandonOperationException {
+		long start = System.nanoTime();
+		try {
+			return handleFeatureExtensions(featureService, feature, repositories, extensionHandlers);
+		} finally {
+			decorationNanos += System.nanoTime() - start;
+		}
+	}
+
+	private Feature handleFeatureExtensions(FeatureService featureService, final Feature feature,
+			MutableRepositoryList repositories, Map<String, FeatureExtensionHandler> extensionHandlers)
+			throws AbandonOperationException {
 		Map<String, FeatureExtensionHandler> toUse = new HashMap<String, FeatureExtensionHandler>(extensionHandlers);
 		
 		handlers.entrySet().forEach(e -> {
@@ -117,8 +167,20 @@ public class DecorationContext<T extends FeatureExtensionHandler> {
 
 			if (handlerForExtension != null) {
 				FeatureExtensionHandlerBuilderImpl decoratedFeatureBuilder = new FeatureExtensionHandlerBuilderImpl(featureService, feature);
+
+				ExtensionHandleEvent event = FlightRecorderSupport.isAvailable() ? new ExtensionHandleEvent() : null;
+				if (event != null) {
+					event.begin();
+				}
 				updatedFeature = handlerForExtension.handle(feature, featureExtension, repositories,
 						decoratedFeatureBuilder, new DecoratorBuilderFactoryImpl(featureService));
+				if (event != null && event.shouldCommit()) {
+					event.feature = String.valueOf(feature.getID());
+					event.extension = extensionName;
+					event.handler = handlerForExtension.getClass().getName();
+					event.modified = updatedFeature != loopFeature;
+					event.commit();
+				}
 
 				enforceValidFeature(loopFeature, updatedFeature, decoratedFeatureBuilder.getBuilt());
 			} else if (isExtensionMandatory(featureExtension)) {
@@ -25,4 +25,36 @@ public interface FeatureDecorationConstants {
 	String BUNDLE_START_LEVELS_DEFAULT = "defaultStartLevel";
 
 	String BUNDLE_START_LEVELS_MINIMUM = "minimumStartLevel";
+
+	/**
+	 * Bundle metadata selecting how the bundle is activated, one of
+	 * {@link #BUNDLE_ACTIVATION_EAGER}, {@link #BUNDLE_ACTIVATION_LAZY} or
+	 * {@link #BUNDLE_ACTIVATION_DEFERRED}
+	 */
+	String BUNDLE_ACTIVATION_METADATA = "org.eclipse.osgi.technology.featurelauncher.bundle.activation";
+
+	/**
+	 * Feature extension setting the activation of bundles without
+	 * {@link #BUNDLE_ACTIVATION_METADATA}
+	 */
+	String BUNDLE_ACTIVATIONS = "org.eclipse.osgi.technology.featurelauncher.bundle.activations";
+
+	String BUNDLE_ACTIVATIONS_DEFAULT = "defaultActivation";
+
+	/**
+	 * The bundle is started when it is installed, the default
+	 */
+	String BUNDLE_ACTIVATION_EAGER = "eager";
+
+	/**
+	 * The bundle is started according to its declared activation policy, so a
+	 * bundle with a lazy policy is only activated on its first class load
+	 */
+	String BUNDLE_ACTIVATION_LAZY = "lazy";
+
+	/**
+	 * The bundle is only started once the other bundles of the feature have been
+	 * started
+	 */
+	String BUNDLE_ACTIVATION_DEFERRED = "deferred";
 }
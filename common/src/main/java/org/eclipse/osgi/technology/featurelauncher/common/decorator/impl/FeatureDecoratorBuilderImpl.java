@@ -18,7 +18,6 @@ import java.util.List;
 import java.util.Objects;
 
 import org.osgi.service.feature.Feature;
-import org.osgi.service.feature.FeatureBuilder;
 import org.osgi.service.feature.FeatureExtension;
 import org.osgi.service.feature.FeatureService;
 import org.osgi.service.featurelauncher.decorator.FeatureDecorator.FeatureDecoratorBuilder;
@@ -65,14 +64,8 @@ public class FeatureDecoratorBuilderImpl extends AbstractBaseFeatureDecorationBu
 
 		this.isBuilt = true;
 
-		FeatureBuilder featureBuilder = prebuild();
+		built = buildDecorated(extensions);
 
-		if (!extensions.isEmpty()) {
-			featureBuilder.addExtensions(extensions.toArray(FeatureExtension[]::new));
-		}
-
-		built = featureBuilder.build();
-		
 		return built;
 	}
 
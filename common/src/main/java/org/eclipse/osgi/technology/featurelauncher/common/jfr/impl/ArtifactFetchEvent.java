@@ -0,0 +1,46 @@
+/**
+ * Copyright (c) 2025 Kentyou and others.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.common.jfr.impl;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * An artifact looked up in the artifact repositories
+ */
+@Name("org.eclipse.osgi.technology.featurelauncher.ArtifactFetch")
+@Label("Artifact Fetch")
+@Description("An artifact looked up in the artifact repositories")
+@Category({ "Feature Launcher", "Repository" })
+public class ArtifactFetchEvent extends Event {
+
+	@Label("Artifact")
+	public String artifact;
+
+	@Label("Repository")
+	@Description("The repository the artifact was found in")
+	public String repository;
+
+	@Label("Found")
+	public boolean found;
+
+	@Label("Size")
+	@Description("The size of the artifact, if known before it is streamed")
+	@DataAmount
+	public long size;
+}
@@ -0,0 +1,42 @@
+/**
+ * Copyright (c) 2025 Kentyou and others.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.common.jfr.impl;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A bundle of a feature installed in the framework
+ */
+@Name("org.eclipse.osgi.technology.featurelauncher.BundleInstall")
+@Label("Bundle Install")
+@Description("A bundle of a feature installed in the framework")
+@Category({ "Feature Launcher", "Bundles" })
+public class BundleInstallEvent extends Event {
+
+	@Label("Artifact")
+	public String artifact;
+
+	@Label("Location")
+	public String location;
+
+	@Label("Symbolic Name")
+	public String symbolicName;
+
+	@Label("Bundle Id")
+	public long bundleId;
+}
@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) 2025 Kentyou and others.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.common.jfr.impl;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A bundle of a feature started
+ */
+@Name("org.eclipse.osgi.technology.featurelauncher.BundleStart")
+@Label("Bundle Start")
+@Description("A bundle of a feature started")
+@Category({ "Feature Launcher", "Bundles" })
+public class BundleStartEvent extends Event {
+
+	@Label("Symbolic Name")
+	public String symbolicName;
+
+	@Label("Bundle Id")
+	public long bundleId;
+
+	@Label("Started")
+	@Description("Whether the bundle started without error")
+	public boolean started;
+}
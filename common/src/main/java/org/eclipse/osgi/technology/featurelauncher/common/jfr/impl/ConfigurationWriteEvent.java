@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) 2025 Kentyou and others.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.common.jfr.impl;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A configuration of a feature written to Configuration Admin
+ */
+@Name("org.eclipse.osgi.technology.featurelauncher.ConfigurationWrite")
+@Label("Configuration Write")
+@Description("A configuration of a feature written to Configuration Admin")
+@Category({ "Feature Launcher", "Configuration" })
+public class ConfigurationWriteEvent extends Event {
+
+	@Label("PID")
+	public String pid;
+
+	@Label("Factory PID")
+	public String factoryPid;
+
+	@Label("Updated")
+	@Description("Whether the properties differed from those already stored")
+	public boolean updated;
+}
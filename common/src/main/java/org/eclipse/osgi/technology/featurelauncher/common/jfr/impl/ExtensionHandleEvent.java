@@ -0,0 +1,43 @@
+/**
+ * Copyright (c) 2025 Kentyou and others.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.common.jfr.impl;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A feature extension handler applied to a feature
+ */
+@Name("org.eclipse.osgi.technology.featurelauncher.ExtensionHandle")
+@Label("Extension Handle")
+@Description("A feature extension handler applied to a feature")
+@Category({ "Feature Launcher", "Decoration" })
+public class ExtensionHandleEvent extends Event {
+
+	@Label("Feature")
+	public String feature;
+
+	@Label("Extension")
+	public String extension;
+
+	@Label("Handler")
+	public String handler;
+
+	@Label("Modified")
+	@Description("Whether the handler returned a new feature")
+	public boolean modified;
+}
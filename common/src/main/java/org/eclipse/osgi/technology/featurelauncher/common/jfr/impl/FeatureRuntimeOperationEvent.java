@@ -0,0 +1,43 @@
+/**
+ * Copyright (c) 2025 Kentyou and others.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.common.jfr.impl;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A feature installed, updated or removed by the Feature Runtime
+ */
+@Name("org.eclipse.osgi.technology.featurelauncher.FeatureRuntimeOperation")
+@Label("Feature Runtime Operation")
+@Description("A feature installed, updated or removed by the Feature Runtime")
+@Category({ "Feature Launcher", "Runtime" })
+public class FeatureRuntimeOperationEvent extends Event {
+
+	public static final String INSTALL = "install";
+	public static final String UPDATE = "update";
+	public static final String REMOVE = "remove";
+
+	@Label("Operation")
+	public String operation;
+
+	@Label("Feature")
+	public String feature;
+
+	@Label("Succeeded")
+	public boolean succeeded;
+}
@@ -0,0 +1,45 @@
+/**
+ * Copyright (c) 2025 Kentyou and others.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.common.jfr.impl;
+
+/**
+ * Whether the events in this package can be used. The <code>jdk.jfr</code>
+ * module may be missing from the runtime, and in a framework the package is
+ * only imported optionally, so callers must check {@link #isAvailable()}
+ * before creating an event.
+ */
+public final class FlightRecorderSupport {
+
+	private static final boolean AVAILABLE = isEventClassAvailable();
+
+	private FlightRecorderSupport() {
+		// hidden constructor
+	}
+
+	/**
+	 * @return <code>true</code> if the Flight Recorder API can be loaded
+	 */
+	public static boolean isAvailable() {
+		return AVAILABLE;
+	}
+
+	private static boolean isEventClassAvailable() {
+		try {
+			Class.forName("jdk.jfr.Event", false, FlightRecorderSupport.class.getClassLoader());
+			return true;
+		} catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,48 @@
+/**
+ * Copyright (c) 2025 Kentyou and others.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.common.jfr.impl;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A feature launched successfully
+ */
+@Name("org.eclipse.osgi.technology.featurelauncher.Launch")
+@Label("Launch")
+@Description("A feature launched successfully")
+@Category({ "Feature Launcher", "Launch" })
+@StackTrace(false)
+public class LaunchEvent extends Event {
+
+	@Label("Feature")
+	public String featureId;
+
+	@Label("Total Time")
+	@Timespan(Timespan.NANOSECONDS)
+	public long totalTime;
+
+	@Label("Bundles Installed")
+	public int bundlesInstalled;
+
+	@Label("Bytes Read")
+	@DataAmount
+	public long bytesRead;
+}
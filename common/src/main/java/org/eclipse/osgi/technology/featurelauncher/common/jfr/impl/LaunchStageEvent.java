@@ -0,0 +1,45 @@
+/**
+ * Copyright (c) 2025 Kentyou and others.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.common.jfr.impl;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A completed stage of a launch, committed as the stage ends. As some stages
+ * are timed from several parts, or run concurrently with others, the stage
+ * time is carried as a field rather than as the event duration.
+ */
+@Name("org.eclipse.osgi.technology.featurelauncher.LaunchStage")
+@Label("Launch Stage")
+@Description("A completed stage of launching a feature")
+@Category({ "Feature Launcher", "Launch" })
+@StackTrace(false)
+public class LaunchStageEvent extends Event {
+
+	@Label("Feature")
+	public String featureId;
+
+	@Label("Stage")
+	public String stage;
+
+	@Label("Stage Time")
+	@Timespan(Timespan.NANOSECONDS)
+	public long stageTime;
+}
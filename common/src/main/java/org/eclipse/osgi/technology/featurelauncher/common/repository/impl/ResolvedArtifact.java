@@ -0,0 +1,344 @@
+/**
+ * Copyright (c) 2025 Kentyou and others.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.common.repository.impl;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.osgi.technology.featurelauncher.common.jfr.impl.ArtifactFetchEvent;
+import org.eclipse.osgi.technology.featurelauncher.common.jfr.impl.FlightRecorderSupport;
+import org.eclipse.osgi.technology.featurelauncher.repository.common.osgi.ArtifactRepositoryAdapter;
+import org.eclipse.osgi.technology.featurelauncher.repository.spi.FileSystemRepository;
+import org.osgi.service.feature.ID;
+import org.osgi.service.featurelauncher.repository.ArtifactRepository;
+
+/**
+ * The result of looking up an artifact in a list of repositories, carrying
+ * where it was found rather than just an {@link InputStream} whose presence
+ * has to be guessed at.
+ *
+ * If the artifact is backed by a file then its path and size are known
+ * up-front, and its digest is computed from the file on demand. Otherwise the
+ * content can be streamed exactly once, and the digest becomes available once
+ * the stream has been read to the end.
+ */
+public final class ResolvedArtifact implements Closeable {
+
+	private static final String DIGEST_ALGORITHM = "SHA-256";
+
+	private static final String REFERENCE_PROTOCOL = "reference:";
+
+	private final ID id;
+	private final ArtifactRepository repository;
+	private final Path path;
+	private final long size;
+
+	private final AtomicLong bytesRead = new AtomicLong();
+
+	private InputStream stream;
+	private String digest;
+
+	private ResolvedArtifact(ID id, ArtifactRepository repository, Path path, long size, InputStream stream) {
+		this.id = id;
+		this.repository = repository;
+		this.path = path;
+		this.size = size;
+		this.stream = stream;
+	}
+
+	/**
+	 * Look up an artifact, in order, in the supplied repositories
+	 *
+	 * @param id           the artifact
+	 * @param repositories the repositories to search
+	 * @return the resolved artifact, or empty if no repository contains it
+	 */
+	public static Optional<ResolvedArtifact> resolve(ID id, List<? extends ArtifactRepository> repositories) {
+		Objects.requireNonNull(id, "Artifact ID cannot be null!");
+
+		if (!FlightRecorderSupport.isAvailable()) {
+			return lookup(id, repositories);
+		}
+
+		ArtifactFetchEvent event = new ArtifactFetchEvent();
+		event.begin();
+
+		Optional<ResolvedArtifact> resolved = lookup(id, repositories);
+
+		event.end();
+		if (event.shouldCommit()) {
+			event.artifact = id.toString();
+			event.found = resolved.isPresent();
+			event.repository = resolved.map(ResolvedArtifact::getRepositoryName).orElse(null);
+			event.size = resolved.map(ResolvedArtifact::getSize).orElse(-1L).longValue();
+			event.commit();
+		}
+
+		return resolved;
+	}
+
+	private static Optional<ResolvedArtifact> lookup(ID id, List<? extends ArtifactRepository> repositories) {
+		for (ArtifactRepository artifactRepository : repositories) {
+			if (artifactRepository instanceof ArtifactRepositoryAdapter ara
+					&& ara.unwrap() instanceof FileSystemRepository fsr) {
+				Path artifactPath = fsr.getArtifactPath(id);
+				if (artifactPath != null && Files.isRegularFile(artifactPath)) {
+					try {
+						return Optional.of(new ResolvedArtifact(id, artifactRepository, artifactPath,
+								Files.size(artifactPath), null));
+					} catch (IOException e) {
+						throw new UncheckedIOException(
+								String.format("Could not read artifact %s at %s", id, artifactPath), e);
+					}
+				}
+			} else {
+				InputStream artifactStream = artifactRepository.getArtifact(id);
+				if (artifactStream != null) {
+					return Optional.of(new ResolvedArtifact(id, artifactRepository, null, -1, artifactStream));
+				}
+			}
+		}
+
+		return Optional.empty();
+	}
+
+	public ID getId() {
+		return id;
+	}
+
+	/**
+	 * @return the repository the artifact was found in
+	 */
+	public ArtifactRepository getRepository() {
+		return repository;
+	}
+
+	/**
+	 * @return the configured name of the repository the artifact was found in,
+	 *         falling back to its string form
+	 */
+	public String getRepositoryName() {
+		if (repository instanceof ArtifactRepositoryAdapter ara) {
+			return ara.unwrap().getName();
+		}
+		return String.valueOf(repository);
+	}
+
+	/**
+	 * @return the path of the artifact, if it is stored in a file system
+	 *         repository
+	 */
+	public Optional<Path> getPath() {
+		return Optional.ofNullable(path);
+	}
+
+	/**
+	 * A bundle location which the framework can install the artifact from in
+	 * place, without copying it into its storage area. The artifact file must
+	 * therefore remain unchanged for as long as the bundle is installed.
+	 *
+	 * @return a <code>reference:file:</code> location for the artifact, if it is
+	 *         stored in a file system repository
+	 */
+	public Optional<String> getReferenceLocation() {
+		return getPath().map(p -> REFERENCE_PROTOCOL + p.toUri());
+	}
+
+	/**
+	 * @return the size of the artifact in bytes, or -1 if not known before it has
+	 *         been streamed
+	 */
+	public long getSize() {
+		return size;
+	}
+
+	/**
+	 * @return the number of bytes read so far from the streams returned by
+	 *         {@link #openStream()}
+	 */
+	public long getBytesRead() {
+		return bytesRead.get();
+	}
+
+	/**
+	 * @return the hex encoded SHA-256 digest of the whole artifact, or empty if it
+	 *         is not backed by a file and has not yet been read to the end
+	 */
+	public synchronized Optional<String> getDigest() {
+		if (digest == null && path != null) {
+			try (InputStream is = openDigestingStream(Files.newInputStream(path, READ))) {
+				is.transferTo(OutputStream.nullOutputStream());
+			} catch (IOException e) {
+				throw new UncheckedIOException(String.format("Could not read artifact %s at %s", id, path), e);
+			}
+		}
+		return Optional.ofNullable(digest);
+	}
+
+	/**
+	 * Open the content of the artifact. An artifact which is not backed by a file
+	 * may only be opened once.
+	 *
+	 * @return the artifact content
+	 * @throws IOException
+	 */
+	public synchronized InputStream openStream() throws IOException {
+		if (path != null) {
+			return openCountingStream(Files.newInputStream(path, READ));
+		}
+		if (stream == null) {
+			throw new IllegalStateException(String.format("The artifact %s has already been read", id));
+		}
+		InputStream is = openCountingStream(openDigestingStream(stream));
+		stream = null;
+		return is;
+	}
+
+	private InputStream openCountingStream(InputStream is) {
+		return new FilterInputStream(is) {
+			@Override
+			public int read() throws IOException {
+				int b = super.read();
+				if (b != -1) {
+					bytesRead.incrementAndGet();
+				}
+				return b;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				int read = super.read(b, off, len);
+				if (read > 0) {
+					bytesRead.addAndGet(read);
+				}
+				return read;
+			}
+		};
+	}
+
+	/**
+	 * Digests every byte read, completing the digest of the artifact when the end
+	 * of the stream is reached. Skipped bytes are read so that they are digested
+	 * too.
+	 */
+	private InputStream openDigestingStream(InputStream is) {
+		MessageDigest messageDigest;
+		try {
+			messageDigest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			// Every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+
+		return new FilterInputStream(is) {
+			private boolean complete;
+
+			@Override
+			public int read() throws IOException {
+				int b = super.read();
+				if (b == -1) {
+					complete();
+				} else {
+					messageDigest.update((byte) b);
+				}
+				return b;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				int read = super.read(b, off, len);
+				if (read == -1) {
+					complete();
+				} else {
+					messageDigest.update(b, off, read);
+				}
+				return read;
+			}
+
+			@Override
+			public long skip(long n) throws IOException {
+				byte[] buffer = new byte[8192];
+				long skipped = 0;
+				while (skipped < n) {
+					int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+					if (read == -1) {
+						break;
+					}
+					skipped += read;
+				}
+				return skipped;
+			}
+
+			@Override
+			public boolean markSupported() {
+				return false;
+			}
+
+			@Override
+			public synchronized void mark(int readlimit) {
+			}
+
+			@Override
+			public synchronized void reset() throws IOException {
+				throw new IOException("mark/reset not supported");
+			}
+
+			private void complete() {
+				if (!complete) {
+					complete = true;
+					setDigest(HexFormat.of().formatHex(messageDigest.digest()));
+				}
+			}
+		};
+	}
+
+	private synchronized void setDigest(String digest) {
+		this.digest = digest;
+	}
+
+	/**
+	 * Release the content of an artifact which is not backed by a file and which
+	 * will not be read
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (stream != null) {
+			try {
+				stream.close();
+			} finally {
+				stream = null;
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s from %s%s", id, repository, (path != null) ? " at " + path : "");
+	}
+}
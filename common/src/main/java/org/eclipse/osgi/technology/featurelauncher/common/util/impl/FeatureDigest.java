@@ -0,0 +1,307 @@
+/**
+ * Copyright (c) 2025 Kentyou and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.common.util.impl;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.osgi.service.feature.Feature;
+import org.osgi.service.feature.FeatureArtifact;
+import org.osgi.service.feature.FeatureBundle;
+import org.osgi.service.feature.FeatureConfiguration;
+import org.osgi.service.feature.FeatureExtension;
+import org.osgi.service.feature.ID;
+
+/**
+ * A canonical digest of the content of a {@link Feature}, so that two features
+ * can be compared, and the sections which differ between them found, by
+ * comparing hashes rather than object graphs.
+ *
+ * The digest does not depend on the iteration order of any map in the feature,
+ * such as bundle metadata, configurations or extensions, nor on the order of its
+ * categories. The order of its bundles is significant, as it determines the
+ * order in which they are installed and started. The JSON of an extension is
+ * digested as text.
+ *
+ * Features are immutable, so callers comparing the same feature repeatedly
+ * should keep its digest rather than computing it again.
+ */
+public final class FeatureDigest {
+
+	/**
+	 * The independently digested sections of a feature
+	 */
+	public enum Section {
+		/**
+		 * The ID, descriptive fields, completeness and categories
+		 */
+		METADATA,
+		VARIABLES,
+		BUNDLES,
+		CONFIGURATIONS,
+		EXTENSIONS
+	}
+
+	private static final String ALGORITHM = "SHA-256";
+
+	private final String digest;
+	private final Map<Section, String> sectionDigests;
+	private final Map<ID, String> bundleDigests;
+	private final Map<String, String> configurationDigests;
+	private final Map<String, String> extensionDigests;
+
+	private FeatureDigest(Feature feature) {
+		// the bundle list is digested rather than the map, which would lose duplicates
+		Hasher bundles = new Hasher();
+		bundleDigests = new LinkedHashMap<>();
+		for (FeatureBundle bundle : feature.getBundles()) {
+			String bundleDigest = digestBundle(bundle);
+			bundleDigests.put(bundle.getID(), bundleDigest);
+			bundles.string(bundleDigest);
+		}
+
+		configurationDigests = new TreeMap<>();
+		for (FeatureConfiguration configuration : feature.getConfigurations().values()) {
+			configurationDigests.put(configuration.getPid(), digestConfiguration(configuration));
+		}
+
+		extensionDigests = new TreeMap<>();
+		for (FeatureExtension extension : feature.getExtensions().values()) {
+			extensionDigests.put(extension.getName(), digestExtension(extension));
+		}
+
+		sectionDigests = new EnumMap<>(Section.class);
+		sectionDigests.put(Section.METADATA, digestMetadata(feature));
+		sectionDigests.put(Section.VARIABLES, new Hasher().value(feature.getVariables()).hex());
+		sectionDigests.put(Section.BUNDLES, bundles.hex());
+
+		Hasher configurations = new Hasher();
+		configurationDigests.values().forEach(configurations::string);
+		sectionDigests.put(Section.CONFIGURATIONS, configurations.hex());
+
+		Hasher extensions = new Hasher();
+		extensionDigests.values().forEach(extensions::string);
+		sectionDigests.put(Section.EXTENSIONS, extensions.hex());
+
+		Hasher all = new Hasher();
+		sectionDigests.forEach((section, sectionDigest) -> all.string(section.name()).string(sectionDigest));
+		digest = all.hex();
+	}
+
+	/**
+	 * Compute the digest of a feature
+	 *
+	 * @param feature the feature
+	 * @return the digest
+	 */
+	public static FeatureDigest of(Feature feature) {
+		return new FeatureDigest(feature);
+	}
+
+	/**
+	 * @return the hex encoded digest of the whole feature
+	 */
+	public String getDigest() {
+		return digest;
+	}
+
+	/**
+	 * @param section a section of the feature
+	 * @return the hex encoded digest of the section
+	 */
+	public String getSectionDigest(Section section) {
+		return sectionDigests.get(section);
+	}
+
+	/**
+	 * @return the digest of each bundle, with its metadata, in feature order
+	 */
+	public Map<ID, String> getBundleDigests() {
+		return Collections.unmodifiableMap(bundleDigests);
+	}
+
+	/**
+	 * @return the digest of each configuration, by PID
+	 */
+	public Map<String, String> getConfigurationDigests() {
+		return Collections.unmodifiableMap(configurationDigests);
+	}
+
+	/**
+	 * @return the digest of each extension, by name
+	 */
+	public Map<String, String> getExtensionDigests() {
+		return Collections.unmodifiableMap(extensionDigests);
+	}
+
+	/**
+	 * @param other the digest of another feature
+	 * @return the sections whose content differs between the two features
+	 */
+	public Set<Section> getChangedSections(FeatureDigest other) {
+		Set<Section> changed = EnumSet.noneOf(Section.class);
+		for (Section section : Section.values()) {
+			if (!sectionDigests.get(section).equals(other.sectionDigests.get(section))) {
+				changed.add(section);
+			}
+		}
+		return changed;
+	}
+
+	private static String digestMetadata(Feature feature) {
+		return new Hasher().value(feature.getID().toString())
+				.value(feature.getName().orElse(null))
+				.value(feature.getDescription().orElse(null))
+				.value(feature.getDocURL().orElse(null))
+				.value(feature.getLicense().orElse(null))
+				.value(feature.getSCM().orElse(null))
+				.value(feature.getVendor().orElse(null))
+				.value(feature.isComplete())
+				.value(feature.getCategories().stream().sorted().toList())
+				.hex();
+	}
+
+	private static String digestBundle(FeatureBundle bundle) {
+		return new Hasher().value(bundle.getID().toString()).value(bundle.getMetadata()).hex();
+	}
+
+	private static String digestConfiguration(FeatureConfiguration configuration) {
+		return new Hasher().value(configuration.getPid())
+				.value(configuration.getFactoryPid().orElse(null))
+				.value(configuration.getValues())
+				.hex();
+	}
+
+	private static String digestExtension(FeatureExtension extension) {
+		Hasher hasher = new Hasher().value(extension.getName())
+				.value(extension.getType().name())
+				.value(extension.getKind().name());
+		switch (extension.getType()) {
+		case JSON:
+			hasher.value(extension.getJSON());
+			break;
+		case TEXT:
+			hasher.value(extension.getText());
+			break;
+		case ARTIFACTS:
+			for (FeatureArtifact artifact : extension.getArtifacts()) {
+				hasher.value(artifact.getID().toString()).value(artifact.getMetadata());
+			}
+			break;
+		default:
+			break;
+		}
+		return hasher.hex();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof FeatureDigest other && digest.equals(other.digest);
+	}
+
+	@Override
+	public int hashCode() {
+		return digest.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return digest;
+	}
+
+	/**
+	 * Feeds values into a message digest as tagged, length prefixed, records so
+	 * that distinct values can never produce the same input
+	 */
+	private static final class Hasher {
+
+		private final MessageDigest messageDigest;
+
+		Hasher() {
+			try {
+				messageDigest = MessageDigest.getInstance(ALGORITHM);
+			} catch (NoSuchAlgorithmException e) {
+				// Every Java platform is required to support SHA-256
+				throw new IllegalStateException(e);
+			}
+		}
+
+		Hasher string(String value) {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			length(bytes.length);
+			messageDigest.update(bytes);
+			return this;
+		}
+
+		Hasher value(Object value) {
+			if (value == null) {
+				messageDigest.update((byte) 'n');
+			} else if (value instanceof String s) {
+				messageDigest.update((byte) 's');
+				string(s);
+			} else if (value instanceof Map<?, ?> map) {
+				messageDigest.update((byte) 'm');
+				length(map.size());
+				TreeMap<String, Object> sorted = new TreeMap<>();
+				map.forEach((k, v) -> sorted.put(String.valueOf(k), v));
+				sorted.forEach((k, v) -> string(k).value(v));
+			} else if (value instanceof Collection<?> collection) {
+				messageDigest.update((byte) 'l');
+				length(collection.size());
+				collection.forEach(this::value);
+			} else if (value.getClass().isArray()) {
+				messageDigest.update((byte) 'a');
+				string(value.getClass().getComponentType().getName());
+				int length = Array.getLength(value);
+				length(length);
+				for (int i = 0; i < length; i++) {
+					value(Array.get(value, i));
+				}
+			} else if (value instanceof BigDecimal bd) {
+				// 8080 and 8080.0 are the same variable value
+				messageDigest.update((byte) 'd');
+				string(bd.stripTrailingZeros().toPlainString());
+			} else {
+				// the type is significant, e.g. for configuration values
+				messageDigest.update((byte) 'o');
+				string(value.getClass().getName());
+				string(value.toString());
+			}
+			return this;
+		}
+
+		private void length(int length) {
+			messageDigest.update((byte) (length >>> 24));
+			messageDigest.update((byte) (length >>> 16));
+			messageDigest.update((byte) (length >>> 8));
+			messageDigest.update((byte) length);
+		}
+
+		String hex() {
+			return HexFormat.of().formatHex(messageDigest.digest());
+		}
+	}
+}
@@ -0,0 +1,275 @@
+/**
+ * Copyright (c) 2025 Kentyou and others.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.common.util.impl;
+
+import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+/**
+ * Extracts jars nested in a launcher jar to a cache directory, so that they can
+ * be put on the classpath of a {@link java.net.URLClassLoader}.
+ *
+ * Each extracted jar is named after a checksum of its content, so that it is
+ * reused by later launches rather than extracted again, and is written to a
+ * temporary file which is atomically renamed, so that concurrent launches never
+ * see a partially written jar. A cached jar is only reused once its content has
+ * been verified against the checksum, and is otherwise extracted again.
+ *
+ * As the cached jars end up on the classpath, the cache directory must only be
+ * writable by the current user. On file systems with POSIX permissions it is
+ * created accessible to its owner only, and a directory owned by another user,
+ * or a symbolic link, is refused.
+ */
+public final class NestedJarCache {
+
+	/**
+	 * System property overriding the cache directory
+	 */
+	public static final String CACHE_DIR_PROPERTY = "org.eclipse.osgi.technology.featurelauncher.jar.cache";
+
+	// Incremented whenever the layout of the cache directory changes
+	private static final String CACHE_VERSION = "v1";
+
+	private static final String DIGEST_ALGORITHM = "SHA-256";
+
+	private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rwx------");
+
+	private final Path cacheDir;
+
+	private volatile boolean cacheDirChecked;
+
+	public NestedJarCache(Path cacheDir) {
+		this.cacheDir = cacheDir;
+	}
+
+	/**
+	 * @return the cache in the directory set by {@link #CACHE_DIR_PROPERTY},
+	 *         defaulting to a directory for the current user in
+	 *         <code>java.io.tmpdir</code>
+	 */
+	public static NestedJarCache getDefault() {
+		String dir = System.getProperty(CACHE_DIR_PROPERTY);
+		if (dir != null) {
+			return new NestedJarCache(Paths.get(dir).resolve(CACHE_VERSION));
+		}
+
+		String user = System.getProperty("user.name", "").replaceAll("[^A-Za-z0-9._-]", "_");
+		return new NestedJarCache(Paths.get(System.getProperty("java.io.tmpdir"),
+				String.format("featurelauncher-jars-%s-%s", user, CACHE_VERSION)));
+	}
+
+	public Path getCacheDir() {
+		return cacheDir;
+	}
+
+	/**
+	 * @param url a classpath entry
+	 * @return a URL for the same content which can be used by a
+	 *         {@link java.net.URLClassLoader}: directories and plain files are
+	 *         returned as is, nested jars are extracted into the cache
+	 * @throws IOException if the jar could not be extracted, or the cache
+	 *                     directory is not private to the current user
+	 */
+	public URL flatten(URL url) throws IOException {
+		if (url.getPath().endsWith("/") || "file".equals(url.getProtocol())) {
+			return url;
+		}
+
+		checkCacheDir();
+
+		URLConnection connection = url.openConnection();
+		String name = getName(url);
+
+		// A zip entry records the CRC and size of its content, so a previously
+		// extracted jar can be found without reading the nested jar at all
+		if (connection instanceof JarURLConnection jarConnection) {
+			JarEntry entry = jarConnection.getJarEntry();
+			if (entry != null && entry.getCrc() != -1 && entry.getSize() != -1) {
+				long crc = entry.getCrc();
+				long size = entry.getSize();
+				Path cached = cacheDir.resolve(String.format("%s-%08x-%d.jar", name, crc, size));
+				if (!hasCrc(cached, crc, size)) {
+					try (InputStream is = connection.getInputStream()) {
+						write(is, cached, c -> hasCrc(c, crc, size));
+					}
+				}
+				return cached.toUri().toURL();
+			}
+		}
+
+		// Otherwise the content has to be read to be hashed
+		MessageDigest digest = newDigest();
+
+		Path tempFile = Files.createTempFile(cacheDir, name, ".tmp");
+		try {
+			try (InputStream is = new DigestInputStream(connection.getInputStream(), digest);
+					OutputStream os = Files.newOutputStream(tempFile)) {
+				is.transferTo(os);
+			}
+			byte[] hash = digest.digest();
+			Path cached = cacheDir
+					.resolve(String.format("%s-%s.jar", name, HexFormat.of().formatHex(hash, 0, 16)));
+			if (!hasDigest(cached, hash)) {
+				move(tempFile, cached, c -> hasDigest(c, hash));
+			}
+			return cached.toUri().toURL();
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	/**
+	 * Create the cache directory if necessary, and make sure that nobody but the
+	 * current user can place jars in it
+	 */
+	private void checkCacheDir() throws IOException {
+		if (cacheDirChecked) {
+			return;
+		}
+
+		if (!cacheDir.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+			Files.createDirectories(cacheDir);
+			cacheDirChecked = true;
+			return;
+		}
+
+		Files.createDirectories(cacheDir, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+		if (!Files.isDirectory(cacheDir, NOFOLLOW_LINKS)) {
+			throw new IOException(String.format("The jar cache %s is not a directory", cacheDir));
+		}
+
+		UserPrincipal owner = Files.getOwner(cacheDir, NOFOLLOW_LINKS);
+		UserPrincipal user = getCurrentUser();
+		if (!owner.equals(user)) {
+			throw new IOException(
+					String.format("The jar cache %s is owned by %s rather than by %s", cacheDir, owner, user));
+		}
+
+		if (!Files.getPosixFilePermissions(cacheDir, NOFOLLOW_LINKS).equals(OWNER_ONLY)) {
+			Files.setPosixFilePermissions(cacheDir, OWNER_ONLY);
+		}
+		cacheDirChecked = true;
+	}
+
+	/**
+	 * The user name may not be known to the operating system, e.g. in a
+	 * container, so the current user is taken to be the owner of a new file
+	 */
+	private static UserPrincipal getCurrentUser() throws IOException {
+		Path probe = Files.createTempFile("featurelauncher", ".tmp");
+		try {
+			return Files.getOwner(probe);
+		} finally {
+			Files.delete(probe);
+		}
+	}
+
+	private static String getName(URL url) {
+		String path = url.getPath();
+		String name = path.substring(path.lastIndexOf('/') + 1);
+		if (name.endsWith(".jar")) {
+			name = name.substring(0, name.length() - 4);
+		}
+		// Files.createTempFile requires a prefix of at least three characters
+		return name.length() < 3 ? "jar" + name : name;
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance(DIGEST_ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			// Every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static boolean hasCrc(Path cached, long crc, long size) throws IOException {
+		if (!Files.isRegularFile(cached, NOFOLLOW_LINKS) || Files.size(cached) != size) {
+			return false;
+		}
+		try (CheckedInputStream is = new CheckedInputStream(Files.newInputStream(cached), new CRC32())) {
+			is.transferTo(OutputStream.nullOutputStream());
+			return is.getChecksum().getValue() == crc;
+		}
+	}
+
+	private static boolean hasDigest(Path cached, byte[] hash) throws IOException {
+		if (!Files.isRegularFile(cached, NOFOLLOW_LINKS)) {
+			return false;
+		}
+		MessageDigest digest = newDigest();
+		try (InputStream is = new DigestInputStream(Files.newInputStream(cached), digest)) {
+			is.transferTo(OutputStream.nullOutputStream());
+		}
+		return Arrays.equals(digest.digest(), hash);
+	}
+
+	@FunctionalInterface
+	private interface ContentCheck {
+		boolean matches(Path cached) throws IOException;
+	}
+
+	private void write(InputStream is, Path cached, ContentCheck check) throws IOException {
+		Path tempFile = Files.createTempFile(cacheDir, cached.getFileName().toString(), ".tmp");
+		try {
+			try (OutputStream os = Files.newOutputStream(tempFile)) {
+				is.transferTo(os);
+			}
+			move(tempFile, cached, check);
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	/**
+	 * Move an extracted jar into place, replacing a cached jar which did not match
+	 * its checksum
+	 */
+	private static void move(Path tempFile, Path cached, ContentCheck check) throws IOException {
+		try {
+			Files.move(tempFile, cached, ATOMIC_MOVE);
+		} catch (FileAlreadyExistsException e) {
+			// the platform does not replace files atomically
+			if (check.matches(cached)) {
+				// another launch extracted the same content first
+				return;
+			}
+			Files.delete(cached);
+			Files.move(tempFile, cached, ATOMIC_MOVE);
+		}
+	}
+}
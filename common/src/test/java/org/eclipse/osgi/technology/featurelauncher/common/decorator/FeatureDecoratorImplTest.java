@@ -15,6 +15,7 @@ package org.eclipse.osgi.technology.featurelauncher.common.decorator;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -275,4 +276,29 @@ public class FeatureDecoratorImplTest {
 				.executeFeatureDecorators(featureService, feature,
 						new MutableRepositoryList(), List.of(featureInvalidDecorator)));
 	}
+
+	@Test
+	public void testUnchangedSectionsAreShared() throws URISyntaxException, IOException, AbandonOperationException {
+		FeatureDecorator featureVariablesDecorator = new FeatureDecorator() {
+
+			@Override
+			public Feature decorate(Feature feature, List<ArtifactRepository> repositories,
+					FeatureDecoratorBuilder decoratedFeatureBuilder,
+					DecoratorBuilderFactory factory) throws AbandonOperationException {
+
+				return decoratedFeatureBuilder.setVariable("test-variable", "test-value").build();
+			}
+		};
+
+		Feature decoratedFeature = util.executeFeatureDecorators(featureService, feature,
+				new MutableRepositoryList(), List.of(featureVariablesDecorator, featureVariablesDecorator));
+		assertNotNull(decoratedFeature);
+
+		assertEquals(Map.of("test-variable", "test-value"), decoratedFeature.getVariables());
+		assertSame(feature.getBundles(), decoratedFeature.getBundles());
+		assertSame(feature.getConfigurations(), decoratedFeature.getConfigurations());
+		assertSame(feature.getExtensions(), decoratedFeature.getExtensions());
+		assertSame(feature.getCategories(), decoratedFeature.getCategories());
+		assertThrows(UnsupportedOperationException.class, () -> decoratedFeature.getVariables().clear());
+	}
 }
@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2025 Kentyou and others.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.common.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import org.eclipse.osgi.technology.featurelauncher.common.repository.impl.ResolvedArtifact;
+import org.eclipse.osgi.technology.featurelauncher.repository.common.osgi.ArtifactRepositoryAdapter;
+import org.eclipse.osgi.technology.featurelauncher.repository.spi.FileSystemRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.osgi.service.feature.ID;
+import org.osgi.service.featurelauncher.repository.ArtifactRepository;
+
+/**
+ * Tests {@link ResolvedArtifact}
+ */
+public class ResolvedArtifactTest {
+
+	private static final byte[] CONTENT = "hello world".getBytes(StandardCharsets.UTF_8);
+
+	// sha256sum of CONTENT
+	private static final String CONTENT_SHA_256 = "b94d27b9934d3e08a52e52d7da7dabfac484efe37a5380ee9088f7ace2efcde9";
+
+	@TempDir
+	Path tempDir;
+
+	private final ID id = mock(ID.class);
+
+	@Test
+	public void testFileArtifactIsDigestedFromItsPath() throws Exception {
+		Path artifactPath = Files.write(tempDir.resolve("artifact.jar"), CONTENT);
+
+		FileSystemRepository fileSystemRepository = mock(FileSystemRepository.class);
+		when(fileSystemRepository.getArtifactPath(id)).thenReturn(artifactPath);
+		ArtifactRepository repository = new ArtifactRepositoryAdapter(fileSystemRepository);
+
+		ResolvedArtifact artifact = ResolvedArtifact.resolve(id, List.of(repository)).orElseThrow();
+
+		assertSame(repository, artifact.getRepository());
+		assertEquals(Optional.of(artifactPath), artifact.getPath());
+		assertEquals(CONTENT.length, artifact.getSize());
+
+		// without the content having been read
+		assertEquals(Optional.of(CONTENT_SHA_256), artifact.getDigest());
+	}
+
+	@Test
+	public void testStreamedArtifactIsDigestedOnceFullyRead() throws Exception {
+		ArtifactRepository repository = mock(ArtifactRepository.class);
+		when(repository.getArtifact(id)).thenReturn(new ByteArrayInputStream(CONTENT));
+
+		ResolvedArtifact artifact = ResolvedArtifact.resolve(id, List.of(repository)).orElseThrow();
+
+		assertSame(repository, artifact.getRepository());
+		assertTrue(artifact.getPath().isEmpty());
+		assertEquals(-1, artifact.getSize());
+
+		try (InputStream is = artifact.openStream()) {
+			// skipped bytes are digested too
+			assertEquals(6, is.skip(6));
+			assertTrue(artifact.getDigest().isEmpty());
+
+			is.transferTo(OutputStream.nullOutputStream());
+		}
+
+		assertEquals(Optional.of(CONTENT_SHA_256), artifact.getDigest());
+		assertEquals(CONTENT.length - 6, artifact.getBytesRead());
+	}
+
+	@Test
+	public void testPartiallyReadArtifactHasNoDigest() throws Exception {
+		ArtifactRepository repository = mock(ArtifactRepository.class);
+		when(repository.getArtifact(id)).thenReturn(new ByteArrayInputStream(CONTENT));
+
+		ResolvedArtifact artifact = ResolvedArtifact.resolve(id, List.of(repository)).orElseThrow();
+
+		try (InputStream is = artifact.openStream()) {
+			is.readNBytes(CONTENT.length - 1);
+		}
+
+		// the end of the stream was never reached
+		assertTrue(artifact.getDigest().isEmpty());
+	}
+}
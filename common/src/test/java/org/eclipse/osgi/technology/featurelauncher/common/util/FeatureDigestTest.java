@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2025 Kentyou and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.common.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.EnumSet;
+import java.util.ServiceLoader;
+import java.util.Set;
+
+import org.eclipse.osgi.technology.featurelauncher.common.util.impl.FeatureDigest;
+import org.eclipse.osgi.technology.featurelauncher.common.util.impl.FeatureDigest.Section;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.osgi.service.feature.Feature;
+import org.osgi.service.feature.FeatureService;
+
+/**
+ * Tests {@link FeatureDigest}
+ */
+public class FeatureDigestTest {
+
+	private static final String FEATURE = """
+			{
+			  "id": "org.acme:digest:1.0.0",
+			  "name": "Digest",
+			  "categories": ["a", "b"],
+			  "variables": { "port": 8080, "user": "scott" },
+			  "bundles": [
+			    { "id": "org.acme:one:1.0.0", "start-order": 1 },
+			    { "id": "org.acme:two:1.0.0" }
+			  ],
+			  "configurations": {
+			    "org.acme.one": { "a": 1, "b:Integer": 2 },
+			    "org.acme.two": { "c": "d" }
+			  },
+			  "extensions": {
+			    "notes": { "type": "text", "text": ["hello"] }
+			  }
+			}
+			""";
+
+	FeatureService featureService;
+
+	@BeforeEach
+	public void setUp() {
+		featureService = ServiceLoader.load(FeatureService.class).findFirst().get();
+	}
+
+	@Test
+	public void testSameContentSameDigest() throws IOException {
+		assertEquals(FeatureDigest.of(read(FEATURE)), FeatureDigest.of(read(FEATURE)));
+	}
+
+	@Test
+	public void testMapOrderIsIgnored() throws IOException {
+		String reordered = """
+				{
+				  "name": "Digest",
+				  "id": "org.acme:digest:1.0.0",
+				  "categories": ["b", "a"],
+				  "variables": { "user": "scott", "port": 8080 },
+				  "bundles": [
+				    { "start-order": 1, "id": "org.acme:one:1.0.0" },
+				    { "id": "org.acme:two:1.0.0" }
+				  ],
+				  "configurations": {
+				    "org.acme.two": { "c": "d" },
+				    "org.acme.one": { "b:Integer": 2, "a": 1 }
+				  },
+				  "extensions": {
+				    "notes": { "type": "text", "text": ["hello"] }
+				  }
+				}
+				""";
+
+		assertEquals(FeatureDigest.of(read(FEATURE)), FeatureDigest.of(read(reordered)));
+	}
+
+	@Test
+	public void testBundleOrderIsSignificant() throws IOException {
+		String reordered = FEATURE.replace("\"org.acme:one:1.0.0\", \"start-order\": 1", "\"org.acme:tmp:1.0.0\"")
+				.replace("\"org.acme:two:1.0.0\"", "\"org.acme:one:1.0.0\", \"start-order\": 1")
+				.replace("\"org.acme:tmp:1.0.0\"", "\"org.acme:two:1.0.0\"");
+
+		FeatureDigest digest = FeatureDigest.of(read(FEATURE));
+		FeatureDigest other = FeatureDigest.of(read(reordered));
+
+		assertNotEquals(digest, other);
+		assertEquals(EnumSet.of(Section.BUNDLES), digest.getChangedSections(other));
+		assertEquals(digest.getBundleDigests().values().stream().sorted().toList(),
+				other.getBundleDigests().values().stream().sorted().toList());
+	}
+
+	@Test
+	public void testChangedConfiguration() throws IOException {
+		FeatureDigest digest = FeatureDigest.of(read(FEATURE));
+		FeatureDigest other = FeatureDigest.of(read(FEATURE.replace("\"c\": \"d\"", "\"c\": \"e\"")));
+
+		assertNotEquals(digest, other);
+		assertEquals(Set.of(Section.CONFIGURATIONS), digest.getChangedSections(other));
+		assertEquals(digest.getConfigurationDigests().get("org.acme.one"),
+				other.getConfigurationDigests().get("org.acme.one"));
+		assertNotEquals(digest.getConfigurationDigests().get("org.acme.two"),
+				other.getConfigurationDigests().get("org.acme.two"));
+	}
+
+	@Test
+	public void testConfigurationValueTypeIsSignificant() throws IOException {
+		FeatureDigest digest = FeatureDigest.of(read(FEATURE));
+		FeatureDigest other = FeatureDigest.of(read(FEATURE.replace("\"b:Integer\": 2", "\"b:Long\": 2")));
+
+		assertEquals(Set.of(Section.CONFIGURATIONS), digest.getChangedSections(other));
+	}
+
+	@Test
+	public void testChangedSections() throws IOException {
+		FeatureDigest digest = FeatureDigest.of(read(FEATURE));
+
+		assertEquals(Set.of(Section.METADATA),
+				digest.getChangedSections(FeatureDigest.of(read(FEATURE.replace("\"Digest\"", "\"Other\"")))));
+		assertEquals(Set.of(Section.VARIABLES),
+				digest.getChangedSections(FeatureDigest.of(read(FEATURE.replace("8080", "8081")))));
+		assertEquals(Set.of(Section.EXTENSIONS),
+				digest.getChangedSections(FeatureDigest.of(read(FEATURE.replace("hello", "goodbye")))));
+	}
+
+	private Feature read(String json) throws IOException {
+		return featureService.readFeature(new StringReader(json));
+	}
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright (c) 2025 Kentyou and others.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.common.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.eclipse.osgi.technology.featurelauncher.common.util.impl.NestedJarCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests {@link NestedJarCache}
+ */
+public class NestedJarCacheTest {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	public void testNestedJarIsExtractedOnce() throws Exception {
+		byte[] inner = "inner jar content".getBytes(StandardCharsets.UTF_8);
+		Path outer = writeOuterJar("outer.jar", inner);
+		NestedJarCache cache = new NestedJarCache(tempDir.resolve("cache"));
+
+		URL nested = new URL("jar:" + outer.toUri() + "!/inner.jar");
+		URL first = cache.flatten(nested);
+		URL second = new NestedJarCache(tempDir.resolve("cache")).flatten(nested);
+
+		assertEquals(first, second);
+		assertArrayEquals(inner, Files.readAllBytes(Paths.get(first.toURI())));
+		try (var files = Files.list(tempDir.resolve("cache"))) {
+			assertEquals(1, files.count());
+		}
+	}
+
+	@Test
+	public void testChangedContentIsExtractedAgain() throws Exception {
+		NestedJarCache cache = new NestedJarCache(tempDir.resolve("cache"));
+
+		URL first = cache.flatten(new URL("jar:" + writeOuterJar("a.jar", new byte[] { 1 }).toUri() + "!/inner.jar"));
+		URL second = cache.flatten(new URL("jar:" + writeOuterJar("b.jar", new byte[] { 2 }).toUri() + "!/inner.jar"));
+
+		assertNotEquals(first, second);
+	}
+
+	@Test
+	public void testFilesAndDirectoriesAreNotCopied() throws Exception {
+		NestedJarCache cache = new NestedJarCache(tempDir.resolve("cache"));
+
+		URL file = tempDir.resolve("plain.jar").toUri().toURL();
+		URL dir = new URL("jar:" + writeOuterJar("c.jar", new byte[0]).toUri() + "!/classes/");
+
+		assertSame(file, cache.flatten(file));
+		assertSame(dir, cache.flatten(dir));
+	}
+
+	@Test
+	public void testCorruptedJarIsExtractedAgain() throws Exception {
+		byte[] inner = "inner jar content".getBytes(StandardCharsets.UTF_8);
+		URL nested = new URL("jar:" + writeOuterJar("outer.jar", inner).toUri() + "!/inner.jar");
+		NestedJarCache cache = new NestedJarCache(tempDir.resolve("cache"));
+
+		Path cached = Paths.get(cache.flatten(nested).toURI());
+
+		// same size, different content
+		byte[] corrupted = inner.clone();
+		corrupted[0] ^= 1;
+		Files.write(cached, corrupted);
+
+		assertEquals(cached, Paths.get(new NestedJarCache(tempDir.resolve("cache")).flatten(nested).toURI()));
+		assertArrayEquals(inner, Files.readAllBytes(cached));
+	}
+
+	@Test
+	public void testCorruptedHashedJarIsExtractedAgain() throws Exception {
+		byte[] inner = "streamed jar content".getBytes(StandardCharsets.UTF_8);
+		URL streamed = new URL(null, "test:/streamed.jar", new URLStreamHandler() {
+			@Override
+			protected URLConnection openConnection(URL u) {
+				return new URLConnection(u) {
+					@Override
+					public void connect() {
+						// nothing to connect to
+					}
+
+					@Override
+					public InputStream getInputStream() {
+						return new ByteArrayInputStream(inner);
+					}
+				};
+			}
+		});
+		NestedJarCache cache = new NestedJarCache(tempDir.resolve("cache"));
+
+		Path cached = Paths.get(cache.flatten(streamed).toURI());
+		assertArrayEquals(inner, Files.readAllBytes(cached));
+
+		Files.write(cached, new byte[] { 0 });
+
+		assertEquals(cached, Paths.get(cache.flatten(streamed).toURI()));
+		assertArrayEquals(inner, Files.readAllBytes(cached));
+		try (var files = Files.list(tempDir.resolve("cache"))) {
+			assertEquals(1, files.count());
+		}
+	}
+
+	@Test
+	public void testCacheDirectoryIsPrivate() throws Exception {
+		assumeTrue(tempDir.getFileSystem().supportedFileAttributeViews().contains("posix"));
+
+		Path cacheDir = tempDir.resolve("cache");
+		Files.createDirectory(cacheDir);
+		Files.setPosixFilePermissions(cacheDir, PosixFilePermissions.fromString("rwxrwxrwx"));
+
+		new NestedJarCache(cacheDir)
+				.flatten(new URL("jar:" + writeOuterJar("outer.jar", new byte[] { 1 }).toUri() + "!/inner.jar"));
+
+		assertEquals(PosixFilePermissions.fromString("rwx------"), Files.getPosixFilePermissions(cacheDir));
+	}
+
+	@Test
+	public void testLinkedCacheDirectoryIsRefused() throws Exception {
+		assumeTrue(tempDir.getFileSystem().supportedFileAttributeViews().contains("posix"));
+
+		Path target = Files.createDirectory(tempDir.resolve("elsewhere"));
+		Path cacheDir = Files.createSymbolicLink(tempDir.resolve("cache"), target);
+
+		URL nested = new URL("jar:" + writeOuterJar("outer.jar", new byte[] { 1 }).toUri() + "!/inner.jar");
+		assertThrows(IOException.class, () -> new NestedJarCache(cacheDir).flatten(nested));
+		try (var files = Files.list(target)) {
+			assertEquals(0, files.count());
+		}
+	}
+
+	private Path writeOuterJar(String name, byte[] inner) throws IOException {
+		Path outer = tempDir.resolve(name);
+		try (OutputStream os = Files.newOutputStream(outer); JarOutputStream jos = new JarOutputStream(os)) {
+			jos.putNextEntry(new JarEntry("inner.jar"));
+			jos.write(inner);
+			jos.closeEntry();
+		}
+		return outer;
+	}
+}
@@ -56,7 +56,9 @@ public class API_Launcher {
 			.withRepository(repositoryMaven)
 			.withRepository(repositorySonatypeSnapshots)
 			.withFrameworkProperties(Map.of(Constants.FRAMEWORK_STORAGE_CLEAN,
-					Constants.FRAMEWORK_STORAGE_CLEAN_ONFIRSTINIT))
+					Constants.FRAMEWORK_STORAGE_CLEAN_ONFIRSTINIT,
+					// lets the Feature Runtime emit Flight Recorder events
+					Constants.FRAMEWORK_SYSTEMPACKAGES_EXTRA, "jdk.jfr"))
 			.launchFramework();
 		
 		launchFramework.waitForStop(0);
@@ -9,15 +9,21 @@
  */
 package org.eclipse.osgi.technology.featurelauncher.extras.installer.directory;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -149,8 +155,17 @@ class FeatureDirectoryWatcher {
 				if (tracked == null) {
 					installFeature(path, lastModified, size);
 				} else if (tracked.lastModified != lastModified || tracked.size != size) {
-					LOG.info("Feature file changed: {}", path.getFileName());
-					updateFeature(path, tracked, lastModified, size);
+					byte[] content = Files.readAllBytes(path);
+					String contentDigest = digest(content);
+					if (contentDigest.equals(tracked.contentDigest)) {
+						// touched, or rewritten with the same content
+						LOG.debug("Feature file unchanged: {}", path.getFileName());
+						trackedFeatures.put(path,
+								new TrackedFeature(tracked.featureId, lastModified, size, contentDigest));
+					} else {
+						LOG.info("Feature file changed: {}", path.getFileName());
+						updateFeature(path, tracked, lastModified, size, content, contentDigest);
+					}
 				}
 			}
 		} catch (Exception e) {
@@ -196,7 +211,10 @@ class FeatureDirectoryWatcher {
 		String filename = featureFile.getFileName().toString();
 		LOG.info("Installing feature: {}", filename);
 
-		try (Reader reader = Files.newBufferedReader(featureFile)) {
+		try {
+			byte[] content = Files.readAllBytes(featureFile);
+			String contentDigest = digest(content);
+			Reader reader = new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8);
 			FeatureRuntime.InstallOperationBuilder builder = featureRuntime.install(reader);
 
 			configureRepositories(builder);
@@ -204,7 +222,7 @@ class FeatureDirectoryWatcher {
 			InstalledFeature installed = builder.install();
 			ID featureId = installed.getFeature().getID();
 
-			trackedFeatures.put(featureFile, new TrackedFeature(featureId, lastModified, size));
+			trackedFeatures.put(featureFile, new TrackedFeature(featureId, lastModified, size, contentDigest));
 			LOG.info("Successfully installed feature: {} (ID: {})", filename, featureId);
 		} catch (IOException e) {
 			LOG.error("Failed to read feature file: {}", filename, e);
@@ -213,11 +231,13 @@ class FeatureDirectoryWatcher {
 		}
 	}
 
-	private void updateFeature(Path featureFile, TrackedFeature tracked, long lastModified, long size) {
+	private void updateFeature(Path featureFile, TrackedFeature tracked, long lastModified, long size, byte[] content,
+			String contentDigest) {
 		String filename = featureFile.getFileName().toString();
 		LOG.info("Updating feature: {}", filename);
 
-		try (Reader reader = Files.newBufferedReader(featureFile)) {
+		try {
+			Reader reader = new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8);
 			FeatureRuntime.UpdateOperationBuilder builder = featureRuntime.update(tracked.featureId, reader);
 
 			configureRepositories(builder);
@@ -225,15 +245,22 @@ class FeatureDirectoryWatcher {
 			InstalledFeature updated = builder.update();
 			ID featureId = updated.getFeature().getID();
 
-			trackedFeatures.put(featureFile, new TrackedFeature(featureId, lastModified, size));
+			trackedFeatures.put(featureFile, new TrackedFeature(featureId, lastModified, size, contentDigest));
 			LOG.info("Successfully updated feature: {} (ID: {})", filename, featureId);
-		} catch (IOException e) {
-			LOG.error("Failed to read feature file: {}", filename, e);
 		} catch (Exception e) {
 			LOG.error("Failed to update feature: {}", filename, e);
 		}
 	}
 
+	private static String digest(byte[] content) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+		} catch (NoSuchAlgorithmException e) {
+			// Every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
 	private void configureRepositories(FeatureRuntime.OperationBuilder<?> builder) {
 		builder.useDefaultRepositories(true);
 		addLocalRepository(builder);
@@ -245,7 +272,9 @@ class FeatureDirectoryWatcher {
 		}
 	}
 
-	private record TrackedFeature(ID featureId, long lastModified, long size) {
+	// Files whose bytes are unchanged are not passed to the runtime again. The
+	// runtime itself finds a reformatted but equivalent feature to be up to date.
+	private record TrackedFeature(ID featureId, long lastModified, long size, String contentDigest) {
 	}
 
 }
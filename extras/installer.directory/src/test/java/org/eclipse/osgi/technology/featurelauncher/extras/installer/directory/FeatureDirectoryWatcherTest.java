@@ -206,6 +206,26 @@ class FeatureDirectoryWatcherTest {
 		watcher.stop();
 	}
 
+	@Test
+	void watchMode_ignoresRewrittenUnchangedFile() throws Exception {
+		Path featureFile = tempDir.resolve("10-app.json");
+		Files.writeString(featureFile, "{}");
+
+		FeatureDirectoryWatcher watcher = new FeatureDirectoryWatcher(featureRuntime, tempDir.toString(), null, "WATCH",
+				1, null, null);
+		watcher.start();
+
+		verify(featureRuntime, times(1)).install(any(Reader.class));
+
+		Thread.sleep(1100);
+		Files.writeString(featureFile, "{}");
+		Thread.sleep(2500);
+
+		verify(featureRuntime, never()).update(any(ID.class), any(Reader.class));
+
+		watcher.stop();
+	}
+
 	@Test
 	void stopShutdownsExecutor() throws Exception {
 		Files.writeString(tempDir.resolve("10-app.json"), "{}");
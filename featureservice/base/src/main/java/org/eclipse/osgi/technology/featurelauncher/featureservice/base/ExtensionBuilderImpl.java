@@ -29,7 +29,7 @@ class ExtensionBuilderImpl implements FeatureExtensionBuilder {
 	private final Type type;
 	private final Kind kind;
 
-	private String json = null;
+	private ExtensionJson json = null;
 	private final List<String> textList = new ArrayList<>();
 	private final List<FeatureArtifact> artifacts = new ArrayList<>();
 
@@ -55,6 +55,19 @@ class ExtensionBuilderImpl implements FeatureExtensionBuilder {
 			throw new IllegalStateException("Cannot set json to extension of type " + type);
 		}
 
+		this.json = (json != null) ? ExtensionJson.of(json) : null;
+		return this;
+	}
+
+	/**
+	 * Set the JSON content as read by the feature service, without rendering it
+	 * as text
+	 */
+	ExtensionBuilderImpl setJSON(ExtensionJson json) {
+		if (type != Type.JSON) {
+			throw new IllegalStateException("Cannot set json to extension of type " + type);
+		}
+
 		this.json = json;
 		return this;
 	}
@@ -74,10 +87,10 @@ class ExtensionBuilderImpl implements FeatureExtensionBuilder {
 		return new ExtensionImpl(name, type, kind, json, textList, artifacts);
 	}
 
-	private static record ExtensionImpl(String name, Type type, Kind kind, String json, List<String> text,
+	static record ExtensionImpl(String name, Type type, Kind kind, ExtensionJson json, List<String> text,
 	        List<FeatureArtifact> artifacts) implements FeatureExtension {
 
-		private ExtensionImpl(String name, Type type, Kind kind, String json, List<String> text,
+		ExtensionImpl(String name, Type type, Kind kind, ExtensionJson json, List<String> text,
 		        List<FeatureArtifact> artifacts) {
 			this.name = name;
 			this.type = type;
@@ -108,11 +121,11 @@ class ExtensionBuilderImpl implements FeatureExtensionBuilder {
 				throw new IllegalStateException("Extension is not of type JSON " + type);
 			}
 
-			if (json.isEmpty()) {
+			if (json == null || json.isEmpty()) {
 				return null;
 			}
 
-			return json;
+			return json.getText();
 		}
 
 		@Override
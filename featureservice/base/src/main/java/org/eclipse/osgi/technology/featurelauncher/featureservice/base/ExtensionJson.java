@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.featureservice.base;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.grack.nanojson.JsonParserException;
+import com.grack.nanojson.JsonReader;
+import com.grack.nanojson.JsonSink;
+import com.grack.nanojson.JsonWriter;
+
+/**
+ * The content of a JSON extension, held as an immutable tree of maps, lists and
+ * scalars and / or as text.
+ *
+ * An extension read from a feature document keeps the tree, which is written
+ * straight back out when the feature is written, and is only rendered as text
+ * the first time {@link #getText()} is called. An extension built from text is
+ * only parsed if it needs to be written.
+ */
+final class ExtensionJson {
+
+	private volatile Map<String, Object> tree;
+	private volatile String text;
+
+	private ExtensionJson(Map<String, Object> tree, String text) {
+		this.tree = tree;
+		this.text = text;
+	}
+
+	static ExtensionJson of(String text) {
+		return new ExtensionJson(null, text);
+	}
+
+	/**
+	 * Read the object at the current position of the reader
+	 */
+	static ExtensionJson read(JsonReader reader) throws JsonParserException {
+		return new ExtensionJson(readObject(reader), null);
+	}
+
+	String getText() {
+		String result = text;
+		if (result == null) {
+			result = JsonWriter.string(tree);
+			text = result;
+		}
+		return result;
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the text is not a JSON object
+	 */
+	Map<String, Object> getTree() {
+		Map<String, Object> result = tree;
+		if (result == null) {
+			try {
+				JsonReader reader = JsonReader.from(new StringReader(text));
+				result = readObject(reader);
+			} catch (JsonParserException e) {
+				throw new IllegalArgumentException("Not a Json", e);
+			}
+			tree = result;
+		}
+		return result;
+	}
+
+	<T extends JsonSink<T>> void writeTo(JsonSink<T> sink) {
+		sink.object(getTree());
+	}
+
+	boolean isEmpty() {
+		return text != null ? text.isEmpty() : false;
+	}
+
+	private static Map<String, Object> readObject(JsonReader reader) throws JsonParserException {
+		Map<String, Object> object = new LinkedHashMap<>();
+		reader.object();
+		while (reader.next()) {
+			String key = reader.key();
+			object.put(key, readValue(reader));
+		}
+		return Collections.unmodifiableMap(object);
+	}
+
+	private static List<Object> readArray(JsonReader reader) throws JsonParserException {
+		List<Object> array = new ArrayList<>();
+		reader.array();
+		while (reader.next()) {
+			array.add(readValue(reader));
+		}
+		return Collections.unmodifiableList(array);
+	}
+
+	private static Object readValue(JsonReader reader) throws JsonParserException {
+		return switch (reader.current()) {
+		case OBJECT -> readObject(reader);
+		case ARRAY -> readArray(reader);
+		case STRING -> reader.string();
+		case NUMBER -> reader.number();
+		case BOOLEAN -> Boolean.valueOf(reader.bool());
+		case NULL -> {
+			reader.nul();
+			yield null;
+		}
+		};
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof ExtensionJson other && getText().equals(other.getText());
+	}
+
+	@Override
+	public int hashCode() {
+		return getText().hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return getText();
+	}
+}
@@ -0,0 +1,476 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.featureservice.base;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.osgi.service.feature.Feature;
+import org.osgi.service.feature.FeatureArtifact;
+import org.osgi.service.feature.FeatureArtifactBuilder;
+import org.osgi.service.feature.FeatureBuilder;
+import org.osgi.service.feature.FeatureBundle;
+import org.osgi.service.feature.FeatureBundleBuilder;
+import org.osgi.service.feature.FeatureConfiguration;
+import org.osgi.service.feature.FeatureConfigurationBuilder;
+import org.osgi.service.feature.FeatureExtension;
+import org.osgi.service.feature.FeatureExtension.Kind;
+import org.osgi.service.feature.FeatureExtension.Type;
+
+/**
+ * A compact binary form of a {@link Feature}, which loads much faster than the
+ * JSON form.
+ *
+ * Every string is written once, as a length prefixed UTF-8 sequence, and
+ * repeated occurrences refer back to it, so the keys shared by many
+ * configurations or bundles cost a single varint. Counts and lengths are
+ * varints, and values carry a one byte type tag so that typed configuration
+ * values, including arrays, are restored with their original types.
+ *
+ * As the input may be damaged, counts and lengths are never trusted to size an
+ * allocation up-front: collections grow as their elements are actually read.
+ */
+final class FeatureBinaryFormat {
+
+	private static final int MAGIC = 0x464C_4642;
+	private static final int FORMAT_VERSION = 1;
+
+	// String references: 0 is null, 1 is a new string, n >= 2 refers to string n - 2
+	private static final int STRING_NULL = 0;
+	private static final int STRING_NEW = 1;
+
+	private static final byte VALUE_NULL = 0;
+	private static final byte VALUE_STRING = 1;
+	private static final byte VALUE_BOOLEAN = 2;
+	private static final byte VALUE_INTEGER = 3;
+	private static final byte VALUE_LONG = 4;
+	private static final byte VALUE_DOUBLE = 5;
+	private static final byte VALUE_FLOAT = 6;
+	private static final byte VALUE_SHORT = 7;
+	private static final byte VALUE_BYTE = 8;
+	private static final byte VALUE_CHARACTER = 9;
+	private static final byte VALUE_BIG_DECIMAL = 10;
+	private static final byte VALUE_BIG_INTEGER = 11;
+	private static final byte VALUE_LIST = 12;
+	private static final byte VALUE_MAP = 13;
+	private static final byte VALUE_ARRAY = 14;
+
+	// @formatter:off
+	private static final Map<String, Class<?>> ARRAY_COMPONENT_TYPES = Map.ofEntries(
+			Map.entry("boolean", boolean.class), Map.entry("byte", byte.class),
+			Map.entry("char", char.class), Map.entry("short", short.class),
+			Map.entry("int", int.class), Map.entry("long", long.class),
+			Map.entry("float", float.class), Map.entry("double", double.class),
+			Map.entry(Boolean.class.getName(), Boolean.class), Map.entry(Byte.class.getName(), Byte.class),
+			Map.entry(Character.class.getName(), Character.class), Map.entry(Short.class.getName(), Short.class),
+			Map.entry(Integer.class.getName(), Integer.class), Map.entry(Long.class.getName(), Long.class),
+			Map.entry(Float.class.getName(), Float.class), Map.entry(Double.class.getName(), Double.class),
+			Map.entry(String.class.getName(), String.class));
+	// @formatter:on
+
+	private FeatureBinaryFormat() {
+		// hidden constructor
+	}
+
+	static void write(Feature feature, DataOutputStream out) throws IOException {
+		new Writer(out).writeFeature(feature);
+		out.flush();
+	}
+
+	static Feature read(FeatureServiceImpl featureService, DataInputStream in) throws IOException {
+		return new Reader(featureService, in).readFeature();
+	}
+
+	private static final class Writer {
+		private final DataOutputStream out;
+		private final Map<String, Integer> strings = new HashMap<>();
+
+		Writer(DataOutputStream out) {
+			this.out = out;
+		}
+
+		void writeFeature(Feature feature) throws IOException {
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+
+			writeString(feature.getID().toString());
+			writeString(feature.getName().orElse(null));
+			writeString(feature.getDescription().orElse(null));
+			writeString(feature.getDocURL().orElse(null));
+			writeString(feature.getLicense().orElse(null));
+			writeString(feature.getSCM().orElse(null));
+			writeString(feature.getVendor().orElse(null));
+			out.writeBoolean(feature.isComplete());
+
+			writeVarint(feature.getCategories().size());
+			for (String category : feature.getCategories()) {
+				writeString(category);
+			}
+
+			writeMap(feature.getVariables());
+
+			writeVarint(feature.getBundles().size());
+			for (FeatureBundle bundle : feature.getBundles()) {
+				writeString(bundle.getID().toString());
+				writeMap(bundle.getMetadata());
+			}
+
+			writeVarint(feature.getConfigurations().size());
+			for (FeatureConfiguration configuration : feature.getConfigurations().values()) {
+				writeString(configuration.getPid());
+				writeString(configuration.getFactoryPid().orElse(null));
+				writeMap(configuration.getValues());
+			}
+
+			writeVarint(feature.getExtensions().size());
+			for (FeatureExtension extension : feature.getExtensions().values()) {
+				writeString(extension.getName());
+				out.writeByte(extension.getType().ordinal());
+				out.writeByte(extension.getKind().ordinal());
+				switch (extension.getType()) {
+				case JSON -> writeString(extension.getJSON());
+				case TEXT -> {
+					writeVarint(extension.getText().size());
+					for (String line : extension.getText()) {
+						writeString(line);
+					}
+				}
+				case ARTIFACTS -> {
+					writeVarint(extension.getArtifacts().size());
+					for (FeatureArtifact artifact : extension.getArtifacts()) {
+						writeString(artifact.getID().toString());
+						writeMap(artifact.getMetadata());
+					}
+				}
+				}
+			}
+		}
+
+		private void writeMap(Map<?, ?> map) throws IOException {
+			writeVarint(map.size());
+			for (Map.Entry<?, ?> entry : map.entrySet()) {
+				writeString(String.valueOf(entry.getKey()));
+				writeValue(entry.getValue());
+			}
+		}
+
+		private void writeValue(Object value) throws IOException {
+			if (value == null) {
+				out.writeByte(VALUE_NULL);
+			} else if (value instanceof String s) {
+				out.writeByte(VALUE_STRING);
+				writeString(s);
+			} else if (value instanceof Boolean b) {
+				out.writeByte(VALUE_BOOLEAN);
+				out.writeBoolean(b);
+			} else if (value instanceof Integer i) {
+				out.writeByte(VALUE_INTEGER);
+				out.writeInt(i);
+			} else if (value instanceof Long l) {
+				out.writeByte(VALUE_LONG);
+				out.writeLong(l);
+			} else if (value instanceof Double d) {
+				out.writeByte(VALUE_DOUBLE);
+				out.writeDouble(d);
+			} else if (value instanceof Float f) {
+				out.writeByte(VALUE_FLOAT);
+				out.writeFloat(f);
+			} else if (value instanceof Short s) {
+				out.writeByte(VALUE_SHORT);
+				out.writeShort(s);
+			} else if (value instanceof Byte b) {
+				out.writeByte(VALUE_BYTE);
+				out.writeByte(b);
+			} else if (value instanceof Character c) {
+				out.writeByte(VALUE_CHARACTER);
+				out.writeChar(c);
+			} else if (value instanceof BigInteger bi) {
+				out.writeByte(VALUE_BIG_INTEGER);
+				writeString(bi.toString());
+			} else if (value instanceof Number n) {
+				// BigDecimal, and the lazily parsed numbers of the JSON reader
+				out.writeByte(VALUE_BIG_DECIMAL);
+				writeString(n.toString());
+			} else if (value instanceof Collection<?> c) {
+				out.writeByte(VALUE_LIST);
+				writeVarint(c.size());
+				for (Object o : c) {
+					writeValue(o);
+				}
+			} else if (value instanceof Map<?, ?> m) {
+				out.writeByte(VALUE_MAP);
+				writeMap(m);
+			} else if (value.getClass().isArray()
+					&& ARRAY_COMPONENT_TYPES.containsKey(value.getClass().getComponentType().getName())) {
+				out.writeByte(VALUE_ARRAY);
+				writeString(value.getClass().getComponentType().getName());
+				int length = Array.getLength(value);
+				writeVarint(length);
+				for (int i = 0; i < length; i++) {
+					writeValue(Array.get(value, i));
+				}
+			} else {
+				throw new IOException("Unsupported value type " + value.getClass().getName());
+			}
+		}
+
+		private void writeString(String s) throws IOException {
+			if (s == null) {
+				writeVarint(STRING_NULL);
+				return;
+			}
+			Integer index = strings.get(s);
+			if (index != null) {
+				writeVarint(index + 2);
+				return;
+			}
+			strings.put(s, strings.size());
+			writeVarint(STRING_NEW);
+			byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+			writeVarint(bytes.length);
+			out.write(bytes);
+		}
+
+		private void writeVarint(int value) throws IOException {
+			while ((value & ~0x7F) != 0) {
+				out.writeByte((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			out.writeByte(value);
+		}
+	}
+
+	private static final class Reader {
+		private final FeatureServiceImpl featureService;
+		private final DataInputStream in;
+		private final List<String> strings = new ArrayList<>();
+
+		Reader(FeatureServiceImpl featureService, DataInputStream in) {
+			this.featureService = featureService;
+			this.in = in;
+		}
+
+		Feature readFeature() throws IOException {
+			if (in.readInt() != MAGIC) {
+				throw new IOException("Not a binary feature");
+			}
+			int version = in.readInt();
+			if (version != FORMAT_VERSION) {
+				throw new IOException("Unsupported binary feature format version " + version);
+			}
+
+			FeatureBuilder builder = featureService.getBuilderFactory()
+					.newFeatureBuilder(featureService.getIDfromMavenCoordinates(readString()));
+			builder.setName(readString());
+			builder.setDescription(readString());
+			builder.setDocURL(readString());
+			builder.setLicense(readString());
+			builder.setSCM(readString());
+			builder.setVendor(readString());
+			builder.setComplete(in.readBoolean());
+
+			int categories = readCount();
+			for (int i = 0; i < categories; i++) {
+				builder.addCategories(readString());
+			}
+
+			builder.addVariables(readMap());
+
+			int bundles = readCount();
+			List<FeatureBundle> featureBundles = new ArrayList<>();
+			for (int i = 0; i < bundles; i++) {
+				FeatureBundleBuilder bundleBuilder = featureService.getBuilderFactory()
+						.newBundleBuilder(featureService.getIDfromMavenCoordinates(readString()));
+				bundleBuilder.addMetadata(readMap());
+				featureBundles.add(bundleBuilder.build());
+			}
+			builder.addBundles(featureBundles.toArray(FeatureBundle[]::new));
+
+			int configurations = readCount();
+			for (int i = 0; i < configurations; i++) {
+				String pid = readString();
+				Optional<String> factoryPid = Optional.ofNullable(readString());
+				if (pid == null || factoryPid.isPresent() && pid.length() <= factoryPid.get().length()) {
+					throw new IOException("Invalid configuration PID " + pid);
+				}
+				FeatureConfigurationBuilder configurationBuilder = factoryPid.isPresent()
+						? featureService.getBuilderFactory().newConfigurationBuilder(factoryPid.get(),
+								pid.substring(factoryPid.get().length() + 1))
+						: featureService.getBuilderFactory().newConfigurationBuilder(pid);
+				configurationBuilder.addValues(readMap());
+				builder.addConfigurations(configurationBuilder.build());
+			}
+
+			int extensions = readCount();
+			for (int i = 0; i < extensions; i++) {
+				builder.addExtensions(readExtension());
+			}
+
+			return builder.build();
+		}
+
+		private FeatureExtension readExtension() throws IOException {
+			String name = readString();
+			Type type = readOrdinal(Type.values(), "extension type");
+			Kind kind = readOrdinal(Kind.values(), "extension kind");
+
+			ExtensionBuilderImpl builder = new ExtensionBuilderImpl(name, type, kind);
+			switch (type) {
+			case JSON -> builder.setJSON(readString());
+			case TEXT -> {
+				int lines = readCount();
+				for (int i = 0; i < lines; i++) {
+					builder.addText(readString());
+				}
+			}
+			case ARTIFACTS -> {
+				int artifacts = readCount();
+				for (int i = 0; i < artifacts; i++) {
+					FeatureArtifactBuilder artifactBuilder = featureService.getBuilderFactory()
+							.newArtifactBuilder(featureService.getIDfromMavenCoordinates(readString()));
+					artifactBuilder.addMetadata(readMap());
+					builder.addArtifact(artifactBuilder.build());
+				}
+			}
+			}
+			return builder.build();
+		}
+
+		private Map<String, Object> readMap() throws IOException {
+			int size = readCount();
+			Map<String, Object> map = new LinkedHashMap<>();
+			for (int i = 0; i < size; i++) {
+				String key = readString();
+				map.put(key, readValue());
+			}
+			return map;
+		}
+
+		private Object readValue() throws IOException {
+			byte tag = in.readByte();
+			return switch (tag) {
+			case VALUE_NULL -> null;
+			case VALUE_STRING -> readString();
+			case VALUE_BOOLEAN -> Boolean.valueOf(in.readBoolean());
+			case VALUE_INTEGER -> Integer.valueOf(in.readInt());
+			case VALUE_LONG -> Long.valueOf(in.readLong());
+			case VALUE_DOUBLE -> Double.valueOf(in.readDouble());
+			case VALUE_FLOAT -> Float.valueOf(in.readFloat());
+			case VALUE_SHORT -> Short.valueOf(in.readShort());
+			case VALUE_BYTE -> Byte.valueOf(in.readByte());
+			case VALUE_CHARACTER -> Character.valueOf(in.readChar());
+			case VALUE_BIG_DECIMAL -> new BigDecimal(readString());
+			case VALUE_BIG_INTEGER -> new BigInteger(readString());
+			case VALUE_LIST -> {
+				int size = readCount();
+				List<Object> list = new ArrayList<>();
+				for (int i = 0; i < size; i++) {
+					list.add(readValue());
+				}
+				yield list;
+			}
+			case VALUE_MAP -> readMap();
+			case VALUE_ARRAY -> {
+				String componentType = readString();
+				Class<?> component = ARRAY_COMPONENT_TYPES.get(componentType);
+				if (component == null) {
+					throw new IOException("Unsupported array type " + componentType);
+				}
+				int length = readCount();
+				List<Object> elements = new ArrayList<>();
+				for (int i = 0; i < length; i++) {
+					elements.add(readValue());
+				}
+				Object array = Array.newInstance(component, length);
+				for (int i = 0; i < length; i++) {
+					try {
+						Array.set(array, i, elements.get(i));
+					} catch (IllegalArgumentException e) {
+						throw new IOException(String.format("Invalid element for a %s array", componentType), e);
+					}
+				}
+				yield array;
+			}
+			default -> throw new IOException("Unknown value type " + tag);
+			};
+		}
+
+		private String readString() throws IOException {
+			int ref = readVarint();
+			if (ref == STRING_NULL) {
+				return null;
+			}
+			if (ref != STRING_NEW) {
+				if (ref < 0 || ref - 2 >= strings.size()) {
+					throw new IOException("Invalid string reference " + ref);
+				}
+				return strings.get(ref - 2);
+			}
+			int length = readCount();
+			// only allocates as much as is actually read
+			byte[] bytes = in.readNBytes(length);
+			if (bytes.length != length) {
+				throw new EOFException();
+			}
+			String s = new String(bytes, StandardCharsets.UTF_8);
+			strings.add(s);
+			return s;
+		}
+
+		private <E extends Enum<E>> E readOrdinal(E[] values, String what) throws IOException {
+			int ordinal = in.readUnsignedByte();
+			if (ordinal >= values.length) {
+				throw new IOException(String.format("Invalid %s %d", what, ordinal));
+			}
+			return values[ordinal];
+		}
+
+		/**
+		 * @return a count or length, which is non-negative but may still exceed the
+		 *         remaining input
+		 */
+		private int readCount() throws IOException {
+			int count = readVarint();
+			if (count < 0) {
+				throw new IOException("Invalid length " + Integer.toUnsignedString(count));
+			}
+			return count;
+		}
+
+		private int readVarint() throws IOException {
+			int value = 0;
+			for (int shift = 0; shift < 32; shift += 7) {
+				int b = in.readUnsignedByte();
+				value |= (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return value;
+				}
+			}
+			throw new IOException("Malformed varint");
+		}
+	}
+}
@@ -15,11 +15,11 @@
 package org.eclipse.osgi.technology.featurelauncher.featureservice.base;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 import org.osgi.service.feature.Feature;
@@ -41,11 +41,14 @@ class FeatureBuilderImpl implements FeatureBuilder {
 	private String vendor;
 	private boolean complete;
 
-	private final List<FeatureBundle> bundles = new ArrayList<>();
-	private final List<String> categories = new ArrayList<>();
-	private final Map<String, FeatureConfiguration> configurations = new LinkedHashMap<>();
-	private final Map<String, FeatureExtension> extensions = new LinkedHashMap<>();
-	private final Map<String, Object> variables = new LinkedHashMap<>();
+	// Handed to the built feature without copying, and copied only if the
+	// builder is modified again afterwards
+	private List<FeatureBundle> bundles = new ArrayList<>();
+	private List<String> categories = new ArrayList<>();
+	private Map<String, FeatureConfiguration> configurations = new LinkedHashMap<>();
+	private Map<String, FeatureExtension> extensions = new LinkedHashMap<>();
+	private Map<String, Object> variables = new LinkedHashMap<>();
+	private boolean shared;
 
 	FeatureBuilderImpl(ID id) {
 		this.id = id;
@@ -95,18 +98,25 @@ class FeatureBuilderImpl implements FeatureBuilder {
 
 	@Override
 	public FeatureBuilder addBundles(FeatureBundle... bundles) {
-		this.bundles.addAll(Arrays.asList(bundles));
+		unshare();
+		for (FeatureBundle bundle : bundles) {
+			this.bundles.add(Objects.requireNonNull(bundle));
+		}
 		return this;
 	}
 
 	@Override
 	public FeatureBuilder addCategories(String... categories) {
-		this.categories.addAll(Arrays.asList(categories));
+		unshare();
+		for (String category : categories) {
+			this.categories.add(Objects.requireNonNull(category));
+		}
 		return this;
 	}
 
 	@Override
 	public FeatureBuilder addConfigurations(FeatureConfiguration... configs) {
+		unshare();
 		for (FeatureConfiguration cfg : configs) {
 			this.configurations.put(cfg.getPid(), cfg);
 		}
@@ -115,6 +125,7 @@ class FeatureBuilderImpl implements FeatureBuilder {
 
 	@Override
 	public FeatureBuilder addExtensions(FeatureExtension... extensions) {
+		unshare();
 		for (FeatureExtension ex : extensions) {
 			this.extensions.put(ex.getName(), ex);
 		}
@@ -123,21 +134,37 @@ class FeatureBuilderImpl implements FeatureBuilder {
 
 	@Override
 	public FeatureBuilder addVariable(String key, Object value) {
+		unshare();
 		this.variables.put(key, value);
 		return this;
 	}
 
 	@Override
 	public FeatureBuilder addVariables(Map<String, Object> variables) {
+		unshare();
 		this.variables.putAll(variables);
 		return this;
 	}
 
 	@Override
 	public Feature build() {
+		shared = true;
 		return new FeatureImpl(id, Optional.ofNullable(name), Optional.ofNullable(description),
 		        Optional.ofNullable(docURL), Optional.ofNullable(license), Optional.ofNullable(scm),
-		        Optional.ofNullable(vendor), complete, bundles, categories, configurations, extensions, variables);
+		        Optional.ofNullable(vendor), complete, Collections.unmodifiableList(bundles),
+		        Collections.unmodifiableList(categories), Collections.unmodifiableMap(configurations),
+		        Collections.unmodifiableMap(extensions), Collections.unmodifiableMap(variables));
+	}
+
+	private void unshare() {
+		if (shared) {
+			bundles = new ArrayList<>(bundles);
+			categories = new ArrayList<>(categories);
+			configurations = new LinkedHashMap<>(configurations);
+			extensions = new LinkedHashMap<>(extensions);
+			variables = new LinkedHashMap<>(variables);
+			shared = false;
+		}
 	}
 
 	private static record FeatureImpl(ID id, Optional<String> name, Optional<String> description,
@@ -146,26 +173,6 @@ class FeatureBuilderImpl implements FeatureBuilder {
 	        Map<String, FeatureConfiguration> configurations, Map<String, FeatureExtension> extensions,
 	        Map<String, Object> variables) implements Feature {
 
-		private FeatureImpl(ID id, Optional<String> name, Optional<String> description, Optional<String> docURL,
-		        Optional<String> license, Optional<String> scm, Optional<String> vendor, boolean complete,
-		        List<FeatureBundle> bundles, List<String> categories, Map<String, FeatureConfiguration> configurations,
-		        Map<String, FeatureExtension> extensions, Map<String, Object> variables) {
-			this.id = id;
-			this.name = name;
-			this.description = description;
-			this.docURL = docURL;
-			this.license = license;
-			this.scm = scm;
-			this.vendor = vendor;
-			this.complete = complete;
-
-			this.bundles = List.copyOf(bundles);
-			this.categories = List.copyOf(categories);
-			this.configurations = Map.copyOf(configurations);
-			this.extensions = Map.copyOf(extensions);
-			this.variables = Collections.unmodifiableMap(variables);// null value allowed
-		}
-
 		@Override
 		public ID getID() {
 			return id;
@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.featureservice.base;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a feature document is not valid JSON, or does not describe a
+ * valid feature. It reports where in the document reading stopped, both as a
+ * text position and as a JSON pointer (RFC 6901) to the offending value.
+ *
+ * The text position of a syntax error is that of the offending token. For other
+ * problems it is how far the document had been read, which may be a few lines
+ * past the offending value as the input is read ahead; the pointer locates the
+ * value exactly.
+ */
+public class FeatureParseException extends IOException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String reason;
+	private final String pointer;
+	private final int line;
+	private final int column;
+
+	FeatureParseException(String reason, String pointer, int line, int column, Throwable cause) {
+		super(String.format("%s at %s (line %d, column %d)", reason, pointer.isEmpty() ? "/" : pointer, line,
+				column), cause);
+		this.reason = reason;
+		this.pointer = pointer;
+		this.line = line;
+		this.column = column;
+	}
+
+	/**
+	 * @return the problem found, without its position
+	 */
+	public String getReason() {
+		return reason;
+	}
+
+	/**
+	 * @return the JSON pointer of the offending value, which is the empty string
+	 *         for the whole document
+	 */
+	public String getPointer() {
+		return pointer;
+	}
+
+	/**
+	 * @return the line at which reading stopped, starting at 1, or -1 if not
+	 *         known
+	 */
+	public int getLine() {
+		return line;
+	}
+
+	/**
+	 * @return the column at which reading stopped, starting at 1, or -1 if not
+	 *         known. For a syntax error, comments earlier on the same line are
+	 *         not counted.
+	 */
+	public int getColumn() {
+		return column;
+	}
+}
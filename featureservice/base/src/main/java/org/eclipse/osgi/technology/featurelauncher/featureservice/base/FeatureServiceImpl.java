@@ -14,19 +14,42 @@
 
 package org.eclipse.osgi.technology.featurelauncher.featureservice.base;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.Reader;
-import java.io.StringReader;
 import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 import org.eclipse.osgi.technology.featurelauncher.featureservice.base.external.CommentRemovingReader;
 import org.eclipse.osgi.technology.featurelauncher.featureservice.base.external.TypeConverter;
@@ -38,7 +61,6 @@ import org.osgi.service.feature.FeatureBundle;
 import org.osgi.service.feature.FeatureConfiguration;
 import org.osgi.service.feature.FeatureConfigurationBuilder;
 import org.osgi.service.feature.FeatureExtension;
-import org.osgi.service.feature.FeatureExtensionBuilder;
 import org.osgi.service.feature.FeatureService;
 import org.osgi.service.feature.ID;
 
@@ -48,10 +70,45 @@ import com.grack.nanojson.JsonReader;
 import com.grack.nanojson.JsonSink;
 import com.grack.nanojson.JsonStringWriter;
 import com.grack.nanojson.JsonWriter;
+import com.grack.nanojson.JsonWriterException;
 
 public class FeatureServiceImpl implements FeatureService {
+
+	/**
+	 * The outcome of reading one of the files passed to
+	 * {@link FeatureServiceImpl#readFeatures(Stream)}
+	 *
+	 * @param path    the feature file
+	 * @param feature the feature read, or null if it could not be read
+	 * @param error   the reason the feature could not be read, or null
+	 */
+	public record ReadResult(Path path, Feature feature, Exception error) {
+
+		public boolean isSuccess() {
+			return error == null;
+		}
+	}
+
+	// The only version of the feature document format
+	private static final String FEATURE_RESOURCE_VERSION = "1.0";
+
+	// Bound on the number of interned IDs, beyond which the least recently used
+	// are forgotten
+	static final int MAX_INTERNED_IDS = 10_000;
+
 	private final BuilderFactoryImpl builderFactory = new BuilderFactoryImpl();
 
+	// The same IDs are created repeatedly when reading features, so share a
+	// single instance of each, keyed by its maven coordinates. Guarded by itself.
+	private final Map<String, IDImpl> internedIDs = new LinkedHashMap<>(64, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Entry<String, IDImpl> eldest) {
+			return size() > MAX_INTERNED_IDS;
+		}
+	};
+
 	@Override
 	public BuilderFactory getBuilderFactory() {
 		return builderFactory;
@@ -59,12 +116,16 @@ public class FeatureServiceImpl implements FeatureService {
 
 	@Override
 	public ID getIDfromMavenCoordinates(String mavenID) {
-		return IDImpl.fromMavenID(mavenID);
+		IDImpl id;
+		synchronized (internedIDs) {
+			id = internedIDs.get(mavenID);
+		}
+		return id == null ? intern(IDImpl.fromMavenID(mavenID)) : id;
 	}
 
 	@Override
 	public ID getID(String groupId, String artifactId, String version) {
-		return new IDImpl(groupId, artifactId, version, Optional.empty(), Optional.empty());
+		return intern(new IDImpl(groupId, artifactId, version, Optional.empty(), Optional.empty()));
 	}
 
 	@Override
@@ -73,7 +134,7 @@ public class FeatureServiceImpl implements FeatureService {
 			throw new NullPointerException("type must not be null");
 		}
 
-		return new IDImpl(groupId, artifactId, version, Optional.of(type), Optional.empty());
+		return intern(new IDImpl(groupId, artifactId, version, Optional.of(type), Optional.empty()));
 	}
 
 	@Override
@@ -85,81 +146,189 @@ public class FeatureServiceImpl implements FeatureService {
 			throw new NullPointerException("classifier must not be null");
 		}
 
-		return new IDImpl(groupId, artifactId, version, Optional.of(type), Optional.of(classifier));
+		return intern(new IDImpl(groupId, artifactId, version, Optional.of(type), Optional.of(classifier)));
+	}
+
+	private IDImpl intern(IDImpl id) {
+		synchronized (internedIDs) {
+			IDImpl existing = internedIDs.putIfAbsent(id.toString(), id);
+			return existing == null ? id : existing;
+		}
 	}
 
 	@Override
 	public Feature readFeature(Reader jsonReader) throws IOException {
+		return readFeature(jsonReader, false);
+	}
 
-		try {
-			CommentRemovingReader cleanReader = new CommentRemovingReader(jsonReader);
-			JsonReader reader = JsonReader.from(cleanReader);
-			reader.object();
+	/**
+	 * Read a feature, enforcing the constraints of the feature JSON schema which
+	 * {@link #readFeature(Reader)} tolerates: the document must not repeat a
+	 * member, its {@code feature-resource-version} must be 1.0, every bundle must
+	 * have an ID, configuration values must convert to their declared type, and
+	 * configuration PIDs and extension names must be unique.
+	 *
+	 * Both methods validate the document as it is read, and stop at the first
+	 * problem without reading the rest of it.
+	 *
+	 * @param jsonReader the feature document
+	 * @return the feature
+	 * @throws FeatureParseException if the document is not a valid feature
+	 * @throws IOException           if the document cannot be read
+	 */
+	public Feature readFeatureStrict(Reader jsonReader) throws IOException {
+		return readFeature(jsonReader, true);
+	}
 
-			// cache here because id must not be first
-			String id = null;
-			String name = null;
-			String description = null;
-			String docURL = null;
-			String license = null;
-			String scm = null;
-			String vendor = null;
-			boolean complete = false;
-			Map<String, Object> variables = Map.of();
-			FeatureBundle[] bundles = new FeatureBundle[] {};
-			String[] categories = new String[] {};
-			FeatureConfiguration[] configurations = new FeatureConfiguration[] {};
-			FeatureExtension[] extensions = new FeatureExtension[] {};
+	private Feature readFeature(Reader jsonReader, boolean strict) throws IOException {
+		ReadContext ctx = new ReadContext(strict, new PositionReader(jsonReader));
+		try {
+			ctx.reader = JsonReader.from(new CommentRemovingReader(ctx.position));
+			return readFeature(ctx);
+		} catch (JsonParserException e) {
+			if (e.getCause() instanceof IOException io) {
+				throw io;
+			}
+			throw ctx.error(e);
+		} catch (IllegalArgumentException e) {
+			// an invalid ID, enum constant or value conversion
+			throw ctx.error(e);
+		}
+	}
 
-			while (reader.next()) {
-				switch (reader.key()) {
-				case "id" -> id = reader.string();
-				case "name" -> name = reader.string();
-				case "description" -> description = reader.string();
-				case "docURL" -> docURL = reader.string();
-				case "license" -> license = reader.string();
-				case "scm" -> scm = reader.string();
-				case "vendor" -> vendor = reader.string();
-				case "complete" -> complete = reader.bool();
-				case "variables" -> variables = readVariables(reader);
-				case "bundles" -> bundles = readBundles(reader);
-				case "categories" -> categories = readCategories(reader);
-				case "configurations" -> configurations = readConfigurations(reader);
-				case "extensions" -> extensions = readExtensions(reader);
-				default -> skipValue(reader);
+	private Feature readFeature(ReadContext ctx) throws JsonParserException, FeatureParseException {
+		JsonReader reader = ctx.reader;
+		ctx.object();
+
+		// cache here because id must not be first
+		ID id = null;
+		String name = null;
+		String description = null;
+		String docURL = null;
+		String license = null;
+		String scm = null;
+		String vendor = null;
+		boolean complete = false;
+		Map<String, Object> variables = Map.of();
+		FeatureBundle[] bundles = new FeatureBundle[] {};
+		String[] categories = new String[] {};
+		FeatureConfiguration[] configurations = new FeatureConfiguration[] {};
+		FeatureExtension[] extensions = new FeatureExtension[] {};
+
+		Set<String> seen = new HashSet<>();
+		while (reader.next()) {
+			String key = reader.key();
+			ctx.enter(key);
+			if (ctx.strict && !seen.add(key)) {
+				throw ctx.error("Duplicate member '" + key + "'");
+			}
+			switch (key) {
+			case "id" -> id = getIDfromMavenCoordinates(ctx.string(false));
+			case "name" -> name = ctx.string(true);
+			case "description" -> description = ctx.string(true);
+			case "docURL" -> docURL = ctx.string(true);
+			case "license" -> license = ctx.string(true);
+			case "scm" -> scm = ctx.string(true);
+			case "vendor" -> vendor = ctx.string(true);
+			case "complete" -> complete = ctx.bool();
+			case "variables" -> variables = readVariables(ctx);
+			case "bundles" -> bundles = readBundles(ctx);
+			case "categories" -> categories = readCategories(ctx);
+			case "configurations" -> configurations = readConfigurations(ctx);
+			case "extensions" -> extensions = readExtensions(ctx);
+			case "feature-resource-version" -> {
+				if (!ctx.strict) {
+					skipValue(reader);
+				} else if (!FEATURE_RESOURCE_VERSION.equals(ctx.string(false))) {
+					throw ctx.error("Unsupported feature-resource-version, expected " + FEATURE_RESOURCE_VERSION);
 				}
 			}
-
-			if (id == null) {
-				throw new IOException("Feature JSON missing required 'id' field");
+			default -> skipValue(reader);
 			}
+			ctx.exit();
+		}
 
-			// now create builder with id and set cached values
-			var builder = builderFactory.newFeatureBuilder(getIDfromMavenCoordinates(id));
-			builder.setName(name);
-			builder.setDescription(description);
-			builder.setDocURL(docURL);
-			builder.setLicense(license);
-			builder.setSCM(scm);
-			builder.setVendor(vendor);
-			builder.setComplete(complete);
-			builder.addVariables(variables);
-			builder.addBundles(bundles);
-			builder.addCategories(categories);
-			builder.addConfigurations(configurations);
-			builder.addExtensions(extensions);
+		if (id == null) {
+			throw ctx.error("Feature JSON missing required 'id' field");
+		}
 
-			return builder.build();
-		} catch (JsonParserException e) {
-			throw new IOException("Invalid JSON", e);
+		// now create builder with id and set cached values
+		var builder = builderFactory.newFeatureBuilder(id);
+		builder.setName(name);
+		builder.setDescription(description);
+		builder.setDocURL(docURL);
+		builder.setLicense(license);
+		builder.setSCM(scm);
+		builder.setVendor(vendor);
+		builder.setComplete(complete);
+		builder.addVariables(variables);
+		builder.addBundles(bundles);
+		builder.addCategories(categories);
+		builder.addConfigurations(configurations);
+		builder.addExtensions(extensions);
+
+		return builder.build();
+	}
+
+	/**
+	 * Read many feature files in parallel, using a pool of at most one thread per
+	 * processor which is created for this call and shut down when it returns. The
+	 * parses share this service's ID intern table, and a file which cannot be read
+	 * does not prevent the others from being read.
+	 *
+	 * @param paths the feature files, which must be UTF-8 encoded JSON
+	 * @return a result for each file, in the order of the stream
+	 */
+	public List<ReadResult> readFeatures(Stream<Path> paths) {
+		List<Path> files = paths.toList();
+		int threads = Math.min(Runtime.getRuntime().availableProcessors(), files.size());
+		if (threads <= 1) {
+			return files.stream().map(this::readFeatureFile).toList();
+		}
+
+		AtomicInteger threadCount = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+			Thread t = new Thread(r, "featureservice-read-" + threadCount.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+		try {
+			return readFeatures(files.stream(), executor);
+		} finally {
+			executor.shutdown();
 		}
 	}
 
-	private Map<String, Object> readVariables(JsonReader reader) throws JsonParserException {
+	/**
+	 * Read many feature files in parallel, using the supplied executor. Reading
+	 * blocks on file I/O, so the executor should not be one that is shared with
+	 * computational work, such as the common fork-join pool.
+	 *
+	 * @param paths    the feature files, which must be UTF-8 encoded JSON
+	 * @param executor runs the reads, one task per file
+	 * @return a result for each file, in the order of the stream
+	 */
+	public List<ReadResult> readFeatures(Stream<Path> paths, Executor executor) {
+		List<CompletableFuture<ReadResult>> reads = paths
+				.map(p -> CompletableFuture.supplyAsync(() -> readFeatureFile(p), executor)).toList();
+		return reads.stream().map(CompletableFuture::join).toList();
+	}
+
+	private ReadResult readFeatureFile(Path path) {
+		try (Reader reader = new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8)) {
+			return new ReadResult(path, readFeature(reader), null);
+		} catch (IOException | RuntimeException e) {
+			return new ReadResult(path, null, e);
+		}
+	}
+
+	private Map<String, Object> readVariables(ReadContext ctx) throws JsonParserException, FeatureParseException {
+		JsonReader reader = ctx.reader;
 		Map<String, Object> variables = new LinkedHashMap<>();
-		reader.object();
+		ctx.object();
 		while (reader.next()) {
 			String key = reader.key();
+			ctx.enter(key);
 			switch (reader.current()) {
 			case STRING -> variables.put(key, reader.string());
 			case NUMBER -> variables.put(key, toBigDecimal(reader.number()));
@@ -168,9 +337,9 @@ public class FeatureServiceImpl implements FeatureService {
 				reader.nul();
 				variables.put(key, null);
 			}
-			default -> throw new IllegalArgumentException(
-					"Variables can only contain singular values, not objects or arrays.");
+			default -> throw ctx.error("Variables can only contain singular values, not objects or arrays");
 			}
+			ctx.exit();
 		}
 		return variables;
 	}
@@ -188,51 +357,70 @@ public class FeatureServiceImpl implements FeatureService {
 		return new BigDecimal(n.toString());
 	}
 
-	private FeatureBundle[] readBundles(JsonReader reader) throws JsonParserException {
+	private FeatureBundle[] readBundles(ReadContext ctx) throws JsonParserException, FeatureParseException {
+		JsonReader reader = ctx.reader;
 		List<FeatureBundle> bundles = new ArrayList<>();
-		reader.array();
-		while (reader.next()) {
-			reader.object();
-			String bid = null;
+		ctx.array();
+		for (int i = 0; reader.next(); i++) {
+			ctx.enter(i);
+			ctx.object();
+			ID bid = null;
 			Map<String, Object> metadata = new LinkedHashMap<>();
 			while (reader.next()) {
 				String key = reader.key();
 				if ("id".equals(key)) {
-					bid = reader.string();
+					ctx.enter(key);
+					String mavenID = ctx.string(true);
+					// parsed straight away so that a bad ID is reported where it is
+					bid = mavenID == null ? null : getIDfromMavenCoordinates(mavenID);
+					ctx.exit();
 				} else {
 					metadata.put(key, reader.value());
 				}
 			}
 			if (bid != null) {
-				var builder = builderFactory.newBundleBuilder(getIDfromMavenCoordinates(bid));
+				var builder = builderFactory.newBundleBuilder(bid);
 				for (Entry<String, Object> entry : metadata.entrySet()) {
 					builder.addMetadata(entry.getKey(), entry.getValue());
 				}
 				bundles.add(builder.build());
+			} else if (ctx.strict) {
+				throw ctx.error("Bundle missing required 'id' field");
 			}
+			ctx.exit();
 		}
 		return bundles.toArray(new FeatureBundle[0]);
 	}
 
-	private String[] readCategories(JsonReader reader) throws JsonParserException {
+	private String[] readCategories(ReadContext ctx) throws JsonParserException, FeatureParseException {
+		JsonReader reader = ctx.reader;
 		List<String> cats = new ArrayList<>();
-		reader.array();
-		while (reader.next()) {
-			String category = reader.string();
+		ctx.array();
+		for (int i = 0; reader.next(); i++) {
+			ctx.enter(i);
+			String category = ctx.string(true);
 			if (category != null) {
 				cats.add(category);
 			} else {
-				throw new IllegalArgumentException("Invalid category: null");
+				throw ctx.error("Invalid category: null");
 			}
+			ctx.exit();
 		}
 		return cats.toArray(new String[] {});
 	}
 
-	private FeatureConfiguration[] readConfigurations(JsonReader reader) throws JsonParserException {
+	private FeatureConfiguration[] readConfigurations(ReadContext ctx)
+			throws JsonParserException, FeatureParseException {
+		JsonReader reader = ctx.reader;
 		List<FeatureConfiguration> configs = new ArrayList<>();
-		reader.object();
+		Set<String> seen = new HashSet<>();
+		ctx.object();
 		while (reader.next()) {
 			String p = reader.key();
+			ctx.enter(p);
+			if (ctx.strict && !seen.add(p)) {
+				throw ctx.error("Duplicate configuration '" + p + "'");
+			}
 			String factoryPid = null;
 			var idx = p.indexOf('~');
 			if (idx > 0) {
@@ -247,20 +435,22 @@ public class FeatureServiceImpl implements FeatureService {
 				builder = builderFactory.newConfigurationBuilder(factoryPid, p);
 			}
 
-			Map<String, Object> cmap = readConfigValues(reader);
+			Map<String, Object> cmap = readConfigValues(ctx);
 			builder.addValues(cmap);
 			configs.add(builder.build());
+			ctx.exit();
 		}
 		return configs.toArray(new FeatureConfiguration[] {});
 	}
 
-	private Map<String, Object> readConfigValues(JsonReader reader) throws JsonParserException {
+	private Map<String, Object> readConfigValues(ReadContext ctx) throws JsonParserException, FeatureParseException {
+		JsonReader reader = ctx.reader;
 		Hashtable<String, Object> config = new Hashtable<>();
-		reader.object();
+		ctx.object();
 		while (reader.next()) {
 			String key = reader.key();
+			ctx.enter(key);
 			Object value;
-
 			switch (reader.current()) {
 			case OBJECT -> {
 				value = captureJsonObject(reader);
@@ -277,26 +467,24 @@ public class FeatureServiceImpl implements FeatureService {
 			}
 
 			String propertyKey = key;
-			String typeInfo = null;
 			int colonIdx = key.lastIndexOf(':');
 			if (colonIdx > 0 && colonIdx < key.length() - 1) {
-				String candidateType = key.substring(colonIdx + 1);
-				if (TypeConverter.isKnownType(candidateType)) {
+				TypeConverter.Conversion conversion = TypeConverter.getConversion(key.substring(colonIdx + 1));
+				if (conversion != null) {
 					propertyKey = key.substring(0, colonIdx);
-					typeInfo = candidateType;
-				}
-			}
-
-			if (typeInfo != null) {
-				Object converted = TypeConverter.toType(value, typeInfo);
-				if (converted != TypeConverter.FAILED) {
-					value = converted;
+					Object converted = conversion.convert(value);
+					if (converted != TypeConverter.FAILED) {
+						value = converted;
+					} else if (ctx.strict) {
+						throw ctx.error("Value cannot be converted to " + key.substring(colonIdx + 1));
+					}
 				}
 			}
 
 			if (value != null) {
 				config.put(propertyKey, value);
 			}
+			ctx.exit();
 		}
 		return config;
 	}
@@ -322,105 +510,132 @@ public class FeatureServiceImpl implements FeatureService {
 		return value;
 	}
 
-	private FeatureExtension[] readExtensions(JsonReader reader) throws JsonParserException {
+	private FeatureExtension[] readExtensions(ReadContext ctx) throws JsonParserException, FeatureParseException {
+		JsonReader reader = ctx.reader;
 		List<FeatureExtension> extensions = new ArrayList<>();
-		reader.object();
+		Set<String> seen = new HashSet<>();
+		ctx.object();
 		while (reader.next()) {
 			String extensionName = reader.key();
-			extensions.add(readSingleExtension(reader, extensionName));
+			ctx.enter(extensionName);
+			if (ctx.strict && !seen.add(extensionName)) {
+				throw ctx.error("Duplicate extension '" + extensionName + "'");
+			}
+			extensions.add(readSingleExtension(ctx, extensionName));
+			ctx.exit();
 		}
 		return extensions.toArray(new FeatureExtension[] {});
 	}
 
-	private FeatureExtension readSingleExtension(JsonReader reader, String name) throws JsonParserException {
-		reader.object();
+	private FeatureExtension readSingleExtension(ReadContext ctx, String name)
+			throws JsonParserException, FeatureParseException {
+		JsonReader reader = ctx.reader;
+		ctx.object();
 
-		String sType = null;
-		String sKind = "optional";
+		FeatureExtension.Type typeFromTypeField = null;
+		FeatureExtension.Kind kind = FeatureExtension.Kind.OPTIONAL;
 		FeatureExtension.Type typeFromContentField = null;
 		List<String> textLines = null;
 		List<ArtifactData> artifactDataList = null;
-		String jsonString = null;
+		ExtensionJson json = null;
 
 		while (reader.next()) {
-			switch (reader.key()) {
-			case "type" -> sType = reader.string();
-			case "kind" -> sKind = reader.string();
+			String key = reader.key();
+			ctx.enter(key);
+			switch (key) {
+			case "type" -> {
+				String sType = ctx.string(true);
+				typeFromTypeField = switch (String.valueOf(sType)) {
+				case "text" -> FeatureExtension.Type.TEXT;
+				case "artifacts" -> FeatureExtension.Type.ARTIFACTS;
+				case "json" -> FeatureExtension.Type.JSON;
+				default -> throw ctx.error("Invalid extension type: " + sType);
+				};
+			}
+			case "kind" -> {
+				String sKind = ctx.string(true);
+				try {
+					kind = FeatureExtension.Kind.valueOf(String.valueOf(sKind).toUpperCase(Locale.ROOT));
+				} catch (IllegalArgumentException e) {
+					throw ctx.error("Invalid extension kind: " + sKind);
+				}
+			}
 			case "text" -> {
 				typeFromContentField = FeatureExtension.Type.TEXT;
 				textLines = new ArrayList<>();
-				reader.array();
-				while (reader.next()) {
-					textLines.add(reader.string());
+				ctx.array();
+				for (int i = 0; reader.next(); i++) {
+					ctx.enter(i);
+					textLines.add(ctx.string(true));
+					ctx.exit();
 				}
 			}
 			case "artifacts" -> {
 				typeFromContentField = FeatureExtension.Type.ARTIFACTS;
 				artifactDataList = new ArrayList<>();
-				reader.array();
-				while (reader.next()) {
-					reader.object();
-					String artId = null;
+				ctx.array();
+				for (int i = 0; reader.next(); i++) {
+					ctx.enter(i);
+					ctx.object();
+					ID artId = null;
 					Map<String, Object> metadata = new LinkedHashMap<>();
 					while (reader.next()) {
-						String key = reader.key();
-						if ("id".equals(key)) {
-							artId = reader.string();
+						String artKey = reader.key();
+						if ("id".equals(artKey)) {
+							ctx.enter(artKey);
+							artId = getIDfromMavenCoordinates(ctx.string(false));
+							ctx.exit();
 						} else {
-							metadata.put(key, reader.value());
+							metadata.put(artKey, reader.value());
 						}
 					}
+					if (artId == null) {
+						throw ctx.error("Artifact missing required 'id' field");
+					}
 					artifactDataList.add(new ArtifactData(artId, metadata));
+					ctx.exit();
 				}
 			}
 			case "json" -> {
 				typeFromContentField = FeatureExtension.Type.JSON;
-				jsonString = captureJsonObject(reader);
+				json = ExtensionJson.read(reader);
 			}
 			default -> skipValue(reader);
 			}
+			ctx.exit();
 		}
 
-		FeatureExtension.Type typeFromTypeField;
-		if ("text".equals(sType)) {
-			typeFromTypeField = FeatureExtension.Type.TEXT;
-		} else if ("artifacts".equals(sType)) {
-			typeFromTypeField = FeatureExtension.Type.ARTIFACTS;
-		} else if ("json".equals(sType)) {
-			typeFromTypeField = FeatureExtension.Type.JSON;
-		} else {
-			throw new IllegalStateException("Invalid extension type: " + sType);
+		if (typeFromTypeField == null) {
+			throw ctx.error("Invalid extension type: null");
 		}
 
 		if (typeFromContentField == null) {
-			throw new IllegalStateException("Extension has no content field: " + name);
+			throw ctx.error("Extension has no content field: " + name);
 		}
 
 		if (typeFromTypeField != typeFromContentField) {
-			throw new IllegalStateException("The type of the extension is not consistent to the content: "
+			throw ctx.error("The type of the extension is not consistent to the content: "
 					+ typeFromTypeField + " != " + typeFromContentField);
 		}
 
-		var kind = FeatureExtension.Kind.valueOf(sKind.toUpperCase());
-		FeatureExtensionBuilder builder = builderFactory.newExtensionBuilder(name, typeFromContentField, kind);
+		ExtensionBuilderImpl builder = new ExtensionBuilderImpl(name, typeFromContentField, kind);
 
 		switch (typeFromContentField) {
 		case TEXT -> textLines.forEach(builder::addText);
 		case ARTIFACTS -> {
 			for (ArtifactData ad : artifactDataList) {
-				ID id = getIDfromMavenCoordinates(ad.id());
-				FeatureArtifactBuilder fab = builderFactory.newArtifactBuilder(id);
+				FeatureArtifactBuilder fab = builderFactory.newArtifactBuilder(ad.id());
 				fab.addMetadata(ad.metadata());
 				builder.addArtifact(fab.build());
 			}
 		}
-		case JSON -> builder.setJSON(jsonString);
+		case JSON -> builder.setJSON(json);
 		}
 
 		return builder.build();
 	}
 
-	private record ArtifactData(String id, Map<String, Object> metadata) {
+	private record ArtifactData(ID id, Map<String, Object> metadata) {
 	}
 
 	private String captureJsonObject(JsonReader reader) throws JsonParserException {
@@ -508,9 +723,80 @@ public class FeatureServiceImpl implements FeatureService {
 		}
 	}
 
+	/**
+	 * Write a feature in a compact binary form, which can be read back much
+	 * faster than JSON by {@link #readFeatureBinary(InputStream)}. The stream is
+	 * flushed but not closed.
+	 *
+	 * @param feature the feature to write
+	 * @param out     the stream to write to
+	 * @throws IOException if the feature contains a value which cannot be
+	 *                     represented, or the stream cannot be written
+	 */
+	public void writeFeatureBinary(Feature feature, OutputStream out) throws IOException {
+		FeatureBinaryFormat.write(feature, new DataOutputStream(new BufferedOutputStream(out)));
+	}
+
+	/**
+	 * Read a feature written by {@link #writeFeatureBinary(Feature, OutputStream)}.
+	 * The stream is buffered, so may be read beyond the end of the feature, and is
+	 * not closed.
+	 *
+	 * @param in the stream to read from
+	 * @return the feature
+	 * @throws IOException if the stream does not contain a binary feature
+	 */
+	public Feature readFeatureBinary(InputStream in) throws IOException {
+		try {
+			return FeatureBinaryFormat.read(this, new DataInputStream(new BufferedInputStream(in)));
+		} catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+			throw new IOException("Invalid binary feature", e);
+		}
+	}
+
 	@Override
 	public void writeFeature(Feature feature, Writer jsonWriter) throws IOException {
-		JsonAppendableWriter jaw = JsonWriter.indent("  ").on(jsonWriter);
+		writeFeature(feature, JsonWriter.indent("  ").on(jsonWriter));
+	}
+
+	/**
+	 * Write a feature as compact, non-indented, JSON encoded directly as UTF-8.
+	 * The stream is flushed but not closed.
+	 *
+	 * @param feature the feature to write
+	 * @param out     the stream to write to
+	 * @throws IOException
+	 */
+	public void writeFeatureCompact(Feature feature, OutputStream out) throws IOException {
+		writeFeature(feature, JsonWriter.on(out));
+	}
+
+	/**
+	 * Write a feature as compact, non-indented, JSON encoded directly as UTF-8,
+	 * as {@link #writeFeatureCompact(Feature, OutputStream)}. The channel is not
+	 * closed.
+	 *
+	 * @param feature the feature to write
+	 * @param channel the channel to write to
+	 * @throws IOException
+	 */
+	public void writeFeatureCompact(Feature feature, WritableByteChannel channel) throws IOException {
+		writeFeatureCompact(feature, Channels.newOutputStream(channel));
+	}
+
+	private void writeFeature(Feature feature, JsonAppendableWriter jaw) throws IOException {
+		try {
+			writeFeatureJson(feature, jaw);
+		} catch (JsonWriterException e) {
+			// nanojson reports a failure of the underlying stream unchecked
+			if (e.getCause() instanceof IOException ioe) {
+				throw ioe;
+			}
+			throw e;
+		}
+	}
+
+	private void writeFeatureJson(Feature feature, JsonAppendableWriter jaw) throws IOException {
 		jaw.object();
 		jaw.value("id", feature.getID().toString());
 		feature.getName().ifPresent(n -> jaw.value("name", n));
@@ -673,7 +959,7 @@ public class FeatureServiceImpl implements FeatureService {
 				break;
 			case JSON:
 				jaw.key("json");
-				streamJsonObjectToWriter(extVal.getJSON(), jaw);
+				writeExtensionJson(extVal, jaw);
 				break;
 			}
 			jaw.end();
@@ -682,15 +968,103 @@ public class FeatureServiceImpl implements FeatureService {
 		jaw.end();
 	}
 
-	private void streamJsonObjectToWriter(String json, JsonAppendableWriter jaw) {
-		try {
-			JsonReader reader = JsonReader.from(new StringReader(json));
+	private void writeExtensionJson(FeatureExtension extension, JsonAppendableWriter jaw) {
+		// extensions read by this service are written from their tree, without
+		// rendering and re-parsing their text
+		ExtensionJson json = (extension instanceof ExtensionBuilderImpl.ExtensionImpl ei && ei.json() != null)
+				? ei.json()
+				: ExtensionJson.of(extension.getJSON());
+		json.writeTo(jaw);
+	}
+
+	/**
+	 * The state of reading one feature document. The JSON pointer of the value
+	 * being read is tracked so that errors can say where they occurred; it is not
+	 * unwound when an error is thrown. Other than for syntax errors, which the
+	 * parser locates itself, the position reported is how far reading had got.
+	 */
+	private static final class ReadContext {
+
+		// nanojson appends the position to the messages of its exceptions
+		private static final Pattern POSITION_SUFFIX = Pattern.compile(" on line \\d+, char \\d+$");
+
+		final boolean strict;
+		final PositionReader position;
+		final Deque<Object> path = new ArrayDeque<>();
+		JsonReader reader;
+
+		ReadContext(boolean strict, PositionReader position) {
+			this.strict = strict;
+			this.position = position;
+		}
+
+		void enter(Object segment) {
+			path.addLast(segment);
+		}
+
+		void exit() {
+			path.removeLast();
+		}
+
+		void object() throws JsonParserException, FeatureParseException {
+			expect(JsonReader.Type.OBJECT, false);
 			reader.object();
-			jaw.object();
-			copyObjectContents(reader, jaw);
-			jaw.end();
-		} catch (JsonParserException e) {
-			throw new IllegalArgumentException("Not a Json", e);
+		}
+
+		void array() throws JsonParserException, FeatureParseException {
+			expect(JsonReader.Type.ARRAY, false);
+			reader.array();
+		}
+
+		String string(boolean nullable) throws JsonParserException, FeatureParseException {
+			expect(JsonReader.Type.STRING, nullable);
+			return reader.string();
+		}
+
+		boolean bool() throws JsonParserException, FeatureParseException {
+			expect(JsonReader.Type.BOOLEAN, false);
+			return reader.bool();
+		}
+
+		private void expect(JsonReader.Type type, boolean nullable) throws JsonParserException, FeatureParseException {
+			JsonReader.Type current = reader.current();
+			if (current != type && !(nullable && current == JsonReader.Type.NULL)) {
+				throw error(String.format("Expected %s but found %s", describe(type), describe(current)));
+			}
+		}
+
+		private static String describe(JsonReader.Type type) {
+			return switch (type) {
+			case OBJECT -> "an object";
+			case ARRAY -> "an array";
+			case NULL -> "null";
+			default -> "a " + type.name().toLowerCase(Locale.ROOT);
+			};
+		}
+
+		FeatureParseException error(String reason) {
+			return error(reason, null);
+		}
+
+		FeatureParseException error(JsonParserException e) {
+			String reason = POSITION_SUFFIX.matcher(String.valueOf(e.getMessage())).replaceFirst("");
+			return new FeatureParseException(reason, pointer(), e.getLinePosition(), e.getCharPosition(), e);
+		}
+
+		FeatureParseException error(IllegalArgumentException e) {
+			return error(e.getMessage() != null ? e.getMessage() : e.toString(), e);
+		}
+
+		private FeatureParseException error(String reason, Throwable cause) {
+			return new FeatureParseException(reason, pointer(), position.line(), position.column(), cause);
+		}
+
+		private String pointer() {
+			StringBuilder sb = new StringBuilder();
+			for (Object segment : path) {
+				sb.append('/').append(segment.toString().replace("~", "~0").replace("/", "~1"));
+			}
+			return sb.toString();
 		}
 	}
 }
@@ -19,8 +19,20 @@ import java.util.Optional;
 
 import org.osgi.service.feature.ID;
 
-public record IDImpl(String groupId, String artifactId, String version, Optional<String> type,
-        Optional<String> classifier) implements ID {
+/**
+ * An immutable artifact ID. The string form and hash code are computed once,
+ * as IDs are used as map keys and bundle locations throughout a launch.
+ */
+public final class IDImpl implements ID {
+
+	private final String groupId;
+	private final String artifactId;
+	private final String version;
+	private final Optional<String> type;
+	private final Optional<String> classifier;
+
+	private final String string;
+	private final int hash;
 
 	/**
 	 * Construct an ID from a Maven ID. Maven IDs have the following syntax:
@@ -32,33 +44,32 @@ public record IDImpl(String groupId, String artifactId, String version, Optional
 	 * @throws IllegalArgumentException if the mavenID does not match the Syntax
 	 */
 	public static IDImpl fromMavenID(String mavenID) throws IllegalArgumentException {
-		var parts = mavenID.split(":");
-
-		if (mavenID.startsWith(":") || mavenID.endsWith(":") || mavenID.contains("::")) {
-			throw new IllegalArgumentException("Not a valid maven ID" + mavenID);
+		// Locate the separators in a single pass, the segments between them then
+		// cannot contain a colon
+		int c1 = mavenID.indexOf(':');
+		int c2 = c1 < 0 ? -1 : mavenID.indexOf(':', c1 + 1);
+		if (c2 < 0) {
+			throw new IllegalArgumentException("Not a valid maven ID: " + mavenID);
+		}
+		int c3 = mavenID.indexOf(':', c2 + 1);
+		int c4 = c3 < 0 ? -1 : mavenID.indexOf(':', c3 + 1);
+		if (c4 >= 0 && mavenID.indexOf(':', c4 + 1) >= 0) {
+			throw new IllegalArgumentException("Not a valid maven ID: " + mavenID);
 		}
 
-		if (parts.length < 3 || parts.length > 5) {
-			throw new IllegalArgumentException("Not a valid maven ID" + mavenID);
+		int last = c4 >= 0 ? c4 : c3 >= 0 ? c3 : c2;
+		if (c1 == 0 || c2 == c1 + 1 || (c3 >= 0 && c3 == c2 + 1) || (c4 >= 0 && c4 == c3 + 1)
+				|| last == mavenID.length() - 1) {
+			throw new IllegalArgumentException("Not a valid maven ID: " + mavenID);
 		}
 
-		var gid = parts[0];
-		var aid = parts[1];
-		String ver = null;
-		Optional<String> t = Optional.empty();
-		Optional<String> c = Optional.empty();
+		var gid = mavenID.substring(0, c1);
+		var aid = mavenID.substring(c1 + 1, c2);
+		var ver = mavenID.substring(last + 1);
+		Optional<String> t = c3 < 0 ? Optional.empty() : Optional.of(mavenID.substring(c2 + 1, c3));
+		Optional<String> c = c4 < 0 ? Optional.empty() : Optional.of(mavenID.substring(c3 + 1, c4));
 
-		if (parts.length == 3) {
-			ver = parts[2];
-		} else if (parts.length == 4) {
-			t = Optional.of(parts[2]);
-			ver = parts[3];
-		} else {
-			t = Optional.of(parts[2]);
-			c = Optional.of(parts[3]);
-			ver = parts[4];
-		}
-		return new IDImpl(gid, aid, ver, t, c);
+		return new IDImpl(gid, aid, ver, t, c, mavenID);
 	}
 
 	/**
@@ -77,7 +88,6 @@ public record IDImpl(String groupId, String artifactId, String version, Optional
 	 */
 	public IDImpl(String groupId, String artifactId, String version, Optional<String> type,
 	        Optional<String> classifier) {
-
 		Objects.requireNonNull(groupId, "groupId");
 		Objects.requireNonNull(artifactId, "artifact");
 		Objects.requireNonNull(version, "version");
@@ -125,6 +135,40 @@ public record IDImpl(String groupId, String artifactId, String version, Optional
 		this.version = version;
 		this.type = type;
 		this.classifier = classifier;
+		this.string = toString(groupId, artifactId, version, type, classifier);
+		this.hash = string.hashCode();
+	}
+
+	// For segments already known to be valid, and their string form
+	private IDImpl(String groupId, String artifactId, String version, Optional<String> type,
+	        Optional<String> classifier, String string) {
+		this.groupId = groupId;
+		this.artifactId = artifactId;
+		this.version = version;
+		this.type = type;
+		this.classifier = classifier;
+		this.string = string;
+		this.hash = string.hashCode();
+	}
+
+	public String groupId() {
+		return groupId;
+	}
+
+	public String artifactId() {
+		return artifactId;
+	}
+
+	public String version() {
+		return version;
+	}
+
+	public Optional<String> type() {
+		return type;
+	}
+
+	public Optional<String> classifier() {
+		return classifier;
 	}
 
 	/**
@@ -186,6 +230,25 @@ public record IDImpl(String groupId, String artifactId, String version, Optional
 	 */
 	@Override
 	public String toString() {
+		return string;
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	// The string form is unambiguous, as no part of the ID may contain a colon
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		return obj instanceof IDImpl other && hash == other.hash && string.equals(other.string);
+	}
+
+	private static String toString(String groupId, String artifactId, String version, Optional<String> type,
+	        Optional<String> classifier) {
 		var sb = new StringBuilder(groupId).append(":").append(artifactId);
 
 		if (type.isPresent()) {
@@ -196,4 +259,4 @@ public record IDImpl(String groupId, String artifactId, String version, Optional
 		}
 		return sb.append(":").append(version).toString();
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.featureservice.base;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Counts the lines and columns of the characters read through it, so that a
+ * problem found while reading a document can say how far into it reading had
+ * got.
+ *
+ * A read never returns more than one line, which stops readers layered above
+ * this one from buffering far beyond the value they are looking at.
+ */
+final class PositionReader extends FilterReader {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private final char[] buffer = new char[BUFFER_SIZE];
+	private int position;
+	private int limit;
+
+	private int line = 1;
+	private int column = 0;
+	private boolean atLineStart = false;
+
+	PositionReader(Reader reader) {
+		super(reader);
+	}
+
+	/**
+	 * @return the line of the last character read, starting at 1
+	 */
+	int line() {
+		return line;
+	}
+
+	/**
+	 * @return the column of the last character read, starting at 1, or 0 if
+	 *         nothing has been read
+	 */
+	int column() {
+		return column;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (position == limit && !fill()) {
+			return -1;
+		}
+		char c = buffer[position++];
+		count(c);
+		return c;
+	}
+
+	@Override
+	public int read(char[] cbuf, int off, int len) throws IOException {
+		if (off < 0 || len < 0 || len > cbuf.length - off) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (len == 0) {
+			return 0;
+		}
+		if (position == limit && !fill()) {
+			return -1;
+		}
+
+		int end = Math.min(limit, position + len);
+		int w = off;
+		for (int p = position; p < end; p++) {
+			char c = buffer[p];
+			cbuf[w++] = c;
+			count(c);
+			if (c == '\n') {
+				break;
+			}
+		}
+		position += w - off;
+		return w - off;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		if (n < 0) {
+			throw new IllegalArgumentException("skip value is negative");
+		}
+		long skipped = 0;
+		while (skipped < n && read() != -1) {
+			skipped++;
+		}
+		return skipped;
+	}
+
+	@Override
+	public boolean ready() throws IOException {
+		return position < limit || in.ready();
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	@Override
+	public void mark(int readAheadLimit) throws IOException {
+		throw new IOException("mark() not supported");
+	}
+
+	@Override
+	public void reset() throws IOException {
+		throw new IOException("reset() not supported");
+	}
+
+	private void count(char c) {
+		if (atLineStart) {
+			line++;
+			column = 1;
+		} else {
+			column++;
+		}
+		atLineStart = c == '\n';
+	}
+
+	private boolean fill() throws IOException {
+		int n;
+		do {
+			n = in.read(buffer, 0, buffer.length);
+		} while (n == 0);
+
+		if (n < 0) {
+			return false;
+		}
+		position = 0;
+		limit = n;
+		return true;
+	}
+}
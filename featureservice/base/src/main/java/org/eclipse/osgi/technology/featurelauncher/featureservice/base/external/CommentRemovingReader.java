@@ -19,158 +19,241 @@
 
 package org.eclipse.osgi.technology.featurelauncher.featureservice.base.external;
 
-import java.io.BufferedReader;
 import java.io.FilterReader;
 import java.io.IOException;
 import java.io.Reader;
 
 /**
  * 
- * Code from: org.apache.felix.cm.json.io.impl.JsonSupport;
+ * Based on code from: org.apache.felix.cm.json.io.impl.JsonSupport;
  * 
- * Helper class to create a BufferedReader that implicitly removes inline and
- * blockcomments from the input
+ * Reader that removes inline and block comments from JSON input.
+ * 
+ * The input is read through a buffer owned by the reader and filtered by a
+ * state machine which is kept between calls, so a comment may span any number
+ * of reads and no memory is allocated per read. Newlines inside comments are
+ * preserved, so that line numbers reported by a parser still match the input.
  */
 public class CommentRemovingReader extends FilterReader {
 
+	private static final int BUFFER_SIZE = 8192;
+
+	// Outside strings and comments
+	private static final int CODE = 0;
+	// After a slash which may start a comment
+	private static final int SLASH = 1;
+	private static final int LINE_COMMENT = 2;
+	private static final int BLOCK_COMMENT = 3;
+	// After a star inside a block comment, which may end it
+	private static final int BLOCK_COMMENT_STAR = 4;
+	private static final int STRING = 5;
+	// After a backslash inside a string
+	private static final int STRING_ESCAPE = 6;
+
+	private final char[] buffer = new char[BUFFER_SIZE];
+	private int position;
+	private int limit;
+	private boolean eof;
+
+	private int state = CODE;
+
+	private final char[] single = new char[1];
+
 	private boolean closed = false;
-	private boolean insideComment = false;
-	private boolean insideLineComment = false;
-	private boolean insideString = false;
-	private boolean isSkippedSlash = false;
-	private char oldChar = 0; // priming with 0 as it is not part of comment or string escaping chars
 
 	public CommentRemovingReader(Reader reader) {
-		super(new BufferedReader(reader));
+		super(reader);
 	}
 
 	@Override
 	public int read() throws IOException {
-		return 0;
+		synchronized (lock) {
+			return read(single, 0, 1) == -1 ? -1 : single[0];
+		}
 	}
 
 	@Override
 	public int read(char[] cbuf, int off, int len) throws IOException {
-		int charsRead = super.read(cbuf, off, len);
-		if (charsRead > 0) {
-			StringBuilder filteredContent = new StringBuilder();
-			StringBuilder currentLine = new StringBuilder();
-
-			for (int i = off; i < off + charsRead; i++) {
-				char c = cbuf[i];
+		synchronized (lock) {
+			ensureOpen();
+			if (off < 0 || len < 0 || len > cbuf.length - off) {
+				throw new IndexOutOfBoundsException();
+			}
+			if (len == 0) {
+				return 0;
+			}
 
-				// Detect String start/end if not inside a comment
-				if (!insideComment && !insideLineComment) {
-					if (c == '"') {
-						// only flip if not escaped quotes
-						if (oldChar != '\\') {
-							insideString = !insideString;
-						}
-						currentLine.append(c);
-						oldChar = c;
-						continue;
+			int w = off;
+			int end = off + len;
+			// Never return 0, which callers could mistake for no progress, while a
+			// buffer full of comment remains to be filtered
+			while (w == off) {
+				if (position == limit && !fill()) {
+					if (state == SLASH) {
+						// a lone slash at the end of the input is not a comment
+						state = CODE;
+						cbuf[w++] = '/';
+						break;
 					}
+					return -1;
 				}
+				w = filter(cbuf, w, end);
+			}
+			return w - off;
+		}
+	}
 
-				// Handle comments only if not inside a string
-				if (!insideString) {
-					// Detect potential start of a comment by detecting a slash
-					if (!insideComment && !insideLineComment && c == '/') {
-						// If the previous character was also a slash, we are inside a single-line
-						// comment
-						if (oldChar == '/') {
-							insideLineComment = true;
-							isSkippedSlash = false;
-						} else {
-							// skipping slash for verification if this is comment - will be ammended on next
-							// char if non-comment
-							isSkippedSlash = true;
-						}
-						oldChar = c;
-						continue;
-					}
-					// Detect potential start of a multiline comment by detecting a star
-					if (!insideComment && !insideLineComment && c == '*') {
-						// If the previous character was also a slash, we are inside a multi-line
-						// comment
-						if (oldChar == '/') {
-							insideComment = true;
-							isSkippedSlash = false;
-						} else {
-							// otherwise this is not a comment, just a star
-							currentLine.append(c);
-						}
-						oldChar = c;
-						continue;
-					}
-
-					// if if we skipped over a / above and we're not within a comment, we need to
-					// append the oldChar to the currentLine
-					if (!insideComment && !insideLineComment && isSkippedSlash) {
-						currentLine.append('/');
-						isSkippedSlash = false;
-					}
-
-					// Detect potential end of a linecomment by detecting a newline
-					if (insideLineComment && c == '\n') {
-						insideLineComment = false;
-						currentLine.append(c);
-						oldChar = c;
-						continue;
-					}
+	/**
+	 * Filter buffered input into the caller's buffer, writing at most one char
+	 * per step, until either is exhausted
+	 *
+	 * @return the position after the last char written
+	 */
+	private int filter(char[] cbuf, int w, int end) {
+		final char[] buf = buffer;
+		int p = position;
+		int s = state;
 
-					// Skip over characters inside single-line comments
-					if (insideLineComment) {
-						oldChar = c;
-						continue;
-					}
-
-					// Detect potential end of a multiline comment by detecting a slash that is
-					// preceded by a star
-					if (insideComment && c == '/' && oldChar == '*') {
-						insideComment = false;
-						oldChar = c;
-						continue;
+		while (p < limit && w < end) {
+			char c = buf[p];
+			switch (s) {
+			case CODE:
+				if (c == '/') {
+					s = SLASH;
+				} else {
+					if (c == '"') {
+						s = STRING;
 					}
-
-					// Skip over characters inside multi-line comments but preserve newlines
-					if (insideComment) {
-						if (c == '\n') {
-							currentLine.append(c);
-						}
-						oldChar = c;
-						continue;
+					cbuf[w++] = c;
+				}
+				p++;
+				break;
+			case SLASH:
+				if (c == '/') {
+					s = LINE_COMMENT;
+					p++;
+				} else if (c == '*') {
+					s = BLOCK_COMMENT;
+					p++;
+				} else {
+					// not a comment, so emit the slash and process c as code in the next step
+					s = CODE;
+					cbuf[w++] = '/';
+				}
+				break;
+			case LINE_COMMENT:
+				if (c == '\n') {
+					s = CODE;
+					cbuf[w++] = c;
+				}
+				p++;
+				break;
+			case BLOCK_COMMENT:
+			case BLOCK_COMMENT_STAR:
+				if (c == '/' && s == BLOCK_COMMENT_STAR) {
+					s = CODE;
+				} else if (c == '*') {
+					s = BLOCK_COMMENT_STAR;
+				} else {
+					s = BLOCK_COMMENT;
+					if (c == '\n') {
+						cbuf[w++] = c;
 					}
 				}
-				// Preserve characters outside comments
-				if (!insideComment && !insideLineComment) {
-					currentLine.append(c);
+				p++;
+				break;
+			case STRING:
+				if (c == '"') {
+					s = CODE;
+				} else if (c == '\\') {
+					s = STRING_ESCAPE;
 				}
-				oldChar = c;
+				cbuf[w++] = c;
+				p++;
+				break;
+			case STRING_ESCAPE:
+			default:
+				s = STRING;
+				cbuf[w++] = c;
+				p++;
+				break;
 			}
+		}
 
-			filteredContent.append(currentLine.toString());
+		position = p;
+		state = s;
+		return w;
+	}
 
-			char[] filteredChars = filteredContent.toString().toCharArray();
-			int filteredLen = Math.min(filteredChars.length, len);
-			System.arraycopy(filteredChars, 0, cbuf, off, filteredLen);
-			return filteredLen;
+	private boolean fill() throws IOException {
+		if (eof) {
+			return false;
+		}
+		int n;
+		do {
+			n = in.read(buffer, 0, buffer.length);
+		} while (n == 0);
 
+		if (n < 0) {
+			eof = true;
+			return false;
+		}
+		position = 0;
+		limit = n;
+		return true;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		if (n < 0L) {
+			throw new IllegalArgumentException("skip value is negative");
+		}
+		synchronized (lock) {
+			long skipped = 0;
+			while (skipped < n && read() != -1) {
+				skipped++;
+			}
+			return skipped;
+		}
+	}
+
+	@Override
+	public boolean ready() throws IOException {
+		synchronized (lock) {
+			ensureOpen();
+			// buffered input may turn out to be entirely comment
+			return false;
 		}
-		return charsRead;
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	@Override
+	public void mark(int readAheadLimit) throws IOException {
+		throw new IOException("mark() not supported");
+	}
+
+	@Override
+	public void reset() throws IOException {
+		throw new IOException("reset() not supported");
 	}
 
 	@Override
 	public void close() throws IOException {
-		if (!closed) {
-			closed = true;
-			closed = false;
-			insideComment = false;
-			insideLineComment = false;
-			insideString = false;
-			isSkippedSlash = false;
-			in.close();
-			super.close();
+		synchronized (lock) {
+			if (!closed) {
+				closed = true;
+				in.close();
+			}
+		}
+	}
+
+	private void ensureOpen() throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed");
 		}
 	}
-}
\ No newline at end of file
+}
@@ -16,12 +16,22 @@ package org.eclipse.osgi.technology.featurelauncher.featureservice.base.external
 
 import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedHashMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.IntFunction;
 
+/**
+ * Converts configuration values to the types named by the type information
+ * suffix of configuration keys, and back again.
+ *
+ * The conversion for each type name is resolved once into an immutable table,
+ * so that reading a configuration value costs a single hash lookup. Array
+ * conversions fill the target array directly rather than reflectively.
+ */
 public class TypeConverter {
 
 	public static final String BINARY = "binary";
@@ -30,166 +40,228 @@ public class TypeConverter {
 
 	public static final Object FAILED = new Object();
 
-	private static final Map<String, Class<?>> TYPE_MAP = new LinkedHashMap<>();
-	private static final Map<String, Class<?>> COLLECTION_TYPE_MAP = new LinkedHashMap<>();
+	/**
+	 * A conversion of a value to a named type
+	 */
+	@FunctionalInterface
+	public interface Conversion {
+		/**
+		 * @param value the value to convert, which may be null
+		 * @return the converted value, or {@link TypeConverter#FAILED}
+		 */
+		Object convert(Object value);
+	}
+
+	private static final Map<String, Conversion> CONVERSIONS;
+
 	static {
-		TYPE_MAP.put("boolean", Boolean.class);
-		TYPE_MAP.put("boolean[]", boolean[].class);
-		TYPE_MAP.put("Boolean", Boolean.class);
-		TYPE_MAP.put("Boolean[]", Boolean[].class);
-		TYPE_MAP.put("byte", Byte.class);
-		TYPE_MAP.put("byte[]", byte[].class);
-		TYPE_MAP.put("Byte", Byte.class);
-		TYPE_MAP.put("Byte[]", Byte[].class);
-		TYPE_MAP.put("char", Character.class);
-		TYPE_MAP.put("char[]", char[].class);
-		TYPE_MAP.put("Character", Character.class);
-		TYPE_MAP.put("Character[]", Character[].class);
-		TYPE_MAP.put("double", Double.class);
-		TYPE_MAP.put("double[]", double[].class);
-		TYPE_MAP.put("Double", Double.class);
-		TYPE_MAP.put("Double[]", Double[].class);
-		TYPE_MAP.put("float", Float.class);
-		TYPE_MAP.put("float[]", float[].class);
-		TYPE_MAP.put("Float", Float.class);
-		TYPE_MAP.put("Float[]", Float[].class);
-		TYPE_MAP.put("int", Integer.class);
-		TYPE_MAP.put("int[]", int[].class);
-		TYPE_MAP.put("Integer", Integer.class);
-		TYPE_MAP.put("Integer[]", Integer[].class);
-		TYPE_MAP.put("long", Long.class);
-		TYPE_MAP.put("long[]", long[].class);
-		TYPE_MAP.put("Long", Long.class);
-		TYPE_MAP.put("Long[]", Long[].class);
-		TYPE_MAP.put("short", Short.class);
-		TYPE_MAP.put("short[]", short[].class);
-		TYPE_MAP.put("Short", Short.class);
-		TYPE_MAP.put("Short[]", Short[].class);
-		TYPE_MAP.put("String", String.class);
-		TYPE_MAP.put("String[]", String[].class);
-		TYPE_MAP.put(BINARY, String.class);
-		TYPE_MAP.put(BINARIES, String[].class);
-
-		COLLECTION_TYPE_MAP.put("Collection<Boolean>", Boolean.class);
-		COLLECTION_TYPE_MAP.put("Collection<Byte>", Byte.class);
-		COLLECTION_TYPE_MAP.put("Collection<Character>", Character.class);
-		COLLECTION_TYPE_MAP.put("Collection<Double>", Double.class);
-		COLLECTION_TYPE_MAP.put("Collection<Float>", Float.class);
-		COLLECTION_TYPE_MAP.put("Collection<Integer>", Integer.class);
-		COLLECTION_TYPE_MAP.put("Collection<Long>", Long.class);
-		COLLECTION_TYPE_MAP.put("Collection<Short>", Short.class);
-		COLLECTION_TYPE_MAP.put("Collection<String>", String.class);
+		Map<String, Conversion> conversions = new HashMap<>();
+
+		put(conversions, "boolean", TypeConverter::toBoolean);
+		put(conversions, "Boolean", TypeConverter::toBoolean);
+		put(conversions, "byte", TypeConverter::toByte);
+		put(conversions, "Byte", TypeConverter::toByte);
+		put(conversions, "char", TypeConverter::toCharacter);
+		put(conversions, "Character", TypeConverter::toCharacter);
+		put(conversions, "double", TypeConverter::toDouble);
+		put(conversions, "Double", TypeConverter::toDouble);
+		put(conversions, "float", TypeConverter::toFloat);
+		put(conversions, "Float", TypeConverter::toFloat);
+		put(conversions, "int", TypeConverter::toInteger);
+		put(conversions, "Integer", TypeConverter::toInteger);
+		put(conversions, "long", TypeConverter::toLong);
+		put(conversions, "Long", TypeConverter::toLong);
+		put(conversions, "short", TypeConverter::toShort);
+		put(conversions, "Short", TypeConverter::toShort);
+		put(conversions, "String", TypeConverter::toStringValue);
+		put(conversions, BINARY, TypeConverter::toStringValue);
+
+		put(conversions, "boolean[]", TypeConverter::toBooleanArray);
+		put(conversions, "byte[]", TypeConverter::toByteArray);
+		put(conversions, "char[]", TypeConverter::toCharArray);
+		put(conversions, "double[]", TypeConverter::toDoubleArray);
+		put(conversions, "float[]", TypeConverter::toFloatArray);
+		put(conversions, "int[]", TypeConverter::toIntArray);
+		put(conversions, "long[]", TypeConverter::toLongArray);
+		put(conversions, "short[]", TypeConverter::toShortArray);
+
+		objectArray(conversions, "Boolean[]", TypeConverter::toBoolean, Boolean[]::new);
+		objectArray(conversions, "Byte[]", TypeConverter::toByte, Byte[]::new);
+		objectArray(conversions, "Character[]", TypeConverter::toCharacter, Character[]::new);
+		objectArray(conversions, "Double[]", TypeConverter::toDouble, Double[]::new);
+		objectArray(conversions, "Float[]", TypeConverter::toFloat, Float[]::new);
+		objectArray(conversions, "Integer[]", TypeConverter::toInteger, Integer[]::new);
+		objectArray(conversions, "Long[]", TypeConverter::toLong, Long[]::new);
+		objectArray(conversions, "Short[]", TypeConverter::toShort, Short[]::new);
+		objectArray(conversions, "String[]", TypeConverter::toStringValue, String[]::new);
+		objectArray(conversions, BINARIES, TypeConverter::toStringValue, String[]::new);
+
+		collection(conversions, "Collection<Boolean>", TypeConverter::toBoolean);
+		collection(conversions, "Collection<Byte>", TypeConverter::toByte);
+		collection(conversions, "Collection<Character>", TypeConverter::toCharacter);
+		collection(conversions, "Collection<Double>", TypeConverter::toDouble);
+		collection(conversions, "Collection<Float>", TypeConverter::toFloat);
+		collection(conversions, "Collection<Integer>", TypeConverter::toInteger);
+		collection(conversions, "Collection<Long>", TypeConverter::toLong);
+		collection(conversions, "Collection<Short>", TypeConverter::toShort);
+		collection(conversions, "Collection<String>", TypeConverter::toStringValue);
+
+		conversions.put(COLLECTION, nullSafe(TypeConverter::toUntypedCollection, List.of()));
+
+		CONVERSIONS = Map.copyOf(conversions);
+	}
 
+	private static Conversion nullSafe(Conversion conversion, Object nullValue) {
+		return value -> value == null ? nullValue : conversion.convert(value);
 	}
 
-	public static boolean isKnownType(String typeInfo) {
-		if (typeInfo == null) {
-			return false;
-		}
-		return TYPE_MAP.containsKey(typeInfo) || COLLECTION_TYPE_MAP.containsKey(typeInfo)
-				|| COLLECTION.equals(typeInfo);
+	private static void put(Map<String, Conversion> conversions, String typeInfo, Conversion conversion) {
+		conversions.put(typeInfo, nullSafe(conversion, null));
 	}
 
-	public static Object toType(final Object value, final String typeInfo) throws IllegalArgumentException {
-		if (typeInfo == null) {
-			return value;
-		}
-		final Class<?> typeClass = TYPE_MAP.get(typeInfo);
-		if (typeClass != null) {
-			if (value == null) {
-				return null;
-			}
-			if (isArray(typeClass)) {
-				return convertToArray(value, typeClass.getComponentType(), isPrimitiveArray(typeClass));
-			}
-			return convertScalar(value, typeClass);
-		}
-		final Class<?> typeReference = COLLECTION_TYPE_MAP.get(typeInfo);
-		if (typeReference != null) {
-			if (value == null) {
-				return Collections.emptyList();
+	private static void objectArray(Map<String, Conversion> conversions, String typeInfo, Conversion element,
+			IntFunction<Object[]> generator) {
+		conversions.put(typeInfo, nullSafe(value -> {
+			List<?> list = asList(value);
+			Object[] result = generator.apply(list.size());
+			for (int i = 0; i < result.length; i++) {
+				Object converted = element.convert(list.get(i));
+				if (converted == FAILED) {
+					return FAILED;
+				}
+				result[i] = converted;
 			}
-			return convertToCollection(value, typeReference);
-		}
+			return result;
+		}, null));
+	}
 
-		if (COLLECTION.equals(typeInfo)) {
-			if (value == null) {
-				return List.of();
-			} else if (value instanceof String || value instanceof Boolean || value instanceof Long
-					|| value instanceof Double) {
-				return List.of(value);
-			}
-			if (value.getClass().isArray()) {
-				final Collection<Object> c = new ArrayList<>();
-				for (int i = 0; i < Array.getLength(value); i++) {
-					c.add(Array.get(value, i));
+	private static void collection(Map<String, Conversion> conversions, String typeInfo, Conversion element) {
+		conversions.put(typeInfo, nullSafe(value -> {
+			List<?> list = asList(value);
+			Object[] result = new Object[list.size()];
+			for (int i = 0; i < result.length; i++) {
+				Object converted = element.convert(list.get(i));
+				if (converted == FAILED) {
+					return FAILED;
 				}
-				return Collections.unmodifiableCollection(c);
+				result[i] = converted;
 			}
-			if (value instanceof Collection<?> coll) {
-				return List.copyOf(coll);
+			return Collections.unmodifiableList(Arrays.asList(result));
+		}, Collections.emptyList()));
+	}
+
+	// Type information written for values which are not of a native JSON type.
+	// Arrays of primitives are written as arrays of their wrapper type.
+	private static final Map<Class<?>, String> TYPE_INFO_BY_CLASS = Map.ofEntries(
+			Map.entry(Integer.class, "Integer"), Map.entry(Float.class, "Float"), Map.entry(Byte.class, "Byte"),
+			Map.entry(Short.class, "Short"), Map.entry(Character.class, "Character"),
+			Map.entry(int[].class, "Integer[]"), Map.entry(long[].class, "Long[]"),
+			Map.entry(double[].class, "Double[]"), Map.entry(float[].class, "Float[]"),
+			Map.entry(boolean[].class, "Boolean[]"), Map.entry(byte[].class, "Byte[]"),
+			Map.entry(short[].class, "Short[]"), Map.entry(char[].class, "Character[]"),
+			Map.entry(String[].class, "String[]"), Map.entry(Integer[].class, "Integer[]"),
+			Map.entry(Long[].class, "Long[]"), Map.entry(Double[].class, "Double[]"),
+			Map.entry(Float[].class, "Float[]"), Map.entry(Boolean[].class, "Boolean[]"),
+			Map.entry(Byte[].class, "Byte[]"), Map.entry(Short[].class, "Short[]"),
+			Map.entry(Character[].class, "Character[]"));
+
+	// Marks classes with no type information, as a ClassValue cannot hold null
+	private static final String NO_TYPE_INFO = "";
+
+	private static final ClassValue<String> TYPE_INFO = new ClassValue<>() {
+		@Override
+		protected String computeValue(Class<?> type) {
+			String typeInfo = TYPE_INFO_BY_CLASS.get(type);
+			if (typeInfo != null) {
+				return typeInfo;
 			}
-			return List.of(value);
+			return Collection.class.isAssignableFrom(type) ? COLLECTION : NO_TYPE_INFO;
 		}
+	};
 
-		return FAILED;
+	public static boolean isKnownType(String typeInfo) {
+		return typeInfo != null && CONVERSIONS.containsKey(typeInfo);
+	}
+
+	/**
+	 * Look up the conversion for a type name, so that it can be checked for and
+	 * applied with a single lookup
+	 *
+	 * @param typeInfo the type name
+	 * @return the conversion, or null if the type is not known
+	 */
+	public static Conversion getConversion(String typeInfo) {
+		return typeInfo == null ? null : CONVERSIONS.get(typeInfo);
 	}
 
-	private static Object convertScalar(Object value, Class<?> targetType) {
-		if (targetType.isInstance(value)) {
+	public static Object toType(final Object value, final String typeInfo) throws IllegalArgumentException {
+		if (typeInfo == null) {
 			return value;
 		}
+		Conversion conversion = CONVERSIONS.get(typeInfo);
+		return conversion == null ? FAILED : conversion.convert(value);
+	}
 
-		if (targetType == String.class) {
-			return String.valueOf(value);
-		}
+	private static List<?> asList(Object value) {
+		// A single value is converted as a single element
+		return value instanceof List<?> list ? list : List.of(value);
+	}
 
-		if (targetType == Boolean.class) {
-			if (value instanceof String s) {
-				return Boolean.valueOf(s);
-			}
-			if (value instanceof Number n) {
-				return n.intValue() != 0;
-			}
-			return FAILED;
+	private static Object toUntypedCollection(Object value) {
+		if (value instanceof String || value instanceof Boolean || value instanceof Long || value instanceof Double) {
+			return List.of(value);
 		}
-
-		if (targetType == Character.class) {
-			if (value instanceof String s) {
-				if (s.length() == 1) {
-					return s.charAt(0);
-				}
-				return FAILED;
-			}
-			if (value instanceof Number n) {
-				return (char) n.intValue();
+		if (value.getClass().isArray()) {
+			int length = Array.getLength(value);
+			final Collection<Object> c = new ArrayList<>(length);
+			for (int i = 0; i < length; i++) {
+				c.add(Array.get(value, i));
 			}
-			return FAILED;
+			return Collections.unmodifiableCollection(c);
+		}
+		if (value instanceof Collection<?> coll) {
+			return List.copyOf(coll);
 		}
+		return List.of(value);
+	}
+
+	private static Object toStringValue(Object value) {
+		return value instanceof String ? value : String.valueOf(value);
+	}
 
-		if (targetType == Integer.class) {
-			return toInteger(value);
+	private static Object toBoolean(Object value) {
+		if (value instanceof Boolean) {
+			return value;
 		}
-		if (targetType == Long.class) {
-			return toLong(value);
+		if (value instanceof String s) {
+			return Boolean.valueOf(s);
 		}
-		if (targetType == Double.class) {
-			return toDouble(value);
+		if (value instanceof Number n) {
+			return n.intValue() != 0;
 		}
-		if (targetType == Float.class) {
-			return toFloat(value);
+		return FAILED;
+	}
+
+	private static Object toCharacter(Object value) {
+		if (value instanceof Character) {
+			return value;
 		}
-		if (targetType == Byte.class) {
-			return toByte(value);
+		if (value instanceof String s) {
+			if (s.length() == 1) {
+				return s.charAt(0);
+			}
+			return FAILED;
 		}
-		if (targetType == Short.class) {
-			return toShort(value);
+		if (value instanceof Number n) {
+			return (char) n.intValue();
 		}
-
 		return FAILED;
 	}
 
 	private static Object toInteger(Object value) {
+		if (value instanceof Integer) {
+			return value;
+		}
 		if (value instanceof Number n) {
 			return n.intValue();
 		}
@@ -207,6 +279,9 @@ public class TypeConverter {
 	}
 
 	private static Object toLong(Object value) {
+		if (value instanceof Long) {
+			return value;
+		}
 		if (value instanceof Number n) {
 			return n.longValue();
 		}
@@ -224,6 +299,9 @@ public class TypeConverter {
 	}
 
 	private static Object toDouble(Object value) {
+		if (value instanceof Double) {
+			return value;
+		}
 		if (value instanceof Number n) {
 			return n.doubleValue();
 		}
@@ -241,6 +319,9 @@ public class TypeConverter {
 	}
 
 	private static Object toFloat(Object value) {
+		if (value instanceof Float) {
+			return value;
+		}
 		if (value instanceof Number n) {
 			return n.floatValue();
 		}
@@ -258,6 +339,9 @@ public class TypeConverter {
 	}
 
 	private static Object toByte(Object value) {
+		if (value instanceof Byte) {
+			return value;
+		}
 		if (value instanceof Number n) {
 			return n.byteValue();
 		}
@@ -275,6 +359,9 @@ public class TypeConverter {
 	}
 
 	private static Object toShort(Object value) {
+		if (value instanceof Short) {
+			return value;
+		}
 		if (value instanceof Number n) {
 			return n.shortValue();
 		}
@@ -291,145 +378,108 @@ public class TypeConverter {
 		return FAILED;
 	}
 
-	private static Object convertToArray(Object value, Class<?> componentType, boolean primitive) {
-		if (value instanceof List<?> list) {
-			if (primitive) {
-				Object arr = Array.newInstance(componentType, list.size());
-				for (int i = 0; i < list.size(); i++) {
-					Object converted = convertScalar(list.get(i), boxType(componentType));
-					if (converted == FAILED) {
-						return FAILED;
-					}
-					Array.set(arr, i, converted);
-				}
-				return arr;
-			} else {
-				Object arr = Array.newInstance(componentType, list.size());
-				for (int i = 0; i < list.size(); i++) {
-					Object converted = convertScalar(list.get(i), componentType);
-					if (converted == FAILED) {
-						return FAILED;
-					}
-					Array.set(arr, i, converted);
-				}
-				return arr;
+	private static Object toBooleanArray(Object value) {
+		List<?> list = asList(value);
+		boolean[] result = new boolean[list.size()];
+		for (int i = 0; i < result.length; i++) {
+			if (!(toBoolean(list.get(i)) instanceof Boolean converted)) {
+				return FAILED;
 			}
+			result[i] = converted;
 		}
-		// Single value — wrap in single-element array
-		Class<?> boxed = primitive ? boxType(componentType) : componentType;
-		Object converted = convertScalar(value, boxed);
-		if (converted == FAILED) {
-			return FAILED;
+		return result;
+	}
+
+	private static Object toByteArray(Object value) {
+		List<?> list = asList(value);
+		byte[] result = new byte[list.size()];
+		for (int i = 0; i < result.length; i++) {
+			if (!(toByte(list.get(i)) instanceof Byte converted)) {
+				return FAILED;
+			}
+			result[i] = converted;
 		}
-		Object arr = Array.newInstance(componentType, 1);
-		Array.set(arr, 0, converted);
-		return arr;
+		return result;
 	}
 
-	private static Object convertToCollection(Object value, Class<?> componentType) {
-		if (value instanceof List<?> list) {
-			List<Object> result = new ArrayList<>();
-			for (Object item : list) {
-				Object converted = convertScalar(item, componentType);
-				if (converted == FAILED) {
-					return FAILED;
-				}
-				result.add(converted);
+	private static Object toCharArray(Object value) {
+		List<?> list = asList(value);
+		char[] result = new char[list.size()];
+		for (int i = 0; i < result.length; i++) {
+			if (!(toCharacter(list.get(i)) instanceof Character converted)) {
+				return FAILED;
 			}
-			return Collections.unmodifiableList(result);
+			result[i] = converted;
 		}
-		// Single value — wrap in single-element list
-		Object converted = convertScalar(value, componentType);
-		if (converted == FAILED) {
-			return FAILED;
+		return result;
+	}
+
+	private static Object toDoubleArray(Object value) {
+		List<?> list = asList(value);
+		double[] result = new double[list.size()];
+		for (int i = 0; i < result.length; i++) {
+			if (!(toDouble(list.get(i)) instanceof Double converted)) {
+				return FAILED;
+			}
+			result[i] = converted;
+		}
+		return result;
+	}
+
+	private static Object toFloatArray(Object value) {
+		List<?> list = asList(value);
+		float[] result = new float[list.size()];
+		for (int i = 0; i < result.length; i++) {
+			if (!(toFloat(list.get(i)) instanceof Float converted)) {
+				return FAILED;
+			}
+			result[i] = converted;
+		}
+		return result;
+	}
+
+	private static Object toIntArray(Object value) {
+		List<?> list = asList(value);
+		int[] result = new int[list.size()];
+		for (int i = 0; i < result.length; i++) {
+			if (!(toInteger(list.get(i)) instanceof Integer converted)) {
+				return FAILED;
+			}
+			result[i] = converted;
 		}
-		return List.of(converted);
+		return result;
 	}
 
-	private static Class<?> boxType(Class<?> primitiveType) {
-		if (primitiveType == boolean.class)
-			return Boolean.class;
-		if (primitiveType == byte.class)
-			return Byte.class;
-		if (primitiveType == char.class)
-			return Character.class;
-		if (primitiveType == double.class)
-			return Double.class;
-		if (primitiveType == float.class)
-			return Float.class;
-		if (primitiveType == int.class)
-			return Integer.class;
-		if (primitiveType == long.class)
-			return Long.class;
-		if (primitiveType == short.class)
-			return Short.class;
-		return primitiveType;
+	private static Object toLongArray(Object value) {
+		List<?> list = asList(value);
+		long[] result = new long[list.size()];
+		for (int i = 0; i < result.length; i++) {
+			if (!(toLong(list.get(i)) instanceof Long converted)) {
+				return FAILED;
+			}
+			result[i] = converted;
+		}
+		return result;
+	}
+
+	private static Object toShortArray(Object value) {
+		List<?> list = asList(value);
+		short[] result = new short[list.size()];
+		for (int i = 0; i < result.length; i++) {
+			if (!(toShort(list.get(i)) instanceof Short converted)) {
+				return FAILED;
+			}
+			result[i] = converted;
+		}
+		return result;
 	}
 
 	public static String getTypeInfoForValue(Object value) {
 		if (value == null) {
 			return null;
 		}
-		if (value instanceof String)
-			return null;
-		if (value instanceof Long)
-			return null;
-		if (value instanceof Double)
-			return null;
-		if (value instanceof Boolean)
-			return null;
-
-		if (value instanceof Integer)
-			return "Integer";
-		if (value instanceof Float)
-			return "Float";
-		if (value instanceof Byte)
-			return "Byte";
-		if (value instanceof Short)
-			return "Short";
-		if (value instanceof Character)
-			return "Character";
-
-		if (value instanceof int[])
-			return "Integer[]";
-		if (value instanceof long[])
-			return "Long[]";
-		if (value instanceof double[])
-			return "Double[]";
-		if (value instanceof float[])
-			return "Float[]";
-		if (value instanceof boolean[])
-			return "Boolean[]";
-		if (value instanceof byte[])
-			return "Byte[]";
-		if (value instanceof short[])
-			return "Short[]";
-		if (value instanceof char[])
-			return "Character[]";
-
-		if (value instanceof String[])
-			return "String[]";
-		if (value instanceof Integer[])
-			return "Integer[]";
-		if (value instanceof Long[])
-			return "Long[]";
-		if (value instanceof Double[])
-			return "Double[]";
-		if (value instanceof Float[])
-			return "Float[]";
-		if (value instanceof Boolean[])
-			return "Boolean[]";
-		if (value instanceof Byte[])
-			return "Byte[]";
-		if (value instanceof Short[])
-			return "Short[]";
-		if (value instanceof Character[])
-			return "Character[]";
-
-		if (value instanceof Collection)
-			return "Collection";
-
-		return null;
+		String typeInfo = TYPE_INFO.get(value.getClass());
+		return typeInfo == NO_TYPE_INFO ? null : typeInfo;
 	}
 
 	public static boolean isArray(Class<?> clazz) {
@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.featureservice.base;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import org.eclipse.osgi.technology.featurelauncher.featureservice.base.external.CommentRemovingReader;
+import org.junit.jupiter.api.Test;
+import org.osgi.service.feature.Feature;
+
+public class CommentRemovingReaderTest {
+
+	@Test
+	void testCommentsAreRemoved() throws Exception {
+		assertThat(filter("{\"a\": 1, // line\n\"b\": /* block */ 2}")).isEqualTo("{\"a\": 1, \n\"b\":  2}");
+	}
+
+	@Test
+	void testNewlinesInBlockCommentsArePreserved() throws Exception {
+		assertThat(filter("1/* a\nb\n*/2")).isEqualTo("1\n\n2");
+	}
+
+	@Test
+	void testCommentMarkersInStringsAreKept() throws Exception {
+		String json = "{\"url\": \"http://example.com/*x*/\", \"q\": \"say \\\"//hi\\\"\", \"bs\": \"\\\\\"}// end";
+		assertThat(filter(json)).isEqualTo(json.substring(0, json.length() - "// end".length()));
+	}
+
+	@Test
+	void testSlashesOutsideComments() throws Exception {
+		assertThat(filter("1 / 2 /")).isEqualTo("1 / 2 /");
+		assertThat(filter("/**/x/*/*/y/***/z")).isEqualTo("xyz");
+	}
+
+	@Test
+	void testSingleCharReads() throws Exception {
+		String json = "{\"a\": /* c */ \"b\" // d\n}";
+		StringBuilder sb = new StringBuilder();
+		try (Reader reader = new CommentRemovingReader(new StringReader(json))) {
+			int c;
+			while ((c = reader.read()) != -1) {
+				sb.append((char) c);
+			}
+		}
+		assertThat(sb.toString()).isEqualTo(filter(json));
+	}
+
+	@Test
+	void testCommentsSpanningReads() throws Exception {
+		// a comment larger than the internal buffer, read through a tiny buffer
+		String json = "[1, /*" + "x".repeat(20_000) + "*/ 2, //" + "y".repeat(20_000) + "\n3]";
+
+		StringBuilder sb = new StringBuilder();
+		try (Reader reader = new CommentRemovingReader(new StringReader(json))) {
+			char[] cbuf = new char[3];
+			int read;
+			while ((read = reader.read(cbuf, 0, cbuf.length)) != -1) {
+				assertThat(read).isPositive();
+				sb.append(cbuf, 0, read);
+			}
+		}
+		assertThat(sb.toString()).isEqualTo("[1,  2, \n3]");
+	}
+
+	@Test
+	void testLargeCommentedFeature() throws Exception {
+		StringBuilder json = new StringBuilder(
+				"// header\n{\"feature-resource-version\": \"1.0\", \"id\": \"org.acme:large:1.0.0\", \"bundles\": [");
+		for (int i = 0; i < 20_000; i++) {
+			json.append("\n  /* bundle ").append(i).append(" */ {\"id\": \"org.acme:b").append(i)
+					.append(":1.0.0\"}").append(i < 19_999 ? "," : "").append(" // trailing");
+		}
+		json.append("\n]}");
+		assertThat(json.length()).isGreaterThan(1024 * 1024);
+
+		Feature feature = new FeatureServiceImpl().readFeature(new StringReader(json.toString()));
+		assertThat(feature.getBundles()).hasSize(20_000);
+		assertThat(feature.getBundles().get(19_999).getID().getArtifactId()).isEqualTo("b19999");
+	}
+
+	private static String filter(String json) throws IOException {
+		StringBuilder sb = new StringBuilder();
+		try (Reader reader = new CommentRemovingReader(new StringReader(json))) {
+			char[] cbuf = new char[1024];
+			int read;
+			while ((read = reader.read(cbuf, 0, cbuf.length)) != -1) {
+				sb.append(cbuf, 0, read);
+			}
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,262 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.featureservice.base;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.osgi.service.feature.Feature;
+import org.osgi.service.feature.FeatureConfiguration;
+import org.osgi.service.feature.FeatureExtension;
+
+public class FeatureBinaryFormatTest {
+
+	FeatureServiceImpl featureServiceImpl = new FeatureServiceImpl();
+
+	@ParameterizedTest
+	@ValueSource(strings = { "1.json", "test-feature.json", "test-feature2.json", "test-exfeat1.json",
+			"test-exfeat2.json" })
+	void testRoundTripMatchesJson(String file) throws Exception {
+		Feature feature;
+		try (FileReader reader = new FileReader(Path.of("src/test/resources", file).toFile())) {
+			feature = featureServiceImpl.readFeature(reader);
+		}
+
+		assertEquivalent(roundTrip(feature), feature);
+	}
+
+	@Test
+	void testTypedConfigurationValues() throws Exception {
+		Feature feature;
+		try (FileReader reader = new FileReader(Path.of("src/test/resources/test-feature.json").toFile())) {
+			feature = featureServiceImpl.readFeature(reader);
+		}
+
+		Feature fromBinary = roundTrip(feature);
+
+		Map<String, Object> values = fromBinary.getConfigurations().get("org.acme.typed").getValues();
+		assertThat(values.get("number")).isEqualTo(7);
+		assertThat(values.get("floatVal")).isEqualTo(3.14f);
+		assertThat(values.get("ports")).isEqualTo(new Integer[] { 80, 443, 8080 });
+
+		FeatureConfiguration factory = fromBinary.getConfigurations().get("org.acme.factory~instance1");
+		assertThat(factory.getFactoryPid()).hasValue("org.acme.factory");
+	}
+
+	@Test
+	void testRepeatedStringsAreWrittenOnce() throws Exception {
+		var factory = featureServiceImpl.getBuilderFactory();
+		var builder = factory.newFeatureBuilder(featureServiceImpl.getIDfromMavenCoordinates("org.acme:many:1.0.0"));
+		for (int i = 0; i < 1000; i++) {
+			builder.addConfigurations(factory.newConfigurationBuilder("pid" + i)
+					.addValues(Map.of("a.long.shared.property.name", "a long shared property value",
+							"values", List.of("x", "y")))
+					.build());
+		}
+		Feature feature = builder.build();
+
+		ByteArrayOutputStream binary = new ByteArrayOutputStream();
+		featureServiceImpl.writeFeatureBinary(feature, binary);
+		StringWriter json = new StringWriter();
+		featureServiceImpl.writeFeature(feature, json);
+
+		assertThat(binary.size()).isLessThan(json.toString().length() / 4);
+		assertEquivalent(roundTrip(feature), feature);
+	}
+
+	@Test
+	void testInvalidInput() {
+		assertThatThrownBy(() -> featureServiceImpl.readFeatureBinary(new ByteArrayInputStream("{}".getBytes())))
+				.isInstanceOf(IOException.class);
+	}
+
+	@Test
+	void testOversizedStringLength() throws Exception {
+		BinaryFeature binary = new BinaryFeature().header().varint(1, Integer.MAX_VALUE).bytes(1, 2, 3);
+
+		assertThatThrownBy(() -> binary.read()).isInstanceOf(IOException.class);
+	}
+
+	@Test
+	void testNegativeLength() throws Exception {
+		BinaryFeature binary = new BinaryFeature().header().varint(1, -1);
+
+		assertThatThrownBy(() -> binary.read()).isInstanceOf(IOException.class).hasMessageContaining("length");
+	}
+
+	@Test
+	void testInvalidExtensionType() throws Exception {
+		BinaryFeature binary = new BinaryFeature().emptyFeature().varint(1).string("ext").bytes(9, 0);
+
+		assertThatThrownBy(() -> binary.read()).isInstanceOf(IOException.class)
+				.hasMessageContaining("extension type");
+	}
+
+	@Test
+	void testInvalidExtensionKind() throws Exception {
+		BinaryFeature binary = new BinaryFeature().emptyFeature().varint(1).string("ext").bytes(0, 200);
+
+		assertThatThrownBy(() -> binary.read()).isInstanceOf(IOException.class)
+				.hasMessageContaining("extension kind");
+	}
+
+	@Test
+	void testOversizedArrayLength() throws Exception {
+		// a configuration "p" with a value "k" claiming to be a huge int[]
+		BinaryFeature binary = new BinaryFeature().header().string("g:a:1").varint(0, 0, 0, 0, 0, 0).bytes(0)
+				.varint(0, 0, 0, 1).string("p").varint(0, 1).string("k").bytes(14).string("int")
+				.varint(Integer.MAX_VALUE).bytes(3, 0, 0, 0, 1);
+
+		assertThatThrownBy(() -> binary.read()).isInstanceOf(IOException.class);
+	}
+
+	@Test
+	void testMismatchedArrayElement() throws Exception {
+		BinaryFeature binary = new BinaryFeature().header().string("g:a:1").varint(0, 0, 0, 0, 0, 0).bytes(0)
+				.varint(0, 0, 0, 1).string("p").varint(0, 1).string("k").bytes(14).string("int").varint(1)
+				.bytes(1).string("not an int").varint(0);
+
+		assertThatThrownBy(() -> binary.read()).isInstanceOf(IOException.class).hasMessageContaining("int array");
+	}
+
+	/**
+	 * Writes a binary feature by hand, to produce input the writer never would
+	 */
+	private class BinaryFeature {
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		private final DataOutputStream out = new DataOutputStream(bytes);
+
+		BinaryFeature header() throws IOException {
+			out.writeInt(0x464C_4642);
+			out.writeInt(1);
+			return this;
+		}
+
+		BinaryFeature emptyFeature() throws IOException {
+			// id, six absent strings, not complete, no categories, variables, bundles
+			// or configurations
+			return header().string("g:a:1").varint(0, 0, 0, 0, 0, 0).bytes(0).varint(0, 0, 0, 0);
+		}
+
+		BinaryFeature string(String s) throws IOException {
+			byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+			varint(1, utf8.length);
+			out.write(utf8);
+			return this;
+		}
+
+		BinaryFeature varint(int... values) throws IOException {
+			for (int value : values) {
+				while ((value & ~0x7F) != 0) {
+					out.writeByte((value & 0x7F) | 0x80);
+					value >>>= 7;
+				}
+				out.writeByte(value);
+			}
+			return this;
+		}
+
+		BinaryFeature bytes(int... values) throws IOException {
+			for (int value : values) {
+				out.writeByte(value);
+			}
+			return this;
+		}
+
+		Feature read() throws IOException {
+			return featureServiceImpl.readFeatureBinary(new ByteArrayInputStream(bytes.toByteArray()));
+		}
+	}
+
+	private Feature roundTrip(Feature feature) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		featureServiceImpl.writeFeatureBinary(feature, out);
+		return featureServiceImpl.readFeatureBinary(new ByteArrayInputStream(out.toByteArray()));
+	}
+
+	static void assertEquivalent(Feature actual, Feature expected) {
+		assertThat(actual.getID()).isEqualTo(expected.getID());
+		assertThat(actual.getName()).isEqualTo(expected.getName());
+		assertThat(actual.getDescription()).isEqualTo(expected.getDescription());
+		assertThat(actual.getDocURL()).isEqualTo(expected.getDocURL());
+		assertThat(actual.getLicense()).isEqualTo(expected.getLicense());
+		assertThat(actual.getSCM()).isEqualTo(expected.getSCM());
+		assertThat(actual.getVendor()).isEqualTo(expected.getVendor());
+		assertThat(actual.isComplete()).isEqualTo(expected.isComplete());
+		assertThat(actual.getCategories()).isEqualTo(expected.getCategories());
+		assertSameValues(actual.getVariables(), expected.getVariables());
+
+		assertThat(actual.getBundles()).hasSameSizeAs(expected.getBundles());
+		for (int i = 0; i < expected.getBundles().size(); i++) {
+			assertThat(actual.getBundles().get(i).getID()).isEqualTo(expected.getBundles().get(i).getID());
+			assertSameValues(actual.getBundles().get(i).getMetadata(), expected.getBundles().get(i).getMetadata());
+		}
+
+		assertThat(actual.getConfigurations().keySet()).isEqualTo(expected.getConfigurations().keySet());
+		expected.getConfigurations().forEach((pid, configuration) -> {
+			FeatureConfiguration other = actual.getConfigurations().get(pid);
+			assertThat(other.getFactoryPid()).isEqualTo(configuration.getFactoryPid());
+			assertSameValues(other.getValues(), configuration.getValues());
+		});
+
+		assertThat(actual.getExtensions().keySet()).containsExactlyElementsOf(expected.getExtensions().keySet());
+		expected.getExtensions().forEach((name, extension) -> {
+			FeatureExtension other = actual.getExtensions().get(name);
+			assertThat(other.getType()).isEqualTo(extension.getType());
+			assertThat(other.getKind()).isEqualTo(extension.getKind());
+			switch (extension.getType()) {
+			case JSON -> assertThat(other.getJSON()).isEqualTo(extension.getJSON());
+			case TEXT -> assertThat(other.getText()).isEqualTo(extension.getText());
+			case ARTIFACTS -> {
+				assertThat(other.getArtifacts()).hasSameSizeAs(extension.getArtifacts());
+				for (int i = 0; i < extension.getArtifacts().size(); i++) {
+					assertThat(other.getArtifacts().get(i).getID())
+							.isEqualTo(extension.getArtifacts().get(i).getID());
+					assertSameValues(other.getArtifacts().get(i).getMetadata(),
+							extension.getArtifacts().get(i).getMetadata());
+				}
+			}
+			}
+		});
+	}
+
+	// numbers read from JSON are lazily parsed, so compare them by their text
+	private static void assertSameValues(Map<String, Object> actual, Map<String, Object> expected) {
+		assertThat(actual.keySet()).isEqualTo(expected.keySet());
+		expected.forEach((k, v) -> {
+			Object other = actual.get(k);
+			if (v instanceof Number && !(v instanceof Integer || v instanceof Long || v instanceof Float
+					|| v instanceof Double)) {
+				assertThat(String.valueOf(other)).as(k).isEqualTo(String.valueOf(v));
+			} else {
+				assertThat(Objects.deepEquals(other, v)).as(k + ": " + other + " != " + v).isTrue();
+			}
+		});
+	}
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.featureservice.base;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import org.osgi.service.feature.BuilderFactory;
+import org.osgi.service.feature.Feature;
+import org.osgi.service.feature.FeatureBuilder;
+import org.osgi.service.feature.FeatureBundle;
+
+public class FeatureBuilderImplTest {
+
+	FeatureServiceImpl featureServiceImpl = new FeatureServiceImpl();
+	BuilderFactory factory = featureServiceImpl.getBuilderFactory();
+
+	@Test
+	void testBuiltFeatureIsUnmodifiable() {
+		Feature feature = newBuilder().addBundles(bundle("one")).addVariable("v", null).build();
+
+		assertThat(feature.getVariables()).containsEntry("v", null);
+		assertThatThrownBy(() -> feature.getBundles().add(bundle("two")))
+				.isInstanceOf(UnsupportedOperationException.class);
+		assertThatThrownBy(() -> feature.getVariables().clear()).isInstanceOf(UnsupportedOperationException.class);
+	}
+
+	@Test
+	void testBuilderReusedAfterBuild() {
+		FeatureBuilder builder = newBuilder().addBundles(bundle("one"))
+				.addConfigurations(factory.newConfigurationBuilder("a").build());
+		Feature first = builder.build();
+
+		Feature second = builder.addBundles(bundle("two")).addVariable("v", "w").build();
+
+		assertThat(first.getBundles()).extracting(b -> b.getID().getArtifactId()).containsExactly("one");
+		assertThat(first.getVariables()).isEmpty();
+		assertThat(second.getBundles()).extracting(b -> b.getID().getArtifactId()).containsExactly("one", "two");
+		assertThat(second.getVariables()).containsEntry("v", "w");
+		assertThat(second.getConfigurations()).isEqualTo(first.getConfigurations());
+	}
+
+	@Test
+	void testConfigurationOrderIsKept() {
+		Feature feature = newBuilder().addConfigurations(factory.newConfigurationBuilder("c").build(),
+				factory.newConfigurationBuilder("a").build(), factory.newConfigurationBuilder("b").build()).build();
+
+		assertThat(feature.getConfigurations().keySet()).containsExactly("c", "a", "b");
+	}
+
+	@Test
+	void testNullBundleRejected() {
+		assertThatThrownBy(() -> newBuilder().addBundles((FeatureBundle) null))
+				.isInstanceOf(NullPointerException.class);
+	}
+
+	private FeatureBuilder newBuilder() {
+		return factory.newFeatureBuilder(featureServiceImpl.getID("org.acme", "feature", "1.0.0"));
+	}
+
+	private FeatureBundle bundle(String artifactId) {
+		return factory.newBundleBuilder(featureServiceImpl.getID("org.acme", artifactId, "1.0.0")).build();
+	}
+}
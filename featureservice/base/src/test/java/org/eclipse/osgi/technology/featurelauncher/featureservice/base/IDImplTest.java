@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.featureservice.base;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.osgi.service.feature.ID;
+
+public class IDImplTest {
+
+	FeatureServiceImpl featureServiceImpl = new FeatureServiceImpl();
+
+	@Test
+	void testParseMinimal() {
+		IDImpl id = IDImpl.fromMavenID("org.acme:foo:1.0.0");
+
+		assertThat(id.getGroupId()).isEqualTo("org.acme");
+		assertThat(id.getArtifactId()).isEqualTo("foo");
+		assertThat(id.getVersion()).isEqualTo("1.0.0");
+		assertThat(id.getType()).isEmpty();
+		assertThat(id.getClassifier()).isEmpty();
+		assertThat(id).hasToString("org.acme:foo:1.0.0");
+	}
+
+	@Test
+	void testParseWithType() {
+		IDImpl id = IDImpl.fromMavenID("org.acme:foo:jar:1.0.0");
+
+		assertThat(id.getType()).contains("jar");
+		assertThat(id.getClassifier()).isEmpty();
+		assertThat(id.getVersion()).isEqualTo("1.0.0");
+		assertThat(id).hasToString("org.acme:foo:jar:1.0.0");
+	}
+
+	@Test
+	void testParseWithTypeAndClassifier() {
+		IDImpl id = IDImpl.fromMavenID("org.acme:foo:jar:sources:1.0.0");
+
+		assertThat(id.getType()).contains("jar");
+		assertThat(id.getClassifier()).contains("sources");
+		assertThat(id.getVersion()).isEqualTo("1.0.0");
+		assertThat(id).hasToString("org.acme:foo:jar:sources:1.0.0");
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "", "foo", "org.acme:foo", ":foo:1.0.0", "org.acme::1.0.0", "org.acme:foo:",
+			"org.acme:foo::1.0.0", "org.acme:foo:jar::1.0.0", "org.acme:foo:jar:sources:1.0.0:extra" })
+	void testParseInvalid(String mavenID) {
+		assertThatThrownBy(() -> IDImpl.fromMavenID(mavenID)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void testParsedEqualsConstructed() {
+		IDImpl parsed = IDImpl.fromMavenID("org.acme:foo:jar:sources:1.0.0");
+		IDImpl constructed = new IDImpl("org.acme", "foo", "1.0.0", Optional.of("jar"), Optional.of("sources"));
+
+		assertThat(parsed).isEqualTo(constructed);
+		assertThat(parsed.hashCode()).isEqualTo(constructed.hashCode());
+		assertThat(parsed).isNotEqualTo(IDImpl.fromMavenID("org.acme:foo:jar:1.0.0"));
+	}
+
+	@Test
+	void testInterning() {
+		ID parsed = featureServiceImpl.getIDfromMavenCoordinates("org.acme:foo:jar:1.0.0");
+
+		assertThat(featureServiceImpl.getIDfromMavenCoordinates("org.acme:foo:jar:1.0.0")).isSameAs(parsed);
+		assertThat(featureServiceImpl.getID("org.acme", "foo", "1.0.0", "jar")).isSameAs(parsed);
+		assertThat(featureServiceImpl.getID("org.acme", "foo", "1.0.0")).isNotSameAs(parsed);
+	}
+
+	@Test
+	void testInterningKeepsRecentlyUsedIDs() {
+		ID used = featureServiceImpl.getIDfromMavenCoordinates("org.acme:foo:jar:1.0.0");
+
+		for (int i = 0; i < 2 * FeatureServiceImpl.MAX_INTERNED_IDS; i++) {
+			featureServiceImpl.getID("org.acme", "bar", "1." + i);
+			if (i % 1000 == 0) {
+				assertThat(featureServiceImpl.getIDfromMavenCoordinates("org.acme:foo:jar:1.0.0")).isSameAs(used);
+			}
+		}
+
+		assertThat(featureServiceImpl.getIDfromMavenCoordinates("org.acme:foo:jar:1.0.0")).isSameAs(used);
+	}
+
+	@Test
+	void testInterningStillValidates() {
+		assertThatThrownBy(() -> featureServiceImpl.getIDfromMavenCoordinates("org.acme:foo"))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> featureServiceImpl.getID("org.acme", "fo:o", "1.0.0"))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+}
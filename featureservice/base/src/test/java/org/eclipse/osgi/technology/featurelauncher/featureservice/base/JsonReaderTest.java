@@ -16,15 +16,31 @@ package org.eclipse.osgi.technology.featurelauncher.featureservice.base;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.io.ByteArrayOutputStream;
 import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.osgi.service.feature.Feature;
 import org.osgi.service.feature.FeatureArtifact;
 import org.osgi.service.feature.FeatureBundle;
@@ -195,6 +211,80 @@ public class JsonReaderTest {
 		assertThat(jsonExt.getJSON()).contains("1024");
 	}
 
+	@Test
+	void testExtensionJsonRoundTrip() throws Exception {
+		Feature original = readFeature("test-exfeat1.json");
+		String expected = "{\"cache-size\":1024,\"enabled\":true,\"nested\":{\"key\":\"value\"}}";
+
+		StringWriter sw = new StringWriter();
+		featureServiceImpl.writeFeature(original, sw);
+		Feature roundTripped = featureServiceImpl.readFeature(new StringReader(sw.toString()));
+
+		assertThat(roundTripped.getExtensions().get("my-json-extension").getJSON()).isEqualTo(expected);
+		assertThat(original.getExtensions().get("my-json-extension").getJSON()).isEqualTo(expected);
+		assertThat(roundTripped.getExtensions().get("my-json-extension"))
+				.isEqualTo(original.getExtensions().get("my-json-extension"));
+	}
+
+	@Test
+	void testWriteExtensionJsonFromText() throws Exception {
+		Feature feature = featureServiceImpl.getBuilderFactory()
+				.newFeatureBuilder(featureServiceImpl.getIDfromMavenCoordinates("org.acme:text:1.0.0"))
+				.addExtensions(featureServiceImpl.getBuilderFactory()
+						.newExtensionBuilder("ext", FeatureExtension.Type.JSON, FeatureExtension.Kind.OPTIONAL)
+						.setJSON("{ \"a\" : [1, \"b\", null] }").build())
+				.build();
+
+		StringWriter sw = new StringWriter();
+		featureServiceImpl.writeFeature(feature, sw);
+		Feature roundTripped = featureServiceImpl.readFeature(new StringReader(sw.toString()));
+
+		assertThat(feature.getExtensions().get("ext").getJSON()).isEqualTo("{ \"a\" : [1, \"b\", null] }");
+		assertThat(roundTripped.getExtensions().get("ext").getJSON()).isEqualTo("{\"a\":[1,\"b\",null]}");
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "1.json", "test-feature.json", "test-feature2.json", "test-exfeat1.json",
+			"test-exfeat2.json" })
+	void testWriteFeatureCompact(String file) throws Exception {
+		Feature original = readFeature(file);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		featureServiceImpl.writeFeatureCompact(original, out);
+		String compact = out.toString(StandardCharsets.UTF_8);
+		Feature roundTripped = featureServiceImpl.readFeature(new StringReader(compact));
+
+		assertThat(compact).doesNotContain("\n");
+		FeatureBinaryFormatTest.assertEquivalent(roundTripped, original);
+	}
+
+	@Test
+	void testWriteFeatureCompactWritesExtensionJsonCompactly() throws Exception {
+		Feature feature = readFeature("test-exfeat1.json");
+		String json = feature.getExtensions().get("my-json-extension").getJSON();
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (WritableByteChannel channel = Channels.newChannel(out)) {
+			featureServiceImpl.writeFeatureCompact(feature, channel);
+		}
+
+		assertThat(out.toString(StandardCharsets.UTF_8)).contains("\"json\":" + json + "}");
+	}
+
+	@Test
+	void testWriteFeatureCompactReportsStreamFailure() throws Exception {
+		Feature feature = readFeature("test-feature.json");
+		OutputStream failing = new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				throw new IOException("disk full");
+			}
+		};
+
+		assertThatThrownBy(() -> featureServiceImpl.writeFeatureCompact(feature, failing))
+				.isInstanceOf(IOException.class).hasMessage("disk full");
+	}
+
 	@Test
 	void testReadComments() throws Exception {
 		Feature feature = readFeature("test-comments.json");
@@ -394,6 +484,173 @@ public class JsonReaderTest {
 		assertThat(textExt.getText()).containsExactly("Single line text.");
 	}
 
+	@Test
+	void testReadFeatures(@TempDir Path tempDir) throws Exception {
+		Path invalid = Files.writeString(tempDir.resolve("invalid.json"), "{ \"id\": ");
+		Path missing = tempDir.resolve("missing.json");
+		List<Path> paths = List.of(Path.of("src/test/resources/1.json"), invalid,
+				Path.of("src/test/resources/test-feature.json"), missing,
+				Path.of("src/test/resources/test-exfeat1.json"));
+
+		List<FeatureServiceImpl.ReadResult> results = featureServiceImpl.readFeatures(paths.stream());
+
+		assertThat(results).extracting(FeatureServiceImpl.ReadResult::path).containsExactlyElementsOf(paths);
+		assertThat(results).extracting(FeatureServiceImpl.ReadResult::isSuccess).containsExactly(true, false, true,
+				false, true);
+		assertThat(results.get(1).error()).isInstanceOf(IOException.class);
+		assertThat(results.get(3).error()).isInstanceOf(NoSuchFileException.class);
+		assertThat(results.get(2).feature().getID()).isEqualTo(readFeature("test-feature.json").getID());
+	}
+
+	@Test
+	void testReadFeaturesSharesIDs() throws Exception {
+		List<FeatureServiceImpl.ReadResult> results = featureServiceImpl
+				.readFeatures(Collections.nCopies(32, Path.of("src/test/resources/test-feature.json")).stream());
+
+		assertThat(results).allMatch(FeatureServiceImpl.ReadResult::isSuccess);
+		ID first = results.get(0).feature().getID();
+		assertThat(results).allSatisfy(r -> assertThat(r.feature().getID()).isSameAs(first));
+	}
+
+	@Test
+	void testReadFeaturesOnSuppliedExecutor() throws Exception {
+		List<Path> paths = List.of(Path.of("src/test/resources/1.json"), Path.of("src/test/resources/test-feature.json"),
+				Path.of("src/test/resources/test-exfeat1.json"));
+		Set<String> threads = ConcurrentHashMap.newKeySet();
+		ExecutorService executor = Executors.newFixedThreadPool(2, r -> new Thread(r, "reader"));
+		try {
+			List<FeatureServiceImpl.ReadResult> results = featureServiceImpl.readFeatures(paths.stream(), r -> {
+				executor.execute(() -> {
+					threads.add(Thread.currentThread().getName());
+					r.run();
+				});
+			});
+
+			assertThat(results).extracting(FeatureServiceImpl.ReadResult::path).containsExactlyElementsOf(paths);
+			assertThat(results).allMatch(FeatureServiceImpl.ReadResult::isSuccess);
+			assertThat(threads).containsExactly("reader");
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "1.json", "test-feature.json", "test-exfeat1.json", "test-exfeat2.json" })
+	void testReadFeatureStrict(String resourceName) throws Exception {
+		Feature strict = featureServiceImpl
+				.readFeatureStrict(new FileReader(Path.of("src/test/resources/" + resourceName).toFile()));
+
+		FeatureBinaryFormatTest.assertEquivalent(readFeature(resourceName), strict);
+	}
+
+	@Test
+	void testErrorPosition() {
+		String json = """
+				{
+				  "id": "org.acme:feature:1.0.0",
+				  "bundles": [
+				    { "id": "org.acme:one:1.0.0" },
+				    { "id": "org.acme:two:1.0.0", "start-order": 2 },
+				    { "id": "org.acme:three" }
+				  ]
+				}
+				""";
+
+		assertThatThrownBy(() -> featureServiceImpl.readFeature(new StringReader(json)))
+				.isInstanceOfSatisfying(FeatureParseException.class, e -> {
+					assertThat(e.getPointer()).isEqualTo("/bundles/2/id");
+					// the whole of this short document is read ahead
+					assertThat(e.getLine()).isEqualTo(8);
+					assertThat(e.getColumn()).isEqualTo(2);
+					assertThat(e.getReason()).startsWith("Not a valid maven ID");
+					assertThat(e).hasMessageContaining("/bundles/2/id (line 8, column 2)");
+				});
+	}
+
+	@Test
+	void testErrorPositionInLongDocument() {
+		StringBuilder json = new StringBuilder("{\n  \"id\": \"org.acme:feature:1.0.0\",\n  \"bundles\": [\n");
+		for (int i = 0; i < 1000; i++) {
+			json.append(i == 100 ? "    { \"id\": \"org.acme:bad\" },\n"
+					: "    { \"id\": \"org.acme:b" + i + ":1.0.0\" },\n");
+		}
+		json.append("    { \"id\": \"org.acme:last:1.0.0\" }\n  ]\n}\n");
+
+		assertThatThrownBy(() -> featureServiceImpl.readFeature(new StringReader(json.toString())))
+				.isInstanceOfSatisfying(FeatureParseException.class, e -> {
+					assertThat(e.getPointer()).isEqualTo("/bundles/100/id");
+					// the bad ID is on line 104, and only a little is read beyond it
+					assertThat(e.getLine()).isBetween(104, 120);
+					assertThat(e.getColumn()).isPositive();
+				});
+	}
+
+	@Test
+	void testTypeErrorPosition() {
+		String json = """
+				{
+				  "id": "org.acme:feature:1.0.0",
+				  "extensions": {
+				    "a/b": { "type": "text", "kind": "optional", "text": [ "one", 2 ] }
+				  }
+				}
+				""";
+
+		assertThatThrownBy(() -> featureServiceImpl.readFeature(new StringReader(json)))
+				.isInstanceOfSatisfying(FeatureParseException.class, e -> {
+					assertThat(e.getPointer()).isEqualTo("/extensions/a~1b/text/1");
+					assertThat(e.getReason()).isEqualTo("Expected a string but found a number");
+					assertThat(e.getLine()).isEqualTo(6);
+					assertThat(e.getColumn()).isEqualTo(2);
+				});
+	}
+
+	@Test
+	void testSyntaxErrorPosition() {
+		String json = "{\n  \"bundles\": [\n    { \"id\": tru }\n  ]\n}";
+
+		assertThatThrownBy(() -> featureServiceImpl.readFeature(new StringReader(json)))
+				.isInstanceOfSatisfying(FeatureParseException.class, e -> {
+					// the tokenizer fails before the member is entered, so the pointer is its object
+					assertThat(e.getPointer()).isEqualTo("/bundles/0");
+					assertThat(e.getReason()).startsWith("Unexpected token 'tru'");
+					assertThat(e.getLine()).isEqualTo(3);
+					assertThat(e.getColumn()).isEqualTo(13);
+				});
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "{ \"id\": \"org.acme:f:1.0.0\", \"bundles\": [ { \"start-order\": 1 } ] }",
+			"{ \"id\": \"org.acme:f:1.0.0\", \"name\": \"a\", \"name\": \"b\" }",
+			"{ \"id\": \"org.acme:f:1.0.0\", \"feature-resource-version\": \"2.0\" }",
+			"{ \"id\": \"org.acme:f:1.0.0\", \"configurations\": { \"p\": { \"a:Integer\": \"x\" } } }" })
+	void testStrictConstraints(String json) throws Exception {
+		assertThat(featureServiceImpl.readFeature(new StringReader(json))).isNotNull();
+		assertThatThrownBy(() -> featureServiceImpl.readFeatureStrict(new StringReader(json)))
+				.isInstanceOf(FeatureParseException.class);
+	}
+
+	@Test
+	void testReadStopsAtFirstError() {
+		StringBuilder json = new StringBuilder("{ \"id\": \"org.acme:f:1.0.0\", \"bundles\": [ { \"id\": \"bad\" }");
+		for (int i = 0; i < 50_000; i++) {
+			json.append(", { \"id\": \"org.acme:b").append(i).append(":1.0.0\" }");
+		}
+		json.append("] }");
+		int[] read = new int[1];
+		StringReader counting = new StringReader(json.toString()) {
+			@Override
+			public int read(char[] cbuf, int off, int len) throws IOException {
+				int n = super.read(cbuf, off, len);
+				read[0] += Math.max(n, 0);
+				return n;
+			}
+		};
+
+		assertThatThrownBy(() -> featureServiceImpl.readFeature(counting)).isInstanceOf(FeatureParseException.class);
+		assertThat(read[0]).isLessThan(json.length() / 10);
+	}
+
 	private Feature readFeature(String resourceName) throws Exception {
 		FileReader fileReader = new FileReader(Path.of("src/test/resources/" + resourceName).toFile());
 		return featureServiceImpl.readFeature(fileReader);
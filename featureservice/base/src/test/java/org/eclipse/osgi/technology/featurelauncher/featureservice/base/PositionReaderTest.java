@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.featureservice.base;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+
+public class PositionReaderTest {
+
+	@Test
+	void testReadsStopAtLineEnds() throws Exception {
+		PositionReader reader = new PositionReader(new StringReader("ab\ncde\n\nf"));
+		char[] buf = new char[100];
+
+		assertThat(reader.line()).isEqualTo(1);
+		assertThat(reader.column()).isZero();
+
+		assertThat(new String(buf, 0, reader.read(buf, 0, buf.length))).isEqualTo("ab\n");
+		assertThat(reader.line()).isEqualTo(1);
+		assertThat(reader.column()).isEqualTo(3);
+
+		assertThat(new String(buf, 0, reader.read(buf, 0, buf.length))).isEqualTo("cde\n");
+		assertThat(new String(buf, 0, reader.read(buf, 0, buf.length))).isEqualTo("\n");
+		assertThat(reader.line()).isEqualTo(3);
+		assertThat(reader.column()).isEqualTo(1);
+
+		assertThat(new String(buf, 0, reader.read(buf, 0, buf.length))).isEqualTo("f");
+		assertThat(reader.line()).isEqualTo(4);
+		assertThat(reader.column()).isEqualTo(1);
+
+		assertThat(reader.read(buf, 0, buf.length)).isEqualTo(-1);
+	}
+
+	@Test
+	void testShortReadsAndSingleChars() throws Exception {
+		PositionReader reader = new PositionReader(new StringReader("abcd\ne"));
+		char[] buf = new char[2];
+
+		assertThat(reader.read(buf, 0, 2)).isEqualTo(2);
+		assertThat(reader.read()).isEqualTo('c');
+		assertThat(reader.column()).isEqualTo(3);
+		assertThat(reader.read(buf, 0, 2)).isEqualTo(2);
+		assertThat(reader.read()).isEqualTo('e');
+		assertThat(reader.line()).isEqualTo(2);
+		assertThat(reader.column()).isEqualTo(1);
+		assertThat(reader.read()).isEqualTo(-1);
+	}
+}
@@ -15,7 +15,10 @@ package org.eclipse.osgi.technology.featurelauncher.featureservice.base;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.osgi.technology.featurelauncher.featureservice.base.external.TypeConverter;
 import org.junit.jupiter.api.Test;
@@ -192,6 +195,42 @@ public class TypeConverterTest {
 		assertThat((Boolean[]) result).containsExactly(true, false);
 	}
 
+	@Test
+	void testListToPrimitiveArrays() {
+		assertThat((long[]) TypeConverter.toType(List.of(1, "2", 3L), "long[]")).containsExactly(1L, 2L, 3L);
+		assertThat((double[]) TypeConverter.toType(List.of(1.5, "2"), "double[]")).containsExactly(1.5, 2.0);
+		assertThat((boolean[]) TypeConverter.toType(List.of(true, "false", 0), "boolean[]")).containsExactly(true,
+				false, false);
+		assertThat((char[]) TypeConverter.toType(List.of("a", "b"), "char[]")).containsExactly('a', 'b');
+		assertThat((byte[]) TypeConverter.toType(List.of(1, 2), "byte[]")).containsExactly((byte) 1, (byte) 2);
+		assertThat((short[]) TypeConverter.toType(List.of(1, 2), "short[]")).containsExactly((short) 1, (short) 2);
+		assertThat((float[]) TypeConverter.toType(List.of(1, 2), "float[]")).containsExactly(1.0f, 2.0f);
+	}
+
+	@Test
+	void testInvalidArrayElementFails() {
+		assertThat(TypeConverter.toType(List.of(1, "x"), "int[]")).isSameAs(TypeConverter.FAILED);
+		assertThat(TypeConverter.toType(List.of(1, "x"), "Integer[]")).isSameAs(TypeConverter.FAILED);
+		assertThat(TypeConverter.toType(List.of("ab"), "char[]")).isSameAs(TypeConverter.FAILED);
+	}
+
+	@Test
+	void testNullValueWithArrayType() {
+		assertThat(TypeConverter.toType(null, "int[]")).isNull();
+		assertThat(TypeConverter.toType(null, "String[]")).isNull();
+	}
+
+	@Test
+	void testGetConversion() {
+		TypeConverter.Conversion conversion = TypeConverter.getConversion("Collection<Long>");
+		assertThat(conversion).isNotNull();
+		assertThat(conversion.convert(List.of(1, 2))).isEqualTo(List.of(1L, 2L));
+		assertThat(conversion.convert(null)).isEqualTo(List.of());
+
+		assertThat(TypeConverter.getConversion("UnknownType")).isNull();
+		assertThat(TypeConverter.getConversion(null)).isNull();
+	}
+
 	// Collection tests
 
 	@Test
@@ -282,5 +321,9 @@ public class TypeConverterTest {
 	@Test
 	void testGetTypeInfoForCollection() {
 		assertThat(TypeConverter.getTypeInfoForValue(List.of(1, 2))).isEqualTo("Collection");
+		assertThat(TypeConverter.getTypeInfoForValue(new ArrayList<>(List.of(1)))).isEqualTo("Collection");
+		assertThat(TypeConverter.getTypeInfoForValue(Set.of("a"))).isEqualTo("Collection");
+		assertThat(TypeConverter.getTypeInfoForValue(Map.of("a", 1))).isNull();
+		assertThat(TypeConverter.getTypeInfoForValue(new Object[] { "a" })).isNull();
 	}
 }
@@ -20,7 +20,6 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStream;
 import java.io.Reader;
 import java.io.StringReader;
 import java.lang.reflect.InvocationTargetException;
@@ -31,7 +30,6 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -51,6 +49,7 @@ import java.util.stream.Stream;
 import org.eclipse.osgi.technology.featurelauncher.common.decorator.impl.DecorationContext;
 import org.eclipse.osgi.technology.featurelauncher.common.decorator.impl.LaunchFrameworkFeatureExtensionHandler;
 import org.eclipse.osgi.technology.featurelauncher.common.decorator.impl.MutableRepositoryList;
+import org.eclipse.osgi.technology.featurelauncher.common.util.impl.NestedJarCache;
 import org.osgi.service.feature.Feature;
 import org.osgi.service.feature.FeatureService;
 import org.osgi.service.featurelauncher.decorator.AbandonOperationException;
@@ -61,6 +60,7 @@ import org.eclipse.osgi.technology.featurelauncher.repository.common.osgi.Artifa
 import org.eclipse.osgi.technology.featurelauncher.repository.spi.Repository;
 import org.eclipse.osgi.technology.featurelauncher.repository.spi.RepositoryFactory;
 import org.eclipse.osgi.technology.featurelauncher.launch.spi.SecondStageLauncher;
+import org.eclipse.osgi.technology.featurelauncher.launch.spi.SecondStageLauncher.LaunchResult;
 
 import picocli.CommandLine;
 import picocli.CommandLine.ArgGroup;
@@ -155,12 +155,18 @@ public class FeatureLauncherCli implements Runnable {
 			"--impl-dry-run" }, description = "Evaluates all options, processes them and displays output, but does not launch framework. Hidden option used for testing", hidden = true)
 	private boolean dryRun;
 
+	@Option(names = {
+			"--impl-launch-report" }, description = "Prints the time taken by each stage of the launch, and the bytes read from each repository, once the framework has been launched.")
+	private boolean launchReport;
+
 	@Spec
 	private CommandSpec commandSpec;
 
 	private static FeatureService featureService = ServiceLoader.load(FeatureService.class)
 			.findFirst().orElseThrow(() -> new NoSuchElementException("No Feature Service available"));
 
+	private static ClassLoader secondStageLoader;
+
 	private RepositoryFactory repoFactory = ServiceLoader.load(RepositoryFactory.class)
 			.findFirst().orElseThrow(() -> new NoSuchElementException("No Repository Factory available"));
 	
@@ -299,8 +305,6 @@ public class FeatureLauncherCli implements Runnable {
 		
 		Optional<Object> locatedFrameworkFactory = lffehi.getLocatedFrameworkFactory();
 		
-		URL[] secondStageClasspath = getSecondStageClasspath();
-		
 		ClassLoader parentLoader;
 		if(locatedFrameworkFactory.isEmpty()) {
 			System.out.println("The feature " + feature.getID() + 
@@ -313,14 +317,18 @@ public class FeatureLauncherCli implements Runnable {
 		}
 		
 		SecondStageLauncher secondStage = ServiceLoader.load(SecondStageLauncher.class, 
-				URLClassLoader.newInstance(secondStageClasspath, parentLoader)).findFirst()
+				getSecondStageLoader(this, parentLoader)).findFirst()
 				.orElseThrow(() -> new NoSuchElementException("Unable to load the second stage launcher"));
 		
 		
 		if (!dryRun) {
 			try {
-				secondStage.launch(feature, context, repositories, locatedFrameworkFactory, 
-						variables, configuration, frameworkProperties).waitForStop(0);
+				LaunchResult result = secondStage.launch(feature, context, repositories, locatedFrameworkFactory, 
+						variables, configuration, frameworkProperties);
+				if (launchReport) {
+					result.getLaunchReport().ifPresent(System.out::println);
+				}
+				result.waitForStop(0);
 			} catch (InterruptedException e) {
 				System.err.println("Terminated by being interrupted");
 			}
@@ -395,6 +403,18 @@ public class FeatureLauncherCli implements Runnable {
 		return Files.createTempDirectory("osgi_");
 	}
 	
+	private static synchronized ClassLoader getSecondStageLoader(FeatureLauncherCli cli, ClassLoader parentLoader) {
+		// The second stage loader is reused by later launches in this JVM unless it
+		// has to delegate to a launch framework supplied by the feature
+		if (parentLoader != FeatureLauncherCli.class.getClassLoader()) {
+			return URLClassLoader.newInstance(cli.getSecondStageClasspath(), parentLoader);
+		}
+		if (secondStageLoader == null) {
+			secondStageLoader = URLClassLoader.newInstance(cli.getSecondStageClasspath(), parentLoader);
+		}
+		return secondStageLoader;
+	}
+
 	private URL[] getSecondStageClasspath() {
 		ClassLoader loader = getClass().getClassLoader();
 		try (InputStream is = loader.getResourceAsStream("META-INF/second-stage-classpath");
@@ -439,19 +459,10 @@ public class FeatureLauncherCli implements Runnable {
 	}
 	
 	private URL flattenNestedJars(URL url) {
-		if(url.getPath().endsWith("/")) {
-			return url;
-		} else {
-			try {
-				Path tempFile = Files.createTempFile("featurelauncher", "secondstage");
-				try (OutputStream os = Files.newOutputStream(tempFile, StandardOpenOption.WRITE);
-					InputStream is = url.openStream();) {
-					is.transferTo(os);
-				}
-				return tempFile.toUri().toURL();
-			} catch (IOException e) {
-				throw new FeatureLauncherCliException("Unable to expand nested classpath " + url, e);
-			}
+		try {
+			return NestedJarCache.getDefault().flatten(url);
+		} catch (IOException e) {
+			throw new FeatureLauncherCliException("Unable to expand nested classpath " + url, e);
 		}
 	}
 
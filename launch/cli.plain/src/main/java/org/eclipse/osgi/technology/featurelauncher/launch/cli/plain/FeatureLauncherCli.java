@@ -21,7 +21,6 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStream;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLClassLoader;
@@ -29,7 +28,6 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
@@ -46,7 +44,9 @@ import java.util.stream.Stream;
 import org.eclipse.osgi.technology.featurelauncher.common.decorator.impl.DecorationContext;
 import org.eclipse.osgi.technology.featurelauncher.common.decorator.impl.LaunchFrameworkFeatureExtensionHandler;
 import org.eclipse.osgi.technology.featurelauncher.common.decorator.impl.MutableRepositoryList;
+import org.eclipse.osgi.technology.featurelauncher.common.util.impl.NestedJarCache;
 import org.eclipse.osgi.technology.featurelauncher.launch.spi.SecondStageLauncher;
+import org.eclipse.osgi.technology.featurelauncher.launch.spi.SecondStageLauncher.LaunchResult;
 import org.eclipse.osgi.technology.featurelauncher.repository.common.osgi.ArtifactRepositoryAdapter;
 import org.eclipse.osgi.technology.featurelauncher.repository.spi.Repository;
 import org.eclipse.osgi.technology.featurelauncher.repository.spi.RepositoryFactory;
@@ -62,6 +62,8 @@ public final class FeatureLauncherCli implements Runnable {
 	private static final int EXIT_ERROR = 1;
 	private static final int EXIT_CLI = 2;
 
+	private static ClassLoader secondStageLoader;
+
 	private final Options opts;
 
 	private Path defaultFrameworkStorageDir;
@@ -148,13 +150,11 @@ public final class FeatureLauncherCli implements Runnable {
 		}
 
 		Optional<Object> locatedFrameworkFactory = lffehi.getLocatedFrameworkFactory();
-		URL[] secondStageClasspath = buildSecondStageClasspath();
-
 		ClassLoader parentLoader = locatedFrameworkFactory.map(o -> o.getClass().getClassLoader())
 				.orElseGet(FeatureLauncherCli.class::getClassLoader);
 
 		SecondStageLauncher secondStage = ServiceLoader
-				.load(SecondStageLauncher.class, URLClassLoader.newInstance(secondStageClasspath, parentLoader))
+				.load(SecondStageLauncher.class, secondStageLoader(this, parentLoader))
 				.findFirst().orElseThrow(() -> new NoSuchElementException("Unable to load second-stage launcher"));
 
 		if (opts.dryRun()) {
@@ -162,8 +162,12 @@ public final class FeatureLauncherCli implements Runnable {
 			return;
 		}
 		try {
-			secondStage.launch(decorated, ctx, repositories, locatedFrameworkFactory, opts.variables(),
-					opts.configuration(), fwkProps).waitForStop(0);
+			LaunchResult result = secondStage.launch(decorated, ctx, repositories, locatedFrameworkFactory,
+					opts.variables(), opts.configuration(), fwkProps);
+			if (opts.launchReport()) {
+				result.getLaunchReport().ifPresent(System.out::println);
+			}
+			result.waitForStop(0);
 		} catch (InterruptedException ie) {
 			System.err.println("Terminated by interruption.");
 			Thread.currentThread().interrupt();
@@ -244,6 +248,18 @@ public final class FeatureLauncherCli implements Runnable {
 		return Files.createTempDirectory("osgi_");
 	}
 
+	private static synchronized ClassLoader secondStageLoader(FeatureLauncherCli cli, ClassLoader parentLoader) {
+		// Reused by later launches in this JVM unless the feature supplies the
+		// launch framework
+		if (parentLoader != FeatureLauncherCli.class.getClassLoader()) {
+			return URLClassLoader.newInstance(cli.buildSecondStageClasspath(), parentLoader);
+		}
+		if (secondStageLoader == null) {
+			secondStageLoader = URLClassLoader.newInstance(cli.buildSecondStageClasspath(), parentLoader);
+		}
+		return secondStageLoader;
+	}
+
 	private URL[] buildSecondStageClasspath() {
 		ClassLoader cl = getClass().getClassLoader();
 		try (InputStream is = cl.getResourceAsStream("META-INF/second-stage-classpath");
@@ -282,16 +298,8 @@ public final class FeatureLauncherCli implements Runnable {
 	}
 
 	private URL flattenIfNestedJar(URL url) {
-		if (url.getPath().endsWith("/")) {
-			return url;
-		}
 		try {
-			Path tmp = Files.createTempFile("featurelauncher", "secondstage");
-			try (OutputStream os = Files.newOutputStream(tmp, StandardOpenOption.WRITE);
-					InputStream is = url.openStream()) {
-				is.transferTo(os);
-			}
-			return tmp.toUri().toURL();
+			return NestedJarCache.getDefault().flatten(url);
 		} catch (IOException ioe) {
 			throw new FeatureLauncherCliException("Unable to expand nested JAR " + url, ioe);
 		}
@@ -103,6 +103,7 @@ class Help {
 		System.out.println("  -v, --variable-override k=v            Variable override");
 		System.out.println("  -c, --configuration k=v                Implementation configuration");
 		System.out.println("      --impl-dry-run                     Evaluate only; do not launch");
+		System.out.println("      --impl-launch-report               Print launch timings once launched");
 		System.out.println("  -h, --help                             Show this help");
 		System.out.println("  -V, --version                          Print version");
 		System.out.println();
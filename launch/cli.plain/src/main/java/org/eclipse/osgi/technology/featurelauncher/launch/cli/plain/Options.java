@@ -31,7 +31,7 @@ import org.osgi.service.featurelauncher.decorator.FeatureExtensionHandler;
  */
 public record Options(Feature feature, Map<URI, Map<String, Object>> userRepos, boolean useDefaultRepos,
         List<Class<?>> decorators, Map<String, Class<?>> extensionHandlers, Map<String, String> frameworkProps,
-        Map<String, Object> variables, Map<String, Object> configuration, boolean dryRun) {
+        Map<String, Object> variables, Map<String, Object> configuration, boolean dryRun, boolean launchReport) {
 
 	static Options parse(String[] argv) {
 		List<String> args = new ArrayList<>(Arrays.asList(argv));
@@ -46,6 +46,7 @@ public record Options(Feature feature, Map<URI, Map<String, Object>> userRepos,
 		Map<String, Object> vars = new LinkedHashMap<>();
 		Map<String, Object> cfg = new LinkedHashMap<>();
 		boolean dryRun = false;
+		boolean launchReport = false;
 
 		while (it.hasNext()) {
 			String raw = it.next();
@@ -95,6 +96,7 @@ public record Options(Feature feature, Map<URI, Map<String, Object>> userRepos,
 			}
 			case "--impl-default-repos" -> useDefaults = true;
 			case "--impl-dry-run" -> dryRun = true;
+			case "--impl-launch-report" -> launchReport = true;
 
 			case "-d", "--decorator" -> {
 				ensureHasNext(it, tok);
@@ -130,7 +132,8 @@ public record Options(Feature feature, Map<URI, Map<String, Object>> userRepos,
 			throw new FeatureLauncherCliException("No feature specified (JSON or --feature-file)");
 		}
 
-		return new Options(feature, repos, useDefaults, decorators, extHandlers, fwkProps, vars, cfg, dryRun);
+		return new Options(feature, repos, useDefaults, decorators, extHandlers, fwkProps, vars, cfg, dryRun,
+		        launchReport);
 	}
 
 	private static void ensureHasNext(Iterator<String> it, String opt) {
@@ -21,6 +21,7 @@ import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,11 +29,13 @@ import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.ServiceLoader;
+import java.util.WeakHashMap;
 
 import org.eclipse.osgi.technology.featurelauncher.common.decorator.impl.DecorationContext;
 import org.eclipse.osgi.technology.featurelauncher.common.decorator.impl.LaunchFrameworkFeatureExtensionHandler;
 import org.eclipse.osgi.technology.featurelauncher.common.decorator.impl.MutableRepositoryList;
 import org.eclipse.osgi.technology.featurelauncher.launch.secondstage.SecondStageLauncherImpl;
+import org.eclipse.osgi.technology.featurelauncher.launch.spi.LaunchReport;
 import org.osgi.framework.launch.Framework;
 import org.osgi.service.feature.Feature;
 import org.osgi.service.feature.FeatureService;
@@ -60,6 +63,8 @@ public class FeatureLauncherImpl implements FeatureLauncher {
 
 	private ArtifactRepositoryFactory repoFactory = ServiceLoader.load(ArtifactRepositoryFactory.class)
 			.findFirst().orElseThrow(() -> new NoSuchElementException("No Repository Factory available"));
+
+	private final Map<Framework, LaunchReport> launchReports = Collections.synchronizedMap(new WeakHashMap<>());
 	
 	@Override
 	public ArtifactRepository createRepository(Path path) {
@@ -71,6 +76,17 @@ public class FeatureLauncherImpl implements FeatureLauncher {
 		return repoFactory.createRepository(uri, props);
 	}
 
+	/**
+	 * Get the timings recorded while launching a framework
+	 * 
+	 * @param framework a framework launched by this launcher
+	 * @return the launch report, or empty if the framework was not launched by
+	 *         this launcher
+	 */
+	public Optional<LaunchReport> getLaunchReport(Framework framework) {
+		return Optional.ofNullable(launchReports.get(framework));
+	}
+
 	/* 
 	 * (non-Javadoc)
 	 * @see org.osgi.service.featurelauncher.FeatureLauncher#launch(org.osgi.service.feature.Feature)
@@ -283,8 +299,12 @@ public class FeatureLauncherImpl implements FeatureLauncher {
 			// Use instance directly
 			SecondStageLauncherImpl secondStage = new SecondStageLauncherImpl();
 
-			return secondStage.launchFramework(feature, context, artifactRepositories, locatedFrameworkFactory, 
-					variables, configuration, frameworkProps);
+			Framework framework = secondStage.launchFramework(feature, context, artifactRepositories,
+					locatedFrameworkFactory, variables, configuration, frameworkProps);
+
+			secondStage.getLaunchReport().ifPresent(r -> launchReports.put(framework, r));
+
+			return framework;
 		}
 
 		private void ensureNotLaunchedYet() {
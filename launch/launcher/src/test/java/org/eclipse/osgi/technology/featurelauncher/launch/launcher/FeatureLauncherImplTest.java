@@ -16,7 +16,14 @@ package org.eclipse.osgi.technology.featurelauncher.launch.launcher;
 import static org.eclipse.osgi.technology.featurelauncher.repository.spi.RepositoryConstants.DEFAULT_REMOTE_ARTIFACT_REPOSITORY_NAME;
 import static org.eclipse.osgi.technology.featurelauncher.repository.spi.RepositoryConstants.LOCAL_ARTIFACT_REPOSITORY_PATH;
 import static org.eclipse.osgi.technology.featurelauncher.repository.spi.RepositoryConstants.REMOTE_ARTIFACT_REPOSITORY_URI;
+import static org.eclipse.osgi.technology.featurelauncher.launch.secondstage.FeatureLauncherImplConstants.STAGED_ACTIVATION;
+import static org.eclipse.osgi.technology.featurelauncher.launch.secondstage.FeatureLauncherImplConstants.WARM_RESTART;
+import static org.eclipse.osgi.technology.featurelauncher.launch.secondstage.FeatureLauncherImplConstants.WARM_RESTART_STORAGE;
+import static org.eclipse.osgi.technology.featurelauncher.launch.spi.LaunchReport.STAGE_BUNDLE_INSTALL;
+import static org.eclipse.osgi.technology.featurelauncher.launch.spi.LaunchReport.STAGE_FRAMEWORK_INIT;
+import static org.eclipse.osgi.technology.featurelauncher.launch.spi.LaunchReport.STAGE_FRAMEWORK_START;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.osgi.framework.Constants.FRAMEWORK_BEGINNING_STARTLEVEL;
@@ -28,11 +35,16 @@ import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import org.eclipse.osgi.technology.featurelauncher.common.osgi.util.impl.BundleStateUtil;
 import org.eclipse.osgi.technology.featurelauncher.common.osgi.util.impl.ServiceLoaderUtil;
+import org.eclipse.osgi.technology.featurelauncher.launch.spi.LaunchReport;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -43,11 +55,16 @@ import org.osgi.framework.BundleException;
 import org.osgi.framework.Constants;
 import org.osgi.framework.Version;
 import org.osgi.framework.launch.Framework;
+import org.osgi.framework.startlevel.BundleStartLevel;
 import org.osgi.framework.startlevel.FrameworkStartLevel;
 import org.osgi.service.featurelauncher.FeatureLauncher;
 import org.osgi.service.featurelauncher.decorator.AbandonOperationException;
 import org.osgi.service.featurelauncher.repository.ArtifactRepository;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
 /**
  * Tests {@link org.eclipse.osgi.technology.featurelauncher.impl.FeatureLauncherImpl}
  * 
@@ -498,4 +515,210 @@ public class FeatureLauncherImplTest {
 		osgiFramework.stop();
 		osgiFramework.waitForStop(0);
 	}
+
+	@Test
+	public void testStagedActivationRaisesStartLevelsInTurn() throws Exception {
+		Path featureJSONPath = Paths
+				.get(getClass().getResource("/features/gogo-console-staged-activation-feature.json").toURI());
+
+		Framework osgiFramework = launch(featureJSONPath, Map.of(STAGED_ACTIVATION, true));
+		try {
+			assertEquals(3, osgiFramework.adapt(FrameworkStartLevel.class).getStartLevel());
+
+			Bundle[] bundles = osgiFramework.getBundleContext().getBundles();
+			assertEquals(4, bundles.length);
+			assertEquals(3, bundles[1].adapt(BundleStartLevel.class).getStartLevel());
+			assertEquals(3, bundles[2].adapt(BundleStartLevel.class).getStartLevel());
+			assertEquals(2, bundles[3].adapt(BundleStartLevel.class).getStartLevel());
+			for (int i = 1; i < bundles.length; i++) {
+				assertEquals("ACTIVE", BundleStateUtil.getBundleStateString(bundles[i].getState()));
+			}
+
+			LaunchReport report = ((FeatureLauncherImpl) featureLauncher).getLaunchReport(osgiFramework)
+					.orElseThrow();
+			assertEquals(Set.of(2, 3), report.getStartLevelTimes().keySet());
+		} finally {
+			osgiFramework.stop();
+			osgiFramework.waitForStop(0);
+		}
+	}
+
+	@Test
+	public void testDeferredBundlesAreStartedAfterTheLaunch() throws Exception {
+		Path featureJSONPath = Paths
+				.get(getClass().getResource("/features/gogo-console-deferred-activation-feature.json").toURI());
+
+		Framework osgiFramework = launch(featureJSONPath, Map.of());
+		try {
+			LaunchReport report = ((FeatureLauncherImpl) featureLauncher).getLaunchReport(osgiFramework)
+					.orElseThrow();
+			assertEquals(List.of("org.apache.felix.gogo.command:1.1.2"), report.getDeferredBundles());
+			assertTrue(report.getActivatedBundles().contains("org.apache.felix.gogo.shell:1.1.4"));
+			assertTrue(report.getActivatedBundles().contains("org.apache.felix.gogo.runtime:1.1.6"));
+			assertFalse(report.getActivatedBundles().contains("org.apache.felix.gogo.command:1.1.2"));
+
+			// the deferred bundle is started in the background
+			Bundle command = osgiFramework.getBundleContext().getBundles()[1];
+			assertEquals("org.apache.felix.gogo.command", command.getSymbolicName());
+			for (int i = 0; i < 100 && command.getState() != Bundle.ACTIVE; i++) {
+				Thread.sleep(100);
+			}
+			assertEquals("ACTIVE", BundleStateUtil.getBundleStateString(command.getState()));
+		} finally {
+			osgiFramework.stop();
+			osgiFramework.waitForStop(0);
+		}
+	}
+
+	@Test
+	public void testLaunchIsReportedAndRecorded(@TempDir Path recordingDir) throws Exception {
+		Path featureJSONPath = Paths.get(getClass().getResource("/features/gogo-console-feature.json").toURI());
+		Path recordingFile = recordingDir.resolve("launch.jfr");
+
+		LaunchReport report;
+		try (Recording recording = new Recording()) {
+			recording.enable("org.eclipse.osgi.technology.featurelauncher.Launch");
+			recording.enable("org.eclipse.osgi.technology.featurelauncher.LaunchStage");
+			recording.enable("org.eclipse.osgi.technology.featurelauncher.BundleInstall");
+			recording.start();
+
+			report = launchAndStop(featureJSONPath, Map.of());
+
+			recording.stop();
+			recording.dump(recordingFile);
+		}
+
+		assertTrue(report.getStageTimings().containsKey(STAGE_FRAMEWORK_INIT));
+		assertTrue(report.getStageTimings().containsKey(STAGE_BUNDLE_INSTALL));
+		assertTrue(report.getStageTimings().containsKey(STAGE_FRAMEWORK_START));
+		assertEquals(3, report.getBundleFetchTimes().size());
+		assertEquals(3, report.getBundleInstallTimes().size());
+		assertTrue(report.getBytesReadPerRepository().values().stream().mapToLong(Long::longValue).sum() > 0);
+
+		List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+
+		List<RecordedEvent> launches = events.stream()
+				.filter(e -> e.getEventType().getName().endsWith(".Launch")).toList();
+		assertEquals(1, launches.size());
+		assertEquals(3, launches.get(0).getInt("bundlesInstalled"));
+
+		List<RecordedEvent> stages = events.stream()
+				.filter(e -> e.getEventType().getName().endsWith(".LaunchStage")).toList();
+		assertEquals(report.getStageTimings().size(), stages.size());
+
+		List<RecordedEvent> installs = events.stream()
+				.filter(e -> e.getEventType().getName().endsWith(".BundleInstall")).toList();
+		assertEquals(3, installs.size());
+		for (RecordedEvent install : installs) {
+			assertNotNull(install.getString("location"));
+			assertNotNull(install.getString("symbolicName"));
+		}
+
+		// each stage is emitted as it ends, so initializing the framework is
+		// emitted before the bundles are installed
+		RecordedEvent frameworkInit = stages.stream()
+				.filter(e -> STAGE_FRAMEWORK_INIT.equals(e.getString("stage"))).findFirst().orElseThrow();
+		for (RecordedEvent install : installs) {
+			assertFalse(frameworkInit.getEndTime().isAfter(install.getStartTime()));
+		}
+	}
+
+	@Test
+	public void testWarmRestartReusesStorageUntilAnArtifactChanges(@TempDir Path warmRestartStorage)
+			throws Exception {
+		Path featureJSONPath = Paths.get(getClass().getResource("/features/gogo-console-feature.json").toURI());
+		Map<String, Object> configuration = Map.of(WARM_RESTART, true, WARM_RESTART_STORAGE,
+				warmRestartStorage.toString());
+
+		// Cold launch, which installs the bundles
+		LaunchReport first = launchAndStop(featureJSONPath, configuration);
+		assertTrue(first.getStageTimings().containsKey(STAGE_BUNDLE_INSTALL));
+
+		// Warm launch, which reuses the storage area
+		LaunchReport second = launchAndStop(featureJSONPath, configuration);
+		assertFalse(second.getStageTimings().containsKey(STAGE_BUNDLE_INSTALL));
+		assertEquals(1, countDirectories(warmRestartStorage));
+
+		// A re-deployed artifact leads to a cold launch in a new storage area
+		Path artifact = localM2RepositoryPath.resolve(
+				"org/apache/felix/org.apache.felix.gogo.command/1.1.2/org.apache.felix.gogo.command-1.1.2.jar");
+		FileTime lastModified = Files.getLastModifiedTime(artifact);
+		try {
+			Files.setLastModifiedTime(artifact, FileTime.fromMillis(lastModified.toMillis() + 60_000));
+
+			LaunchReport third = launchAndStop(featureJSONPath, configuration);
+			assertTrue(third.getStageTimings().containsKey(STAGE_BUNDLE_INSTALL));
+			assertEquals(2, countDirectories(warmRestartStorage));
+		} finally {
+			Files.setLastModifiedTime(artifact, lastModified);
+		}
+	}
+
+	@Test
+	public void testWarmRestartDefersBundlesStartedByThePreviousLaunch(@TempDir Path warmRestartStorage)
+			throws Exception {
+		Path featureJSONPath = Paths
+				.get(getClass().getResource("/features/gogo-console-deferred-activation-feature.json").toURI());
+		Map<String, Object> configuration = Map.of(WARM_RESTART, true, WARM_RESTART_STORAGE,
+				warmRestartStorage.toString());
+
+		for (int launch = 0; launch < 2; launch++) {
+			Framework osgiFramework = launch(featureJSONPath, configuration);
+			try {
+				LaunchReport report = ((FeatureLauncherImpl) featureLauncher).getLaunchReport(osgiFramework)
+						.orElseThrow();
+				assertEquals(launch == 0, report.getStageTimings().containsKey(STAGE_BUNDLE_INSTALL));
+
+				// the deferred bundle, left started by the first launch, is not started
+				// by the framework ahead of the launcher
+				assertEquals(List.of("org.apache.felix.gogo.command:1.1.2"), report.getDeferredBundles());
+				assertTrue(report.getActivatedBundles().contains("org.apache.felix.gogo.shell:1.1.4"));
+				assertFalse(report.getActivatedBundles().contains("org.apache.felix.gogo.command:1.1.2"));
+
+				Bundle command = osgiFramework.getBundleContext().getBundles()[1];
+				assertEquals("org.apache.felix.gogo.command", command.getSymbolicName());
+				for (int i = 0; i < 100 && command.getState() != Bundle.ACTIVE; i++) {
+					Thread.sleep(100);
+				}
+				assertEquals("ACTIVE", BundleStateUtil.getBundleStateString(command.getState()));
+			} finally {
+				osgiFramework.stop();
+				osgiFramework.waitForStop(0);
+			}
+		}
+	}
+
+	private Framework launch(Path featureJSONPath, Map<String, Object> configuration) throws IOException {
+		// @formatter:off
+		return featureLauncher.launch(Files.newBufferedReader(featureJSONPath))
+				.withRepository(localArtifactRepository)
+				.withRepository(remoteRepository)
+				.withFrameworkProperties(frameworkProperties)
+				.withConfiguration(configuration)
+				.launchFramework();
+		// @formatter:on
+	}
+
+	private LaunchReport launchAndStop(Path featureJSONPath, Map<String, Object> configuration)
+			throws IOException, InterruptedException, BundleException {
+		Framework osgiFramework = launch(featureJSONPath, configuration);
+		try {
+			Bundle[] bundles = osgiFramework.getBundleContext().getBundles();
+			assertEquals(4, bundles.length);
+			for (int i = 1; i < bundles.length; i++) {
+				assertEquals("ACTIVE", BundleStateUtil.getBundleStateString(bundles[i].getState()));
+			}
+
+			return ((FeatureLauncherImpl) featureLauncher).getLaunchReport(osgiFramework).orElseThrow();
+		} finally {
+			osgiFramework.stop();
+			osgiFramework.waitForStop(0);
+		}
+	}
+
+	private long countDirectories(Path dir) throws IOException {
+		try (Stream<Path> files = Files.list(dir)) {
+			return files.filter(Files::isDirectory).count();
+		}
+	}
 }
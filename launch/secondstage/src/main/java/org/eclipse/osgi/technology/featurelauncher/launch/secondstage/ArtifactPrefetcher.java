@@ -0,0 +1,190 @@
+/**
+ * Copyright (c) 2025 Kentyou and others.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.launch.secondstage;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.osgi.technology.featurelauncher.common.repository.impl.ResolvedArtifact;
+import org.eclipse.osgi.technology.featurelauncher.launch.spi.LaunchReport;
+import org.osgi.service.feature.ID;
+import org.osgi.service.featurelauncher.LaunchException;
+import org.osgi.service.featurelauncher.repository.ArtifactRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resolves the bundle artifacts of a feature in the background, so that
+ * fetching them overlaps with initializing the framework. The artifacts are
+ * handed out in feature order as the bundles are installed, and at most one
+ * artifact per fetch thread is fetched ahead of the installation.
+ */
+final class ArtifactPrefetcher implements AutoCloseable {
+	private static final Logger LOG = LoggerFactory.getLogger(ArtifactPrefetcher.class);
+
+	private final List<ID> ids;
+	private final List<? extends ArtifactRepository> repositories;
+	private final LaunchReport.Builder report;
+	private final ExecutorService executor;
+	private final int window;
+	private final List<CompletableFuture<ResolvedArtifact>> artifacts;
+
+	private final long startNanos;
+	private final AtomicLong lastCompletionNanos;
+
+	private int nextArtifact;
+
+	/**
+	 * @param ids          the artifacts, in the order they will be requested
+	 * @param repositories the repositories to search
+	 * @param threads      the number of artifacts fetched concurrently, or 0 to
+	 *                     fetch each one when it is requested
+	 * @param report       records the time taken to fetch each artifact
+	 */
+	ArtifactPrefetcher(List<ID> ids, List<? extends ArtifactRepository> repositories, int threads,
+			LaunchReport.Builder report) {
+		this.ids = List.copyOf(ids);
+		this.repositories = repositories;
+		this.report = report;
+		this.startNanos = System.nanoTime();
+		this.lastCompletionNanos = new AtomicLong(startNanos);
+		this.artifacts = new ArrayList<>(ids.size());
+		for (int i = 0; i < ids.size(); i++) {
+			artifacts.add(new CompletableFuture<>());
+		}
+
+		if (threads > 0 && !ids.isEmpty()) {
+			this.window = Math.min(threads, ids.size());
+			AtomicInteger threadCount = new AtomicInteger();
+			this.executor = Executors.newFixedThreadPool(window, r -> {
+				Thread t = new Thread(r, "featurelauncher-artifact-fetch-" + threadCount.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			});
+			for (int i = 0; i < window; i++) {
+				prefetch(i);
+			}
+		} else {
+			this.window = 0;
+			this.executor = null;
+		}
+	}
+
+	/**
+	 * Get the next artifact, waiting for it to be fetched if necessary
+	 *
+	 * @param id the expected artifact
+	 * @return the resolved artifact
+	 * @throws IllegalStateException if <code>id</code> is not the next artifact
+	 *                               passed to the constructor
+	 * @throws LaunchException       if the artifact could not be found
+	 */
+	ResolvedArtifact next(ID id) {
+		if (nextArtifact >= ids.size() || !ids.get(nextArtifact).equals(id)) {
+			throw new IllegalStateException(String.format("Requested artifact %s but the next artifact is %s", id,
+					nextArtifact < ids.size() ? ids.get(nextArtifact) : "none"));
+		}
+
+		CompletableFuture<ResolvedArtifact> artifact = artifacts.get(nextArtifact);
+		if (executor == null) {
+			try {
+				artifact.complete(resolve(id));
+			} catch (RuntimeException e) {
+				artifact.completeExceptionally(e);
+			}
+		} else if (nextArtifact + window < ids.size()) {
+			// keep the window full
+			prefetch(nextArtifact + window);
+		}
+		nextArtifact++;
+
+		try {
+			return artifact.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException re) {
+				throw re;
+			}
+			throw new LaunchException(String.format("Could not fetch bundle '%s'!", id), e.getCause());
+		}
+	}
+
+	/**
+	 * @return the time from starting to fetch until the last artifact was fetched
+	 */
+	Duration getFetchTime() {
+		return Duration.ofNanos(lastCompletionNanos.get() - startNanos);
+	}
+
+	private void prefetch(int index) {
+		CompletableFuture<ResolvedArtifact> artifact = artifacts.get(index);
+		CompletableFuture.supplyAsync(() -> resolve(ids.get(index)), executor).whenComplete((a, t) -> {
+			if (t != null) {
+				artifact.completeExceptionally(t instanceof CompletionException ce ? ce.getCause() : t);
+			} else if (!artifact.complete(a)) {
+				// cancelled by close(), so nobody will request the artifact any more
+				release(a);
+			}
+		});
+	}
+
+	private ResolvedArtifact resolve(ID id) {
+		long start = System.nanoTime();
+		try {
+			// @formatter:off
+			return ResolvedArtifact.resolve(id, repositories)
+					.orElseThrow(() -> new LaunchException(String.format(
+							"Bundle '%s' could not be found in any of the repositories!", id)));
+			// @formatter:on
+		} finally {
+			long end = System.nanoTime();
+			report.recordBundleFetch(id, Duration.ofNanos(end - start));
+			lastCompletionNanos.accumulateAndGet(end, Math::max);
+		}
+	}
+
+	/**
+	 * Stop fetching, and release any artifacts which were fetched but not
+	 * requested, e.g. because the launch failed. Artifacts still being fetched
+	 * are released as soon as they arrive.
+	 */
+	@Override
+	public void close() {
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+
+		for (int i = nextArtifact; i < artifacts.size(); i++) {
+			CompletableFuture<ResolvedArtifact> artifact = artifacts.get(i);
+			if (!artifact.cancel(false) && !artifact.isCompletedExceptionally()) {
+				release(artifact.join());
+			}
+		}
+	}
+
+	private void release(ResolvedArtifact artifact) {
+		try {
+			artifact.close();
+		} catch (IOException e) {
+			LOG.debug(String.format("Could not release unused artifact %s", artifact), e);
+		}
+	}
+}
@@ -18,15 +18,21 @@ import static org.eclipse.osgi.technology.featurelauncher.common.osgi.util.impl.
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Dictionary;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
+import org.eclipse.osgi.technology.featurelauncher.common.jfr.impl.ConfigurationWriteEvent;
+import org.eclipse.osgi.technology.featurelauncher.common.jfr.impl.FlightRecorderSupport;
 import org.eclipse.osgi.technology.featurelauncher.common.util.impl.VariablesUtil;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.ServiceReference;
@@ -68,7 +74,13 @@ public class FeatureLauncherConfigurationManager implements ServiceTrackerCustom
 	private Method getConfigurationPropertiesMethod;
 	private Method updateConfigurationPropertiesMethod;
 
-	private boolean configurationsCreated;
+	// Released by the service tracker once all configurations have been created
+	private final CountDownLatch configurationsCreated;
+
+	private final long trackingStartNanos;
+
+	// Time from the start of tracking until each configuration was created
+	private final Map<String, Duration> configurationCreationLatencies;
 
 	public FeatureLauncherConfigurationManager(BundleContext bundleContext,
 			Map<String, FeatureConfiguration> featureConfigurations, Map<String, Object> featureVariables) {
@@ -76,7 +88,9 @@ public class FeatureLauncherConfigurationManager implements ServiceTrackerCustom
 		this.featureConfigurations = featureConfigurations;
 		this.featureVariables = featureVariables;
 
-		this.configurationsCreated = false;
+		this.configurationsCreated = new CountDownLatch(1);
+		this.trackingStartNanos = System.nanoTime();
+		this.configurationCreationLatencies = Collections.synchronizedMap(new LinkedHashMap<>());
 
 		this.serviceTracker = new ServiceTracker<>(this.bundleContext, CONFIGURATION_ADMIN_CLASS_NAME, this);
 		this.serviceTracker.open(true);
@@ -97,7 +111,28 @@ public class FeatureLauncherConfigurationManager implements ServiceTrackerCustom
 	}
 
 	public boolean configurationsCreated() {
-		return configurationsCreated;
+		return configurationsCreated.getCount() == 0;
+	}
+
+	/**
+	 * Wait for all of the feature configurations to be created
+	 * 
+	 * @param timeout the maximum time to wait, in milliseconds
+	 * @return true if the configurations were created within the timeout
+	 * @throws InterruptedException
+	 */
+	public boolean awaitConfigurationsCreated(long timeout) throws InterruptedException {
+		return configurationsCreated.await(timeout, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * @return for each configuration created so far, the time from the start of
+	 *         tracking until it was created, in creation order
+	 */
+	public Map<String, Duration> getConfigurationCreationLatencies() {
+		synchronized (configurationCreationLatencies) {
+			return new LinkedHashMap<>(configurationCreationLatencies);
+		}
 	}
 
 	public void stop() {
@@ -158,7 +193,7 @@ public class FeatureLauncherConfigurationManager implements ServiceTrackerCustom
 				featureConfigurations.forEach((featureConfigurationPid, featureConfiguration) -> createConfiguration(
 						featureConfigurationPid, featureConfiguration, configurationAdminService));
 
-				this.configurationsCreated = true;
+				configurationsCreated.countDown();
 
 			} catch (ClassNotFoundException | NoSuchMethodException | SecurityException e) {
 				LOG.error("Error creating configurations!", e);
@@ -211,9 +246,23 @@ public class FeatureLauncherConfigurationManager implements ServiceTrackerCustom
 		Map<String, Object> configurationProperties = VariablesUtil
 				.maybeSubstituteVariables(featureConfiguration.getValues(), featureVariables);
 
+		ConfigurationWriteEvent event = FlightRecorderSupport.isAvailable() ? new ConfigurationWriteEvent() : null;
+		if (event != null) {
+			event.begin();
+		}
 		try {
 			updateConfigurationPropertiesMethod.invoke(configurationObject, 
 					new Hashtable<>(configurationProperties));
+
+			configurationCreationLatencies.put(featureConfigurationPid,
+					Duration.ofNanos(System.nanoTime() - trackingStartNanos));
+
+			if (event != null && event.shouldCommit()) {
+				event.pid = featureConfigurationPid;
+				event.factoryPid = featureConfiguration.getFactoryPid().orElse(null);
+				event.updated = true;
+				event.commit();
+			}
 		} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
 			LOG.error(String.format("Error updating configuration properties %s!", featureConfigurationPid), e);
 		}
@@ -23,6 +23,51 @@ package org.eclipse.osgi.technology.featurelauncher.launch.secondstage;
  */
 public interface FeatureLauncherImplConstants {
 	String FRAMEWORK_STORAGE_CLEAN_TESTONLY = "testOnly";
+
+	/**
+	 * Launch configuration property which, when <code>true</code>, installs
+	 * bundles found in file system repositories using <code>reference:file:</code>
+	 * locations, so that the framework does not copy them into its storage area
+	 */
+	String BUNDLE_INSTALL_REFERENCE = "bundle.install.reference";
+
+	/**
+	 * Launch configuration property which, when <code>true</code>, keeps the
+	 * framework storage area in a directory keyed by the decorated feature and
+	 * framework properties, and reuses it on the next launch with the same key
+	 * instead of installing the bundles again
+	 */
+	String WARM_RESTART = "warm.restart";
+
+	/**
+	 * Launch configuration property setting the directory under which warm restart
+	 * storage areas are kept, defaulting to a directory in <code>java.io.tmpdir</code>
+	 */
+	String WARM_RESTART_STORAGE = "warm.restart.storage";
+
+	/**
+	 * Launch configuration property setting how many bundle artifacts are fetched
+	 * concurrently while the framework is initialized. A value of <code>0</code>
+	 * fetches each artifact only when its bundle is installed
+	 */
+	String ARTIFACT_PREFETCH_THREADS = "artifact.prefetch.threads";
+
+	int ARTIFACT_PREFETCH_THREADS_DEFAULT = 4;
+
+	/**
+	 * Launch configuration property which, when <code>true</code>, raises the
+	 * framework start level one feature bundle start level at a time, starting the
+	 * bundles of each level concurrently before moving on to the next
+	 */
+	String STAGED_ACTIVATION = "staged.activation";
+
+	/**
+	 * Launch configuration property setting how many bundles of a start level are
+	 * started concurrently when using staged activation
+	 */
+	String STAGED_ACTIVATION_THREADS = "staged.activation.threads";
+
+	int STAGED_ACTIVATION_THREADS_DEFAULT = 4;
 	
 	String CONFIGURATION_ADMIN_IMPL_DEFAULT = "org.apache.felix:org.apache.felix.configadmin:1.9.26";
 }
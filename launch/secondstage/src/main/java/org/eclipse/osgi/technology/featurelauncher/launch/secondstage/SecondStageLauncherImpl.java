@@ -13,15 +13,39 @@
  */
 package org.eclipse.osgi.technology.featurelauncher.launch.secondstage;
 
+import static org.eclipse.osgi.technology.featurelauncher.common.decorator.impl.FeatureDecorationConstants.BUNDLE_ACTIVATION_DEFERRED;
+import static org.eclipse.osgi.technology.featurelauncher.common.decorator.impl.FeatureDecorationConstants.BUNDLE_ACTIVATION_LAZY;
 import static org.eclipse.osgi.technology.featurelauncher.launch.secondstage.FeatureLauncherConfigurationManager.CONFIGURATION_TIMEOUT_DEFAULT;
+import static org.eclipse.osgi.technology.featurelauncher.launch.secondstage.FeatureLauncherImplConstants.ARTIFACT_PREFETCH_THREADS;
+import static org.eclipse.osgi.technology.featurelauncher.launch.secondstage.FeatureLauncherImplConstants.ARTIFACT_PREFETCH_THREADS_DEFAULT;
+import static org.eclipse.osgi.technology.featurelauncher.launch.secondstage.FeatureLauncherImplConstants.BUNDLE_INSTALL_REFERENCE;
+import static org.eclipse.osgi.technology.featurelauncher.launch.secondstage.FeatureLauncherImplConstants.STAGED_ACTIVATION;
+import static org.eclipse.osgi.technology.featurelauncher.launch.secondstage.FeatureLauncherImplConstants.STAGED_ACTIVATION_THREADS;
+import static org.eclipse.osgi.technology.featurelauncher.launch.secondstage.FeatureLauncherImplConstants.STAGED_ACTIVATION_THREADS_DEFAULT;
+import static org.eclipse.osgi.technology.featurelauncher.launch.secondstage.FeatureLauncherImplConstants.WARM_RESTART;
+import static org.eclipse.osgi.technology.featurelauncher.launch.secondstage.FeatureLauncherImplConstants.WARM_RESTART_STORAGE;
+import static org.eclipse.osgi.technology.featurelauncher.launch.spi.LaunchReport.STAGE_ARTIFACT_FETCH;
+import static org.eclipse.osgi.technology.featurelauncher.launch.spi.LaunchReport.STAGE_BUNDLE_INSTALL;
+import static org.eclipse.osgi.technology.featurelauncher.launch.spi.LaunchReport.STAGE_CONFIGURATIONS;
+import static org.eclipse.osgi.technology.featurelauncher.launch.spi.LaunchReport.STAGE_DECORATION;
+import static org.eclipse.osgi.technology.featurelauncher.launch.spi.LaunchReport.STAGE_FRAMEWORK_INIT;
+import static org.eclipse.osgi.technology.featurelauncher.launch.spi.LaunchReport.STAGE_FRAMEWORK_LOCATION;
+import static org.eclipse.osgi.technology.featurelauncher.launch.spi.LaunchReport.STAGE_FRAMEWORK_START;
 import static org.osgi.service.featurelauncher.FeatureLauncherConstants.BUNDLE_START_LEVEL_METADATA;
 import static org.osgi.service.featurelauncher.FeatureLauncherConstants.CONFIGURATION_TIMEOUT;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
@@ -31,11 +55,19 @@ import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import org.eclipse.osgi.technology.featurelauncher.common.decorator.impl.BundleActivationsFeatureExtensionHandlerImpl;
 import org.eclipse.osgi.technology.featurelauncher.common.decorator.impl.DecorationContext;
+import org.eclipse.osgi.technology.featurelauncher.common.jfr.impl.BundleInstallEvent;
+import org.eclipse.osgi.technology.featurelauncher.common.jfr.impl.BundleStartEvent;
+import org.eclipse.osgi.technology.featurelauncher.common.jfr.impl.FlightRecorderSupport;
+import org.eclipse.osgi.technology.featurelauncher.common.jfr.impl.LaunchEvent;
+import org.eclipse.osgi.technology.featurelauncher.common.jfr.impl.LaunchStageEvent;
 import org.eclipse.osgi.technology.featurelauncher.common.osgi.util.impl.BundleEventUtil;
 import org.eclipse.osgi.technology.featurelauncher.common.osgi.util.impl.FrameworkEventUtil;
+import org.eclipse.osgi.technology.featurelauncher.common.repository.impl.ResolvedArtifact;
 import org.eclipse.osgi.technology.featurelauncher.common.util.impl.FileSystemUtil;
 import org.eclipse.osgi.technology.featurelauncher.common.util.impl.VariablesUtil;
+import org.eclipse.osgi.technology.featurelauncher.launch.spi.LaunchReport;
 import org.eclipse.osgi.technology.featurelauncher.launch.spi.SecondStageLauncher;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
@@ -43,6 +75,7 @@ import org.osgi.framework.BundleEvent;
 import org.osgi.framework.BundleException;
 import org.osgi.framework.Constants;
 import org.osgi.framework.FrameworkEvent;
+import org.osgi.framework.SynchronousBundleListener;
 import org.osgi.framework.launch.Framework;
 import org.osgi.framework.launch.FrameworkFactory;
 import org.osgi.framework.startlevel.BundleStartLevel;
@@ -64,6 +97,11 @@ import org.slf4j.LoggerFactory;
 public class SecondStageLauncherImpl implements SecondStageLauncher {
 	private static final Logger LOG = LoggerFactory.getLogger(SecondStageLauncherImpl.class);
 
+	// Written to a warm restart storage area once it holds a successfully launched feature
+	private static final String WARM_RESTART_MARKER = ".featurelauncher.warm";
+
+	private volatile LaunchReport launchReport;
+
 	@Override
 	public LaunchResult launch(Feature feature, DecorationContext<?> context,
 			List<? extends ArtifactRepository> repositories, Optional<Object> frameworkFactory,
@@ -71,7 +109,25 @@ public class SecondStageLauncherImpl implements SecondStageLauncher {
 			Map<String, String> frameworkProperties) {
 		Framework fwk = launchFramework(feature, context, repositories, frameworkFactory,
 				variableOverrides, configurationProperties, frameworkProperties);
-		return t -> fwk.waitForStop(t);
+		Optional<LaunchReport> report = getLaunchReport();
+		return new LaunchResult() {
+			@Override
+			public void waitForStop(long time) throws InterruptedException {
+				fwk.waitForStop(time);
+			}
+
+			@Override
+			public Optional<LaunchReport> getLaunchReport() {
+				return report;
+			}
+		};
+	}
+
+	/**
+	 * @return the timings of the most recent successful launch
+	 */
+	public Optional<LaunchReport> getLaunchReport() {
+		return Optional.ofNullable(launchReport);
 	}
 
 	public Framework launchFramework(Feature feature, DecorationContext<?> context,
@@ -85,6 +141,11 @@ public class SecondStageLauncherImpl implements SecondStageLauncher {
 			throw new NullPointerException("At least one Artifact Repository is required!");
 		}
 
+		LaunchReport.Builder report = LaunchReport.builder(feature.getID())
+				.onStage((stage, time) -> commitLaunchStageEvent(feature.getID(), stage, time));
+		// decoration was performed by the first stage
+		report.recordStage(STAGE_DECORATION, context.getDecorationTime());
+
 		////////////////////////////////////////
 		// 160.3.1: Overriding Feature Variables
 		Map<String, Object> variablesToUse = mergeVariables(feature, variableOverrides);
@@ -93,33 +154,136 @@ public class SecondStageLauncherImpl implements SecondStageLauncher {
 		// 160.4.2.1: Providing Framework Launch Properties
 		Map<String, String> frameworkPropertiesToUse = mergeFrameworkProperties(
 				context, frameworkProperties, variablesToUse);
-		
-		/////////////////////////////////////////////////
-		// 160.4.3.2: Locating a framework implementation
-		FrameworkFactory frameworkFactory = FrameworkFactoryLocator.locateFrameworkFactory(
-				configurationProperties, featureFrameworkFactory);
-
-		///////////////////////////////////////////
-		// 160.4.3.3: Creating a Framework instance
-		Framework framework = createFramework(context, frameworkFactory, frameworkPropertiesToUse);
 
-		/////////////////////////////////////////////////////////
-		// 160.4.3.4: Installing bundles and configurations
-		List<Bundle> bundles = installBundles(framework, feature, repositories);
+		Optional<Path> warmRestartStorage = getWarmRestartStorage(feature, configurationProperties,
+				frameworkPropertiesToUse, repositories);
+		boolean isWarmRestart = warmRestartStorage.map(p -> Files.isRegularFile(p.resolve(WARM_RESTART_MARKER)))
+				.orElse(Boolean.FALSE).booleanValue();
+		warmRestartStorage.ifPresent(p -> {
+			frameworkPropertiesToUse.put(Constants.FRAMEWORK_STORAGE, p.toString());
+			if (isWarmRestart) {
+				frameworkPropertiesToUse.remove(Constants.FRAMEWORK_STORAGE_CLEAN);
+			} else {
+				frameworkPropertiesToUse.put(Constants.FRAMEWORK_STORAGE_CLEAN,
+						Constants.FRAMEWORK_STORAGE_CLEAN_ONFIRSTINIT);
+			}
+		});
+		
+		// The bundle artifacts do not depend on the framework, so fetch them while
+		// the framework is located and initialized
+		List<ID> bundleIds = isWarmRestart ? List.of()
+				: feature.getBundles().stream().map(FeatureBundle::getID).toList();
+
+		Framework framework;
+		List<Bundle> bundles;
+		try (ArtifactPrefetcher prefetcher = new ArtifactPrefetcher(bundleIds, repositories,
+				getArtifactPrefetchThreads(configurationProperties), report)) {
+
+			/////////////////////////////////////////////////
+			// 160.4.3.2: Locating a framework implementation
+			FrameworkFactory frameworkFactory = report.stage(STAGE_FRAMEWORK_LOCATION,
+					() -> FrameworkFactoryLocator.locateFrameworkFactory(configurationProperties,
+							featureFrameworkFactory));
+
+			///////////////////////////////////////////
+			// 160.4.3.3: Creating a Framework instance
+			framework = report.stage(STAGE_FRAMEWORK_INIT,
+					() -> createFramework(context, frameworkFactory, frameworkPropertiesToUse));
+
+			/////////////////////////////////////////////////////////
+			// 160.4.3.4: Installing bundles and configurations
+			if (isWarmRestart) {
+				LOG.info(String.format("Reusing the bundles installed in warm restart storage %s",
+						warmRestartStorage.get()));
+				bundles = getPreviouslyInstalledBundles(framework);
+			} else {
+				bundles = report.stage(STAGE_BUNDLE_INSTALL, () -> installBundles(framework, feature,
+						prefetcher, isInstallByReference(configurationProperties), report));
+				report.recordStage(STAGE_ARTIFACT_FETCH, prefetcher.getFetchTime());
+			}
+		}
 
 		FeatureLauncherConfigurationManager flcm = createConfigurationAdminTracker(framework.getBundleContext(), feature, variablesToUse);
 
 		long configurationTimeout = getConfigurationTimeout(configurationProperties);
 
+		// Record which bundles are actually activated while the launch is in
+		// progress, as lazily activated bundles may not be
+		SynchronousBundleListener activationRecorder = e -> {
+			if (e.getType() == BundleEvent.STARTED) {
+				report.recordActivatedBundle(getBundleName(e.getBundle()));
+			}
+		};
+		framework.getBundleContext().addBundleListener(activationRecorder);
+
 		//////////////////////////////////////////
 		// 160.4.3.5: Starting the framework
-		startFramework(context, framework, feature, bundles, configurationProperties, variablesToUse, frameworkPropertiesToUse);
+		List<Bundle> deferredBundles;
+		try {
+			deferredBundles = startFramework(context, framework, feature, bundles, configurationProperties,
+					variablesToUse, frameworkPropertiesToUse, report);
+		} catch (LaunchException e) {
+			// the bundles in the storage area were uninstalled by the cleanup
+			warmRestartStorage.ifPresent(this::deleteWarmRestartMarker);
+			throw e;
+		}
 
 		maybeWaitForConfigurationAdminTracker(flcm, configurationTimeout);
 
+		framework.getBundleContext().removeBundleListener(activationRecorder);
+
+		if (!isWarmRestart) {
+			warmRestartStorage.ifPresent(this::writeWarmRestartMarker);
+		}
+
+		launchReport = report.build();
+		LOG.info(launchReport.toString());
+		commitLaunchEvent(launchReport);
+
+		startDeferredBundles(deferredBundles);
+
 		return framework;
 	}
 
+	private Optional<Path> getWarmRestartStorage(Feature feature, Map<String, Object> configuration,
+			Map<String, String> frameworkProperties, List<? extends ArtifactRepository> repositories) {
+		if (!Boolean.parseBoolean(String.valueOf(configuration.get(WARM_RESTART)))) {
+			return Optional.empty();
+		}
+
+		Path storageRoot = configuration.containsKey(WARM_RESTART_STORAGE)
+				? Paths.get(String.valueOf(configuration.get(WARM_RESTART_STORAGE)))
+				: Paths.get(System.getProperty("java.io.tmpdir"), "featurelauncher_warm");
+
+		return Optional.of(storageRoot.resolve(WarmRestartKey.compute(feature, frameworkProperties, repositories)));
+	}
+
+	private List<Bundle> getPreviouslyInstalledBundles(Framework framework) {
+		// @formatter:off
+		return Arrays.stream(framework.getBundleContext().getBundles())
+				.filter(b -> b.getBundleId() != Constants.SYSTEM_BUNDLE_ID)
+				.sorted(Comparator.comparingLong(Bundle::getBundleId))
+				.collect(Collectors.toCollection(ArrayList::new));
+		// @formatter:on
+	}
+
+	private void writeWarmRestartMarker(Path storage) {
+		try {
+			Files.writeString(storage.resolve(WARM_RESTART_MARKER), storage.getFileName().toString(),
+					StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			LOG.warn(String.format("Could not mark %s for warm restart", storage), e);
+		}
+	}
+
+	private void deleteWarmRestartMarker(Path storage) {
+		try {
+			Files.deleteIfExists(storage.resolve(WARM_RESTART_MARKER));
+		} catch (IOException e) {
+			LOG.warn(String.format("Could not remove the warm restart marker from %s", storage), e);
+		}
+	}
+
 	private Map<String, String> mergeFrameworkProperties(DecorationContext<?> context,
 			Map<String, String> frameworkProperties, Map<String, Object> variables) {
 		Map<String, Object> rawProperties = new HashMap<>(context.getFrameworkHandler().getFrameworkProperties());
@@ -192,25 +356,59 @@ public class SecondStageLauncherImpl implements SecondStageLauncher {
 			.ifPresent(sl -> framework.adapt(FrameworkStartLevel.class).setInitialBundleStartLevel(sl));
 	}
 
-	private void startFramework(DecorationContext<?> context, Framework framework, Feature feature,
+	/**
+	 * @return the bundles whose start is deferred until the launch has completed
+	 */
+	private List<Bundle> startFramework(DecorationContext<?> context, Framework framework, Feature feature,
 			List<Bundle> bundles, Map<String, Object> configuration, Map<String, Object> variables,
-			Map<String, String> frameworkProperties) {
+			Map<String, String> frameworkProperties, LaunchReport.Builder report) {
 		LOG.info("Starting framework..");
 		try {
+			long start = System.nanoTime();
+
+			Map<Bundle, String> activations = getActivations(context.getActivationHandler(), feature, bundles);
+
+			clearPersistentAutostart(bundles, activations);
+
 			framework.start();
 
 			FeatureLauncherConfigurationManager flcm = createConfigurationAdminTracker(
 					framework.getBundleContext(), feature, variables);
 
-			startBundles(bundles);
+			List<Bundle> bundlesToStart = new ArrayList<>();
+			List<Bundle> deferredBundles = new ArrayList<>();
+			for (Bundle bundle : bundles) {
+				if (BUNDLE_ACTIVATION_DEFERRED.equals(activations.get(bundle))) {
+					deferredBundles.add(bundle);
+					report.recordDeferredBundle(getBundleName(bundle));
+				} else {
+					bundlesToStart.add(bundle);
+				}
+			}
+
+			if (isStagedActivation(configuration)) {
+				int targetLevel = Math.max(framework.adapt(FrameworkStartLevel.class).getStartLevel(),
+						context.getStartLevelHandler().getMinimumFrameworkStartLevel().orElse(0));
+
+				new StagedBundleActivator(framework, b -> startBundle(b, activations.get(b)),
+						getStagedActivationThreads(configuration), report).activate(bundlesToStart, targetLevel);
+			} else {
+				startBundles(bundlesToStart, activations);
+
+				maybeSetFrameworkStartLevel(context, framework);
+			}
 
-			maybeSetFrameworkStartLevel(context, framework);
+			report.recordStage(STAGE_FRAMEWORK_START, Duration.ofNanos(System.nanoTime() - start));
 
 			///////////////////////////////////
 			// 160.4.3.5: Configuration timeout
 			long configurationTimeout = getConfigurationTimeout(configuration);
 			
+			start = System.nanoTime();
 			maybeWaitForConfigurationsToBeCreated(flcm, configurationTimeout);
+			report.recordStage(STAGE_CONFIGURATIONS, Duration.ofNanos(System.nanoTime() - start));
+
+			return deferredBundles;
 		} catch (BundleException | InterruptedException e) {
 			////////////////////////////////////
 			// 160.4.3.6: Cleanup after failure
@@ -220,16 +418,97 @@ public class SecondStageLauncherImpl implements SecondStageLauncher {
 		}
 	}
 
-	private void startBundles(List<Bundle> installedBundles) throws BundleException, InterruptedException {
+	/**
+	 * The feature bundles are installed in feature order, so each bundle's
+	 * activation is read from the metadata of the feature bundle at the same
+	 * position. Bundles reused from a warm restart storage area which no longer
+	 * line up with the feature use the default activation.
+	 */
+	private Map<Bundle, String> getActivations(BundleActivationsFeatureExtensionHandlerImpl activationHandler,
+			Feature feature, List<Bundle> bundles) throws BundleException {
+		List<FeatureBundle> featureBundles = feature.getBundles();
+		Map<Bundle, String> activations = new IdentityHashMap<>();
+		for (int i = 0; i < bundles.size(); i++) {
+			Map<String, Object> metadata = (featureBundles.size() == bundles.size())
+					? featureBundles.get(i).getMetadata()
+					: null;
+			try {
+				activations.put(bundles.get(i), activationHandler.getActivation(metadata));
+			} catch (IllegalArgumentException e) {
+				throw new BundleException(String.format("Invalid activation for bundle %s", bundles.get(i)), e);
+			}
+		}
+		return activations;
+	}
+
+	/**
+	 * Bundles reused from a warm restart storage area keep the autostart setting
+	 * they were left with, so the framework would start the deferred and lazily
+	 * activated ones as soon as it starts, ahead of the launcher. Their autostart
+	 * is cleared so that they are started as on a cold launch.
+	 */
+	private void clearPersistentAutostart(List<Bundle> bundles, Map<Bundle, String> activations)
+			throws BundleException {
+		for (Bundle bundle : bundles) {
+			String activation = activations.get(bundle);
+			if ((BUNDLE_ACTIVATION_DEFERRED.equals(activation) || BUNDLE_ACTIVATION_LAZY.equals(activation))
+					&& bundle.adapt(BundleStartLevel.class).isPersistentlyStarted()) {
+				LOG.debug("Clearing the autostart setting of bundle {}", bundle);
+				bundle.stop();
+			}
+		}
+	}
+
+	private void startBundles(List<Bundle> installedBundles, Map<Bundle, String> activations)
+			throws BundleException, InterruptedException {
 		for (Bundle installedBundle : installedBundles) {
 			LOG.debug("Starting bundle {}", installedBundle);
-			startBundle(installedBundle);
+			startBundle(installedBundle, activations.get(installedBundle));
+		}
+	}
+
+	private void startDeferredBundles(List<Bundle> deferredBundles) {
+		if (deferredBundles.isEmpty()) {
+			return;
 		}
+
+		Thread thread = new Thread(() -> {
+			for (Bundle deferredBundle : deferredBundles) {
+				try {
+					startBundle(deferredBundle, null);
+				} catch (BundleException | IllegalStateException e) {
+					LOG.error(String.format("Could not start deferred bundle '%s'",
+							deferredBundle.getSymbolicName()), e);
+				}
+			}
+			LOG.info(String.format("Started %d deferred bundle(s)", deferredBundles.size()));
+		}, "featurelauncher-deferred-activation");
+		thread.setDaemon(true);
+		thread.start();
 	}
 
-	private void startBundle(Bundle installedBundle) throws BundleException, InterruptedException {
+	private void startBundle(Bundle installedBundle, String activation) throws BundleException {
 		if (installedBundle.getHeaders().get(Constants.FRAGMENT_HOST) == null) {
-			installedBundle.start();
+			BundleStartEvent event = FlightRecorderSupport.isAvailable() ? new BundleStartEvent() : null;
+			if (event != null) {
+				event.begin();
+			}
+			try {
+				if (BUNDLE_ACTIVATION_LAZY.equals(activation)) {
+					installedBundle.start(Bundle.START_ACTIVATION_POLICY);
+				} else {
+					installedBundle.start();
+				}
+				if (event != null) {
+					event.started = true;
+				}
+			} finally {
+				if (event != null && event.shouldCommit()) {
+					event.symbolicName = installedBundle.getSymbolicName();
+					event.bundleId = installedBundle.getBundleId();
+					event.commit();
+				}
+			}
 		}
 	}
 
@@ -275,16 +554,18 @@ public class SecondStageLauncherImpl implements SecondStageLauncher {
 			return true;
 		} else if (featureConfigurationManager != null) {
 			
-			boolean configurationsCreated = featureConfigurationManager.configurationsCreated();
-			
-			while(!configurationsCreated && configurationTimeout > 0) {
-				long start = System.nanoTime();
-				TimeUnit.MILLISECONDS.sleep(10);
-				configurationTimeout -= TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
-				configurationsCreated = featureConfigurationManager.configurationsCreated();
-			}
-			
-			LOG.debug("Configurations created {} with {} milliseconds to spare", configurationsCreated, configurationTimeout);
+			long start = System.nanoTime();
+
+			boolean configurationsCreated = (configurationTimeout > 0)
+					? featureConfigurationManager.awaitConfigurationsCreated(configurationTimeout)
+					: featureConfigurationManager.configurationsCreated();
+
+			LOG.debug("Configurations created {} after waiting {} milliseconds", configurationsCreated,
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+			featureConfigurationManager.getConfigurationCreationLatencies().forEach((pid, latency) -> LOG
+					.info(String.format("Configuration %s created after %d ms", pid, latency.toMillis())));
+
 			return configurationsCreated;
 			
 		} else {
@@ -308,13 +589,47 @@ public class SecondStageLauncherImpl implements SecondStageLauncher {
 		}
 	}
 
+	private int getArtifactPrefetchThreads(Map<String, Object> configuration) {
+		if (configuration.containsKey(ARTIFACT_PREFETCH_THREADS)) {
+			int threads = Integer.parseInt(configuration.get(ARTIFACT_PREFETCH_THREADS).toString());
+
+			if (threads < 0) {
+				throw new LaunchException("An invalid number of artifact prefetch threads has been supplied " + threads);
+			}
+			return threads;
+		} else {
+			return ARTIFACT_PREFETCH_THREADS_DEFAULT;
+		}
+	}
+
+	private boolean isStagedActivation(Map<String, Object> configuration) {
+		return Boolean.parseBoolean(String.valueOf(configuration.get(STAGED_ACTIVATION)));
+	}
+
+	private int getStagedActivationThreads(Map<String, Object> configuration) {
+		if (configuration.containsKey(STAGED_ACTIVATION_THREADS)) {
+			int threads = Integer.parseInt(configuration.get(STAGED_ACTIVATION_THREADS).toString());
+
+			if (threads < 1) {
+				throw new LaunchException("An invalid number of staged activation threads has been supplied " + threads);
+			}
+			return threads;
+		} else {
+			return STAGED_ACTIVATION_THREADS_DEFAULT;
+		}
+	}
+
+	private boolean isInstallByReference(Map<String, Object> configuration) {
+		return Boolean.parseBoolean(String.valueOf(configuration.get(BUNDLE_INSTALL_REFERENCE)));
+	}
+
 	private void addLogListeners(Framework framework) {
 		framework.getBundleContext().addFrameworkListener(this::logFrameworkEvent);
 		framework.getBundleContext().addBundleListener(this::logBundleEvent);
 	}
 
 	private List<Bundle> installBundles(Framework framework, Feature feature,
-			List<? extends ArtifactRepository> repositories) {
+			ArtifactPrefetcher prefetcher, boolean installByReference, LaunchReport.Builder report) {
 		List<Bundle> installedBundles = new ArrayList<>();
 		if (feature.getBundles() != null && feature.getBundles().size() > 0) {
 
@@ -322,7 +637,7 @@ public class SecondStageLauncherImpl implements SecondStageLauncher {
 
 			for (FeatureBundle featureBundle : feature.getBundles()) {
 				installBundle(framework.getBundleContext(), featureBundle,
-						repositories, installedBundles);
+						prefetcher, installByReference, report, installedBundles);
 			}
 
 		} else {
@@ -332,10 +647,32 @@ public class SecondStageLauncherImpl implements SecondStageLauncher {
 	}
 
 	private void installBundle(BundleContext bundleContext, FeatureBundle featureBundle,
-			List<? extends ArtifactRepository> repositories, List<Bundle> installedBundles) {
-		Bundle installedBundle = installBundle(bundleContext, featureBundle.getID(), repositories);
+			ArtifactPrefetcher prefetcher, boolean installByReference, LaunchReport.Builder report,
+			List<Bundle> installedBundles) {
+		ResolvedArtifact artifact = prefetcher.next(featureBundle.getID());
+
+		BundleInstallEvent event = FlightRecorderSupport.isAvailable() ? new BundleInstallEvent() : null;
+		if (event != null) {
+			event.begin();
+		}
+		long start = System.nanoTime();
+		Bundle installedBundle = installBundle(bundleContext, featureBundle.getID(), artifact,
+				installByReference);
+		report.recordBundleInstall(featureBundle.getID(), Duration.ofNanos(System.nanoTime() - start));
+
+		// the framework reads a bundle installed by reference from the file itself
+		report.recordBytesRead(artifact.getRepositoryName(),
+				artifact.getBytesRead() > 0 ? artifact.getBytesRead() : Math.max(artifact.getSize(), 0));
 
 		if (installedBundle != null) {
+			if (event != null && event.shouldCommit()) {
+				event.artifact = featureBundle.getID().toString();
+				event.location = installedBundle.getLocation();
+				event.symbolicName = installedBundle.getSymbolicName();
+				event.bundleId = installedBundle.getBundleId();
+				event.commit();
+			}
+
 			maybeSetBundleStartLevel(installedBundle, featureBundle.getMetadata());
 
 			installedBundles.add(installedBundle);
@@ -343,21 +680,34 @@ public class SecondStageLauncherImpl implements SecondStageLauncher {
 	}
 
 	private Bundle installBundle(BundleContext bundleContext, ID featureBundleID,
-			List<? extends ArtifactRepository> repositories) {
-		try (InputStream featureBundleIs = getArtifact(featureBundleID, repositories)) {
-			if (featureBundleIs.available() != 0) {
-				Bundle installedBundle = bundleContext.installBundle(featureBundleID.toString(), featureBundleIs);
+			ResolvedArtifact artifact, boolean installByReference) {
+
+		Optional<String> referenceLocation = installByReference ? artifact.getReferenceLocation() : Optional.empty();
+		if (referenceLocation.isPresent()) {
+			try {
+				Bundle installedBundle = bundleContext.installBundle(referenceLocation.get());
 
-				LOG.info(String.format("Installed bundle '%s'", installedBundle.getSymbolicName()));
+				LOG.info(String.format("Installed bundle '%s' from %s", installedBundle.getSymbolicName(),
+						referenceLocation.get()));
 
 				return installedBundle;
+			} catch (BundleException e) {
+				throw new LaunchException(String.format("Could not install bundle '%s'!", featureBundleID.toString()),
+						e);
 			}
+		}
+
+		try (InputStream featureBundleIs = artifact.openStream()) {
+			Bundle installedBundle = bundleContext.installBundle(featureBundleID.toString(), featureBundleIs);
+
+			LOG.info(String.format("Installed bundle '%s' from %s", installedBundle.getSymbolicName(),
+					artifact.getRepository()));
+
+			return installedBundle;
 		} catch (IOException | BundleException e) {
 			throw new LaunchException(String.format("Could not install bundle '%s'!", featureBundleID.toString()),
 					e);
 		}
-
-		return null;
 	}
 
 	protected void maybeSetBundleStartLevel(Bundle bundle, Map<String, Object> metadata) {
@@ -368,15 +718,38 @@ public class SecondStageLauncherImpl implements SecondStageLauncher {
 		}
 	}
 
-	private InputStream getArtifact(ID featureBundleID, List<? extends ArtifactRepository> repositories) {
-		for (ArtifactRepository artifactRepository : repositories) {
-			InputStream featureBundleIs = artifactRepository.getArtifact(featureBundleID);
-			if (featureBundleIs != null) {
-				return featureBundleIs;
-			}
+	private void commitLaunchStageEvent(ID featureId, String stage, Duration time) {
+		if (!FlightRecorderSupport.isAvailable()) {
+			return;
 		}
 
-		return InputStream.nullInputStream();
+		LaunchStageEvent event = new LaunchStageEvent();
+		if (event.isEnabled()) {
+			event.featureId = String.valueOf(featureId);
+			event.stage = stage;
+			event.stageTime = time.toNanos();
+			event.commit();
+		}
+	}
+
+	private void commitLaunchEvent(LaunchReport report) {
+		if (!FlightRecorderSupport.isAvailable()) {
+			return;
+		}
+
+		LaunchEvent event = new LaunchEvent();
+		if (event.isEnabled()) {
+			event.featureId = String.valueOf(report.getFeatureId());
+			event.totalTime = report.getTotalTime().toNanos();
+			event.bundlesInstalled = report.getBundleInstallTimes().size();
+			event.bytesRead = report.getBytesReadPerRepository().values().stream().mapToLong(Long::longValue)
+					.sum();
+			event.commit();
+		}
+	}
+
+	private static String getBundleName(Bundle bundle) {
+		return bundle.getSymbolicName() + ":" + bundle.getVersion();
 	}
 
 	private void logFrameworkEvent(FrameworkEvent frameworkEvent) {
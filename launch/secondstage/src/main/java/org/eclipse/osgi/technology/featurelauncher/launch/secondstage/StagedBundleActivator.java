@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2025 Kentyou and others.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.launch.secondstage;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.osgi.technology.featurelauncher.launch.spi.LaunchReport;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleException;
+import org.osgi.framework.FrameworkEvent;
+import org.osgi.framework.launch.Framework;
+import org.osgi.framework.startlevel.BundleStartLevel;
+import org.osgi.framework.startlevel.FrameworkStartLevel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Activates the bundles of a feature one start level at a time. The framework
+ * start level is raised to each level used by the bundles in turn, and the
+ * bundles of that level are then started concurrently, rather than one after
+ * another on the framework's start level thread.
+ *
+ * Bundles with a start level above the target framework start level are only
+ * marked to be started, as they would be by a normal launch.
+ */
+final class StagedBundleActivator {
+	private static final Logger LOG = LoggerFactory.getLogger(StagedBundleActivator.class);
+
+	@FunctionalInterface
+	interface BundleStarter {
+		void start(Bundle bundle) throws BundleException;
+	}
+
+	private final Framework framework;
+	private final BundleStarter starter;
+	private final int threads;
+	private final LaunchReport.Builder report;
+
+	StagedBundleActivator(Framework framework, BundleStarter starter, int threads, LaunchReport.Builder report) {
+		this.framework = framework;
+		this.starter = starter;
+		this.threads = threads;
+		this.report = report;
+	}
+
+	/**
+	 * @param bundles     the bundles to start
+	 * @param targetLevel the framework start level to reach
+	 * @throws BundleException      if a bundle could not be started
+	 * @throws InterruptedException
+	 */
+	void activate(List<Bundle> bundles, int targetLevel) throws BundleException, InterruptedException {
+		Map<Integer, List<Bundle>> bundlesByLevel = new TreeMap<>();
+		for (Bundle bundle : bundles) {
+			int startLevel = bundle.adapt(BundleStartLevel.class).getStartLevel();
+			bundlesByLevel.computeIfAbsent(startLevel, k -> new ArrayList<>()).add(bundle);
+		}
+
+		FrameworkStartLevel frameworkStartLevel = framework.adapt(FrameworkStartLevel.class);
+
+		ExecutorService executor = createExecutor();
+		try {
+			for (Map.Entry<Integer, List<Bundle>> level : bundlesByLevel.entrySet()) {
+				int startLevel = level.getKey().intValue();
+
+				if (startLevel > targetLevel) {
+					// started by the framework if the start level is raised later
+					for (Bundle bundle : level.getValue()) {
+						starter.start(bundle);
+					}
+					continue;
+				}
+
+				long start = System.nanoTime();
+
+				if (frameworkStartLevel.getStartLevel() < startLevel) {
+					setFrameworkStartLevel(frameworkStartLevel, startLevel);
+				}
+				startConcurrently(executor, level.getValue());
+
+				Duration time = Duration.ofNanos(System.nanoTime() - start);
+				report.recordStartLevel(startLevel, time);
+				LOG.info(String.format("Started %d bundle(s) at start level %d in %d ms", level.getValue().size(),
+						startLevel, time.toMillis()));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		if (frameworkStartLevel.getStartLevel() < targetLevel) {
+			setFrameworkStartLevel(frameworkStartLevel, targetLevel);
+		}
+	}
+
+	private void startConcurrently(ExecutorService executor, List<Bundle> bundles)
+			throws BundleException, InterruptedException {
+		List<Future<?>> starts = new ArrayList<>(bundles.size());
+		for (Bundle bundle : bundles) {
+			starts.add(executor.submit(() -> {
+				starter.start(bundle);
+				return null;
+			}));
+		}
+
+		// wait for every bundle of the level, then report the first failure
+		BundleException failure = null;
+		for (Future<?> started : starts) {
+			try {
+				started.get();
+			} catch (ExecutionException e) {
+				if (failure == null) {
+					failure = (e.getCause() instanceof BundleException be) ? be
+							: new BundleException("Could not start bundle", e.getCause());
+				}
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	private void setFrameworkStartLevel(FrameworkStartLevel frameworkStartLevel, int startLevel)
+			throws InterruptedException {
+		Semaphore sem = new Semaphore(0);
+		frameworkStartLevel.setStartLevel(startLevel, fe -> {
+			if (fe.getType() == FrameworkEvent.ERROR) {
+				LOG.error(String.format("Error changing the framework start level to %d", startLevel),
+						fe.getThrowable());
+			}
+			sem.release();
+		});
+		sem.acquire();
+	}
+
+	private ExecutorService createExecutor() {
+		AtomicInteger threadCount = new AtomicInteger();
+		return Executors.newFixedThreadPool(Math.max(threads, 1), r -> {
+			Thread t = new Thread(r, "featurelauncher-bundle-start-" + threadCount.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+	}
+}
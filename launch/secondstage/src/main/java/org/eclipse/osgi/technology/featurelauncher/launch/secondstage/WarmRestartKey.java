@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2025 Kentyou and others.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.launch.secondstage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import org.eclipse.osgi.technology.featurelauncher.common.util.impl.FeatureDigest;
+import org.eclipse.osgi.technology.featurelauncher.common.util.impl.FeatureDigest.Section;
+import org.eclipse.osgi.technology.featurelauncher.repository.common.osgi.ArtifactRepositoryAdapter;
+import org.eclipse.osgi.technology.featurelauncher.repository.spi.FileSystemRepository;
+import org.osgi.framework.Constants;
+import org.osgi.service.feature.Feature;
+import org.osgi.service.feature.FeatureBundle;
+import org.osgi.service.feature.ID;
+import org.osgi.service.featurelauncher.repository.ArtifactRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Computes the key identifying the framework storage area which may be reused
+ * by a warm restart.
+ *
+ * The key covers everything which determines the installed bundles and the
+ * framework itself: the bundles of the decorated feature with their metadata,
+ * its extensions and the framework launch properties. Configurations are not
+ * part of the key, as they are reconciled on every launch.
+ *
+ * The content of a bundle artifact is covered by the size and last modified
+ * time of its file, if it is already present in the local directory of a file
+ * system repository. This is cheap, and detects a SNAPSHOT or re-deployed
+ * artifact which has been downloaded or installed again. Changes to artifacts
+ * which are not present locally, e.g. only available from a remote repository
+ * without a local copy yet, are not detected.
+ */
+final class WarmRestartKey {
+	private static final Logger LOG = LoggerFactory.getLogger(WarmRestartKey.class);
+
+	private static final int KEY_LENGTH = 32;
+
+	private WarmRestartKey() {
+		// hidden constructor
+	}
+
+	static String compute(Feature feature, Map<String, String> frameworkProperties,
+			List<? extends ArtifactRepository> repositories) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// Every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+
+		FeatureDigest featureDigest = FeatureDigest.of(feature);
+		update(digest, "feature", feature.getID());
+		update(digest, "bundles", featureDigest.getSectionDigest(Section.BUNDLES));
+		update(digest, "extensions", featureDigest.getSectionDigest(Section.EXTENSIONS));
+
+		List<ID> notFingerprinted = new ArrayList<>();
+		for (FeatureBundle featureBundle : feature.getBundles()) {
+			Optional<String> fingerprint = fingerprint(featureBundle.getID(), repositories);
+			if (fingerprint.isPresent()) {
+				update(digest, "artifact:" + featureBundle.getID(), fingerprint.get());
+			} else {
+				notFingerprinted.add(featureBundle.getID());
+			}
+		}
+		if (!notFingerprinted.isEmpty()) {
+			LOG.info(String.format(
+					"Warm restart cannot detect changes to %d bundle artifact(s) not present in a local repository: %s",
+					notFingerprinted.size(), notFingerprinted));
+		}
+
+		// The storage location is derived from the key, so cannot be part of it
+		TreeMap<String, String> properties = new TreeMap<>(frameworkProperties);
+		properties.remove(Constants.FRAMEWORK_STORAGE);
+		properties.remove(Constants.FRAMEWORK_STORAGE_CLEAN);
+		properties.forEach((k, v) -> update(digest, k, v));
+
+		return HexFormat.of().formatHex(digest.digest()).substring(0, KEY_LENGTH);
+	}
+
+	/**
+	 * @return the size and last modified time of the first local copy of the
+	 *         artifact, without resolving it through the repository
+	 */
+	private static Optional<String> fingerprint(ID id, List<? extends ArtifactRepository> repositories) {
+		for (ArtifactRepository artifactRepository : repositories) {
+			if (artifactRepository instanceof ArtifactRepositoryAdapter ara
+					&& ara.unwrap() instanceof FileSystemRepository fsr && fsr.getLocalRepositoryPath() != null) {
+				Path artifactPath = getLocalArtifactPath(fsr.getLocalRepositoryPath(), id);
+				try {
+					BasicFileAttributes attributes = Files.readAttributes(artifactPath, BasicFileAttributes.class);
+					if (attributes.isRegularFile()) {
+						return Optional.of(attributes.size() + ":" + attributes.lastModifiedTime().toMillis());
+					}
+				} catch (IOException e) {
+					// not present in this repository
+				}
+			}
+		}
+		return Optional.empty();
+	}
+
+	// The Maven repository layout used by all file system repositories
+	private static Path getLocalArtifactPath(Path localRepositoryPath, ID id) {
+		StringBuilder fileName = new StringBuilder(id.getArtifactId()).append('-').append(id.getVersion());
+		id.getClassifier().ifPresent(c -> fileName.append('-').append(c));
+		fileName.append('.').append(id.getType().orElse("jar"));
+
+		return localRepositoryPath.resolve(id.getGroupId().replace('.', '/')).resolve(id.getArtifactId())
+				.resolve(id.getVersion()).resolve(fileName.toString());
+	}
+
+	private static void update(MessageDigest digest, String name, Object value) {
+		digest.update(name.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) '=');
+		digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) '\n');
+	}
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2025 Kentyou and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.launch.secondstage;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+
+import org.eclipse.osgi.technology.featurelauncher.common.repository.impl.ResolvedArtifact;
+import org.eclipse.osgi.technology.featurelauncher.launch.spi.LaunchReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.osgi.service.feature.ID;
+import org.osgi.service.featurelauncher.repository.ArtifactRepository;
+
+/**
+ * Tests {@link ArtifactPrefetcher}
+ */
+public class ArtifactPrefetcherTest {
+
+	private List<ID> ids;
+	private Map<ID, InputStream> streams;
+	private ArtifactRepository repository;
+
+	@BeforeEach
+	public void setUp() {
+		ids = IntStream.range(0, 5).mapToObj(i -> mock(ID.class)).toList();
+		streams = new HashMap<>();
+		repository = mock(ArtifactRepository.class);
+		for (ID id : ids) {
+			InputStream stream = mock(InputStream.class);
+			streams.put(id, stream);
+			when(repository.getArtifact(id)).thenReturn(stream);
+		}
+	}
+
+	@Test
+	public void testArtifactsAreFetchedAheadWithinTheWindow() throws Exception {
+		try (ArtifactPrefetcher prefetcher = new ArtifactPrefetcher(ids, List.of(repository), 2,
+				LaunchReport.builder(ids.get(0)))) {
+			verify(repository, timeout(5000).times(2)).getArtifact(any());
+			Thread.sleep(100);
+			verify(repository, times(2)).getArtifact(any());
+			verify(repository, never()).getArtifact(ids.get(2));
+
+			// taking an artifact makes room for the next one
+			ResolvedArtifact first = prefetcher.next(ids.get(0));
+			assertSame(ids.get(0), first.getId());
+			verify(repository, timeout(5000)).getArtifact(ids.get(2));
+			Thread.sleep(100);
+			verify(repository, times(3)).getArtifact(any());
+
+			for (int i = 1; i < ids.size(); i++) {
+				assertSame(ids.get(i), prefetcher.next(ids.get(i)).getId());
+			}
+		}
+	}
+
+	@Test
+	public void testArtifactsAreFetchedOnRequestWithoutThreads() {
+		try (ArtifactPrefetcher prefetcher = new ArtifactPrefetcher(ids, List.of(repository), 0,
+				LaunchReport.builder(ids.get(0)))) {
+			verify(repository, never()).getArtifact(any());
+
+			assertSame(ids.get(0), prefetcher.next(ids.get(0)).getId());
+			verify(repository, times(1)).getArtifact(any());
+		}
+	}
+
+	@Test
+	public void testArtifactsAreRequestedInOrder() {
+		try (ArtifactPrefetcher prefetcher = new ArtifactPrefetcher(ids, List.of(repository), 2,
+				LaunchReport.builder(ids.get(0)))) {
+			assertThrows(IllegalStateException.class, () -> prefetcher.next(ids.get(1)));
+
+			for (ID id : ids) {
+				prefetcher.next(id);
+			}
+			assertThrows(IllegalStateException.class, () -> prefetcher.next(ids.get(0)));
+		}
+	}
+
+	@Test
+	public void testUnrequestedArtifactsAreReleasedOnClose() throws Exception {
+		try (ArtifactPrefetcher prefetcher = new ArtifactPrefetcher(ids, List.of(repository), 2,
+				LaunchReport.builder(ids.get(0)))) {
+			prefetcher.next(ids.get(0));
+			verify(repository, timeout(5000)).getArtifact(ids.get(2));
+		}
+
+		verify(streams.get(ids.get(0)), never()).close();
+		verify(streams.get(ids.get(1)), timeout(5000)).close();
+		verify(streams.get(ids.get(2)), timeout(5000)).close();
+	}
+
+	@Test
+	public void testArtifactsArrivingAfterCloseAreReleased() throws Exception {
+		CountDownLatch fetching = new CountDownLatch(1);
+		CountDownLatch proceed = new CountDownLatch(1);
+		when(repository.getArtifact(ids.get(0))).thenAnswer(i -> {
+			fetching.countDown();
+			// like blocking I/O, this is not interrupted by closing the prefetcher
+			boolean interrupted = false;
+			while (true) {
+				try {
+					proceed.await();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+			return streams.get(ids.get(0));
+		});
+
+		ArtifactPrefetcher prefetcher = new ArtifactPrefetcher(ids, List.of(repository), 1,
+				LaunchReport.builder(ids.get(0)));
+		fetching.await();
+		prefetcher.close();
+		proceed.countDown();
+
+		verify(streams.get(ids.get(0)), timeout(5000)).close();
+		// nothing else was fetched after closing
+		verify(repository, times(1)).getArtifact(any());
+	}
+}
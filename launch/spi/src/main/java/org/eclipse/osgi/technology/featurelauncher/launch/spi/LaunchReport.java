@@ -0,0 +1,250 @@
+/**
+ * Copyright (c) 2025 Kentyou and others.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.launch.spi;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import org.osgi.service.feature.ID;
+
+/**
+ * The time taken by each stage of launching a feature, the time taken to
+ * fetch and install each bundle, and the number of bytes read from each
+ * repository.
+ *
+ * Some stages run concurrently, e.g. fetching artifacts overlaps with
+ * initializing the framework, so the total launch time may be less than the
+ * sum of the stage timings.
+ *
+ * A {@link Builder} notifies a stage listener as each stage ends, which the
+ * launcher uses to emit a JDK Flight Recorder event per stage while the launch
+ * is in progress.
+ */
+public final class LaunchReport {
+
+	public static final String STAGE_DECORATION = "decoration";
+	public static final String STAGE_FRAMEWORK_LOCATION = "framework.location";
+	public static final String STAGE_FRAMEWORK_INIT = "framework.init";
+	public static final String STAGE_ARTIFACT_FETCH = "artifact.fetch";
+	public static final String STAGE_BUNDLE_INSTALL = "bundle.install";
+	public static final String STAGE_FRAMEWORK_START = "framework.start";
+	public static final String STAGE_CONFIGURATIONS = "configurations";
+
+	private final ID featureId;
+	private final Map<String, Duration> stageTimings;
+	private final Map<ID, Duration> bundleFetchTimes;
+	private final Map<ID, Duration> bundleInstallTimes;
+	private final Map<String, Long> bytesReadPerRepository;
+	private final Map<Integer, Duration> startLevelTimes;
+	private final List<String> activatedBundles;
+	private final List<String> deferredBundles;
+	private final Duration totalTime;
+
+	private LaunchReport(Builder builder, Duration totalTime) {
+		this.featureId = builder.featureId;
+		this.stageTimings = Collections.unmodifiableMap(new LinkedHashMap<>(builder.stageTimings));
+		this.bundleFetchTimes = Collections.unmodifiableMap(new LinkedHashMap<>(builder.bundleFetchTimes));
+		this.bundleInstallTimes = Collections.unmodifiableMap(new LinkedHashMap<>(builder.bundleInstallTimes));
+		this.bytesReadPerRepository = Collections.unmodifiableMap(new LinkedHashMap<>(builder.bytesReadPerRepository));
+		this.startLevelTimes = Collections.unmodifiableMap(new LinkedHashMap<>(builder.startLevelTimes));
+		this.activatedBundles = List.copyOf(builder.activatedBundles);
+		this.deferredBundles = List.copyOf(builder.deferredBundles);
+		this.totalTime = totalTime;
+	}
+
+	public static Builder builder(ID featureId) {
+		return new Builder(featureId);
+	}
+
+	public ID getFeatureId() {
+		return featureId;
+	}
+
+	/**
+	 * @return the time taken by each stage, in the order the stages completed
+	 */
+	public Map<String, Duration> getStageTimings() {
+		return stageTimings;
+	}
+
+	/**
+	 * @return the time taken to find each bundle artifact in the repositories,
+	 *         including any download, in the order the fetches completed
+	 */
+	public Map<ID, Duration> getBundleFetchTimes() {
+		return bundleFetchTimes;
+	}
+
+	/**
+	 * @return the time taken to install each bundle, in installation order
+	 */
+	public Map<ID, Duration> getBundleInstallTimes() {
+		return bundleInstallTimes;
+	}
+
+	/**
+	 * @return the number of bytes of bundle artifacts read from each repository,
+	 *         keyed by repository name
+	 */
+	public Map<String, Long> getBytesReadPerRepository() {
+		return bytesReadPerRepository;
+	}
+
+	/**
+	 * @return the time taken to reach and start the bundles of each start level,
+	 *         in ascending order, if the bundles were activated level by level
+	 */
+	public Map<Integer, Duration> getStartLevelTimes() {
+		return startLevelTimes;
+	}
+
+	/**
+	 * @return the bundles, as <code>symbolicName:version</code>, which were
+	 *         activated between starting the framework and the end of the
+	 *         launch, in activation order. Bundles with a lazy activation policy
+	 *         only appear if they were triggered during that window.
+	 */
+	public List<String> getActivatedBundles() {
+		return activatedBundles;
+	}
+
+	/**
+	 * @return the bundles, as <code>symbolicName:version</code>, whose start was
+	 *         deferred until after the launch completed
+	 */
+	public List<String> getDeferredBundles() {
+		return deferredBundles;
+	}
+
+	/**
+	 * @return the elapsed time of the whole launch
+	 */
+	public Duration getTotalTime() {
+		return totalTime;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("Launch of feature %s took %d ms", featureId, totalTime.toMillis()));
+		stageTimings.forEach((stage, time) -> sb.append(String.format("%n  %-20s %6d ms", stage, time.toMillis())));
+		startLevelTimes.forEach((level, time) -> sb
+				.append(String.format("%n  %-20s %6d ms", "start.level." + level, time.toMillis())));
+		bytesReadPerRepository.forEach((repository, bytes) -> sb
+				.append(String.format("%n  %d bytes read from repository %s", bytes, repository)));
+		sb.append(String.format("%n  %d bundle(s) activated during launch", activatedBundles.size()));
+		if (!deferredBundles.isEmpty()) {
+			sb.append(String.format("%n  %d bundle(s) deferred: %s", deferredBundles.size(), deferredBundles));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Records stage timings while a launch is in progress. Stages may be recorded
+	 * from several threads.
+	 */
+	public static final class Builder {
+		private final ID featureId;
+		private final long startNanos;
+		private final Map<String, Duration> stageTimings = new LinkedHashMap<>();
+		private final Map<ID, Duration> bundleFetchTimes = new LinkedHashMap<>();
+		private final Map<ID, Duration> bundleInstallTimes = new LinkedHashMap<>();
+		private final Map<String, Long> bytesReadPerRepository = new LinkedHashMap<>();
+		private final Map<Integer, Duration> startLevelTimes = new LinkedHashMap<>();
+		private final List<String> activatedBundles = new ArrayList<>();
+		private final List<String> deferredBundles = new ArrayList<>();
+		private BiConsumer<String, Duration> stageListener = (stage, time) -> {
+		};
+
+		private Builder(ID featureId) {
+			this.featureId = featureId;
+			this.startNanos = System.nanoTime();
+		}
+
+		/**
+		 * @param listener notified with the name and time of each stage as it is
+		 *                 recorded, outside of any lock held by this builder
+		 */
+		public synchronized Builder onStage(BiConsumer<String, Duration> listener) {
+			this.stageListener = listener;
+			return this;
+		}
+
+		public Builder recordStage(String stage, Duration time) {
+			BiConsumer<String, Duration> listener;
+			synchronized (this) {
+				stageTimings.merge(stage, time, Duration::plus);
+				listener = stageListener;
+			}
+			listener.accept(stage, time);
+			return this;
+		}
+
+		public synchronized Builder recordBundleFetch(ID bundleId, Duration time) {
+			bundleFetchTimes.put(bundleId, time);
+			return this;
+		}
+
+		public synchronized Builder recordBundleInstall(ID bundleId, Duration time) {
+			bundleInstallTimes.put(bundleId, time);
+			return this;
+		}
+
+		public synchronized Builder recordBytesRead(String repository, long bytes) {
+			bytesReadPerRepository.merge(repository, Long.valueOf(bytes), Long::sum);
+			return this;
+		}
+
+		/**
+		 * Run a stage of the launch, recording how long it took even if it fails
+		 *
+		 * @param stage the name of the stage
+		 * @param work  the work of the stage
+		 * @return the result of the work
+		 */
+		public <T> T stage(String stage, Supplier<T> work) {
+			long start = System.nanoTime();
+			try {
+				return work.get();
+			} finally {
+				recordStage(stage, Duration.ofNanos(System.nanoTime() - start));
+			}
+		}
+
+		public synchronized Builder recordStartLevel(int startLevel, Duration time) {
+			startLevelTimes.put(Integer.valueOf(startLevel), time);
+			return this;
+		}
+
+		public synchronized Builder recordActivatedBundle(String bundle) {
+			activatedBundles.add(bundle);
+			return this;
+		}
+
+		public synchronized Builder recordDeferredBundle(String bundle) {
+			deferredBundles.add(bundle);
+			return this;
+		}
+
+		public synchronized LaunchReport build() {
+			return new LaunchReport(this, Duration.ofNanos(System.nanoTime() - startNanos));
+		}
+	}
+}
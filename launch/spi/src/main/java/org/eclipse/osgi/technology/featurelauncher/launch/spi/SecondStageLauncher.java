@@ -41,5 +41,12 @@ public interface SecondStageLauncher {
 
 	public interface LaunchResult {
 		void waitForStop(long time) throws InterruptedException;
+
+		/**
+		 * @return the timings of the launch, if the second stage recorded them
+		 */
+		default Optional<LaunchReport> getLaunchReport() {
+			return Optional.empty();
+		}
 	}
 }
@@ -56,6 +56,12 @@ import org.slf4j.LoggerFactory;
 abstract class AbstractMavenRepositoryImpl implements FileSystemRepository {
 	private static final Logger LOG = LoggerFactory.getLogger(AbstractMavenRepositoryImpl.class);
 
+	/**
+	 * The <code>jdk.jfr</code> package is imported optionally, so only use
+	 * {@link ArtifactResolveEvent} if it can be loaded
+	 */
+	private static final boolean FLIGHT_RECORDER_AVAILABLE = isFlightRecorderAvailable();
+
 	private final Map<String, Object> configurationProperties;
 	private final String name;
 	private final Path localRepositoryPath;
@@ -112,6 +118,27 @@ abstract class AbstractMavenRepositoryImpl implements FileSystemRepository {
 	public Path getArtifactPath(ID id) {
 		Objects.requireNonNull(id, "ID cannot be null!");
 
+		if (!FLIGHT_RECORDER_AVAILABLE) {
+			return resolveArtifactPath(id);
+		}
+
+		ArtifactResolveEvent event = new ArtifactResolveEvent();
+		event.begin();
+		try {
+			Path path = resolveArtifactPath(id);
+			event.resolved = path != null;
+			return path;
+		} finally {
+			event.end();
+			if (event.shouldCommit()) {
+				event.artifact = id.toString();
+				event.repository = getName();
+				event.commit();
+			}
+		}
+	}
+
+	private Path resolveArtifactPath(ID id) {
 		try (RepositorySystem repositorySystem = newRepositorySystem();
 				CloseableSession repositorySystemSession = newSession(repositorySystem)) {
 
@@ -176,4 +203,13 @@ abstract class AbstractMavenRepositoryImpl implements FileSystemRepository {
 
 		return sessionBuilder.build();
 	}
+
+	private static boolean isFlightRecorderAvailable() {
+		try {
+			Class.forName("jdk.jfr.Event", false, AbstractMavenRepositoryImpl.class.getClassLoader());
+			return true;
+		} catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
 }
@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) 2025 Kentyou and others.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.repository.maven;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for resolving an artifact through the Maven resolver,
+ * which includes downloading it when the repository is remote
+ */
+@Name("org.eclipse.osgi.technology.featurelauncher.MavenArtifactResolve")
+@Label("Maven Artifact Resolve")
+@Description("An artifact resolved by a Maven repository")
+@Category({ "Feature Launcher", "Repository" })
+class ArtifactResolveEvent extends Event {
+
+	@Label("Artifact")
+	String artifact;
+
+	@Label("Repository")
+	String repository;
+
+	@Label("Resolved")
+	boolean resolved;
+}
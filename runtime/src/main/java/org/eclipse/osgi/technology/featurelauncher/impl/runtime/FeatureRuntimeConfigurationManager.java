@@ -20,21 +20,30 @@ import static org.eclipse.osgi.technology.featurelauncher.common.osgi.util.impl.
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Dictionary;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.eclipse.osgi.technology.featurelauncher.common.jfr.impl.ConfigurationWriteEvent;
+import org.eclipse.osgi.technology.featurelauncher.common.jfr.impl.FlightRecorderSupport;
 import org.eclipse.osgi.technology.featurelauncher.common.util.impl.VariablesUtil;
+import org.osgi.framework.Constants;
 import org.osgi.framework.InvalidSyntaxException;
 import org.osgi.service.cm.Configuration;
 import org.osgi.service.cm.Configuration.ConfigurationAttribute;
 import org.osgi.service.cm.ConfigurationAdmin;
+import org.osgi.service.cm.ConfigurationEvent;
+import org.osgi.service.cm.ConfigurationListener;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.feature.FeatureConfiguration;
@@ -52,27 +61,95 @@ import org.slf4j.LoggerFactory;
  * @author Michael H. Siemaszko (mhs@into.software)
  * @since Oct 4, 2024
  */
-@Component(service = FeatureRuntimeConfigurationManager.class)
-public class FeatureRuntimeConfigurationManager {
+@Component(service = { FeatureRuntimeConfigurationManager.class, ConfigurationListener.class })
+public class FeatureRuntimeConfigurationManager implements ConfigurationListener {
 	private static final Logger LOG = LoggerFactory.getLogger(FeatureRuntimeConfigurationManager.class);
 
 	@Reference
 	ConfigurationAdmin configurationAdmin;
 
+	// PIDs of all configurations present in Configuration Admin, maintained from
+	// configuration events rather than listing all configurations on each call.
+	// Changes are made while holding indexLock.
+	private final Set<String> existingConfigurationPids = ConcurrentHashMap.newKeySet();
+
+	private final Object indexLock = new Object();
+
+	@Activate
+	void activate() {
+		try {
+			existingConfigurationPids.addAll(getAllConfigurations().keySet());
+		} catch (IOException | InvalidSyntaxException e) {
+			LOG.error("Error retrieving existing configurations!", e);
+		}
+	}
+
+	/* 
+	 * (non-Javadoc)
+	 * @see org.osgi.service.cm.ConfigurationListener#configurationEvent(org.osgi.service.cm.ConfigurationEvent)
+	 */
+	@Override
+	public void configurationEvent(ConfigurationEvent event) {
+		switch (event.getType()) {
+		case ConfigurationEvent.CM_UPDATED:
+		case ConfigurationEvent.CM_DELETED:
+			reconcile(event.getPid());
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Events are delivered asynchronously, so may describe a change which has
+	 * since been overtaken by a write or delete made here, e.g. the deletion of a
+	 * configuration which has been created again. Rather than applying the event,
+	 * ask Configuration Admin whether the configuration exists now.
+	 */
+	private void reconcile(String pid) {
+		synchronized (indexLock) {
+			try {
+				if (configurationAdmin.listConfigurations(
+						"(" + Constants.SERVICE_PID + "=" + escapeFilterValue(pid) + ")") != null) {
+					existingConfigurationPids.add(pid);
+				} else {
+					existingConfigurationPids.remove(pid);
+				}
+			} catch (IOException | InvalidSyntaxException e) {
+				LOG.error(String.format("Error checking configuration %s!", pid), e);
+			}
+		}
+	}
+
+	public boolean containsConfiguration(String pid) {
+		return existingConfigurationPids.contains(pid);
+	}
+
 	public void createConfigurations(List<FeatureConfiguration> featureConfigurations,
 			Map<String, Object> featureVariables) {
-		featureConfigurations.forEach(fc -> createConfiguration(fc, featureVariables));
+		// Configuration Admin has no batch update, and applies each update before
+		// returning, so there is nothing for a batch barrier to wait for
+		for (FeatureConfiguration featureConfiguration : featureConfigurations) {
+			createConfiguration(featureConfiguration, featureVariables);
+		}
 	}
 
 	public void removeConfigurations(Set<String> featuresConfigurationsPids) {
-		try {
-			Map<String, Configuration> existingConfigurations = getFeatureLauncherConfigurations();
+		// @formatter:off
+		Set<String> pidsForRemoval = featuresConfigurationsPids.stream()
+				.filter(existingConfigurationPids::contains)
+				.collect(Collectors.toSet());
+		// @formatter:on
+
+		if (pidsForRemoval.isEmpty()) {
+			return;
+		}
 
-			if (!existingConfigurations.isEmpty()) {
-				for (String featuresConfigurationsPid : featuresConfigurationsPids) {
-					if (existingConfigurations.containsKey(featuresConfigurationsPid)) {
-						existingConfigurations.remove(featuresConfigurationsPid).delete();
-					}
+		try {
+			for (Configuration configuration : getFeatureLauncherConfigurations(pidsForRemoval).values()) {
+				synchronized (indexLock) {
+					configuration.delete();
+					existingConfigurationPids.remove(configuration.getPid());
 				}
 			}
 
@@ -81,6 +158,53 @@ public class FeatureRuntimeConfigurationManager {
 		}
 	}
 
+	/**
+	 * @param pids the PIDs of the configurations
+	 * @return those of the configurations created by the feature launcher which
+	 *         exist
+	 */
+	public Collection<Configuration> getConfigurations(Set<String> pids) {
+		if (pids.isEmpty()) {
+			return Collections.emptyList();
+		}
+
+		try {
+			return getFeatureLauncherConfigurations(pids).values();
+
+		} catch (IOException | InvalidSyntaxException e) {
+			LOG.error("Error retrieving configurations!", e);
+		}
+
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Recreates a configuration removed by {@link #removeConfigurations(Set)},
+	 * as when rolling back a failed update
+	 *
+	 * @param pid        the PID of the configuration
+	 * @param factoryPid the factory PID of the configuration, or null
+	 * @param properties the properties of the configuration when it was removed
+	 */
+	public void restoreConfiguration(String pid, String factoryPid, Dictionary<String, Object> properties) {
+		try {
+			LOG.info(String.format("Restoring configuration %s", pid));
+
+			Configuration configuration = (factoryPid != null)
+					? configurationAdmin.getFactoryConfiguration(factoryPid, pid.substring(factoryPid.length() + 1),
+							CONFIGURATION_DEFAULT_LOCATION)
+					: configurationAdmin.getConfiguration(pid, CONFIGURATION_DEFAULT_LOCATION);
+
+			synchronized (indexLock) {
+				configuration.updateIfDifferent(properties);
+				existingConfigurationPids.add(configuration.getPid());
+			}
+
+		} catch (IllegalArgumentException | IOException e) {
+			LOG.error(String.format("Error restoring configuration %s!", pid), e);
+		}
+	}
+
 	public List<Configuration> getConfigurations(String filter) {
 		try {
 			Configuration[] configurations = configurationAdmin.listConfigurations(filter);
@@ -155,22 +279,47 @@ public class FeatureRuntimeConfigurationManager {
 
 		configurationProperties.put(CONFIGURATIONS_FILTER, Boolean.TRUE);
 
+		ConfigurationWriteEvent event = FlightRecorderSupport.isAvailable() ? new ConfigurationWriteEvent() : null;
+		if (event != null) {
+			event.begin();
+		}
 		try {
-			configuration.updateIfDifferent(new Hashtable<>(configurationProperties));
+			boolean updated;
+			synchronized (indexLock) {
+				updated = configuration.updateIfDifferent(new Hashtable<>(configurationProperties));
+				existingConfigurationPids.add(configuration.getPid());
+			}
+
+			if (event != null && event.shouldCommit()) {
+				event.pid = configuration.getPid();
+				event.factoryPid = configuration.getFactoryPid();
+				event.updated = updated;
+				event.commit();
+			}
 		} catch (IOException e) {
 			LOG.error(String.format("Error updating configuration properties %s!", featureConfiguration.getPid()), e);
 		}
 	}
 
-	private Map<String, Configuration> getFeatureLauncherConfigurations() throws IOException, InvalidSyntaxException {
+	private Map<String, Configuration> getFeatureLauncherConfigurations(Set<String> pids)
+			throws IOException, InvalidSyntaxException {
+		StringBuilder filter = new StringBuilder("(&").append(constructConfigurationsFilter()).append("(|");
+		pids.forEach(pid -> filter.append('(').append(Constants.SERVICE_PID).append('=').append(escapeFilterValue(pid))
+				.append(')'));
+		filter.append("))");
+
 		// @formatter:off
-		return Optional.ofNullable(configurationAdmin.listConfigurations(constructConfigurationsFilter()))
+		return Optional.ofNullable(configurationAdmin.listConfigurations(filter.toString()))
 				.map(Arrays::stream)
 				.map(s -> s.collect(Collectors.toMap(Configuration::getPid, Function.identity())))
 				.orElse(Map.of());
 		// @formatter:on
 	}
 
+	private String escapeFilterValue(String value) {
+		return value.replace("\\", "\\\\").replace("*", "\\*").replace("(", "\\(").replace(")", "\\)");
+	}
+
 	private boolean isReadOnly(Configuration configuration) {
 		Set<ConfigurationAttribute> configurationAttributes = configuration.getAttributes();
 		return (configurationAttributes != null && configurationAttributes.contains(ConfigurationAttribute.READ_ONLY));
@@ -13,12 +13,17 @@
  */
 package org.eclipse.osgi.technology.featurelauncher.impl.runtime;
 
+import static org.eclipse.osgi.technology.featurelauncher.common.decorator.impl.FeatureDecorationConstants.BUNDLE_ACTIVATION_DEFERRED;
+import static org.eclipse.osgi.technology.featurelauncher.common.decorator.impl.FeatureDecorationConstants.BUNDLE_ACTIVATION_EAGER;
+import static org.eclipse.osgi.technology.featurelauncher.common.decorator.impl.FeatureDecorationConstants.BUNDLE_ACTIVATION_LAZY;
 import static org.osgi.service.feature.FeatureExtension.Kind.MANDATORY;
 import static org.osgi.service.featurelauncher.FeatureLauncherConstants.BUNDLE_START_LEVEL_METADATA;
 
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.net.URI;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -27,6 +32,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
+import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -35,25 +41,36 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
-import java.util.jar.JarFile;
-import java.util.jar.Manifest;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.eclipse.osgi.technology.featurelauncher.common.decorator.impl.DecorationContext;
-import org.eclipse.osgi.technology.featurelauncher.common.decorator.impl.LaunchFrameworkFeatureExtensionHandler;
 import org.eclipse.osgi.technology.featurelauncher.common.decorator.impl.MutableRepositoryList;
+import org.eclipse.osgi.technology.featurelauncher.common.jfr.impl.BundleInstallEvent;
+import org.eclipse.osgi.technology.featurelauncher.common.jfr.impl.BundleStartEvent;
+import org.eclipse.osgi.technology.featurelauncher.common.jfr.impl.FeatureRuntimeOperationEvent;
+import org.eclipse.osgi.technology.featurelauncher.common.jfr.impl.FlightRecorderSupport;
+import org.eclipse.osgi.technology.featurelauncher.common.repository.impl.ResolvedArtifact;
+import org.eclipse.osgi.technology.featurelauncher.common.util.impl.FeatureDigest;
 import org.eclipse.osgi.technology.featurelauncher.repository.common.osgi.ArtifactRepositoryAdapter;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
 import org.osgi.framework.BundleException;
-import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.Constants;
+import org.osgi.framework.SynchronousBundleListener;
 import org.osgi.framework.startlevel.BundleStartLevel;
 import org.osgi.framework.wiring.BundleRevision;
+import org.osgi.framework.wiring.FrameworkWiring;
 import org.osgi.service.cm.Configuration;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.feature.Feature;
 import org.osgi.service.feature.FeatureBundle;
@@ -101,6 +118,15 @@ public class FeatureRuntimeImpl implements FeatureRuntime {
 
 	private final Map<String, ArtifactRepository> defaultArtifactRepositories;
 
+	// Whether bundles found in file system repositories are installed in place
+	private final boolean installByReference;
+
+	// Fail installs and updates whose bundles cannot all be resolved
+	private final boolean resolutionRequired;
+
+	// Fail installs and updates when a bundle cannot be started
+	private final boolean startRequired;
+
 	// Bundles installed by this feature runtime
 	private final Map<ID, Bundle> installedBundlesByIdentifier;
 
@@ -113,16 +139,33 @@ public class FeatureRuntimeImpl implements FeatureRuntime {
 	// List of installed features
 	private final List<InstalledFeature> installedFeatures;
 
-	// Bundles already present in running framework
+	// Digest of the undecorated content of each installed feature
+	private final Map<ID, FeatureDigest> installedFeatureDigests;
+
+	// Variables supplied to the operation which installed each feature
+	private final Map<ID, Map<String, Object>> installedFeatureVariables;
+
+	// Bundles present in running framework, kept up to date by the listener below
 	private final Map<Map.Entry<String, String>, Long> existingBundles;
 
-	// Allows faster lookup of bundle symbolic name and version
+	private final SynchronousBundleListener existingBundlesListener = this::updateExistingBundles;
+
+	// Symbolic name and version of bundle artifacts, as read when installing them
 	private final Map<ID, Map.Entry<String, String>> bundleIdsToSymbolicNamesVersions;
 
 	// ID of the virtual external feature representing ownership of a bundle or
 	// configuration that was deployed by another management agent
 	private ID externalFeatureId;
 
+	// Timings recorded for the operations performed on each feature
+	private final FeatureRuntimeMetrics metrics = new FeatureRuntimeMetrics();
+
+	// Journal of the most recent install or update operation for each feature
+	private final Map<ID, FeatureRuntimeJournal> journals = new ConcurrentHashMap<>();
+
+	// Persisted state, if the framework provides a data area for this bundle
+	private final FeatureRuntimeStateStore stateStore;
+
 	
 	public static @interface Config {
 		
@@ -133,6 +176,12 @@ public class FeatureRuntimeImpl implements FeatureRuntime {
 		public boolean local_repositories_enabled() default false;
 		
 		public boolean remote_repositories_enabled() default false;
+		
+		public boolean bundle_install_reference() default false;
+		
+		public boolean bundle_resolution_required() default false;
+		
+		public boolean bundle_start_required() default false;
 	}
 	
 	@Activate
@@ -141,6 +190,9 @@ public class FeatureRuntimeImpl implements FeatureRuntime {
 		this.bundleContext = context;
 		this.artifactRepositoryFactory = arf;
 		this.featureRuntimeConfigurationManager = frcm;
+		this.installByReference = config.bundle_install_reference();
+		this.resolutionRequired = config.bundle_resolution_required();
+		this.startRequired = config.bundle_start_required();
 
 		try {
 			Map<String, ArtifactRepository> repos = new HashMap<>();
@@ -181,8 +233,11 @@ public class FeatureRuntimeImpl implements FeatureRuntime {
 			
 			this.defaultArtifactRepositories = Map.copyOf(repos);
 			
-			// collect symbolic names of bundles already present in running framework
-			this.existingBundles = getExistingBundles();
+			// collect symbolic names of bundles already present in running framework,
+			// registering the listener first so that no bundle installed meanwhile is missed
+			this.existingBundles = new ConcurrentHashMap<>();
+			context.addBundleListener(existingBundlesListener);
+			Arrays.stream(context.getBundles()).forEach(this::addExistingBundle);
 		} catch (Exception e) {
 			throw new FeatureRuntimeException("Could not create default artifact repositories!");
 		}
@@ -191,11 +246,26 @@ public class FeatureRuntimeImpl implements FeatureRuntime {
 		this.installedFeaturesToBundles = new HashMap<>();
 		this.installedFeaturesToConfigurations = new HashMap<>();
 		this.installedFeatures = new ArrayList<>();
+		this.installedFeatureDigests = new HashMap<>();
+		this.installedFeatureVariables = new HashMap<>();
 		this.bundleIdsToSymbolicNamesVersions = new HashMap<>();
 
+		File stateFile = context.getDataFile(FeatureRuntimeStateStore.STATE_FILE);
+		this.stateStore = (stateFile != null) ? new FeatureRuntimeStateStore(stateFile.toPath()) : null;
+
 		LOG.info("Started FeatureRuntime!");
 	}
 
+	@Activate
+	void activate() {
+		restoreState();
+	}
+
+	@Deactivate
+	void deactivate() {
+		bundleContext.removeBundleListener(existingBundlesListener);
+	}
+
 	@Reference
 	private void setFeatureService(FeatureService featureService) {
 		this.featureService = featureService;
@@ -221,6 +291,27 @@ public class FeatureRuntimeImpl implements FeatureRuntime {
 		return defaultArtifactRepositories;
 	}
 
+	public FeatureRuntimeMetrics getMetrics() {
+		return metrics;
+	}
+
+	public Optional<FeatureRuntimeJournal> getJournal(ID featureId) {
+		return Optional.ofNullable(journals.get(featureId));
+	}
+
+	/**
+	 * @param featureId the ID of an installed feature
+	 * @return the bundles of the feature which could not be resolved when it was
+	 *         installed or updated, empty if all resolved or the feature is not
+	 *         installed
+	 */
+	public List<ResolutionFailure> getResolutionFailures(ID featureId) {
+		if (getInstalledFeatureById(featureId) instanceof InstalledFeatureImpl installedFeature) {
+			return installedFeature.getResolutionFailures();
+		}
+		return Collections.emptyList();
+	}
+
 	/* 
 	 * (non-Javadoc)
 	 * @see org.osgi.service.featurelauncher.runtime.FeatureRuntime#install(org.osgi.service.feature.Feature)
@@ -308,6 +399,7 @@ public class FeatureRuntimeImpl implements FeatureRuntime {
 
 	abstract class AbstractOperationBuilderImpl<T extends OperationBuilder<T>> implements OperationBuilder<T> {
 		protected DecorationContext<?> decorationUtil;
+		protected FeatureRuntimeJournal journal;
 		protected Feature feature;
 		protected boolean isCompleted;
 		protected boolean useDefaultRepositories;
@@ -471,55 +563,99 @@ public class FeatureRuntimeImpl implements FeatureRuntime {
 	        		.collect(Collectors.toList());
 	        // @formatter:on
 
+			FeatureDigest featureDigest = FeatureDigest.of(feature);
+
 			// Check if feature is already installed or out of date
-			if (installedFeaturesToBundles.containsKey(featureId)) {
+			boolean isUpdate = installedFeaturesToBundles.containsKey(featureId);
+			if (isUpdate) {
 				LOG.info(String.format("Updating feature %s", featureId));
 
-				if (installedFeaturesToBundles.get(featureId).equals(featureBundlesIDs)) {
+				FeatureDigest installedDigest = getInstalledFeatureDigest(featureId);
+				if (featureDigest.equals(installedDigest)) {
 					// No work to do, already installed
 					LOG.info(String.format("The feature %s is already up to date", featureId));
 
 					return getInstalledFeatureById(featureId);
 				} else {
 					// Feature is out of date - remove and re-install
-					LOG.info(String.format("The feature %s is out of date and will be removed and re-installed",
-							featureId));
-
-					removeFeature(featureId);
+					LOG.info(String.format("The feature %s is out of date and will be removed and re-installed%s",
+							featureId, (installedDigest != null)
+									? ", changed: " + featureDigest.getChangedSections(installedDigest)
+									: ""));
 				}
 			}
 
+			journal = new FeatureRuntimeJournal(featureId);
+			journals.put(featureId, journal);
+
 			// Feature Decoration
 			Feature originalFeature = feature;
+			Feature decoratedFeature = journal.phase(FeatureRuntimeJournal.PHASE_DECORATE,
+					() -> decorate(originalFeature));
+
 			try {
-				feature = decorationUtil.executeFeatureDecorators(featureService,
-						feature, this.completedRepositories, decorators);
+				// Remove the previous version, journaled so that it is reinstated if
+				// installing this one fails
+				if (isUpdate) {
+					journal.phase(FeatureRuntimeJournal.PHASE_REMOVE_PREVIOUS, () -> removeFeature(featureId));
+				}
 
-				feature = decorationUtil.executeFeatureExtensionHandlers(featureService, feature,
-						this.completedRepositories, extensionHandlers);
-			} catch (AbandonOperationException e) {
-				throw new FeatureRuntimeException("Feature decoration handling failed!", e);
-			}
+				// Install bundles
+				List<InstalledBundle> installedBundles = journal.phase(FeatureRuntimeJournal.PHASE_INSTALL_BUNDLES,
+						() -> installBundles(decoratedFeature, featureBundlesIDs));
+
+				// Install configurations
+				List<InstalledConfiguration> installedConfigurations = journal.phase(
+						FeatureRuntimeJournal.PHASE_INSTALL_CONFIGURATIONS, () -> installConfigurations(decoratedFeature));
+
+				// Resolve all newly installed bundles in a single pass
+				List<ResolutionFailure> resolutionFailures = journal.phase(FeatureRuntimeJournal.PHASE_RESOLVE,
+						() -> resolveBundles(featureId, installedBundles));
+				if (resolutionRequired && !resolutionFailures.isEmpty()) {
+					throw new FeatureRuntimeException(String.format("%d bundle(s) in feature %s could not be resolved: %s",
+							resolutionFailures.size(), featureId, resolutionFailures));
+				}
 
-			// Install bundles
-			List<InstalledBundle> installedBundles = installBundles(feature, featureBundlesIDs);
+				// Start bundles
+				journal.phase(FeatureRuntimeJournal.PHASE_START, () -> startBundles(decoratedFeature, installedBundles));
 
-			// Install configurations
-			List<InstalledConfiguration> installedConfigurations = installConfigurations(feature);
+				// construct installed feature
+				InstalledFeature installedFeature = constructInstalledFeature(decoratedFeature, originalFeature,
+						decoratedFeature != originalFeature, false, installedBundles, installedConfigurations,
+						resolutionFailures);
 
-			// Start bundles
-			startBundles(featureId, installedBundles);
+				// update "owning features" in other 'installedFeatures'
+				updateInstalledFeaturesOnAddOrUpdate(installedFeature);
 
-			// construct installed feature
-			InstalledFeature installedFeature = constructInstalledFeature(feature, originalFeature,
-					feature != originalFeature, false, installedBundles, installedConfigurations);
+				installedFeatures.add(installedFeature);
+				installedFeatureDigests.put(featureId, featureDigest);
+				installedFeatureVariables.put(featureId, new HashMap<>(variables));
 
-			// update "owning features" in other 'installedFeatures'
-			updateInstalledFeaturesOnAddOrUpdate(installedFeature);
+				persistFeature(featureId, installedFeature);
 
-			installedFeatures.add(installedFeature);
+				return installedFeature;
 
-			return installedFeature;
+			} catch (RuntimeException e) {
+				// forget this version before rolling back, which reinstates any previous one
+				installedFeaturesToBundles.remove(featureId);
+				installedFeaturesToConfigurations.remove(featureId);
+
+				journal.rollback();
+
+				throw e;
+			}
+		}
+
+		protected Feature decorate(Feature feature) {
+			try {
+				feature = decorationUtil.executeFeatureDecorators(featureService,
+						feature, this.completedRepositories, decorators);
+
+				return decorationUtil.executeFeatureExtensionHandlers(featureService, feature,
+						this.completedRepositories, extensionHandlers);
+			} catch (AbandonOperationException e) {
+				throw new FeatureRuntimeException("Feature decoration handling failed!", e);
+			}
 		}
 
 		// TODO: clarify with Tim understanding / how this is currently implemented and
@@ -653,7 +789,16 @@ public class FeatureRuntimeImpl implements FeatureRuntime {
 			return Collections.emptyMap();
 		}
 
+		/**
+		 * Removes a feature. When the removal is part of an update, it is recorded
+		 * in the journal of the update, so that the feature is reinstated if the
+		 * update is rolled back.
+		 */
 		protected void removeFeature(ID featureId) {
+			if (journal != null) {
+				journalFeatureRemoval(featureId);
+			}
+
 			// remove only those bundles which are not referenced by other features
 			Deque<ID> bundleIDsForRemoval = getBundleIDsForRemoval(featureId);
 
@@ -668,9 +813,79 @@ public class FeatureRuntimeImpl implements FeatureRuntime {
 
 			// remove feature from list of installed features
 			installedFeatures.removeIf(f -> featureId.equals(f.getFeature().getID()));
+			installedFeatureDigests.remove(featureId);
+			installedFeatureVariables.remove(featureId);
+
+			metrics.clear(featureId);
 
 			// update "owning features" in other installed features
 			updateInstalledFeaturesOnRemove(featureId);
+
+			// an update replaces the journal and the persisted state instead
+			if (journal == null) {
+				journals.remove(featureId);
+
+				persistFeatureRemoval(featureId);
+			}
+		}
+
+		protected void journalFeatureRemoval(ID featureId) {
+			InstalledFeature removedFeature = getInstalledFeatureById(featureId);
+			List<ID> removedBundleIDs = installedFeaturesToBundles.get(featureId);
+			Collection<String> removedConfigurationPIDs = installedFeaturesToConfigurations.get(featureId);
+			FeatureDigest removedDigest = installedFeatureDigests.get(featureId);
+			Map<String, Object> removedVariables = installedFeatureVariables.get(featureId);
+			Map<ID, Map.Entry<String, String>> symbolicNamesVersions = new HashMap<>(bundleIdsToSymbolicNamesVersions);
+
+			// recorded first, so undone last, once the bundles and configurations are back
+			journal.record(FeatureRuntimeJournal.EntryType.FEATURE_REMOVED, featureId.toString(), () -> {
+				installedFeaturesToBundles.put(featureId, removedBundleIDs);
+				if (removedConfigurationPIDs != null) {
+					installedFeaturesToConfigurations.put(featureId, removedConfigurationPIDs);
+				}
+
+				bundleIdsToSymbolicNamesVersions.clear();
+				bundleIdsToSymbolicNamesVersions.putAll(symbolicNamesVersions);
+
+				if (removedFeature != null) {
+					InstalledFeature reinstatedFeature = reinstateInstalledFeature(removedFeature);
+
+					updateInstalledFeaturesOnAddOrUpdate(reinstatedFeature);
+
+					installedFeatures.add(reinstatedFeature);
+					if (removedDigest != null) {
+						installedFeatureDigests.put(featureId, removedDigest);
+					}
+					if (removedVariables != null) {
+						installedFeatureVariables.put(featureId, removedVariables);
+					}
+
+					// bundles which were reinstalled have new bundle IDs
+					persistFeature(featureId, reinstatedFeature);
+				}
+			});
+		}
+
+		protected InstalledFeature reinstateInstalledFeature(InstalledFeature removedFeature) {
+			List<InstalledBundle> reinstatedBundles = new ArrayList<>();
+			for (InstalledBundle installedBundle : removedFeature.getInstalledBundles()) {
+				Bundle bundle = installedBundle.getBundle();
+				if (bundle != null && bundle.getState() == Bundle.UNINSTALLED) {
+					bundle = installedBundlesByIdentifier.get(installedBundle.getBundleId());
+				}
+
+				reinstatedBundles.add(new InstalledBundleImpl(installedBundle.getBundleId(),
+						installedBundle.getAliases(), bundle, installedBundle.getStartLevel(),
+						installedBundle.getOwningFeatures()));
+			}
+
+			List<ResolutionFailure> resolutionFailures = (removedFeature instanceof InstalledFeatureImpl impl)
+					? impl.getResolutionFailures()
+					: Collections.emptyList();
+
+			return constructInstalledFeature(removedFeature.getFeature(), removedFeature.getOriginalFeature(),
+					removedFeature.isDecorated(), removedFeature.isInitialLaunch(), reinstatedBundles,
+					removedFeature.getInstalledConfigurations(), resolutionFailures);
 		}
 
 		protected List<InstalledBundle> installBundles(Feature feature, List<ID> featureBundles) {
@@ -685,11 +900,30 @@ public class FeatureRuntimeImpl implements FeatureRuntime {
 					Bundle bundle = null;
 
 					try {
+						BundleInstallEvent event = FlightRecorderSupport.isAvailable() ? new BundleInstallEvent() : null;
+						if (event != null) {
+							event.begin();
+						}
+
 						bundle = installBundle(bundleId);
 
 						if (bundle != null) {
+							if (event != null && event.shouldCommit()) {
+								event.artifact = bundleId.toString();
+								event.location = bundle.getLocation();
+								event.symbolicName = bundle.getSymbolicName();
+								event.bundleId = bundle.getBundleId();
+								event.commit();
+							}
+
 							installedBundlesByIdentifier.put(bundleId, bundle);
 
+							Bundle installedBundle = bundle;
+							journal.record(FeatureRuntimeJournal.EntryType.BUNDLE_INSTALLED, bundleId.toString(), () -> {
+								installedBundlesByIdentifier.remove(bundleId);
+								installedBundle.uninstall();
+							});
+
 							maybeSetBundleStartLevel(bundle, featureBundle.getMetadata());
 
 							installedBundles.add(constructInstalledBundle(bundleId, bundle,
@@ -734,6 +968,7 @@ public class FeatureRuntimeImpl implements FeatureRuntime {
 			if (bundleSymbolicNameAndVersion != null) {
 				// @formatter:off
 				return bundleIdsToSymbolicNamesVersions.entrySet().stream()
+						.filter(entry -> !bundleId.equals(entry.getKey()))
 						.filter(entry -> ((bundleSymbolicNameAndVersion.getKey())
 								.equals(entry.getValue().getKey())
 								&& (bundleSymbolicNameAndVersion.getValue())
@@ -747,29 +982,60 @@ public class FeatureRuntimeImpl implements FeatureRuntime {
 		}
 
 		protected Bundle installBundle(ID featureBundleID) throws IOException, BundleException {
-			try (InputStream featureBundleIs = getArtifact(featureBundleID)) {
-				if (featureBundleIs.available() != 0) {
-					Bundle installedBundle = bundleContext.installBundle(featureBundleID.toString(), featureBundleIs);
+			ResolvedArtifact artifact = resolveArtifact(featureBundleID);
 
-					LOG.info(String.format("Installed bundle '%s'", installedBundle.getSymbolicName()));
-
-					return installedBundle;
+			Optional<String> referenceLocation = installByReference ? artifact.getReferenceLocation()
+					: Optional.empty();
+			if (referenceLocation.isPresent()) {
+				Bundle installedBundle;
+				try {
+					installedBundle = bundleContext.installBundle(referenceLocation.get());
+				} catch (BundleException e) {
+					// nothing was streamed, so read what the artifact declares from its file
+					Map.Entry<String, String> bundleSymbolicNameAndVersion = ManifestCapturingInputStream
+							.getSymbolicNameAndVersion(artifact.getPath().get());
+					if (bundleSymbolicNameAndVersion != null) {
+						bundleIdsToSymbolicNamesVersions.put(featureBundleID, bundleSymbolicNameAndVersion);
+					}
+					throw e;
 				}
+
+				cacheBundleSymbolicNameAndVersion(featureBundleID, installedBundle);
+
+				LOG.info(String.format("Installed bundle '%s' from %s", installedBundle.getSymbolicName(),
+						referenceLocation.get()));
+
+				return installedBundle;
 			}
 
-			return null;
+			try (ManifestCapturingInputStream featureBundleIs = new ManifestCapturingInputStream(
+					artifact.openStream())) {
+				Bundle installedBundle;
+				try {
+					installedBundle = bundleContext.installBundle(featureBundleID.toString(), featureBundleIs);
+				} catch (BundleException e) {
+					// remember what the artifact declares, as needed to handle duplicates
+					Map.Entry<String, String> bundleSymbolicNameAndVersion = featureBundleIs
+							.getSymbolicNameAndVersion();
+					if (bundleSymbolicNameAndVersion != null) {
+						bundleIdsToSymbolicNamesVersions.put(featureBundleID, bundleSymbolicNameAndVersion);
+					}
+					throw e;
+				}
+
+				cacheBundleSymbolicNameAndVersion(featureBundleID, installedBundle);
+
+				LOG.info(String.format("Installed bundle '%s' from %s", installedBundle.getSymbolicName(),
+						artifact.getRepository()));
+
+				return installedBundle;
+			}
 		}
 
 		protected List<InstalledConfiguration> installConfigurations(Feature feature) {
 			List<InstalledConfiguration> installedConfigurations = new ArrayList<>();
 
-			Map<String, Configuration> allExistingConfigurations;
-
-			try {
-				allExistingConfigurations = featureRuntimeConfigurationManager.getAllConfigurations();
-			} catch (IOException | InvalidSyntaxException e) {
-				throw new FeatureRuntimeException("Error retrieving existing configurations!", e);
-			}
+			List<FeatureConfiguration> configurationsToCreate = new ArrayList<>();
 
 			for (Map.Entry<String, FeatureConfiguration> featureConfigurationEntry : feature.getConfigurations()
 					.entrySet()) {
@@ -778,10 +1044,9 @@ public class FeatureRuntimeImpl implements FeatureRuntime {
 
 				boolean configurationAlreadyInstalledByRuntime = isConfigurationInstalledByRuntime(configurationPid);
 
-				if (!allExistingConfigurations.containsKey(configurationPid)) {
+				if (!featureRuntimeConfigurationManager.containsConfiguration(configurationPid)) {
 
-					featureRuntimeConfigurationManager.createConfiguration(featureConfiguration,
-							mergeVariables(feature));
+					configurationsToCreate.add(featureConfiguration);
 
 					installedConfigurations.add(constructInstalledConfiguration(featureConfiguration,
 							constructOwningFeatures(feature.getID())));
@@ -808,6 +1073,17 @@ public class FeatureRuntimeImpl implements FeatureRuntime {
 				}
 			}
 
+			// Journal before writing, as removal is a no-op for configurations which were
+			// never created
+			for (FeatureConfiguration featureConfiguration : configurationsToCreate) {
+				journal.record(FeatureRuntimeJournal.EntryType.CONFIGURATION_CREATED, featureConfiguration.getPid(),
+						() -> featureRuntimeConfigurationManager
+								.removeConfigurations(Set.of(featureConfiguration.getPid())));
+			}
+
+			// Apply all configuration writes as a single batch
+			featureRuntimeConfigurationManager.createConfigurations(configurationsToCreate, mergeVariables(feature));
+
 			List<String> featureConfigurationsPIDs = feature.getConfigurations().keySet().stream()
 					.collect(Collectors.toList());
 
@@ -816,21 +1092,123 @@ public class FeatureRuntimeImpl implements FeatureRuntime {
 			return installedConfigurations;
 		}
 
-		protected void startBundles(ID featureId, List<InstalledBundle> installedBundles) {
+		protected List<ResolutionFailure> resolveBundles(ID featureId, List<InstalledBundle> installedBundles) {
+			// @formatter:off
+			List<Bundle> bundlesToResolve = installedBundles.stream()
+					.map(InstalledBundle::getBundle)
+					.filter(b -> b != null && b.getState() == Bundle.INSTALLED)
+					.collect(Collectors.toList());
+			// @formatter:on
+
+			if (bundlesToResolve.isEmpty()) {
+				return Collections.emptyList();
+			}
+
+			FrameworkWiring frameworkWiring = bundleContext.getBundle(Constants.SYSTEM_BUNDLE_ID)
+					.adapt(FrameworkWiring.class);
+
+			long start = System.nanoTime();
+			boolean allResolved = frameworkWiring.resolveBundles(bundlesToResolve);
+			long resolveTime = System.nanoTime() - start;
+
+			metrics.record(featureId, FeatureRuntimeMetrics.RESOLVE_TIME, resolveTime);
+
+			LOG.info(String.format("Resolved %d bundle(s) for feature %s in %d ms", bundlesToResolve.size(),
+					featureId, TimeUnit.NANOSECONDS.toMillis(resolveTime)));
+
+			if (allResolved) {
+				return Collections.emptyList();
+			}
+
+			List<ResolutionFailure> resolutionFailures = new ArrayList<>();
+			for (InstalledBundle installedBundle : installedBundles) {
+				Bundle bundle = installedBundle.getBundle();
+				if (bundle != null && bundlesToResolve.contains(bundle) && bundle.getState() == Bundle.INSTALLED) {
+					resolutionFailures.add(new ResolutionFailure(installedBundle.getBundleId(),
+							bundle.getSymbolicName(), bundle.getVersion().toString(), bundle.getBundleId()));
+				}
+			}
+
+			LOG.warn(String.format("%d bundle(s) in feature %s could not be resolved: %s", resolutionFailures.size(),
+					featureId, resolutionFailures));
+
+			return resolutionFailures;
+		}
+
+		protected void startBundles(Feature feature, List<InstalledBundle> installedBundles) {
+			ID featureId = feature.getID();
+
+			Map<ID, Map<String, Object>> metadata = new HashMap<>();
+			feature.getBundles().forEach(fb -> metadata.put(fb.getID(), fb.getMetadata()));
+
+			// Deferred bundles are started once the rest of the feature has been
+			List<InstalledBundle> deferredBundles = new ArrayList<>();
 			for (InstalledBundle installedBundle : installedBundles) {
+				String activation;
 				try {
-					if (installedBundle.getBundle().getState() == Bundle.INSTALLED) {
-						BundleRevision rev = installedBundle.getBundle().adapt(BundleRevision.class);
-						if (rev != null && (rev.getTypes() & BundleRevision.TYPE_FRAGMENT) == 0) {
-							// Start all but fragment bundles
-							installedBundle.getBundle().start();
-						} else {
-							LOG.info(String.format("Not starting bundle %s as it is a fragment",
-									installedBundle.getBundle().getSymbolicName()));
-						}
+					activation = decorationUtil.getActivationHandler()
+							.getActivation(metadata.get(installedBundle.getBundleId()));
+				} catch (IllegalArgumentException e) {
+					LOG.warn(String.format("Using eager activation for bundle %s in feature %s: %s",
+							installedBundle.getBundleId(), featureId, e.getMessage()));
+					activation = BUNDLE_ACTIVATION_EAGER;
+				}
+
+				if (BUNDLE_ACTIVATION_DEFERRED.equals(activation)) {
+					deferredBundles.add(installedBundle);
+				} else {
+					startBundle(featureId, installedBundle, activation);
+				}
+			}
+
+			for (InstalledBundle deferredBundle : deferredBundles) {
+				startBundle(featureId, deferredBundle, BUNDLE_ACTIVATION_EAGER);
+			}
+		}
+
+		private void startBundle(ID featureId, InstalledBundle installedBundle, String activation) {
+			try {
+				if (installedBundle.getBundle().getState() == Bundle.INSTALLED) {
+					BundleRevision rev = installedBundle.getBundle().adapt(BundleRevision.class);
+					if (rev != null && (rev.getTypes() & BundleRevision.TYPE_FRAGMENT) == 0) {
+						// Start all but fragment bundles
+						startBundle(installedBundle.getBundle(), BUNDLE_ACTIVATION_LAZY.equals(activation));
+					} else {
+						LOG.info(String.format("Not starting bundle %s as it is a fragment",
+								installedBundle.getBundle().getSymbolicName()));
 					}
-				} catch (Exception e) {
-					LOG.warn(String.format("An error occurred starting a bundle in feature %s", featureId));
+				}
+			} catch (Exception e) {
+				if (startRequired) {
+					throw new FeatureRuntimeException(String.format("Bundle %s in feature %s could not be started",
+							installedBundle.getBundleId(), featureId), e);
+				}
+				LOG.warn(String.format("An error occurred starting a bundle in feature %s", featureId));
+			}
+		}
+
+		/**
+		 * @param bundle               the bundle to start
+		 * @param useActivationPolicy whether to honour the bundle's declared
+		 *                            activation policy, so that a lazy bundle is
+		 *                            only activated on its first class load
+		 * @throws BundleException
+		 */
+		protected void startBundle(Bundle bundle, boolean useActivationPolicy) throws BundleException {
+			BundleStartEvent event = FlightRecorderSupport.isAvailable() ? new BundleStartEvent() : null;
+			if (event != null) {
+				event.begin();
+			}
+			try {
+				bundle.start(useActivationPolicy ? Bundle.START_ACTIVATION_POLICY : 0);
+				if (event != null) {
+					event.started = true;
+				}
+			} finally {
+				if (event != null && event.shouldCommit()) {
+					event.symbolicName = bundle.getSymbolicName();
+					event.bundleId = bundle.getBundleId();
+					event.commit();
 				}
 			}
 		}
@@ -842,7 +1220,17 @@ public class FeatureRuntimeImpl implements FeatureRuntime {
 					try {
 						BundleRevision rev = bundleForRemoval.adapt(BundleRevision.class);
 						if (rev != null && (rev.getTypes() & BundleRevision.TYPE_FRAGMENT) == 0) {
+							boolean wasStarted = (bundleForRemoval.getState() & (Bundle.STARTING | Bundle.ACTIVE)) != 0;
+							boolean useActivationPolicy = bundleForRemoval.adapt(BundleStartLevel.class)
+									.isActivationPolicyUsed();
+
 							bundleForRemoval.stop();
+
+							if (journal != null && wasStarted) {
+								journal.record(FeatureRuntimeJournal.EntryType.BUNDLE_STOPPED, bundleIDToStop.toString(),
+										() -> startBundle(installedBundlesByIdentifier.get(bundleIDToStop),
+												useActivationPolicy));
+							}
 						}
 					} catch (BundleException e) {
 						LOG.warn(String.format("An error occurred stopping bundle %s", bundleIDToStop), e);
@@ -856,7 +1244,18 @@ public class FeatureRuntimeImpl implements FeatureRuntime {
 				Bundle bundleForRemoval = installedBundlesByIdentifier.remove(bundleIDToRemove);
 				if (bundleForRemoval != null) {
 					try {
+						int startLevel = getBundleStartLevel(bundleForRemoval);
+
 						bundleForRemoval.uninstall();
+
+						if (journal != null) {
+							journal.record(FeatureRuntimeJournal.EntryType.BUNDLE_UNINSTALLED,
+									bundleIDToRemove.toString(), () -> {
+										Bundle reinstalledBundle = installBundle(bundleIDToRemove);
+										installedBundlesByIdentifier.put(bundleIDToRemove, reinstalledBundle);
+										reinstalledBundle.adapt(BundleStartLevel.class).setStartLevel(startLevel);
+									});
+						}
 					} catch (BundleException e) {
 						LOG.warn(String.format("An error occurred uninstalling bundle %s", bundleIDToRemove), e);
 					}
@@ -885,6 +1284,19 @@ public class FeatureRuntimeImpl implements FeatureRuntime {
 		}
 
 		protected void removeFeatureConfigurations(Set<String> configurationPIDsForRemoval) {
+			if (journal != null) {
+				// capture what is deleted, as a deleted configuration cannot be read
+				for (Configuration configuration : featureRuntimeConfigurationManager
+						.getConfigurations(configurationPIDsForRemoval)) {
+					String pid = configuration.getPid();
+					String factoryPid = configuration.getFactoryPid();
+					Dictionary<String, Object> properties = configuration.getProperties();
+
+					journal.record(FeatureRuntimeJournal.EntryType.CONFIGURATION_DELETED, pid,
+							() -> featureRuntimeConfigurationManager.restoreConfiguration(pid, factoryPid, properties));
+				}
+			}
+
 			featureRuntimeConfigurationManager.removeConfigurations(configurationPIDsForRemoval);
 		}
 
@@ -910,7 +1322,7 @@ public class FeatureRuntimeImpl implements FeatureRuntime {
 
 		protected InstalledFeature constructInstalledFeature(Feature feature, Feature originalFeature,
 				boolean isDecorated, boolean isInitialLaunch, List<InstalledBundle> installedBundles,
-				List<InstalledConfiguration> installedConfigurations) {
+				List<InstalledConfiguration> installedConfigurations, List<ResolutionFailure> resolutionFailures) {
 			// @formatter:off
 			return new InstalledFeatureImpl(
 					feature, 
@@ -918,7 +1330,8 @@ public class FeatureRuntimeImpl implements FeatureRuntime {
 					isDecorated, 
 					isInitialLaunch, 
 					installedBundles,
-					installedConfigurations);
+					installedConfigurations,
+					resolutionFailures);
 			// @formatter:on
 		}
 
@@ -930,7 +1343,13 @@ public class FeatureRuntimeImpl implements FeatureRuntime {
 			if (metadata.containsKey(BUNDLE_START_LEVEL_METADATA)) {
 				int startlevel = Integer.valueOf(metadata.get(BUNDLE_START_LEVEL_METADATA).toString()).intValue();
 
-				bundle.adapt(BundleStartLevel.class).setStartLevel(startlevel);
+				BundleStartLevel bundleStartLevel = bundle.adapt(BundleStartLevel.class);
+				int previousStartLevel = bundleStartLevel.getStartLevel();
+
+				bundleStartLevel.setStartLevel(startlevel);
+
+				journal.record(FeatureRuntimeJournal.EntryType.START_LEVEL_SET, String.valueOf(bundle.getBundleId()),
+						() -> bundleStartLevel.setStartLevel(previousStartLevel));
 			}
 		}
 
@@ -1019,37 +1438,8 @@ public class FeatureRuntimeImpl implements FeatureRuntime {
 		}
 
 		protected Map.Entry<String, String> getBundleSymbolicNameAndVersion(ID featureBundleID) {
-			if (bundleIdsToSymbolicNamesVersions.containsKey(featureBundleID)) {
-				return bundleIdsToSymbolicNamesVersions.get(featureBundleID);
-			} else {
-				Path featureBundlePath = LaunchFrameworkFeatureExtensionHandler.getArtifactPath(featureBundleID, completedRepositories);
-				if (featureBundlePath != null) {
-					try (JarFile featureBundleJarFile = new JarFile(featureBundlePath.toFile())) {
-						Manifest featureBundleJarMf = featureBundleJarFile.getManifest();
-						if ((featureBundleJarMf != null) && (featureBundleJarMf.getMainAttributes() != null)) {
-							String featureBundleSymbolicName = featureBundleJarMf.getMainAttributes()
-									.getValue("Bundle-SymbolicName");
-							String featureBundleVersion = featureBundleJarMf.getMainAttributes()
-									.getValue("Bundle-Version");
-
-							if ((featureBundleSymbolicName != null) && (featureBundleVersion != null)) {
-								Map.Entry<String, String> bundleSymbolicNameAndVersion = Map
-										.entry(featureBundleSymbolicName, featureBundleVersion);
-
-								bundleIdsToSymbolicNamesVersions.put(featureBundleID, bundleSymbolicNameAndVersion);
-
-								return bundleSymbolicNameAndVersion;
-							}
-						}
-					} catch (IOException e) {
-						LOG.error(
-								String.format("Error getting symbolic name and version for bundle %s", featureBundleID),
-								e);
-					}
-				}
-			}
-
-			return null;
+			// populated from the manifest as the artifact was installed
+			return bundleIdsToSymbolicNamesVersions.get(featureBundleID);
 		}
 
 		protected boolean isConfigurationInstalledByRuntime(String configurationPid) {
@@ -1060,39 +1450,12 @@ public class FeatureRuntimeImpl implements FeatureRuntime {
 			// @formatter:on
 		}
 
-//		protected Path getArtifactPath(ID featureBundleID) {
-//			for (ArtifactRepository artifactRepository : completedRepositories) {
-//				Repository r;
-//				if(ArtifactRepositoryAdapter.class.isInstance(artifactRepository)) {
-//					r = ((ArtifactRepositoryAdapter)artifactRepository).unwrap();
-//				} else {
-//					r = new RepositoryAdapter(artifactRepository);
-//				}
-//				FileSystemRepository fsr;
-//				if(r instanceof FileSystemRepository) {
-//					fsr = (FileSystemRepository) r;
-//				} else {
-//					fsr = new WrappingRepository(r, r.getName());
-//				}
-//				
-//				Path featureBundlePath = fsr.getArtifactPath(featureBundleID);
-//				if (featureBundlePath != null) {
-//					return featureBundlePath;
-//				}
-//			}
-//
-//			return null;
-//		}
-
-		protected InputStream getArtifact(ID featureBundleID) {
-			for (ArtifactRepository artifactRepository : completedRepositories) {
-				InputStream featureBundleIs = artifactRepository.getArtifact(featureBundleID);
-				if (featureBundleIs != null) {
-					return featureBundleIs;
-				}
-			}
-
-			return InputStream.nullInputStream();
+		protected ResolvedArtifact resolveArtifact(ID featureBundleID) {
+			// @formatter:off
+			return ResolvedArtifact.resolve(featureBundleID, completedRepositories)
+					.orElseThrow(() -> new FeatureRuntimeException(String.format(
+							"Bundle '%s' could not be found in any of the repositories!", featureBundleID)));
+			// @formatter:on
 		}
 
 		protected void validateFeatureExtensions(Feature feature) {
@@ -1152,7 +1515,7 @@ public class FeatureRuntimeImpl implements FeatureRuntime {
 		 */
 		@Override
 		public InstalledFeature install() {
-			return complete();
+			return recordOperation(FeatureRuntimeOperationEvent.INSTALL, feature.getID(), this::complete);
 		}
 	}
 
@@ -1169,7 +1532,7 @@ public class FeatureRuntimeImpl implements FeatureRuntime {
 		 */
 		@Override
 		public InstalledFeature update() {
-			return complete();
+			return recordOperation(FeatureRuntimeOperationEvent.UPDATE, feature.getID(), this::complete);
 		}
 	}
 
@@ -1186,7 +1549,50 @@ public class FeatureRuntimeImpl implements FeatureRuntime {
 		 */
 		@Override
 		public void remove() {
-			removeFeature(this.feature.getID());
+			ID featureId = this.feature.getID();
+			recordOperation(FeatureRuntimeOperationEvent.REMOVE, featureId, () -> {
+				removeFeature(featureId);
+				return null;
+			});
+		}
+	}
+
+	private <T> T recordOperation(String operation, ID featureId, Supplier<T> work) {
+		if (!FlightRecorderSupport.isAvailable()) {
+			return work.get();
+		}
+
+		FeatureRuntimeOperationEvent event = new FeatureRuntimeOperationEvent();
+		event.begin();
+		try {
+			T result = work.get();
+			event.succeeded = true;
+			return result;
+		} finally {
+			event.operation = operation;
+			event.feature = String.valueOf(featureId);
+			event.commit();
+		}
+	}
+
+	private FeatureDigest getInstalledFeatureDigest(ID featureId) {
+		FeatureDigest digest = installedFeatureDigests.get(featureId);
+		if (digest == null) {
+			// e.g. a feature restored from persisted state
+			InstalledFeature installedFeature = getInstalledFeatureById(featureId);
+			if (installedFeature != null) {
+				digest = FeatureDigest.of(installedFeature.isDecorated() ? installedFeature.getOriginalFeature()
+						: installedFeature.getFeature());
+				installedFeatureDigests.put(featureId, digest);
+			}
+		}
+		return digest;
+	}
+
+	protected void cacheBundleSymbolicNameAndVersion(ID featureBundleID, Bundle installedBundle) {
+		if (installedBundle.getSymbolicName() != null) {
+			bundleIdsToSymbolicNamesVersions.put(featureBundleID,
+					Map.entry(installedBundle.getSymbolicName(), installedBundle.getVersion().toString()));
 		}
 	}
 
@@ -1273,12 +1679,277 @@ public class FeatureRuntimeImpl implements FeatureRuntime {
 		}
 	}
 
-	private Map<Map.Entry<String, String>, Long> getExistingBundles() {
+	private void restoreState() {
+		if (stateStore == null) {
+			return;
+		}
+
+		List<FeatureRuntimeStateStore.FeatureState> featureStates;
+		try {
+			featureStates = stateStore.load();
+		} catch (IOException e) {
+			LOG.error("Error reading persisted feature runtime state!", e);
+			return;
+		}
+
+		// rebuild the indexes first, so that owning features can be computed from them
+		Map<FeatureRuntimeStateStore.FeatureState, Map.Entry<Feature, Feature>> restoredFeatures = new LinkedHashMap<>();
+		Map<String, Feature> loadedFeatures = new HashMap<>();
+		for (FeatureRuntimeStateStore.FeatureState featureState : featureStates) {
+			try {
+				Feature feature = loadFeature(featureState.featureDigest(), loadedFeatures);
+				Feature originalFeature = (featureState.originalFeatureDigest() != null)
+						? loadFeature(featureState.originalFeatureDigest(), loadedFeatures)
+						: feature;
+
+				Map<ID, Bundle> featureBundles = new HashMap<>();
+				for (FeatureRuntimeStateStore.BundleState bundleState : featureState.bundles()) {
+					if (!bundleState.external()) {
+						Bundle bundle = bundleContext.getBundle(bundleState.frameworkId());
+						if (bundle == null || !bundleState.location().equals(bundle.getLocation())) {
+							throw new IllegalStateException(
+									String.format("Bundle %s is no longer installed", bundleState.bundleId()));
+						}
+						featureBundles.put(featureService.getIDfromMavenCoordinates(bundleState.bundleId()), bundle);
+					}
+				}
+
+				ID featureId = originalFeature.getID();
+				installedBundlesByIdentifier.putAll(featureBundles);
+				installedFeaturesToBundles.put(featureId,
+						originalFeature.getBundles().stream().map(FeatureBundle::getID).collect(Collectors.toList()));
+				installedFeaturesToConfigurations.put(featureId,
+						feature.getConfigurations().keySet().stream().collect(Collectors.toList()));
+				installedFeatureVariables.put(featureId, new HashMap<>(featureState.variables()));
+
+				restoredFeatures.put(featureState, Map.entry(feature, originalFeature));
+
+			} catch (IOException | RuntimeException e) {
+				LOG.warn(String.format("Could not restore feature %s from persisted state, it must be reinstalled",
+						featureState.featureId()), e);
+			}
+		}
+
+		for (Map.Entry<FeatureRuntimeStateStore.FeatureState, Map.Entry<Feature, Feature>> restoredFeature : restoredFeatures
+				.entrySet()) {
+			FeatureRuntimeStateStore.FeatureState featureState = restoredFeature.getKey();
+			Feature feature = restoredFeature.getValue().getKey();
+			Feature originalFeature = restoredFeature.getValue().getValue();
+			ID featureId = originalFeature.getID();
+
+			List<InstalledBundle> installedBundles = new ArrayList<>();
+			for (FeatureRuntimeStateStore.BundleState bundleState : featureState.bundles()) {
+				ID bundleId = featureService.getIDfromMavenCoordinates(bundleState.bundleId());
+				Bundle bundle = bundleState.external() ? bundleContext.getBundle(bundleState.frameworkId())
+						: installedBundlesByIdentifier.get(bundleId);
+				int startLevel = (bundle != null) ? bundle.adapt(BundleStartLevel.class).getStartLevel() : 0;
+				if (bundle != null) {
+					// needed to detect duplicates of this bundle in later operations
+					cacheBundleSymbolicNameAndVersion(bundleId, bundle);
+				}
+
+				List<ID> owningFeatures;
+				if (bundleState.external()) {
+					owningFeatures = new ArrayList<>(List.of(featureId, externalFeatureId));
+				} else {
+					// @formatter:off
+					owningFeatures = installedFeaturesToBundles.entrySet().stream()
+							.filter(e -> e.getValue().contains(bundleId))
+							.map(Map.Entry::getKey)
+							.collect(Collectors.toList());
+					// @formatter:on
+				}
+
+				installedBundles.add(
+						new InstalledBundleImpl(bundleId, Collections.emptyList(), bundle, startLevel, owningFeatures));
+			}
+
+			List<InstalledConfiguration> installedConfigurations = new ArrayList<>();
+			for (FeatureRuntimeStateStore.ConfigurationState configurationState : featureState.configurations()) {
+				FeatureConfiguration featureConfiguration = feature.getConfigurations().get(configurationState.pid());
+				if (featureConfiguration == null) {
+					continue;
+				}
+
+				List<ID> owningFeatures;
+				if (configurationState.external()) {
+					owningFeatures = new ArrayList<>(List.of(featureId, externalFeatureId));
+				} else {
+					// @formatter:off
+					owningFeatures = installedFeaturesToConfigurations.entrySet().stream()
+							.filter(e -> e.getValue().contains(configurationState.pid()))
+							.map(Map.Entry::getKey)
+							.collect(Collectors.toList());
+					// @formatter:on
+				}
+
+				installedConfigurations.add(new InstalledConfigurationImpl(featureConfiguration.getPid(),
+						featureConfiguration.getFactoryPid(), featureConfiguration.getValues(), owningFeatures));
+			}
+
+			installedFeatures.add(new InstalledFeatureImpl(feature, originalFeature, feature != originalFeature,
+					false, installedBundles, installedConfigurations));
+
+			recreateMissingConfigurations(featureId, feature, featureState);
+
+			LOG.info(String.format("Restored feature %s from persisted state", featureId));
+		}
+
+		// start from a compacted log, which also drops any features which could not be
+		// restored
+		compactState();
+	}
+
+	/**
+	 * Configuration Admin keeps its own state, which may have lost the
+	 * configurations of a feature while the feature runtime was stopped, e.g. if
+	 * its storage was cleared. They are created again as they were installed.
+	 */
+	private void recreateMissingConfigurations(ID featureId, Feature feature,
+			FeatureRuntimeStateStore.FeatureState featureState) {
+		// @formatter:off
+		List<FeatureConfiguration> missingConfigurations = featureState.configurations().stream()
+				.filter(cs -> !cs.external())
+				.filter(cs -> !featureRuntimeConfigurationManager.containsConfiguration(cs.pid()))
+				.map(cs -> feature.getConfigurations().get(cs.pid()))
+				.filter(Objects::nonNull)
+				.toList();
+		// @formatter:on
+
+		if (missingConfigurations.isEmpty()) {
+			return;
+		}
+
+		LOG.warn(String.format("Recreating %d missing configuration(s) of feature %s", missingConfigurations.size(),
+				featureId));
+
+		Map<String, Object> variables = new HashMap<>(feature.getVariables());
+		variables.putAll(featureState.variables());
+
+		featureRuntimeConfigurationManager.createConfigurations(missingConfigurations, variables);
+	}
+
+	private void persistFeature(ID featureId, InstalledFeature installedFeature) {
+		if (stateStore == null) {
+			return;
+		}
+
+		try {
+			stateStore.appendAdd(toFeatureState(featureId, installedFeature));
+
+			if (stateStore.needsCompaction(installedFeatures.size())) {
+				compactState();
+			}
+		} catch (IOException e) {
+			LOG.error(String.format("Error persisting state of feature %s!", featureId), e);
+		}
+	}
+
+	private void persistFeatureRemoval(ID featureId) {
+		if (stateStore == null) {
+			return;
+		}
+
+		try {
+			stateStore.appendRemove(featureId.toString());
+
+			if (stateStore.needsCompaction(installedFeatures.size())) {
+				compactState();
+			}
+		} catch (IOException e) {
+			LOG.error(String.format("Error persisting removal of feature %s!", featureId), e);
+		}
+	}
+
+	private void compactState() {
+		try {
+			List<FeatureRuntimeStateStore.FeatureState> featureStates = new ArrayList<>();
+			for (InstalledFeature installedFeature : installedFeatures) {
+				ID featureId = installedFeature.isDecorated() ? installedFeature.getOriginalFeature().getID()
+						: installedFeature.getFeature().getID();
+				featureStates.add(toFeatureState(featureId, installedFeature));
+			}
+
+			stateStore.compact(featureStates);
+		} catch (IOException e) {
+			LOG.error("Error compacting persisted feature runtime state!", e);
+		}
+	}
+
+	private FeatureRuntimeStateStore.FeatureState toFeatureState(ID featureId, InstalledFeature installedFeature)
+			throws IOException {
 		// @formatter:off
-		return Arrays.stream(bundleContext.getBundles()).collect(Collectors.toMap(
-				b -> Map.entry(b.getSymbolicName(), b.getVersion().toString()), 
-				b -> Long.valueOf(b.getBundleId())));
+		List<FeatureRuntimeStateStore.BundleState> bundleStates = installedFeature.getInstalledBundles().stream()
+				.map(ib -> new FeatureRuntimeStateStore.BundleState(
+						ib.getBundleId().toString(),
+						(ib.getBundle() != null) ? ib.getBundle().getBundleId() : -1,
+						(ib.getBundle() != null) ? ib.getBundle().getLocation() : "",
+						ib.getOwningFeatures().contains(externalFeatureId)))
+				.collect(Collectors.toList());
+
+		List<FeatureRuntimeStateStore.ConfigurationState> configurationStates = installedFeature
+				.getInstalledConfigurations().stream()
+				.map(ic -> new FeatureRuntimeStateStore.ConfigurationState(
+						ic.getPid(),
+						ic.getOwningFeatures().contains(externalFeatureId)))
+				.collect(Collectors.toList());
 		// @formatter:on
+
+		String originalFeatureDigest = storeFeature(
+				installedFeature.isDecorated() ? installedFeature.getOriginalFeature() : installedFeature.getFeature(),
+				getInstalledFeatureDigest(featureId));
+		String featureDigest = installedFeature.isDecorated()
+				? storeFeature(installedFeature.getFeature(), FeatureDigest.of(installedFeature.getFeature()))
+				: originalFeatureDigest;
+
+		return new FeatureRuntimeStateStore.FeatureState(featureId.toString(), featureDigest,
+				installedFeature.isDecorated() ? originalFeatureDigest : null,
+				installedFeatureVariables.getOrDefault(featureId, Map.of()), bundleStates, configurationStates);
+	}
+
+	// the JSON of a feature is only written the first time a feature with its
+	// content is persisted
+	private String storeFeature(Feature feature, FeatureDigest featureDigest) throws IOException {
+		String digest = featureDigest.getDigest();
+		if (!stateStore.containsFeature(digest)) {
+			StringWriter writer = new StringWriter();
+			featureService.writeFeature(feature, writer);
+			stateStore.storeFeature(digest, writer.toString());
+		}
+		return digest;
+	}
+
+	private Feature loadFeature(String digest, Map<String, Feature> loadedFeatures) throws IOException {
+		Feature feature = loadedFeatures.get(digest);
+		if (feature == null) {
+			feature = featureService.readFeature(new StringReader(stateStore.loadFeature(digest)));
+			loadedFeatures.put(digest, feature);
+		}
+		return feature;
+	}
+
+	private void updateExistingBundles(BundleEvent event) {
+		switch (event.getType()) {
+		case BundleEvent.INSTALLED:
+			addExistingBundle(event.getBundle());
+			break;
+		case BundleEvent.UNINSTALLED:
+			Bundle bundle = event.getBundle();
+			if (bundle.getSymbolicName() != null) {
+				existingBundles.remove(Map.entry(bundle.getSymbolicName(), bundle.getVersion().toString()),
+						Long.valueOf(bundle.getBundleId()));
+			}
+			break;
+		default:
+			break;
+		}
+	}
+
+	private void addExistingBundle(Bundle bundle) {
+		if (bundle.getSymbolicName() != null) {
+			existingBundles.put(Map.entry(bundle.getSymbolicName(), bundle.getVersion().toString()),
+					Long.valueOf(bundle.getBundleId()));
+		}
 	}
 
 	private void setExternalFeatureId() {
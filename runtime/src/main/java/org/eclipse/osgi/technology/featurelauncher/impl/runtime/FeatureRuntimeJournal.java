@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2025 Kentyou and others.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.impl.runtime;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.osgi.service.feature.ID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Journal of the side effects of a single install or update operation
+ * performed by
+ * {@link org.eclipse.osgi.technology.featurelauncher.impl.runtime.FeatureRuntimeImpl},
+ * allowing them to be rolled back in reverse order if the operation fails. An
+ * update journals the removal of the previous version of the feature too, so
+ * that rolling back reinstates it.
+ */
+public class FeatureRuntimeJournal {
+	private static final Logger LOG = LoggerFactory.getLogger(FeatureRuntimeJournal.class);
+
+	public static final String PHASE_DECORATE = "decorate";
+	public static final String PHASE_REMOVE_PREVIOUS = "remove.previous";
+	public static final String PHASE_INSTALL_BUNDLES = "install.bundles";
+	public static final String PHASE_INSTALL_CONFIGURATIONS = "install.configurations";
+	public static final String PHASE_RESOLVE = "resolve";
+	public static final String PHASE_START = "start";
+
+	public enum EntryType {
+		BUNDLE_INSTALLED, START_LEVEL_SET, CONFIGURATION_CREATED, FEATURE_REMOVED, BUNDLE_STOPPED, BUNDLE_UNINSTALLED,
+		CONFIGURATION_DELETED
+	}
+
+	/**
+	 * A side effect recorded in the journal
+	 *
+	 * @param type   the kind of side effect
+	 * @param target the bundle or configuration affected
+	 */
+	public record Entry(EntryType type, String target) {
+	}
+
+	@FunctionalInterface
+	interface Compensation {
+		void undo() throws Exception;
+	}
+
+	private record JournalEntry(Entry entry, Compensation compensation) {
+	}
+
+	private final ID featureId;
+
+	private final List<JournalEntry> entries = new ArrayList<>();
+
+	private final Map<String, Duration> phaseTimings = new LinkedHashMap<>();
+
+	private boolean rolledBack;
+
+	FeatureRuntimeJournal(ID featureId) {
+		this.featureId = featureId;
+	}
+
+	public ID getFeatureId() {
+		return featureId;
+	}
+
+	/**
+	 * @return the side effects recorded, in the order they were performed
+	 */
+	public List<Entry> getEntries() {
+		return entries.stream().map(JournalEntry::entry).toList();
+	}
+
+	/**
+	 * @return the time taken by each phase of the operation, in the order the
+	 *         phases were run
+	 */
+	public Map<String, Duration> getPhaseTimings() {
+		return Collections.unmodifiableMap(phaseTimings);
+	}
+
+	public boolean isRolledBack() {
+		return rolledBack;
+	}
+
+	<T> T phase(String name, Supplier<T> work) {
+		long start = System.nanoTime();
+		try {
+			return work.get();
+		} finally {
+			phaseTimings.put(name, Duration.ofNanos(System.nanoTime() - start));
+		}
+	}
+
+	void phase(String name, Runnable work) {
+		phase(name, () -> {
+			work.run();
+			return null;
+		});
+	}
+
+	void record(EntryType type, String target, Compensation compensation) {
+		entries.add(new JournalEntry(new Entry(type, target), compensation));
+	}
+
+	void rollback() {
+		LOG.warn(String.format("Rolling back %d change(s) made while installing feature %s", entries.size(),
+				featureId));
+
+		for (ListIterator<JournalEntry> it = entries.listIterator(entries.size()); it.hasPrevious();) {
+			JournalEntry journalEntry = it.previous();
+			try {
+				journalEntry.compensation().undo();
+			} catch (Exception e) {
+				LOG.warn(String.format("An error occurred rolling back %s of %s", journalEntry.entry().type(),
+						journalEntry.entry().target()), e);
+			}
+		}
+
+		rolledBack = true;
+	}
+}
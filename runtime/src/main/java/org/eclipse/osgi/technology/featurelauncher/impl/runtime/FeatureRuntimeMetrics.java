@@ -0,0 +1,54 @@
+/**
+ * Copyright (c) 2025 Kentyou and others.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.impl.runtime;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.osgi.service.feature.ID;
+
+/**
+ * Timings recorded by
+ * {@link org.eclipse.osgi.technology.featurelauncher.impl.runtime.FeatureRuntimeImpl}
+ * for the operations performed on each feature
+ */
+public class FeatureRuntimeMetrics {
+
+	/**
+	 * Time taken to resolve the bundles newly installed for a feature
+	 */
+	public static final String RESOLVE_TIME = "resolve.time";
+
+	private final Map<ID, Map<String, Duration>> metrics = new ConcurrentHashMap<>();
+
+	void record(ID featureId, String name, long durationNanos) {
+		metrics.computeIfAbsent(featureId, k -> new ConcurrentHashMap<>()).put(name,
+				Duration.ofNanos(durationNanos));
+	}
+
+	/**
+	 * Get the metrics recorded for the most recent install or update of a feature
+	 *
+	 * @param featureId the feature
+	 * @return the recorded metrics, keyed by name
+	 */
+	public Map<String, Duration> getMetrics(ID featureId) {
+		return Map.copyOf(metrics.getOrDefault(featureId, Map.of()));
+	}
+
+	void clear(ID featureId) {
+		metrics.remove(featureId);
+	}
+}
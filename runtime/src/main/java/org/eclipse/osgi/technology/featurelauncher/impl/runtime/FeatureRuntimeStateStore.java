@@ -0,0 +1,440 @@
+/**
+ * Copyright (c) 2025 Kentyou and others.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.impl.runtime;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persists the state of
+ * {@link org.eclipse.osgi.technology.featurelauncher.impl.runtime.FeatureRuntimeImpl}
+ * as an append-only log of feature added / removed records, which is
+ * periodically compacted into a single record per installed feature.
+ *
+ * Records refer to features by the digest of their content. The JSON of each
+ * feature is stored once, in a file named after its digest, and is only read
+ * back when the state is restored.
+ */
+class FeatureRuntimeStateStore {
+	private static final Logger LOG = LoggerFactory.getLogger(FeatureRuntimeStateStore.class);
+
+	static final String STATE_FILE = "feature-runtime.state";
+
+	static final String FEATURES_DIRECTORY = "features";
+
+	private static final int MAGIC = 0x4652_5354;
+	private static final int FORMAT_VERSION = 2;
+	private static final int HEADER_LENGTH = 8;
+
+	private static final byte RECORD_ADD = 1;
+	private static final byte RECORD_REMOVE = 2;
+
+	// Number of records appended since the last compaction which triggers a new one
+	private static final int COMPACTION_THRESHOLD = 64;
+
+	record BundleState(String bundleId, long frameworkId, String location, boolean external) {
+	}
+
+	record ConfigurationState(String pid, boolean external) {
+	}
+
+	/**
+	 * @param featureId             the ID of the feature as installed
+	 * @param featureDigest         the digest of the installed feature
+	 * @param originalFeatureDigest the digest of the feature before decoration,
+	 *                              or null if it was not decorated
+	 * @param variables             the variables supplied to the operation which
+	 *                              installed the feature
+	 */
+	record FeatureState(String featureId, String featureDigest, String originalFeatureDigest,
+			Map<String, Object> variables, List<BundleState> bundles, List<ConfigurationState> configurations) {
+	}
+
+	private static final byte VARIABLE_STRING = 1;
+	private static final byte VARIABLE_BOOLEAN = 2;
+	private static final byte VARIABLE_INTEGER = 3;
+	private static final byte VARIABLE_LONG = 4;
+	private static final byte VARIABLE_DOUBLE = 5;
+	private static final byte VARIABLE_BIG_DECIMAL = 6;
+
+	private final Path stateFile;
+
+	private final Path featuresDirectory;
+
+	private int appendedRecords;
+
+	FeatureRuntimeStateStore(Path stateFile) {
+		this.stateFile = stateFile;
+		this.featuresDirectory = stateFile.resolveSibling(FEATURES_DIRECTORY);
+	}
+
+	/**
+	 * @param digest the digest of a feature
+	 * @return whether the JSON of the feature is stored
+	 */
+	synchronized boolean containsFeature(String digest) {
+		return Files.isRegularFile(featureFile(digest));
+	}
+
+	/**
+	 * Store the JSON of a feature, unless a feature with the same digest is
+	 * already stored
+	 *
+	 * @param digest      the digest of the feature
+	 * @param featureJson the JSON of the feature
+	 * @throws IOException
+	 */
+	synchronized void storeFeature(String digest, String featureJson) throws IOException {
+		Path featureFile = featureFile(digest);
+		if (Files.isRegularFile(featureFile)) {
+			return;
+		}
+
+		Files.createDirectories(featuresDirectory);
+		Path tempFile = featureFile.resolveSibling(featureFile.getFileName() + ".tmp");
+		try {
+			try (FileOutputStream fos = new FileOutputStream(tempFile.toFile())) {
+				fos.write(featureJson.getBytes(StandardCharsets.UTF_8));
+				fos.getFD().sync();
+			}
+			Files.move(tempFile, featureFile, ATOMIC_MOVE, REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	/**
+	 * @param digest the digest of a stored feature
+	 * @return the JSON of the feature
+	 * @throws IOException if the feature is not stored
+	 */
+	synchronized String loadFeature(String digest) throws IOException {
+		return Files.readString(featureFile(digest), StandardCharsets.UTF_8);
+	}
+
+	private Path featureFile(String digest) {
+		return featuresDirectory.resolve(digest + ".json");
+	}
+
+	/**
+	 * Replay the log. A malformed record, e.g. one only partially written when
+	 * the framework was killed, ends the log: the records before it are kept and
+	 * the file is truncated after the last good record.
+	 *
+	 * @return the state of each installed feature, in installation order
+	 * @throws IOException
+	 */
+	synchronized List<FeatureState> load() throws IOException {
+		Map<String, FeatureState> features = new LinkedHashMap<>();
+
+		if (!Files.isRegularFile(stateFile)) {
+			return new ArrayList<>();
+		}
+
+		byte[] data = Files.readAllBytes(stateFile);
+		// available() is exact for an in-memory stream, which bounds all lengths read
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+
+		if (data.length < HEADER_LENGTH || in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+			LOG.warn(String.format("Ignoring feature runtime state %s in an unknown format", stateFile));
+			return new ArrayList<>();
+		}
+
+		int lastGoodOffset = HEADER_LENGTH;
+		while (in.available() > 0) {
+			try {
+				int recordType = in.read();
+				if (recordType == RECORD_ADD) {
+					FeatureState featureState = readFeatureState(in);
+					features.remove(featureState.featureId());
+					features.put(featureState.featureId(), featureState);
+				} else if (recordType == RECORD_REMOVE) {
+					features.remove(readString(in));
+				} else {
+					throw new IOException(String.format("Unknown record type %d", recordType));
+				}
+			} catch (IOException e) {
+				LOG.warn(String.format(
+						"Ignoring malformed record at offset %d of feature runtime state %s, keeping the %d record(s) before it: %s",
+						lastGoodOffset, stateFile, appendedRecords, e.getMessage()));
+				truncate(lastGoodOffset);
+				break;
+			}
+
+			lastGoodOffset = data.length - in.available();
+			appendedRecords++;
+		}
+
+		return new ArrayList<>(features.values());
+	}
+
+	synchronized void appendAdd(FeatureState featureState) throws IOException {
+		append(out -> {
+			out.writeByte(RECORD_ADD);
+			writeFeatureState(out, featureState);
+		});
+	}
+
+	synchronized void appendRemove(String featureId) throws IOException {
+		append(out -> {
+			out.writeByte(RECORD_REMOVE);
+			writeString(out, featureId);
+		});
+	}
+
+	synchronized boolean needsCompaction(int installedFeatures) {
+		return appendedRecords > Math.max(COMPACTION_THRESHOLD, 2 * installedFeatures);
+	}
+
+	/**
+	 * Atomically replace the log with one record per installed feature
+	 *
+	 * @param featureStates the state of each installed feature
+	 * @throws IOException
+	 */
+	synchronized void compact(Collection<FeatureState> featureStates) throws IOException {
+		Path tempFile = stateFile.resolveSibling(stateFile.getFileName() + ".tmp");
+		try {
+			try (FileOutputStream fos = new FileOutputStream(tempFile.toFile());
+					DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos))) {
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT_VERSION);
+				for (FeatureState featureState : featureStates) {
+					out.writeByte(RECORD_ADD);
+					writeFeatureState(out, featureState);
+				}
+				out.flush();
+				fos.getFD().sync();
+			}
+			Files.move(tempFile, stateFile, ATOMIC_MOVE, REPLACE_EXISTING);
+			syncDirectory();
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+
+		appendedRecords = featureStates.size();
+
+		deleteUnreferencedFeatures(featureStates);
+	}
+
+	private void deleteUnreferencedFeatures(Collection<FeatureState> featureStates) {
+		if (!Files.isDirectory(featuresDirectory)) {
+			return;
+		}
+
+		Set<Path> referencedFiles = new HashSet<>();
+		for (FeatureState featureState : featureStates) {
+			referencedFiles.add(featureFile(featureState.featureDigest()));
+			if (featureState.originalFeatureDigest() != null) {
+				referencedFiles.add(featureFile(featureState.originalFeatureDigest()));
+			}
+		}
+
+		try (Stream<Path> featureFiles = Files.list(featuresDirectory)) {
+			for (Path featureFile : (Iterable<Path>) featureFiles::iterator) {
+				if (!referencedFiles.contains(featureFile)) {
+					Files.deleteIfExists(featureFile);
+				}
+			}
+		} catch (IOException e) {
+			LOG.warn(String.format("Could not delete the unused features stored in %s", featuresDirectory), e);
+		}
+	}
+
+	@FunctionalInterface
+	private interface RecordWriter {
+		void write(DataOutputStream out) throws IOException;
+	}
+
+	// Each record is synced before returning, so a record is either complete on
+	// disk or detected as malformed by load()
+	private void append(RecordWriter record) throws IOException {
+		boolean isNew = !Files.exists(stateFile) || Files.size(stateFile) == 0;
+
+		try (FileOutputStream fos = new FileOutputStream(stateFile.toFile(), true);
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos))) {
+			if (isNew) {
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT_VERSION);
+			}
+			record.write(out);
+			out.flush();
+			fos.getFD().sync();
+		}
+		appendedRecords++;
+	}
+
+	private void truncate(long length) {
+		try (FileChannel channel = FileChannel.open(stateFile, WRITE)) {
+			channel.truncate(length);
+			channel.force(true);
+		} catch (IOException e) {
+			LOG.warn(String.format("Could not truncate feature runtime state %s", stateFile), e);
+		}
+	}
+
+	// Makes the rename performed by compact() durable. Not supported on all
+	// platforms, in which case the rename is left to the file system.
+	private void syncDirectory() {
+		try (FileChannel channel = FileChannel.open(stateFile.toAbsolutePath().getParent(), READ)) {
+			channel.force(true);
+		} catch (IOException e) {
+			LOG.debug(String.format("Could not sync the directory of feature runtime state %s", stateFile), e);
+		}
+	}
+
+	private static void writeFeatureState(DataOutputStream out, FeatureState featureState) throws IOException {
+		writeString(out, featureState.featureId());
+		writeString(out, featureState.featureDigest());
+		out.writeBoolean(featureState.originalFeatureDigest() != null);
+		if (featureState.originalFeatureDigest() != null) {
+			writeString(out, featureState.originalFeatureDigest());
+		}
+
+		out.writeInt(featureState.variables().size());
+		for (Map.Entry<String, Object> variable : featureState.variables().entrySet()) {
+			writeString(out, variable.getKey());
+			writeVariableValue(out, variable.getValue());
+		}
+
+		out.writeInt(featureState.bundles().size());
+		for (BundleState bundleState : featureState.bundles()) {
+			writeString(out, bundleState.bundleId());
+			out.writeLong(bundleState.frameworkId());
+			writeString(out, bundleState.location());
+			out.writeBoolean(bundleState.external());
+		}
+
+		out.writeInt(featureState.configurations().size());
+		for (ConfigurationState configurationState : featureState.configurations()) {
+			writeString(out, configurationState.pid());
+			out.writeBoolean(configurationState.external());
+		}
+	}
+
+	private static FeatureState readFeatureState(DataInputStream in) throws IOException {
+		String featureId = readString(in);
+		String featureDigest = readString(in);
+		String originalFeatureDigest = in.readBoolean() ? readString(in) : null;
+
+		int variableCount = readCount(in);
+		Map<String, Object> variables = new LinkedHashMap<>();
+		for (int i = 0; i < variableCount; i++) {
+			variables.put(readString(in), readVariableValue(in));
+		}
+
+		int bundleCount = readCount(in);
+		List<BundleState> bundles = new ArrayList<>(bundleCount);
+		for (int i = 0; i < bundleCount; i++) {
+			bundles.add(new BundleState(readString(in), in.readLong(), readString(in), in.readBoolean()));
+		}
+
+		int configurationCount = readCount(in);
+		List<ConfigurationState> configurations = new ArrayList<>(configurationCount);
+		for (int i = 0; i < configurationCount; i++) {
+			configurations.add(new ConfigurationState(readString(in), in.readBoolean()));
+		}
+
+		return new FeatureState(featureId, featureDigest, originalFeatureDigest, variables, bundles,
+				configurations);
+	}
+
+	// Variables are JSON scalars, whose type is kept as it is significant when
+	// substituted for a whole configuration value
+	private static void writeVariableValue(DataOutputStream out, Object value) throws IOException {
+		if (value instanceof Boolean) {
+			out.writeByte(VARIABLE_BOOLEAN);
+		} else if (value instanceof Integer) {
+			out.writeByte(VARIABLE_INTEGER);
+		} else if (value instanceof Long) {
+			out.writeByte(VARIABLE_LONG);
+		} else if (value instanceof Double) {
+			out.writeByte(VARIABLE_DOUBLE);
+		} else if (value instanceof BigDecimal) {
+			out.writeByte(VARIABLE_BIG_DECIMAL);
+		} else {
+			out.writeByte(VARIABLE_STRING);
+		}
+		writeString(out, String.valueOf(value));
+	}
+
+	private static Object readVariableValue(DataInputStream in) throws IOException {
+		int type = in.read();
+		String value = readString(in);
+		try {
+			return switch (type) {
+			case VARIABLE_STRING -> value;
+			case VARIABLE_BOOLEAN -> Boolean.valueOf(value);
+			case VARIABLE_INTEGER -> Integer.valueOf(value);
+			case VARIABLE_LONG -> Long.valueOf(value);
+			case VARIABLE_DOUBLE -> Double.valueOf(value);
+			case VARIABLE_BIG_DECIMAL -> new BigDecimal(value);
+			default -> throw new IOException(String.format("Unknown variable type %d", type));
+			};
+		} catch (NumberFormatException e) {
+			throw new IOException(String.format("Invalid variable value %s", value), e);
+		}
+	}
+
+	// Length prefixed, as feature JSON may exceed the limit of DataOutput#writeUTF
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[readLength(in, in.readInt())];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	// Each element takes at least one byte
+	private static int readCount(DataInputStream in) throws IOException {
+		return readLength(in, in.readInt());
+	}
+
+	private static int readLength(DataInputStream in, int length) throws IOException {
+		if (length < 0 || length > in.available()) {
+			throw new IOException(
+					String.format("Invalid length %d with %d byte(s) remaining", length, in.available()));
+		}
+		return length;
+	}
+}
@@ -13,6 +13,7 @@
  */
 package org.eclipse.osgi.technology.featurelauncher.impl.runtime;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
@@ -34,15 +35,24 @@ class InstalledFeatureImpl implements InstalledFeature {
 	private final boolean isInitialLaunch;
 	private final List<InstalledBundle> installedBundles;
 	private final List<InstalledConfiguration> installedConfigurations;
+	private final List<ResolutionFailure> resolutionFailures;
 
 	public InstalledFeatureImpl(Feature feature, Feature originalFeature, boolean isDecorated, boolean isInitialLaunch,
 			List<InstalledBundle> installedBundles, List<InstalledConfiguration> installedConfigurations) {
+		this(feature, originalFeature, isDecorated, isInitialLaunch, installedBundles, installedConfigurations,
+				Collections.emptyList());
+	}
+
+	public InstalledFeatureImpl(Feature feature, Feature originalFeature, boolean isDecorated, boolean isInitialLaunch,
+			List<InstalledBundle> installedBundles, List<InstalledConfiguration> installedConfigurations,
+			List<ResolutionFailure> resolutionFailures) {
 		this.feature = feature;
 		this.originalFeature = originalFeature;
 		this.isDecorated = isDecorated;
 		this.isInitialLaunch = isInitialLaunch;
 		this.installedBundles = installedBundles;
 		this.installedConfigurations = installedConfigurations;
+		this.resolutionFailures = List.copyOf(resolutionFailures);
 	}
 
 	/* 
@@ -99,6 +109,14 @@ class InstalledFeatureImpl implements InstalledFeature {
 		return installedConfigurations;
 	}
 
+	/**
+	 * @return the bundles of this feature which the framework could not resolve
+	 *         when the feature was installed, empty if all bundles resolved
+	 */
+	public List<ResolutionFailure> getResolutionFailures() {
+		return resolutionFailures;
+	}
+
 	/* 
 	 * (non-Javadoc)
 	 * @see java.lang.Object#hashCode()
@@ -136,6 +154,7 @@ class InstalledFeatureImpl implements InstalledFeature {
 	public String toString() {
 		return "InstalledFeatureImpl [feature=" + feature.getID() + ", originalFeature=" + originalFeature.getID()
 				+ ", isDecorated=" + isDecorated + ", isInitialLaunch=" + isInitialLaunch + ", installedBundles="
-				+ installedBundles + ", installedConfigurations=" + installedConfigurations + "]";
+				+ installedBundles + ", installedConfigurations=" + installedConfigurations + ", resolutionFailures="
+				+ resolutionFailures + "]";
 	}
 }
@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2025 Kentyou and others.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.impl.runtime;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.JarInputStream;
+import java.util.jar.Manifest;
+
+import org.osgi.framework.Version;
+
+/**
+ * Passes a bundle artifact through to the framework while retaining its
+ * leading bytes, so that the bundle symbolic name and version can be read from
+ * the manifest afterwards without opening the artifact a second time.
+ *
+ * Like {@link JarInputStream}, this relies on the manifest being one of the
+ * first entries of the jar.
+ */
+class ManifestCapturingInputStream extends FilterInputStream {
+
+	// Upper bound on the bytes retained, which comfortably holds the leading
+	// entries of a bundle
+	private static final int CAPTURE_LIMIT = 64 * 1024;
+
+	private final ByteArrayOutputStream captured = new ByteArrayOutputStream();
+
+	ManifestCapturingInputStream(InputStream in) {
+		super(in);
+	}
+
+	@Override
+	public int read() throws IOException {
+		int b = super.read();
+		if (b != -1 && captured.size() < CAPTURE_LIMIT) {
+			captured.write(b);
+		}
+		return b;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		int read = super.read(b, off, len);
+		if (read > 0 && captured.size() < CAPTURE_LIMIT) {
+			captured.write(b, off, Math.min(read, CAPTURE_LIMIT - captured.size()));
+		}
+		return read;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		// skipped bytes would not be captured, so read them instead
+		byte[] buffer = new byte[(int) Math.min(n, 8192)];
+		long skipped = 0;
+		while (skipped < n) {
+			int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+			if (read == -1) {
+				break;
+			}
+			skipped += read;
+		}
+		return skipped;
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	/**
+	 * @return the bundle symbolic name and version declared by the captured
+	 *         manifest, or null if they could not be determined
+	 */
+	Map.Entry<String, String> getSymbolicNameAndVersion() {
+		try (JarInputStream jis = new JarInputStream(new ByteArrayInputStream(captured.toByteArray()))) {
+			return getSymbolicNameAndVersion(jis.getManifest());
+		} catch (IOException e) {
+			// the manifest was not within the captured bytes
+		}
+
+		return null;
+	}
+
+	/**
+	 * @param artifactPath a bundle artifact which was not streamed
+	 * @return the bundle symbolic name and version declared by the artifact, or
+	 *         null if they could not be determined
+	 */
+	static Map.Entry<String, String> getSymbolicNameAndVersion(Path artifactPath) {
+		try (JarFile jarFile = new JarFile(artifactPath.toFile())) {
+			return getSymbolicNameAndVersion(jarFile.getManifest());
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private static Map.Entry<String, String> getSymbolicNameAndVersion(Manifest manifest) {
+		try {
+			if (manifest != null) {
+				Attributes attributes = manifest.getMainAttributes();
+				String symbolicName = attributes.getValue("Bundle-SymbolicName");
+				String version = attributes.getValue("Bundle-Version");
+
+				if (symbolicName != null) {
+					// strip any directives, e.g. singleton:=true, and normalize the version as
+					// the framework does, which treats a missing version as 0.0.0
+					int idx = symbolicName.indexOf(';');
+					return Map.entry((idx < 0 ? symbolicName : symbolicName.substring(0, idx)).trim(),
+							(version == null ? Version.emptyVersion : Version.parseVersion(version.trim()))
+									.toString());
+				}
+			}
+		} catch (IllegalArgumentException e) {
+			// not a valid bundle version
+		}
+
+		return null;
+	}
+}
@@ -0,0 +1,33 @@
+/**
+ * Copyright (c) 2025 Kentyou and others.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.impl.runtime;
+
+import org.osgi.service.feature.ID;
+
+/**
+ * A bundle installed for a feature which could not be resolved by the
+ * framework
+ *
+ * @param bundleId       the feature bundle ID
+ * @param symbolicName   the bundle symbolic name
+ * @param version        the bundle version
+ * @param frameworkId    the framework bundle id
+ */
+public record ResolutionFailure(ID bundleId, String symbolicName, String version, long frameworkId) {
+
+	@Override
+	public String toString() {
+		return String.format("%s (%s:%s, bundle %d)", bundleId, symbolicName, version, frameworkId);
+	}
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2025 Kentyou and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.impl.runtime;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.cm.Configuration;
+import org.osgi.service.cm.ConfigurationAdmin;
+import org.osgi.service.cm.ConfigurationEvent;
+import org.osgi.service.feature.FeatureConfiguration;
+
+/**
+ * Tests the PID index of {@link FeatureRuntimeConfigurationManager}
+ */
+public class FeatureRuntimeConfigurationManagerTest {
+
+	private static final String PID = "org.example.pid";
+
+	private final FeatureRuntimeConfigurationManager manager = new FeatureRuntimeConfigurationManager();
+
+	private final ConfigurationAdmin configurationAdmin = mock(ConfigurationAdmin.class);
+
+	private final Configuration configuration = mock(Configuration.class);
+
+	private final FeatureConfiguration featureConfiguration = mock(FeatureConfiguration.class);
+
+	// whether the configuration is stored in the mocked Configuration Admin
+	private boolean stored;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		when(featureConfiguration.getPid()).thenReturn(PID);
+		when(featureConfiguration.getFactoryPid()).thenReturn(Optional.empty());
+		when(featureConfiguration.getValues()).thenReturn(Map.of("key", "value"));
+
+		when(configuration.getPid()).thenReturn(PID);
+		when(configuration.updateIfDifferent(any())).thenAnswer(i -> stored = true);
+		doAnswer(i -> stored = false).when(configuration).delete();
+
+		when(configurationAdmin.getConfiguration(eq(PID), any())).thenReturn(configuration);
+		when(configurationAdmin.listConfigurations(anyString()))
+				.thenAnswer(i -> stored && i.<String> getArgument(0).contains(PID) ? new Configuration[] { configuration }
+						: null);
+
+		manager.configurationAdmin = configurationAdmin;
+		manager.activate();
+	}
+
+	@Test
+	public void testLateDeletedEventDoesNotDropRecreatedConfiguration() throws Exception {
+		manager.createConfiguration(featureConfiguration, Map.of());
+		manager.removeConfigurations(Set.of(PID));
+		assertFalse(manager.containsConfiguration(PID));
+
+		// reinstalled before the event for the removal is delivered
+		manager.createConfiguration(featureConfiguration, Map.of());
+		manager.configurationEvent(event(ConfigurationEvent.CM_DELETED));
+
+		assertTrue(manager.containsConfiguration(PID));
+
+		// so the next removal still deletes it
+		manager.removeConfigurations(Set.of(PID));
+		verify(configuration, times(2)).delete();
+		assertFalse(manager.containsConfiguration(PID));
+	}
+
+	@Test
+	public void testLateUpdatedEventDoesNotRestoreDeletedConfiguration() throws Exception {
+		manager.createConfiguration(featureConfiguration, Map.of());
+		manager.removeConfigurations(Set.of(PID));
+
+		manager.configurationEvent(event(ConfigurationEvent.CM_UPDATED));
+
+		assertFalse(manager.containsConfiguration(PID));
+	}
+
+	@Test
+	public void testExternalChangesAreIndexed() throws Exception {
+		stored = true;
+		manager.configurationEvent(event(ConfigurationEvent.CM_UPDATED));
+		assertTrue(manager.containsConfiguration(PID));
+
+		stored = false;
+		manager.configurationEvent(event(ConfigurationEvent.CM_DELETED));
+		assertFalse(manager.containsConfiguration(PID));
+	}
+
+	@SuppressWarnings("unchecked")
+	private ConfigurationEvent event(int type) {
+		return new ConfigurationEvent(mock(ServiceReference.class), type, null, PID);
+	}
+}
@@ -0,0 +1,194 @@
+/**
+ * Copyright (c) 2025 Kentyou and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.impl.runtime;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.osgi.technology.featurelauncher.impl.runtime.FeatureRuntimeStateStore.BundleState;
+import org.eclipse.osgi.technology.featurelauncher.impl.runtime.FeatureRuntimeStateStore.ConfigurationState;
+import org.eclipse.osgi.technology.featurelauncher.impl.runtime.FeatureRuntimeStateStore.FeatureState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests {@link FeatureRuntimeStateStore}
+ */
+public class FeatureRuntimeStateStoreTest {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	public void testRecordsAreReplayed() throws Exception {
+		Path stateFile = tempDir.resolve(FeatureRuntimeStateStore.STATE_FILE);
+		FeatureRuntimeStateStore store = new FeatureRuntimeStateStore(stateFile);
+
+		store.appendAdd(featureState("a"));
+		store.appendAdd(featureState("b"));
+		store.appendRemove("org.example:a:1.0");
+		store.appendAdd(featureState("c"));
+
+		List<FeatureState> loaded = new FeatureRuntimeStateStore(stateFile).load();
+		assertEquals(List.of(featureState("b"), featureState("c")), loaded);
+	}
+
+	@Test
+	public void testTruncatedRecordIsDropped() throws Exception {
+		Path stateFile = tempDir.resolve(FeatureRuntimeStateStore.STATE_FILE);
+		FeatureRuntimeStateStore store = new FeatureRuntimeStateStore(stateFile);
+
+		store.appendAdd(featureState("a"));
+		long goodLength = Files.size(stateFile);
+		store.appendAdd(featureState("b"));
+
+		// cut the second record short
+		byte[] data = Files.readAllBytes(stateFile);
+		Files.write(stateFile, Arrays.copyOf(data, data.length - 5));
+
+		FeatureRuntimeStateStore reloaded = new FeatureRuntimeStateStore(stateFile);
+		assertEquals(List.of(featureState("a")), reloaded.load());
+		assertEquals(goodLength, Files.size(stateFile));
+
+		// appends continue after the last good record
+		reloaded.appendAdd(featureState("c"));
+		assertEquals(List.of(featureState("a"), featureState("c")), new FeatureRuntimeStateStore(stateFile).load());
+	}
+
+	@Test
+	public void testZeroFilledTailIsDropped() throws Exception {
+		Path stateFile = tempDir.resolve(FeatureRuntimeStateStore.STATE_FILE);
+		FeatureRuntimeStateStore store = new FeatureRuntimeStateStore(stateFile);
+
+		store.appendAdd(featureState("a"));
+		store.appendAdd(featureState("b"));
+		long goodLength = Files.size(stateFile);
+
+		// e.g. blocks allocated but never written before a power loss
+		Files.write(stateFile, new byte[4096], APPEND);
+
+		assertEquals(List.of(featureState("a"), featureState("b")), new FeatureRuntimeStateStore(stateFile).load());
+		assertEquals(goodLength, Files.size(stateFile));
+	}
+
+	@Test
+	public void testOversizedLengthIsRejected() throws Exception {
+		Path stateFile = tempDir.resolve(FeatureRuntimeStateStore.STATE_FILE);
+		FeatureRuntimeStateStore store = new FeatureRuntimeStateStore(stateFile);
+
+		store.appendAdd(featureState("a"));
+		long goodLength = Files.size(stateFile);
+
+		// a remove record claiming a 2GB feature ID
+		ByteArrayOutputStream record = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(record)) {
+			out.writeByte(2);
+			out.writeInt(Integer.MAX_VALUE);
+			out.write(new byte[16]);
+		}
+		Files.write(stateFile, record.toByteArray(), APPEND);
+
+		assertEquals(List.of(featureState("a")), new FeatureRuntimeStateStore(stateFile).load());
+		assertEquals(goodLength, Files.size(stateFile));
+	}
+
+	@Test
+	public void testUnknownFormatIsIgnored() throws Exception {
+		Path stateFile = tempDir.resolve(FeatureRuntimeStateStore.STATE_FILE);
+		Files.write(stateFile, new byte[] { 1, 2, 3 });
+
+		assertTrue(new FeatureRuntimeStateStore(stateFile).load().isEmpty());
+	}
+
+	@Test
+	public void testCompactionKeepsOneRecordPerFeature() throws Exception {
+		Path stateFile = tempDir.resolve(FeatureRuntimeStateStore.STATE_FILE);
+		FeatureRuntimeStateStore store = new FeatureRuntimeStateStore(stateFile);
+
+		for (int i = 0; i < 100; i++) {
+			store.appendAdd(featureState("a"));
+		}
+		assertTrue(store.needsCompaction(1));
+
+		store.compact(List.of(featureState("a")));
+		assertFalse(store.needsCompaction(1));
+		assertFalse(Files.exists(tempDir.resolve(FeatureRuntimeStateStore.STATE_FILE + ".tmp")));
+
+		assertEquals(List.of(featureState("a")), new FeatureRuntimeStateStore(stateFile).load());
+	}
+
+	@Test
+	public void testVariablesAreReplayed() throws Exception {
+		Path stateFile = tempDir.resolve(FeatureRuntimeStateStore.STATE_FILE);
+		FeatureRuntimeStateStore store = new FeatureRuntimeStateStore(stateFile);
+
+		Map<String, Object> variables = Map.of("string", "value", "boolean", true, "integer", 1, "long", 2L,
+				"double", 3.5d, "decimal", new BigDecimal("4.25"));
+		FeatureState state = new FeatureState("org.example:a:1.0", "digest-a", "digest-original", variables,
+				List.of(), List.of());
+		store.appendAdd(state);
+
+		assertEquals(List.of(state), new FeatureRuntimeStateStore(stateFile).load());
+	}
+
+	@Test
+	public void testFeaturesAreStoredOncePerDigest() throws Exception {
+		Path stateFile = tempDir.resolve(FeatureRuntimeStateStore.STATE_FILE);
+		FeatureRuntimeStateStore store = new FeatureRuntimeStateStore(stateFile);
+
+		assertFalse(store.containsFeature("digest-a"));
+
+		store.storeFeature("digest-a", "{\"id\":\"org.example:a:1.0\"}");
+		store.storeFeature("digest-a", "ignored");
+
+		assertTrue(store.containsFeature("digest-a"));
+		assertEquals("{\"id\":\"org.example:a:1.0\"}", new FeatureRuntimeStateStore(stateFile).loadFeature("digest-a"));
+	}
+
+	@Test
+	public void testCompactionDeletesUnreferencedFeatures() throws Exception {
+		Path stateFile = tempDir.resolve(FeatureRuntimeStateStore.STATE_FILE);
+		FeatureRuntimeStateStore store = new FeatureRuntimeStateStore(stateFile);
+
+		store.storeFeature("digest-a", "{}");
+		store.storeFeature("digest-b", "{}");
+		store.appendAdd(featureState("a"));
+		store.appendAdd(featureState("b"));
+		store.appendRemove("org.example:b:1.0");
+
+		store.compact(List.of(featureState("a")));
+
+		assertTrue(store.containsFeature("digest-a"));
+		assertFalse(store.containsFeature("digest-b"));
+	}
+
+	private FeatureState featureState(String name) {
+		String featureId = "org.example:" + name + ":1.0";
+		return new FeatureState(featureId, "digest-" + name, null, Map.of("v", 1),
+				List.of(new BundleState("org.example:" + name + ".bundle:1.0", 42, "org.example:" + name + ".bundle:1.0",
+						false)),
+				List.of(new ConfigurationState(name + ".pid", true)));
+	}
+}
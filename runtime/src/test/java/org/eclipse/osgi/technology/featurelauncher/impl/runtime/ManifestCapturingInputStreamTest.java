@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2025 Kentyou and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Kentyou - initial implementation
+ */
+package org.eclipse.osgi.technology.featurelauncher.impl.runtime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link ManifestCapturingInputStream}
+ */
+public class ManifestCapturingInputStreamTest {
+
+	@Test
+	public void testSymbolicNameAndVersionAreReadAfterStreaming() throws Exception {
+		byte[] bundle = bundle("org.example.bundle;singleton:=true", "1.2");
+
+		ManifestCapturingInputStream is = new ManifestCapturingInputStream(new ByteArrayInputStream(bundle));
+		assertEquals(bundle.length, is.readAllBytes().length);
+
+		assertEquals(Map.entry("org.example.bundle", "1.2.0"), is.getSymbolicNameAndVersion());
+	}
+
+	@Test
+	public void testSkippedBytesAreCaptured() throws Exception {
+		byte[] bundle = bundle("org.example.bundle", "1.0.0");
+
+		try (InputStream is = new ManifestCapturingInputStream(new ByteArrayInputStream(bundle))) {
+			is.skip(bundle.length);
+
+			assertEquals(Map.entry("org.example.bundle", "1.0.0"),
+					((ManifestCapturingInputStream) is).getSymbolicNameAndVersion());
+		}
+	}
+
+	@Test
+	public void testNotABundle() throws Exception {
+		ManifestCapturingInputStream is = new ManifestCapturingInputStream(
+				new ByteArrayInputStream("not a jar".getBytes(StandardCharsets.UTF_8)));
+		is.readAllBytes();
+
+		assertNull(is.getSymbolicNameAndVersion());
+
+		ManifestCapturingInputStream badVersion = new ManifestCapturingInputStream(
+				new ByteArrayInputStream(bundle("org.example.bundle", "not.a.version")));
+		badVersion.readAllBytes();
+
+		assertNull(badVersion.getSymbolicNameAndVersion());
+
+		ManifestCapturingInputStream noName = new ManifestCapturingInputStream(
+				new ByteArrayInputStream(bundle(null, "1.0.0")));
+		noName.readAllBytes();
+
+		assertNull(noName.getSymbolicNameAndVersion());
+	}
+
+	@Test
+	public void testMissingVersionIsEmptyVersion() throws Exception {
+		ManifestCapturingInputStream is = new ManifestCapturingInputStream(
+				new ByteArrayInputStream(bundle("org.example.bundle", null)));
+		is.readAllBytes();
+
+		assertEquals(Map.entry("org.example.bundle", "0.0.0"), is.getSymbolicNameAndVersion());
+	}
+
+	private byte[] bundle(String symbolicName, String version) throws IOException {
+		Manifest manifest = new Manifest();
+		manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		if (symbolicName != null) {
+			manifest.getMainAttributes().putValue("Bundle-SymbolicName", symbolicName);
+		}
+		if (version != null) {
+			manifest.getMainAttributes().putValue("Bundle-Version", version);
+		}
+
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try (JarOutputStream jos = new JarOutputStream(baos, manifest)) {
+			jos.putNextEntry(new JarEntry("org/example/Example.class"));
+			jos.write(new byte[1024]);
+			jos.closeEntry();
+		}
+		return baos.toByteArray();
+	}
+}
@@ -20,7 +20,9 @@ import static org.eclipse.osgi.technology.featurelauncher.repository.spi.Reposit
 import static org.eclipse.osgi.technology.featurelauncher.repository.spi.RepositoryConstants.LOCAL_ARTIFACT_REPOSITORY_PATH;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.osgi.service.featurelauncher.repository.ArtifactRepositoryConstants.ARTIFACT_REPOSITORY_NAME;
 
@@ -36,18 +38,25 @@ import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Dictionary;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.osgi.technology.featurelauncher.impl.runtime.FeatureRuntimeConfigurationManager;
+import org.eclipse.osgi.technology.featurelauncher.impl.runtime.FeatureRuntimeImpl;
+import org.eclipse.osgi.technology.featurelauncher.impl.runtime.FeatureRuntimeJournal;
+import org.eclipse.osgi.technology.featurelauncher.impl.runtime.ResolutionFailure;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
 import org.osgi.service.cm.Configuration;
 import org.osgi.service.feature.Feature;
 import org.osgi.service.feature.FeatureService;
@@ -58,9 +67,11 @@ import org.osgi.service.featurelauncher.decorator.FeatureDecorator;
 import org.osgi.service.featurelauncher.repository.ArtifactRepository;
 import org.osgi.service.featurelauncher.runtime.FeatureRuntime;
 import org.osgi.service.featurelauncher.runtime.FeatureRuntimeConstants;
+import org.osgi.service.featurelauncher.runtime.FeatureRuntimeException;
 import org.osgi.service.featurelauncher.runtime.InstalledBundle;
 import org.osgi.service.featurelauncher.runtime.InstalledConfiguration;
 import org.osgi.service.featurelauncher.runtime.InstalledFeature;
+import org.osgi.test.common.annotation.InjectBundleContext;
 import org.osgi.test.common.annotation.InjectService;
 import org.osgi.test.common.annotation.config.InjectConfiguration;
 import org.osgi.test.common.annotation.config.WithConfiguration;
@@ -92,6 +103,8 @@ public class FeatureRuntimeIntegrationTest {
 	@TempDir
 	Path localCache;
 
+	Configuration runtimeConfiguration;
+
 	@BeforeEach
 	public void setUp(@InjectConfiguration(withConfig = @WithConfiguration(pid = "osgi.technology.featurelauncher.runtime")) Configuration config) throws Exception {
 		// Obtain path of dedicated local Maven repository
@@ -142,6 +155,7 @@ public class FeatureRuntimeIntegrationTest {
 		props.put("configured", true);
 		
 		config.updateIfDifferent(props);
+		runtimeConfiguration = config;
 	}
 	
 	@AfterEach
@@ -151,6 +165,20 @@ public class FeatureRuntimeIntegrationTest {
 	
 	@InjectService(cardinality = 0, filter = "(configured=true)") 
 	ServiceAware<FeatureRuntime> featureRuntimeServiceAware;
+
+	@InjectService(cardinality = 0, filter = "(&(configured=true)(bundle.resolution.required=true))") 
+	ServiceAware<FeatureRuntime> resolutionRequiredFeatureRuntimeServiceAware;
+
+	@InjectService(cardinality = 0, filter = "(&(configured=true)(bundle.start.required=true))") 
+	ServiceAware<FeatureRuntime> startRequiredFeatureRuntimeServiceAware;
+
+	@InjectService(cardinality = 0, filter = "(&(configured=true)(bundle.install.reference=true))") 
+	ServiceAware<FeatureRuntime> installByReferenceFeatureRuntimeServiceAware;
+
+	private Reader openFeature(String name) {
+		InputStream featureIs = getClass().getClassLoader().getResourceAsStream(name);
+		return new BufferedReader(new InputStreamReader(featureIs, Charset.forName("UTF-8").newDecoder()));
+	}
 	
 	@Test
 	public void testGetDefaultRepositories()
@@ -567,4 +595,356 @@ public class FeatureRuntimeIntegrationTest {
 			assertEquals(0, installedFeatures.size());
 		}
 	}
+
+	@Test
+	public void testInstallFeatureReportsResolutionFailures() throws Exception {
+		FeatureRuntime featureRuntimeService = featureRuntimeServiceAware.waitForService(5000);
+		assertNotNull(featureRuntimeService);
+
+		try (Reader featureReader = openFeature("/features/gogo-command-unresolvable-feature.json")) {
+
+			// @formatter:off
+			InstalledFeature installedFeature = featureRuntimeService.install(featureReader)
+					.useDefaultRepositories(true)
+					.install();
+			// @formatter:on
+			assertNotNull(installedFeature);
+
+			ID featureId = installedFeature.getFeature().getID();
+
+			List<ResolutionFailure> resolutionFailures = ((FeatureRuntimeImpl) featureRuntimeService)
+					.getResolutionFailures(featureId);
+			assertEquals(1, resolutionFailures.size());
+			assertEquals("org.apache.felix.gogo.command", resolutionFailures.get(0).symbolicName());
+			assertEquals(installedFeature.getInstalledBundles().get(0).getBundle().getBundleId(),
+					resolutionFailures.get(0).frameworkId());
+
+			// Remove feature
+			featureRuntimeService.remove(featureId);
+
+			assertTrue(((FeatureRuntimeImpl) featureRuntimeService).getResolutionFailures(featureId).isEmpty());
+		}
+	}
+
+	@Test
+	public void testInstallFeatureFailsWhenResolutionIsRequired(@InjectBundleContext BundleContext bundleContext)
+			throws Exception {
+		Dictionary<String, Object> props = runtimeConfiguration.getProperties();
+		props.put("bundle.resolution.required", true);
+		runtimeConfiguration.update(props);
+
+		FeatureRuntime featureRuntimeService = resolutionRequiredFeatureRuntimeServiceAware.waitForService(5000);
+		assertNotNull(featureRuntimeService);
+
+		try (Reader featureReader = openFeature("/features/gogo-command-unresolvable-feature.json")) {
+
+			assertThrows(FeatureRuntimeException.class,
+					() -> featureRuntimeService.install(featureReader).useDefaultRepositories(true).install());
+		}
+
+		// The installed bundle is rolled back
+		assertTrue(featureRuntimeService.getInstalledFeatures().isEmpty());
+		assertFalse(Arrays.stream(bundleContext.getBundles())
+				.anyMatch(b -> "org.apache.felix.gogo.command".equals(b.getSymbolicName())));
+	}
+
+	@Test
+	public void testConfigurationIndexFollowsInstallAndRemove(
+			@InjectService FeatureRuntimeConfigurationManager featureRuntimeConfigurationManagerService)
+			throws Exception {
+		FeatureRuntime featureRuntimeService = featureRuntimeServiceAware.waitForService(5000);
+		assertNotNull(featureRuntimeService);
+
+		String pid = "org.apache.felix.webconsole.internal.servlet.OsgiManager";
+		assertFalse(featureRuntimeConfigurationManagerService.containsConfiguration(pid));
+
+		try (Reader featureReader = openFeature("/features/console-webconsole-feature.integration-tests.json")) {
+
+			// @formatter:off
+			InstalledFeature installedFeature = featureRuntimeService.install(featureReader)
+					.useDefaultRepositories(true)
+					.install();
+			// @formatter:on
+
+			// Configurations are visible as soon as the install returns
+			assertTrue(featureRuntimeConfigurationManagerService.containsConfiguration(pid));
+			assertEquals(2, featureRuntimeConfigurationManagerService
+					.getConfigurations(constructConfigurationsFilter()).size());
+
+			featureRuntimeService.remove(installedFeature.getFeature().getID());
+
+			assertFalse(featureRuntimeConfigurationManagerService.containsConfiguration(pid));
+			assertTrue(featureRuntimeConfigurationManagerService.getConfigurations(constructConfigurationsFilter())
+					.isEmpty());
+		}
+	}
+
+	@Test
+	public void testInstallFeatureIsRolledBackWhenABundleFailsToStart(
+			@InjectBundleContext BundleContext bundleContext,
+			@InjectService FeatureRuntimeConfigurationManager featureRuntimeConfigurationManagerService,
+			@InjectService FeatureService featureService) throws Exception {
+		Dictionary<String, Object> props = runtimeConfiguration.getProperties();
+		props.put("bundle.start.required", true);
+		runtimeConfiguration.update(props);
+
+		FeatureRuntime featureRuntimeService = startRequiredFeatureRuntimeServiceAware.waitForService(5000);
+		assertNotNull(featureRuntimeService);
+
+		ID featureId = featureService
+				.getIDfromMavenCoordinates("org.eclipse.osgi.technology.featurelauncher:gogo-command-unresolvable-feature:1.0");
+
+		// The feature installs its bundle and creates a configuration, then fails to
+		// start the unresolved bundle
+		try (Reader featureReader = openFeature("/features/gogo-command-unresolvable-feature.with-config.json")) {
+
+			assertThrows(FeatureRuntimeException.class,
+					() -> featureRuntimeService.install(featureReader).useDefaultRepositories(true).install());
+		}
+
+		FeatureRuntimeJournal journal = ((FeatureRuntimeImpl) featureRuntimeService).getJournal(featureId)
+				.orElseThrow();
+		assertTrue(journal.isRolledBack());
+		assertTrue(journal.getPhaseTimings().containsKey(FeatureRuntimeJournal.PHASE_START));
+		assertTrue(journal.getEntries().stream()
+				.anyMatch(e -> e.type() == FeatureRuntimeJournal.EntryType.BUNDLE_INSTALLED));
+		assertTrue(journal.getEntries().stream()
+				.anyMatch(e -> e.type() == FeatureRuntimeJournal.EntryType.CONFIGURATION_CREATED));
+
+		// Every side effect has been undone
+		assertTrue(featureRuntimeService.getInstalledFeatures().isEmpty());
+		assertFalse(Arrays.stream(bundleContext.getBundles())
+				.anyMatch(b -> "org.apache.felix.gogo.command".equals(b.getSymbolicName())));
+		assertFalse(featureRuntimeConfigurationManagerService.containsConfiguration("gogo.command.rollback.test"));
+	}
+
+	@Test
+	public void testFailedUpdateReinstatesPreviousFeature(@InjectBundleContext BundleContext bundleContext,
+			@InjectService FeatureRuntimeConfigurationManager featureRuntimeConfigurationManagerService)
+			throws Exception {
+		Dictionary<String, Object> props = runtimeConfiguration.getProperties();
+		props.put("bundle.resolution.required", true);
+		runtimeConfiguration.update(props);
+
+		FeatureRuntime featureRuntimeService = resolutionRequiredFeatureRuntimeServiceAware.waitForService(5000);
+		assertNotNull(featureRuntimeService);
+
+		ID featureId;
+		try (Reader featureReader = openFeature("/features/gogo-console-feature.with-config.json")) {
+
+			// @formatter:off
+			InstalledFeature installedFeature = featureRuntimeService.install(featureReader)
+					.useDefaultRepositories(true)
+					.install();
+			// @formatter:on
+			featureId = installedFeature.getFeature().getID();
+		}
+
+		// The update removes the previous version, then fails to resolve without the
+		// Gogo runtime
+		try (Reader featureReader = openFeature("/features/gogo-console-feature.update-unresolvable.json")) {
+
+			assertThrows(FeatureRuntimeException.class,
+					() -> featureRuntimeService.update(featureId, featureReader).useDefaultRepositories(true).update());
+		}
+
+		FeatureRuntimeJournal journal = ((FeatureRuntimeImpl) featureRuntimeService).getJournal(featureId)
+				.orElseThrow();
+		assertTrue(journal.isRolledBack());
+		assertTrue(journal.getEntries().stream()
+				.anyMatch(e -> e.type() == FeatureRuntimeJournal.EntryType.FEATURE_REMOVED));
+
+		// The previous version is installed and active again
+		List<InstalledFeature> installedFeatures = featureRuntimeService.getInstalledFeatures();
+		assertEquals(1, installedFeatures.size());
+
+		InstalledFeature reinstatedFeature = installedFeatures.get(0);
+		assertEquals(featureId, reinstatedFeature.getFeature().getID());
+		assertEquals(3, reinstatedFeature.getFeature().getBundles().size());
+
+		List<InstalledBundle> reinstatedBundles = reinstatedFeature.getInstalledBundles();
+		assertEquals(3, reinstatedBundles.size());
+		for (InstalledBundle reinstatedBundle : reinstatedBundles) {
+			assertEquals(Bundle.ACTIVE, reinstatedBundle.getBundle().getState(),
+					reinstatedBundle.getBundle().getSymbolicName());
+			assertTrue(reinstatedBundle.getOwningFeatures().contains(featureId));
+		}
+		assertEquals(1, Arrays.stream(bundleContext.getBundles())
+				.filter(b -> "org.apache.felix.gogo.command".equals(b.getSymbolicName())).count());
+
+		// with its configuration as it was
+		assertTrue(featureRuntimeConfigurationManagerService.containsConfiguration("gogo.console.rollback.test"));
+		Configuration configuration = featureRuntimeConfigurationManagerService
+				.getConfigurations(Set.of("gogo.console.rollback.test")).iterator().next();
+		assertEquals("previous", configuration.getProperties().get("test.property"));
+
+		// and is removed as usual
+		featureRuntimeService.remove(featureId);
+		assertTrue(featureRuntimeService.getInstalledFeatures().isEmpty());
+		assertFalse(Arrays.stream(bundleContext.getBundles())
+				.anyMatch(b -> "org.apache.felix.gogo.runtime".equals(b.getSymbolicName())));
+		assertFalse(featureRuntimeConfigurationManagerService.containsConfiguration("gogo.console.rollback.test"));
+	}
+
+	@Test
+	public void testInstalledFeaturesAreRestoredAfterRestart() throws Exception {
+		FeatureRuntime featureRuntimeService = featureRuntimeServiceAware.waitForService(5000);
+		assertNotNull(featureRuntimeService);
+
+		ID featureId;
+		List<Long> frameworkIds;
+		try (Reader featureReader = openFeature("/features/gogo-console-feature.json")) {
+
+			// @formatter:off
+			InstalledFeature installedFeature = featureRuntimeService.install(featureReader)
+					.useDefaultRepositories(true)
+					.install();
+			// @formatter:on
+			featureId = installedFeature.getFeature().getID();
+			frameworkIds = installedFeature.getInstalledBundles().stream().map(ib -> ib.getBundle().getBundleId())
+					.toList();
+		}
+
+		// Restart the feature runtime, which restores its state from the data area
+		Bundle runtimeBundle = featureRuntimeServiceAware.getServiceReference().getBundle();
+		runtimeBundle.stop();
+		runtimeBundle.start();
+
+		featureRuntimeService = featureRuntimeServiceAware.waitForService(5000);
+		assertNotNull(featureRuntimeService);
+
+		List<InstalledFeature> installedFeatures = featureRuntimeService.getInstalledFeatures();
+		assertEquals(1, installedFeatures.size());
+
+		InstalledFeature restoredFeature = installedFeatures.get(0);
+		assertEquals(featureId, restoredFeature.getFeature().getID());
+		assertFalse(restoredFeature.isDecorated());
+
+		List<InstalledBundle> restoredBundles = restoredFeature.getInstalledBundles();
+		assertEquals(3, restoredBundles.size());
+		assertEquals(frameworkIds, restoredBundles.stream().map(ib -> ib.getBundle().getBundleId()).toList());
+		assertEquals("org.apache.felix.gogo.runtime", restoredBundles.get(2).getBundle().getSymbolicName());
+		assertTrue(restoredBundles.get(2).getOwningFeatures().contains(featureId));
+
+		// Removing the feature uninstalls the bundles installed before the restart
+		Bundle gogoRuntime = restoredBundles.get(2).getBundle();
+		featureRuntimeService.remove(featureId);
+
+		assertTrue(featureRuntimeService.getInstalledFeatures().isEmpty());
+		assertEquals(Bundle.UNINSTALLED, gogoRuntime.getState());
+	}
+
+	@Test
+	public void testBundleInstalledAfterActivationIsDetectedAsExternal(
+			@InjectBundleContext BundleContext bundleContext, @InjectService FeatureService featureService)
+			throws Exception {
+		FeatureRuntime featureRuntimeService = featureRuntimeServiceAware.waitForService(5000);
+		assertNotNull(featureRuntimeService);
+
+		ID externalFeatureId = featureService.getIDfromMavenCoordinates(FeatureRuntimeConstants.EXTERNAL_FEATURE_ID);
+
+		// Installed behind the runtime's back, after it was activated
+		Path gogoRuntimeJar = remoteRepositoryPath.resolve(
+				"org/apache/felix/org.apache.felix.gogo.runtime/1.1.6/org.apache.felix.gogo.runtime-1.1.6.jar");
+		Bundle externalBundle;
+		try (InputStream is = Files.newInputStream(gogoRuntimeJar)) {
+			externalBundle = bundleContext.installBundle("test:gogo.runtime", is);
+		}
+
+		try (Reader featureReader = openFeature("/features/gogo-console-feature.json")) {
+
+			// @formatter:off
+			InstalledFeature installedFeature = featureRuntimeService.install(featureReader)
+					.useDefaultRepositories(true)
+					.install();
+			// @formatter:on
+
+			InstalledBundle gogoRuntime = installedFeature.getInstalledBundles().get(2);
+			assertEquals("org.apache.felix:org.apache.felix.gogo.runtime:1.1.6", gogoRuntime.getBundleId().toString());
+			assertEquals(externalBundle, gogoRuntime.getBundle());
+			assertTrue(gogoRuntime.getOwningFeatures().contains(installedFeature.getFeature().getID()));
+			assertTrue(gogoRuntime.getOwningFeatures().contains(externalFeatureId));
+
+			featureRuntimeService.remove(installedFeature.getFeature().getID());
+
+			// The runtime does not uninstall bundles it did not install
+			assertNotEquals(Bundle.UNINSTALLED, externalBundle.getState());
+		} finally {
+			externalBundle.uninstall();
+		}
+	}
+
+	@Test
+	public void testInstallFeatureWithLazyAndDeferredActivation() throws Exception {
+		FeatureRuntime featureRuntimeService = featureRuntimeServiceAware.waitForService(5000);
+		assertNotNull(featureRuntimeService);
+
+		try (Reader featureReader = openFeature("/features/gogo-console-deferred-activation-feature.json")) {
+
+			// @formatter:off
+			InstalledFeature installedFeature = featureRuntimeService.install(featureReader)
+					.useDefaultRepositories(true)
+					.install();
+			// @formatter:on
+
+			// There is no boot window in a running framework, so the deferred bundle is
+			// started once the other bundles of the operation have been
+			List<InstalledBundle> installedBundles = installedFeature.getInstalledBundles();
+			assertEquals(3, installedBundles.size());
+			for (InstalledBundle installedBundle : installedBundles) {
+				assertEquals(Bundle.ACTIVE, installedBundle.getBundle().getState(),
+						installedBundle.getBundle().getSymbolicName());
+			}
+
+			featureRuntimeService.remove(installedFeature.getFeature().getID());
+			assertTrue(featureRuntimeService.getInstalledFeatures().isEmpty());
+		}
+	}
+
+	@Test
+	public void testInstallFeatureByReference() throws Exception {
+		Dictionary<String, Object> props = runtimeConfiguration.getProperties();
+		props.put("bundle.install.reference", true);
+		runtimeConfiguration.update(props);
+
+		FeatureRuntime featureRuntimeService = installByReferenceFeatureRuntimeServiceAware.waitForService(5000);
+		assertNotNull(featureRuntimeService);
+
+		ArtifactRepository localArtifactRepository = featureRuntimeService.createRepository(localRepositoryPath);
+		ArtifactRepository remoteRepository = featureRuntimeService.createRepository(remoteURI,
+				Map.of(ARTIFACT_REPOSITORY_NAME, DEFAULT_REMOTE_ARTIFACT_REPOSITORY_NAME, LOCAL_ARTIFACT_REPOSITORY_PATH,
+						localCache.toString()));
+
+		try (Reader featureReader = openFeature("/features/gogo-console-feature.json")) {
+
+			// @formatter:off
+			InstalledFeature installedFeature = featureRuntimeService.install(featureReader)
+					.useDefaultRepositories(false)
+					.addRepository(DEFAULT_LOCAL_ARTIFACT_REPOSITORY_NAME, localArtifactRepository)
+					.addRepository(DEFAULT_REMOTE_ARTIFACT_REPOSITORY_NAME, remoteRepository)
+					.install();
+			// @formatter:on
+
+			List<InstalledBundle> installedBundles = installedFeature.getInstalledBundles();
+			assertEquals(3, installedBundles.size());
+
+			// Found in the local repository, so used in place
+			Bundle gogoCommand = installedBundles.get(0).getBundle();
+			assertEquals("org.apache.felix.gogo.command", gogoCommand.getSymbolicName());
+			assertTrue(gogoCommand.getLocation().startsWith("reference:file:"), gogoCommand.getLocation());
+			assertTrue(gogoCommand.getLocation().endsWith("/org.apache.felix.gogo.command-1.1.2.jar"),
+					gogoCommand.getLocation());
+
+			// Downloaded into the local cache of the remote repository, and used in place
+			// from there
+			Bundle gogoRuntime = installedBundles.get(2).getBundle();
+			assertEquals("org.apache.felix.gogo.runtime", gogoRuntime.getSymbolicName());
+			assertTrue(gogoRuntime.getLocation().startsWith("reference:file:"), gogoRuntime.getLocation());
+			assertTrue(gogoRuntime.getLocation().endsWith("/org.apache.felix.gogo.runtime-1.1.6.jar"),
+					gogoRuntime.getLocation());
+
+			featureRuntimeService.remove(installedFeature.getFeature().getID());
+			assertTrue(featureRuntimeService.getInstalledFeatures().isEmpty());
+		}
+	}
 }